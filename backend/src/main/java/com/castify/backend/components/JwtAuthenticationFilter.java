@@ -1,8 +1,9 @@
 package com.castify.backend.components;
 
-import com.castify.backend.repository.TokenRepository;
+import com.castify.backend.service.authenticatation.ITokenRevocationService;
 import com.castify.backend.service.authenticatation.jwt.IJwtService;
 import com.castify.backend.service.authenticatation.jwt.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,7 +31,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
     @Autowired
-    private TokenRepository tokenRepository;
+    private ITokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(
@@ -50,13 +51,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // Parse một lần cho cả request; thu hồi kiểm tra theo jti trong bộ nhớ, không query bảng token
+        final Claims claims = jwtService.parseClaims(jwt);
+        userEmail = claims.getSubject();
+        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && tokenRevocationService.isActive(jwt, claims)) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            var isTokenValid = tokenRepository.findByToken(jwt)
-                    .map(t -> !t.isExpired() && !t.isRevoked())
-                    .orElse(false);
-            if (jwtService.isTokenValid(jwt, userDetails) && isTokenValid) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -0,0 +1,30 @@
+package com.castify.backend.components;
+
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.service.authenticatation.IUserDetailsCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mọi lần save UserEntity (follow, sửa profile, ban...) bỏ entry cache của user đó,
+ * để principal của request sau không mang bản cũ rồi bị save đè lên thay đổi mới.
+ */
+@Component
+public class UserCacheEvictionListener extends AbstractMongoEventListener<UserEntity> {
+    @Autowired
+    private IUserDetailsCacheService userDetailsCacheService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<UserEntity> event) {
+        userDetailsCacheService.evictUser(event.getSource().getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<UserEntity> event) {
+        // Không biết chắc document nào bị xóa theo query, bỏ cả cache
+        userDetailsCacheService.evictAll();
+    }
+}
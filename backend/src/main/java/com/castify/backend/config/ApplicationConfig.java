@@ -1,7 +1,7 @@
 package com.castify.backend.config;
 
 import com.castify.backend.auditing.ApplicationAuditAware;
-import com.castify.backend.repository.UserRepository;
+import com.castify.backend.service.authenticatation.IUserDetailsCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,27 +11,30 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UserRepository repository;
+    private final IUserDetailsCacheService userDetailsCacheService;
+    // BoundedBCryptPasswordEncoder: BCrypt chạy trên executor riêng
+    private final PasswordEncoder passwordEncoder;
 
+    // Filter JWT và STOMP CONNECT gọi ở mỗi request, đọc qua cache có TTL ngắn
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByEmailOrUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return userDetailsCacheService::loadUserByUsername;
     }
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        // Không dùng cache: ban hoặc reset mật khẩu ở node khác phải có hiệu lực ngay khi đăng nhập
+        authProvider.setUserDetailsService(userDetailsCacheService::loadUserForLogin);
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Hash có cost khác castify.password-hashing.strength được băm lại sau khi đăng nhập thành công
+        authProvider.setUserDetailsPasswordService(userDetailsCacheService::updatePassword);
         return authProvider;
     }
 
@@ -45,9 +48,4 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
 }
@@ -0,0 +1,114 @@
+package com.castify.backend.config;
+
+import com.castify.backend.entity.CommentEntity;
+import com.castify.backend.entity.CommentLikeEntity;
+import com.castify.backend.entity.PodcastEntity;
+import com.castify.backend.entity.PodcastLikeEntity;
+import com.castify.backend.repository.template.CommentTemplate;
+import com.castify.backend.repository.template.PodcastTemplate;
+import com.castify.backend.repository.template.ReactionTemplate;
+import com.castify.backend.repository.template.TokenTemplate;
+import com.castify.backend.service.authenticatation.jwt.IJwtService;
+import com.castify.backend.utils.MediaKeyUtils;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.logging.Logger;
+
+@Configuration
+public class MongoMigrationConfig {
+    private static final Logger logger = Logger.getLogger(MongoMigrationConfig.class.getName());
+
+    // Điền likeCount/replyCount cho comment và podcast cũ khi khởi động; tắt bằng castify.migration.counters=false
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(name = "castify.migration.counters", havingValue = "true", matchIfMissing = true)
+    public ApplicationRunner counterBackfill(CommentTemplate commentTemplate, PodcastTemplate podcastTemplate) {
+        return args -> {
+            // Cần update dạng pipeline (MongoDB 4.2+); lỗi ở đây không được chặn ứng dụng khởi động
+            try {
+                long comments = commentTemplate.backfillCounters();
+                long podcasts = podcastTemplate.backfillLikeCounts();
+                if (comments + podcasts > 0) {
+                    logger.info("Backfilled counters for " + comments + " comments and " + podcasts + " podcasts");
+                }
+            } catch (Exception e) {
+                logger.warning("Counter backfill failed: " + e.getMessage());
+            }
+        };
+    }
+
+    // Unique index cho like, chạy sau backfill vì việc dọn like trùng tính lại likeCount của đối tượng.
+    // Endpoint PUT reaction chỉ idempotent khi có index này: lỗi sau khi đã thử lại thì dừng khởi động
+    @Bean
+    @Order(2)
+    @ConditionalOnProperty(name = "castify.migration.reaction-indexes", havingValue = "true", matchIfMissing = true)
+    public ApplicationRunner reactionUniqueIndexes(ReactionTemplate reactionTemplate) {
+        return args -> {
+            long removed = reactionTemplate.ensureUniqueIndex(CommentLikeEntity.class, "commentEntity", CommentEntity.class, "user_comment")
+                    + reactionTemplate.ensureUniqueIndex(PodcastLikeEntity.class, "podcastEntity", PodcastEntity.class, "user_podcast");
+            if (removed > 0) {
+                logger.info("Removed " + removed + " duplicate likes before creating unique indexes");
+            }
+        };
+    }
+
+    // Token cũ lưu JWT nguyên văn và không có expiresAt nên TTL index không dọn được; chuyển sang tokenHash
+    @Bean
+    @Order(3)
+    @ConditionalOnProperty(name = "castify.migration.tokens", havingValue = "true", matchIfMissing = true)
+    public ApplicationRunner tokenStoreMigration(TokenTemplate tokenTemplate, IJwtService jwtService) {
+        return args -> {
+            try {
+                long migrated = tokenTemplate.migrateRawTokens(jwt -> {
+                    Date expiration;
+                    try {
+                        expiration = jwtService.parseClaims(jwt).getExpiration();
+                    } catch (ExpiredJwtException e) {
+                        // Vẫn ghi expiresAt để TTL index xóa ngay ở lượt quét tiếp theo
+                        expiration = e.getClaims().getExpiration();
+                    } catch (JwtException | IllegalArgumentException e) {
+                        return null;
+                    }
+                    return expiration != null ? LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()) : null;
+                });
+                if (migrated > 0) {
+                    logger.info("Migrated " + migrated + " stored tokens to hashed form");
+                }
+            } catch (Exception e) {
+                logger.warning("Token store migration failed: " + e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * videoUrl của podcast tạo trước IMediaStore là đường dẫn tuyệt đối trên disk;
+     * đổi thành key tương đối với podcast.video.base-path (root mặc định của LocalMediaStore).
+     * Chỉ đổi dữ liệu trong DB: chuyển sang store khác (s3) thì copy nguyên cây thư mục base-path vào bucket.
+     */
+    @Bean
+    @Order(4)
+    @ConditionalOnProperty(name = "castify.migration.media-keys", havingValue = "true", matchIfMissing = true)
+    public ApplicationRunner mediaKeyMigration(PodcastTemplate podcastTemplate,
+                                               @Value("${podcast.video.base-path}") String videoBasePath) {
+        return args -> {
+            try {
+                long podcasts = podcastTemplate.migrateVideoUrlsToKeys(videoUrl -> MediaKeyUtils.toKey(videoUrl, videoBasePath));
+                if (podcasts > 0) {
+                    logger.info("Migrated " + podcasts + " podcast video URLs to media store keys");
+                }
+            } catch (Exception e) {
+                logger.warning("Media key migration failed: " + e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.castify.backend.config;
+
+import com.castify.backend.monitoring.MongoCommandScopeFilter;
+import com.castify.backend.monitoring.MongoCommandTracker;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MongoMonitoringConfig {
+    // Gắn listener đếm lệnh vào MongoClient do Spring Boot tạo
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandTrackerCustomizer(MongoCommandTracker tracker) {
+        return builder -> builder.addCommandListener(tracker);
+    }
+
+    // Chạy trước security filter chain (order -100) để đếm cả lệnh của JwtAuthenticationFilter
+    @Bean
+    public FilterRegistrationBean<MongoCommandScopeFilter> mongoCommandScopeFilter(MongoCommandTracker tracker) {
+        FilterRegistrationBean<MongoCommandScopeFilter> registration = new FilterRegistrationBean<>(new MongoCommandScopeFilter(tracker));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
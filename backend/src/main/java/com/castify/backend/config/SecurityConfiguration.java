@@ -50,8 +50,10 @@ public class SecurityConfiguration {
             "/api/v1/podcast/by-genre",
             "/api/v1/podcast/suggested-by-genres/{id}",
             "/api/v1/podcast/view/**",
-            "/api/v1/podcast/video",
+            "/api/v1/podcast/video/**",
+            "/media/previews/**",
             "/api/v1/podcast/{id}/inc-views",
+            "/api/v1/podcast/{id}/likes",
             "/api/v1/podcast/anonymous/**",
             "/api/v1/comment/list/{id}",
             "/api/v1/comment/list/replies/{id}",
@@ -1,9 +1,11 @@
 package com.castify.backend.config;
 
 import com.castify.backend.controller.PaymentController;
+import com.castify.backend.service.authenticatation.ITokenRevocationService;
 import com.castify.backend.service.authenticatation.jwt.IJwtService;
 import com.castify.backend.service.authenticatation.jwt.JwtServiceImpl;
 import com.castify.backend.utils.SocketJwtAuthenticationToken;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -35,10 +37,13 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtServiceImpl jwtService; // Dùng JwtService của mày
     private final UserDetailsService userDetailsService;
+    private final ITokenRevocationService tokenRevocationService;
 
-        public WebSocketConfig(JwtServiceImpl jwtService, UserDetailsService userDetailsService) {
+        public WebSocketConfig(JwtServiceImpl jwtService, UserDetailsService userDetailsService,
+                               ITokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -67,11 +72,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                     if (authHeader != null && authHeader.startsWith("Bearer ")) {
                         String token = authHeader.substring(7);
                         try {
-                            // Trích xuất email từ JWT
-                            String userEmail = jwtService.extractUsername(token);
-                            if (userEmail != null) {
+                            // Trích xuất email từ JWT, cùng kiểm tra thu hồi như JwtAuthenticationFilter
+                            Claims claims = jwtService.parseClaims(token);
+                            String userEmail = claims.getSubject();
+                            if (userEmail != null && tokenRevocationService.isActive(token, claims)) {
                                 UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-                                if (jwtService.isTokenValid(token, userDetails)) {
+                                if (jwtService.isTokenValid(claims, userDetails)) {
                                     UsernamePasswordAuthenticationToken authentication =
                                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                                     SecurityContextHolder.getContext().setAuthentication(authentication);
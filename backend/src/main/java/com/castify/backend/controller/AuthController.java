@@ -1,5 +1,6 @@
 package com.castify.backend.controller;
 
+import com.castify.backend.exception.PasswordHashingBusyException;
 import com.castify.backend.models.authentication.*;
 import com.castify.backend.service.authenticatation.AuthenticationService;
 import com.castify.backend.service.authenticatation.IAuthenticationService;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,6 +29,8 @@ public class AuthController {
     ) {
         try {
             return ResponseEntity.ok(service.register(request));
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -38,6 +42,8 @@ public class AuthController {
     ) {
         try {
         return ResponseEntity.ok(service.authenticate(request));
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: " + e.getMessage());
         }
@@ -97,6 +103,13 @@ public class AuthController {
         }
     }
 
+    // Executor BCrypt quá tải: 503 để client thử lại thay vì coi là sai mật khẩu
+    private ResponseEntity<?> busy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Error: " + e.getMessage());
+    }
+
     @ExceptionHandler(MalformedJwtException.class)
     public ResponseEntity<String> handleMalformedJwtException(MalformedJwtException ex) {
         return new ResponseEntity<>("Invalid JWT token format", HttpStatus.BAD_REQUEST);
@@ -120,6 +133,8 @@ public class AuthController {
     ) {
         try {
             return ResponseEntity.ok(service.resetPassword(request, response,change.getNewPassword()));
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: " + e.getMessage());
         }
@@ -2,7 +2,7 @@ package com.castify.backend.controller;
 
 import com.castify.backend.entity.UserEntity;
 import com.castify.backend.enums.Role;
-import com.castify.backend.models.PageDTO;
+import com.castify.backend.models.CursorPageDTO;
 import com.castify.backend.models.comment.LikeCommentDTO;
 import com.castify.backend.models.comment.CommentRequestDTO;
 import com.castify.backend.models.comment.CommentModel;
@@ -37,12 +37,13 @@ public class CommentController {
     }
 
     @GetMapping("/list/{id}")
-    public ResponseEntity<PageDTO<CommentModel>> getComments(@PathVariable String id,
+    public ResponseEntity<CursorPageDTO<CommentModel>> getComments(@PathVariable String id,
                                                           @RequestParam(defaultValue = "0") int page,
                                                           @RequestParam(defaultValue = "10") int size,
-                                                          @RequestParam(defaultValue = "latest") String sortBy) {
+                                                          @RequestParam(defaultValue = "latest") String sortBy,
+                                                          @RequestParam(required = false) String cursor) {
         try {
-            PageDTO<CommentModel> commentModels = commentService.getPodcastComments(id, page, size, sortBy);
+            CursorPageDTO<CommentModel> commentModels = commentService.getPodcastComments(id, page, size, sortBy, cursor);
             return new ResponseEntity<>(commentModels, HttpStatus.OK);
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -64,10 +65,31 @@ public class CommentController {
         }
     }
 
+    // Idempotent: gọi lặp lại trả về cùng kết quả, không tạo like trùng
+    @PutMapping("/{id}/reaction")
+    public ResponseEntity<?> likeComment(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(commentService.likeComment(id));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}/reaction")
+    public ResponseEntity<?> unlikeComment(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(commentService.unlikeComment(id));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/list/replies/{id}")
-    public ResponseEntity<?> getReplies(@PathVariable String id) {
+    public ResponseEntity<?> getReplies(@PathVariable String id,
+                                        @RequestParam(defaultValue = "10") int size,
+                                        @RequestParam(required = false) String cursor) {
         try {
-            List<CommentModel> replies = commentService.getReplies(id);
+            CursorPageDTO<CommentModel> replies = commentService.getReplies(id, size, cursor);
             return new ResponseEntity<>(replies, HttpStatus.OK);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
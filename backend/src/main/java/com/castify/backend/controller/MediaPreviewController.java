@@ -0,0 +1,86 @@
+package com.castify.backend.controller;
+
+import com.castify.backend.models.storage.MediaStat;
+import com.castify.backend.service.podcast.IMediaPreviewService;
+import com.castify.backend.service.storage.IMediaStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+// Sprite/VTT/clip preview đọc từ IMediaStore; mỗi lần sinh nằm dưới version riêng, nội dung không bao giờ đổi nên cache immutable
+@RestController
+@RequestMapping(IMediaPreviewService.URL_PREFIX)
+public class MediaPreviewController {
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "sprite.jpg", MediaType.IMAGE_JPEG_VALUE,
+            "thumbnails.vtt", "text/vtt;charset=UTF-8",
+            "preview.mp4", "video/mp4");
+
+    private static final Logger logger = Logger.getLogger(MediaPreviewController.class.getName());
+
+    @Autowired
+    private IMediaStore mediaStore;
+
+    @GetMapping("/{hash}/{version}/{file}")
+    public ResponseEntity<Resource> getPreview(@PathVariable String hash,
+                                               @PathVariable String version,
+                                               @PathVariable String file,
+                                               HttpServletRequest request) {
+        try {
+            String contentType = CONTENT_TYPES.get(file);
+            // Chỉ 3 file do MediaPreviewServiceImpl sinh ra, không mở được key khác trong store
+            if (contentType == null || !hash.matches("[0-9a-zA-Z]{1,64}") || !version.matches("[0-9a-z]{1,16}")) {
+                return ResponseEntity.notFound().build();
+            }
+            String key = IMediaPreviewService.DIRECTORY + "/" + hash + "/" + version + "/" + file;
+            MediaStat stat = mediaStore.stat(key);
+            if (stat == null || stat.size() == 0) {
+                return ResponseEntity.notFound().build();
+            }
+
+            long length = stat.size();
+            long start = 0, end = length - 1;
+            String range = request.getHeader("Range");
+            if (range != null) {
+                // Trình duyệt đọc clip preview bằng Range giống video chính
+                String[] ranges = range.replace("bytes=", "").split("-");
+                if (!ranges[0].isEmpty()) start = Long.parseLong(ranges[0]);
+                if (ranges.length > 1 && !ranges[1].isEmpty()) end = Math.min(Long.parseLong(ranges[1]), length - 1);
+                if (start > end) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header("Content-Range", "bytes */" + length)
+                            .build();
+                }
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                    .header(HttpHeaders.CONTENT_TYPE, contentType)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentLength(end - start + 1);
+            if (range != null) {
+                response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            return response.body(new InputStreamResource(mediaStore.openRange(key, start, end)));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+        } catch (Exception e) {
+            logger.severe("Error serving preview media: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
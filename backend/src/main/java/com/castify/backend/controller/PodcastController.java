@@ -5,6 +5,9 @@ import com.castify.backend.enums.Role;
 import com.castify.backend.models.PageDTO;
 import com.castify.backend.models.podcast.CreatePodcastModel;
 import com.castify.backend.models.podcast.EditPodcastDTO;
+import com.castify.backend.models.podcast.KeyframeSeek;
+import com.castify.backend.models.podcast.StoredVideo;
+import com.castify.backend.models.storage.MediaStat;
 import com.castify.backend.models.podcast.LikePodcastDTO;
 import com.castify.backend.models.podcast.PodcastModel;
 import com.castify.backend.models.user.UserModel;
@@ -14,7 +17,14 @@ import com.castify.backend.service.uploadFile.IUploadFileService;
 import com.castify.backend.service.user.IUserService;
 import com.castify.backend.service.user.UserServiceImpl;
 import com.castify.backend.service.podcast.IPodcastService;
+import com.castify.backend.service.podcast.IKeyframeIndexService;
+import com.castify.backend.service.podcast.IMediaPreviewService;
+import com.castify.backend.service.podcast.IVideoBlobService;
+import com.castify.backend.service.podcast.IWaveformService;
+import com.castify.backend.service.podcast.IVideoChunkCacheService;
+import com.castify.backend.service.podcast.IVideoUrlService;
 import com.castify.backend.service.podcast.PodcastServiceImpl;
+import com.castify.backend.service.storage.IMediaStore;
 import com.castify.backend.utils.FileUtils;
 import io.jsonwebtoken.MalformedJwtException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,7 +32,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -31,10 +41,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 @RestController
@@ -49,9 +59,6 @@ public class PodcastController {
     @Value("${file.upload-dir}")
     private String baseUploadDir;
 
-    @Value("${podcast.video.base-path}")
-    private String videoBasePath;
-
     @Autowired
     private IFFmpegService ffmpegService;
 
@@ -61,6 +68,27 @@ public class PodcastController {
     @Autowired
     private IGenreService genreService;
 
+    @Autowired
+    private IVideoUrlService videoUrlService;
+
+    @Autowired
+    private IVideoChunkCacheService videoChunkCacheService;
+
+    @Autowired
+    private IKeyframeIndexService keyframeIndexService;
+
+    @Autowired
+    private IMediaPreviewService mediaPreviewService;
+
+    @Autowired
+    private IWaveformService waveformService;
+
+    @Autowired
+    private IVideoBlobService videoBlobService;
+
+    @Autowired
+    private IMediaStore mediaStore;
+
     private static final Logger logger = Logger.getLogger(PodcastController.class.getName());
 
     @PostMapping(value = "/create", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -75,42 +103,50 @@ public class PodcastController {
 
             UserModel userModel = userService.getUserByToken();
 
-            // Create user-specific directory
-            Path userPodcastDir = FileUtils.createUserDirectory(baseUploadDir, userModel.getId(), userModel.getEmail(), "podcast");
-
-            // Format fileName
-            String formattedVideoFileName = FileUtils.formatFileName(videoFile.getOriginalFilename());
+            // Lưu theo hash nội dung; file trùng dùng lại blob cùng duration, index, thumbnail và preview đã có
+            StoredVideo video = videoBlobService.store(videoFile);
 
-            // Save video temporarily
-            Path videoPath = userPodcastDir.resolve(formattedVideoFileName);
-            videoFile.transferTo(videoPath.toFile());
+            PodcastModel podcastModel;
+            try {
+                String thumbnailUrl = null;
 
-            // For ffmpeg
-            String thumbnailUrl = null;
+                if (thumbnail != null && !thumbnail.isEmpty()) {
+                    // Upload thumbnail lên Cloudinary
+                    thumbnailUrl = uploadFileService.uploadImage(thumbnail);
 
-            if (thumbnail != null && !thumbnail.isEmpty()) {
-                // Upload thumbnail lên Cloudinary
-                thumbnailUrl = uploadFileService.uploadImage(thumbnail);
+                } else if (video.thumbnailUrl() != null) {
+                    thumbnailUrl = video.thumbnailUrl();
 
-            } else if (thumbnail == null || thumbnail.isEmpty()) {
-                // Tạo đường dẫn lưu thumbnail tạm thời
-                Path userThumbnailDir = FileUtils.createUserDirectory(baseUploadDir, userModel.getId(), userModel.getEmail(), "thumbnail");
-                String tempThumbnailFileName = "thumb_" + formattedVideoFileName.replace(".mp4", ".jpeg");
-                Path tempThumbnailPath = userThumbnailDir.resolve(tempThumbnailFileName);
+                } else {
+                    // Tạo đường dẫn lưu thumbnail tạm thời
+                    Path userThumbnailDir = FileUtils.createUserDirectory(baseUploadDir, userModel.getId(), userModel.getEmail(), "thumbnail");
+                    String tempThumbnailFileName = "thumb_" + video.hash() + ".jpeg";
+                    Path tempThumbnailPath = userThumbnailDir.resolve(tempThumbnailFileName);
 
-                // Sử dụng FFmpeg để capture frame đầu tiên
-                ffmpegService.captureFrameFromVideo(videoPath.toString(), tempThumbnailPath.toString());
+                    // Sử dụng FFmpeg để capture frame đầu tiên
+                    ffmpegService.captureFrameFromVideo(mediaStore.ffmpegInput(video.key()), tempThumbnailPath.toString());
 
-                // Upload frame đã capture lên Cloudinary
-                thumbnailUrl = uploadFileService.uploadImageBytes(FileUtils.encodeFileToBase64(tempThumbnailPath.toFile()));
-            }
+                    // Upload frame đã capture lên Cloudinary
+                    thumbnailUrl = uploadFileService.uploadImageBytes(FileUtils.encodeFileToBase64(tempThumbnailPath.toFile()));
+                    videoBlobService.rememberThumbnail(video.hash(), thumbnailUrl);
+                }
 
-            long duration = ffmpegService.getVideoDuration(videoPath.toString());
+                CreatePodcastModel createPodcastModel = new CreatePodcastModel(title, content, video.key(), thumbnailUrl, genreIds, video.duration(),
+                        video.hash(), video.thumbnailsVttUrl(), video.previewUrl());
 
-            CreatePodcastModel createPodcastModel = new CreatePodcastModel(title, content, videoPath.toString(), thumbnailUrl, genreIds, duration);
+                // Call service and pass video file path
+                podcastModel = podcastService.createPodcast(createPodcastModel, userModel.getId());
+            } catch (Exception e) {
+                // Podcast không được tạo thì trả lại tham chiếu vừa lấy trên blob
+                videoBlobService.release(video.hash());
+                throw e;
+            }
 
-            // Call service and pass video file path
-            PodcastModel podcastModel = podcastService.createPodcast(createPodcastModel, userModel.getId());
+            // Waveform, sprite thumbnail + clip preview sinh nền một lần cho mỗi blob, podcast có thumbnailsVttUrl/previewUrl khi xong.
+            // Blob dùng lại mà vẫn chưa có preview (hàng đợi đầy, ffmpeg lỗi, node chết giữa chừng) thì thử sinh lại
+            if (!video.reused() || video.previewUrl() == null) {
+                mediaPreviewService.schedule(video.hash(), video.key(), video.duration());
+            }
 
             return ResponseEntity.ok(podcastModel);
         } catch (Exception e) {
@@ -170,23 +206,30 @@ public class PodcastController {
         }
     }
 
-    @GetMapping("/video")
-    public ResponseEntity<Resource> getVideo(@RequestParam String path, HttpServletRequest request, @RequestHeader(value = "Referer", required = false) String referer) {
+    // URL lấy từ PodcastModel.videoUrl (IVideoUrlService), chữ ký kiểm tra trong bộ nhớ nên không cần đăng nhập hay Referer
+    @GetMapping("/video/{id}/{rendition}")
+    public ResponseEntity<Resource> getVideo(@PathVariable String id,
+                                             @PathVariable String rendition,
+                                             @RequestParam String path,
+                                             @RequestParam("exp") long expires,
+                                             @RequestParam("sig") String signature,
+                                             HttpServletRequest request) {
         try {
-            // Kiểm tra nguồn gốc yêu cầu
-            if (referer == null || (!referer.startsWith("http://localhost:5000") && !referer.startsWith("https://castifyapp.vercel.app/"))) {
-                logger.warning("Invalid referer: " + referer);
+            String key = videoUrlService.resolve(id, rendition, path, expires, signature);
+            if (key == null) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
+            // URL đã ký giống nhau trong cả bucket hết hạn, proxy/CDN được cache tới lúc URL hết hạn
+            CacheControl cacheControl = CacheControl
+                    .maxAge(Math.max(0, expires - Instant.now().getEpochSecond()), TimeUnit.SECONDS)
+                    .cachePublic();
 
-            Path filePath = Paths.get(videoBasePath).resolve(path).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists() || !resource.isReadable()) {
+            MediaStat stat = mediaStore.stat(key);
+            if (stat == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            long fileLength = resource.getFile().length();
+            long fileLength = stat.size();
             String range = request.getHeader("Range");
 
             if (range != null) {
@@ -204,11 +247,11 @@ public class PodcastController {
 
                 long contentLength = end - start + 1;
 
-                // Trả về luồng dữ liệu
-                InputStream inputStream = Files.newInputStream(filePath);
-                inputStream.skip(start);
+                // Trả về luồng dữ liệu, chunk của video nóng đọc từ cache thay vì store
+                InputStream inputStream = videoChunkCacheService.openRange(key, stat, start, end);
 
                 return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .cacheControl(cacheControl)
                         .header(HttpHeaders.CONTENT_TYPE, "video/mp4")
                         .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileLength)
                         .header(HttpHeaders.ACCEPT_RANGES, "bytes")
@@ -217,10 +260,11 @@ public class PodcastController {
             } else {
                 // Trả về toàn bộ file nếu không có header "Range"
                 return ResponseEntity.ok()
+                        .cacheControl(cacheControl)
                         .header(HttpHeaders.CONTENT_TYPE, "video/mp4")
                         .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                         .contentLength(fileLength)
-                        .body(resource);
+                        .body(new InputStreamResource(mediaStore.openRange(key, 0, fileLength - 1)));
             }
         } catch (Exception e) {
             logger.severe("Error serving video: " + e.getMessage());
@@ -228,6 +272,64 @@ public class PodcastController {
         }
     }
 
+    // Cùng chữ ký với URL video; t là giây ("2112.5") hoặc "35:12" / "1:02:03"
+    @GetMapping("/video/{id}/{rendition}/seek")
+    public ResponseEntity<?> seekVideo(@PathVariable String id,
+                                       @PathVariable String rendition,
+                                       @RequestParam String path,
+                                       @RequestParam("exp") long expires,
+                                       @RequestParam("sig") String signature,
+                                       @RequestParam("t") String time) {
+        try {
+            String key = videoUrlService.resolve(id, rendition, path, expires, signature);
+            if (key == null) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            KeyframeSeek seek = keyframeIndexService.seek(key, parseSeekTime(time));
+            if (seek == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl
+                            .maxAge(Math.max(0, expires - Instant.now().getEpochSecond()), TimeUnit.SECONDS)
+                            .cachePublic())
+                    .body(seek);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: Invalid time " + time);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
+    // Peak min/max nhiều mức zoom (định dạng .wfm, xem WaveformServiceImpl), cùng chữ ký với URL video
+    @GetMapping("/video/{id}/{rendition}/waveform")
+    public ResponseEntity<?> getWaveform(@PathVariable String id,
+                                         @PathVariable String rendition,
+                                         @RequestParam String path,
+                                         @RequestParam("exp") long expires,
+                                         @RequestParam("sig") String signature) {
+        try {
+            String key = videoUrlService.resolve(id, rendition, path, expires, signature);
+            if (key == null) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            byte[] waveform = waveformService.readWaveform(key);
+            if (waveform == null) {
+                return ResponseEntity.notFound().build();
+            }
+            // Blob gắn với đúng file video trong URL đã ký nên không đổi trong suốt thời hạn URL
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .cacheControl(CacheControl
+                            .maxAge(Math.max(0, expires - Instant.now().getEpochSecond()), TimeUnit.SECONDS)
+                            .cachePublic()
+                            .immutable())
+                    .body(waveform);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getPodcastByAuthUser(@PathVariable String id) {
         try {
@@ -267,6 +369,48 @@ public class PodcastController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
         }
     }
+
+    // Idempotent: gọi lặp lại trả về cùng kết quả, không tạo like trùng
+    @PutMapping("/{id}/reaction")
+    public ResponseEntity<?> likePodcast(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(podcastService.likePodcast(id));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}/reaction")
+    public ResponseEntity<?> unlikePodcast(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(podcastService.unlikePodcast(id));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
+    // Ai đã thích podcast, mới nhất trước; trang tiếp theo gửi lại nextCursor
+    @GetMapping("/{id}/likes")
+    public ResponseEntity<?> getPodcastLikers(@PathVariable String id,
+                                              @RequestParam(defaultValue = "20") int size,
+                                              @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(podcastService.getPodcastLikers(id, size, cursor));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
+    // Kệ "podcast đã thích" của user đang đăng nhập
+    @GetMapping("/liked")
+    public ResponseEntity<?> getLikedPodcasts(@RequestParam(defaultValue = "20") int size,
+                                              @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(podcastService.getLikedPodcasts(size, cursor));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
     @ExceptionHandler(MalformedJwtException.class)
     public ResponseEntity<String> handleMalformedJwtException(MalformedJwtException ex) {
         return new ResponseEntity<>("Invalid JWT token format", HttpStatus.BAD_REQUEST);
@@ -410,4 +554,15 @@ public class PodcastController {
             throw new RuntimeException("File size exceeds limit of 1GB");
         }
     }
+
+    private long parseSeekTime(String time) {
+        double seconds = 0;
+        for (String part : time.trim().split(":")) {
+            seconds = seconds * 60 + Double.parseDouble(part);
+        }
+        if (seconds < 0 || Double.isNaN(seconds) || Double.isInfinite(seconds)) {
+            throw new NumberFormatException(time);
+        }
+        return Math.round(seconds * 1000);
+    }
 }
@@ -4,6 +4,8 @@ import org.springframework.data.annotation.Id; // Sửa dòng này
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -11,6 +13,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection="comment")
+// Trang comment cấp 0 của một podcast: mới nhất/cũ nhất và phổ biến, _id để phân trang bằng cursor ổn định
+@CompoundIndexes({
+        @CompoundIndex(name = "podcast_parent_timestamp", def = "{'podcast.$id': 1, 'parentId': 1, 'timestamp': -1, '_id': -1}"),
+        @CompoundIndex(name = "podcast_parent_likeCount", def = "{'podcast.$id': 1, 'parentId': 1, 'likeCount': -1, '_id': -1}"),
+        // Thread reply đọc theo thứ tự thời gian
+        @CompoundIndex(name = "parent_timestamp", def = "{'parentId': 1, 'timestamp': 1, '_id': 1}")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
@@ -33,16 +42,21 @@ public class CommentEntity {
     @DBRef(lazy = true)
     private List<CommentEntity> replies;
 
+    // Số like / reply lưu sẵn, chỉ cập nhật bằng $inc trong CommentTemplate để không phải resolve list DBRef
+    private long likeCount;
+
+    private long replyCount;
+
     private LocalDateTime timestamp;
 
     @DBRef(lazy = true)
     private PodcastEntity podcast;
 
     public long getTotalLikes(){
-        return likes != null ? likes.size() : 0;
+        return likeCount;
     }
 
     public long getTotalReplies(){
-        return replies != null ? replies.size() : 0;
+        return replyCount;
     }
 }
@@ -9,6 +9,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+// Unique index (userEntity.$id, commentEntity.$id) được tạo trong MongoMigrationConfig sau khi dọn like trùng
 @Document(collection = "commentLike")
 @AllArgsConstructor
 @NoArgsConstructor
@@ -4,6 +4,7 @@ import org.springframework.data.annotation.Id; // Sửa dòng này
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -21,6 +22,12 @@ public class PodcastEntity {
     private String content;
     private String thumbnailUrl;
     private String videoUrl;
+    // SHA-256 của file video (VideoBlobEntity); podcast upload trước khi có blob để null
+    @Indexed(sparse = true)
+    private String videoHash;
+    // Sprite thumbnail (WebVTT) và clip preview khi hover, sinh nền sau khi upload; null khi chưa có
+    private String thumbnailsVttUrl;
+    private String previewUrl;
     private long views;
     private long duration;
 
@@ -32,6 +39,9 @@ public class PodcastEntity {
     @DBRef(lazy = true)
     private List<PodcastLikeEntity> likes;
 
+    // Số like lưu sẵn, cập nhật bằng $inc trong PodcastTemplate cùng lệnh với list likes
+    private long likeCount;
+
     private LocalDateTime createdDay;
 
     private LocalDateTime lastEdited;
@@ -42,7 +52,7 @@ public class PodcastEntity {
     private UserEntity user;
 
     public long getTotalLikes() {
-        return likes != null ? likes.size() : 0;
+        return likeCount;
     }
 
     public long getTotalComments() {
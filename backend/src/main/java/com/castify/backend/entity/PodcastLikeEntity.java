@@ -4,12 +4,20 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+// Unique index (userEntity.$id, podcastEntity.$id) được tạo trong MongoMigrationConfig sau khi dọn like trùng.
+// Hai index theo timestamp phục vụ danh sách "ai đã thích" và kệ "podcast đã thích" (PodcastTemplate#findLikes)
 @Document(collection = "podcastLike")
+@CompoundIndexes({
+        @CompoundIndex(name = "podcast_timestamp", def = "{'podcastEntity.$id': 1, 'timestamp': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_timestamp", def = "{'userEntity.$id': 1, 'timestamp': -1, '_id': -1}")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
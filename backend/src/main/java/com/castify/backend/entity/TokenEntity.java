@@ -6,8 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDateTime;
+
 @Document(collection = "token")
 @Data
 @Builder
@@ -18,16 +21,30 @@ public class TokenEntity {
     @Id
     private String id; // Change Integer to String for MongoDB
 
-    private String token;
+    // SHA-256 của JWT (TokenHashUtils), không lưu bản thân token
+    @Indexed(unique = true, sparse = true)
+    private String tokenHash;
 
     private TokenType tokenType = TokenType.BEARER;
 
+    @Indexed
     private String userId;
 
     private boolean revoked;
 
     private boolean expired;
 
+    // Claim jti của JWT. Token cấp trước khi có jti để null, JwtAuthenticationFilter vẫn kiểm tra chúng bằng findByTokenHash
+    private String jti;
+
+    // TTL index: Mongo tự xóa document khi JWT hết hạn (lúc đó chữ ký cũng đã bị từ chối)
+    @Indexed(expireAfter = "0s")
+    private LocalDateTime expiresAt;
+
+    // Các node khác poll theo trường này để cập nhật tập jti bị thu hồi (TokenRevocationServiceImpl)
+    @Indexed(sparse = true)
+    private LocalDateTime revokedAt;
+
 //    @DBRef
 //    private UserCollection userCollection;
 }
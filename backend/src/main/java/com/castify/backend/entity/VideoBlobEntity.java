@@ -0,0 +1,40 @@
+package com.castify.backend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// File video lưu theo nội dung: một blob cho mọi podcast upload cùng một file, xoá khi refCount về 0
+@Document(collection = "videoBlob")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VideoBlobEntity {
+    // SHA-256 (hex) của nội dung file
+    @Id
+    private String hash;
+
+    // Key trong IMediaStore, giống PodcastEntity.videoUrl của các podcast dùng blob
+    private String key;
+
+    private long size;
+
+    // Kết quả ffprobe / ffmpeg lần đầu, dùng lại khi upload trùng
+    private long duration;
+    private String thumbnailUrl;
+    private String thumbnailsVttUrl;
+    private String previewUrl;
+
+    private long refCount;
+
+    private LocalDateTime createdDay;
+
+    // Thời điểm một node nhận việc xoá blob (refCount về 0); khác null thì acquire không dùng lại blob này
+    private LocalDateTime deletingAt;
+}
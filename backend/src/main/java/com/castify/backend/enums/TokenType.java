@@ -3,5 +3,6 @@ package com.castify.backend.enums;
 public enum TokenType {
     BEARER,
     VALID,
-    RESET_PASS
+    RESET_PASS,
+    REFRESH
 }
@@ -0,0 +1,8 @@
+package com.castify.backend.exception;
+
+// Executor băm mật khẩu đầy hàng đợi hoặc chờ quá lâu, controller trả 503 để client thử lại sau
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.castify.backend.mapper;
+
+import com.castify.backend.entity.CommentEntity;
+import com.castify.backend.models.comment.CommentModel;
+
+public final class CommentMapper {
+    private CommentMapper() {
+    }
+
+    public static CommentModel toModel(CommentEntity comment) {
+        if (comment == null) {
+            return null;
+        }
+        CommentModel model = new CommentModel();
+        model.setId(comment.getId());
+        model.setParentId(comment.getParentId());
+        model.setContent(comment.getContent());
+        model.setMentionedUser(comment.getMentionedUser());
+        model.setTotalLikes(comment.getTotalLikes());
+        model.setTotalReplies(comment.getTotalReplies());
+        model.setTimestamp(comment.getTimestamp());
+        model.setUser(UserMapper.toSimple(comment.getUser()));
+        return model;
+    }
+}
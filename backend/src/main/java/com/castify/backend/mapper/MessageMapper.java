@@ -0,0 +1,17 @@
+package com.castify.backend.mapper;
+
+import com.castify.backend.entity.MessageEntity;
+import com.castify.backend.models.conversation.MessageResponse;
+
+public final class MessageMapper {
+    private MessageMapper() {
+    }
+
+    public static MessageResponse toResponse(MessageEntity message) {
+        if (message == null) {
+            return null;
+        }
+        return new MessageResponse(message.getId(), UserMapper.toShort(message.getSender()),
+                message.getContent(), message.getTimestamp(), message.getChatId());
+    }
+}
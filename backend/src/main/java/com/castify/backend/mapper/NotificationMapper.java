@@ -0,0 +1,18 @@
+package com.castify.backend.mapper;
+
+import com.castify.backend.entity.NotificationEntity;
+import com.castify.backend.models.notification.NotifiModel;
+
+public final class NotificationMapper {
+    private NotificationMapper() {
+    }
+
+    public static NotifiModel toModel(NotificationEntity notification) {
+        if (notification == null) {
+            return null;
+        }
+        return new NotifiModel(notification.getId(), notification.getTitle(), notification.getContent(),
+                notification.getCreatedAt(), notification.getTargetUrl(), notification.getType(),
+                UserMapper.toShort(notification.getSender()), notification.getReceiverId(), notification.isRead());
+    }
+}
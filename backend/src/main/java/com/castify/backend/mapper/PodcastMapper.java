@@ -0,0 +1,47 @@
+package com.castify.backend.mapper;
+
+import com.castify.backend.entity.PodcastEntity;
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.models.genre.GenreSimple;
+import com.castify.backend.models.podcast.PodcastModel;
+import com.castify.backend.utils.DBRefUtils;
+
+/**
+ * Thay cho modelMapper.map(podcast, PodcastModel.class) trên các đường nóng.
+ * totalLikes / totalComments được đếm trên DBRef gốc nên không resolve các list lazy.
+ */
+public final class PodcastMapper {
+    private PodcastMapper() {
+    }
+
+    public static PodcastModel toModel(PodcastEntity podcast) {
+        if (podcast == null) {
+            return null;
+        }
+        PodcastModel model = new PodcastModel();
+        model.setId(podcast.getId());
+        model.setTitle(podcast.getTitle());
+        model.setContent(podcast.getContent());
+        model.setThumbnailUrl(podcast.getThumbnailUrl());
+        model.setVideoUrl(podcast.getVideoUrl());
+        model.setThumbnailsVttUrl(podcast.getThumbnailsVttUrl());
+        model.setPreviewUrl(podcast.getPreviewUrl());
+        model.setGenres(podcast.getGenres() == null ? null : podcast.getGenres().stream()
+                .map(genre -> new GenreSimple(genre.getId(), genre.getName()))
+                .toList());
+        model.setViews(podcast.getViews());
+        model.setDuration(podcast.getDuration());
+        model.setTotalLikes(podcast.getTotalLikes());
+        model.setTotalComments(DBRefUtils.countRefs(podcast.getComments()));
+        model.setCreatedDay(podcast.getCreatedDay());
+        model.setLastEdited(podcast.getLastEdited());
+        model.setActive(podcast.isActive());
+
+        UserEntity user = podcast.getUser();
+        if (user != null) {
+            model.setUsername(user.getUsername());
+            model.setUser(UserMapper.toSimple(user));
+        }
+        return model;
+    }
+}
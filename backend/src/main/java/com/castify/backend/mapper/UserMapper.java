@@ -0,0 +1,34 @@
+package com.castify.backend.mapper;
+
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.models.user.ShortUser;
+import com.castify.backend.models.user.UserSimple;
+
+/**
+ * Ánh xạ UserEntity sang các model rút gọn, chỉ đọc các field model cần.
+ * totalFollower / totalPost / isFollow phụ thuộc người xem nên do service tự gán.
+ */
+public final class UserMapper {
+    private UserMapper() {
+    }
+
+    public static UserSimple toSimple(UserEntity user) {
+        if (user == null) {
+            return null;
+        }
+        UserSimple userSimple = new UserSimple();
+        userSimple.setId(user.getId());
+        userSimple.setFullname(user.getFullname());
+        userSimple.setUsername(user.getUsername());
+        userSimple.setAvatarUrl(user.getAvatarUrl());
+        userSimple.setTotalFollowing(user.getFollowing() != null ? user.getFollowing().size() : 0);
+        return userSimple;
+    }
+
+    public static ShortUser toShort(UserEntity user) {
+        if (user == null) {
+            return null;
+        }
+        return new ShortUser(user.getId(), user.getFullname(), user.getUsername(), user.getAvatarUrl());
+    }
+}
@@ -0,0 +1,23 @@
+package com.castify.backend.models;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * PageDTO kèm cursor của trang tiếp theo (null khi đã hết). Client gửi lại cursor thay cho page
+ * để server đọc tiếp theo index thay vì skip.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class CursorPageDTO<T> extends PageDTO<T> {
+    private String nextCursor;
+
+    public CursorPageDTO(List<T> content, int size, int currentPage, int totalPages, long totalElements, String nextCursor) {
+        super(content, size, currentPage, totalPages, totalElements);
+        this.nextCursor = nextCursor;
+    }
+}
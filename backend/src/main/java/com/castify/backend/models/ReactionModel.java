@@ -0,0 +1,16 @@
+package com.castify.backend.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kết quả PUT/DELETE reaction: trạng thái sau thao tác và tổng số like mới của đối tượng.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReactionModel {
+    private boolean liked;
+    private long totalLikes;
+}
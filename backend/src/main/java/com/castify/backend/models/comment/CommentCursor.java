@@ -0,0 +1,48 @@
+package com.castify.backend.models.comment;
+
+import com.castify.backend.entity.CommentEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Vị trí của comment cuối cùng trong trang trước: giá trị sắp xếp (timestamp hoặc likeCount) và id.
+ * Mã hóa base64url để client coi như chuỗi mờ.
+ */
+public record CommentCursor(CommentSort sort, LocalDateTime timestamp, long likeCount, String id) {
+
+    public static CommentCursor of(CommentSort sort, CommentEntity comment) {
+        return new CommentCursor(sort, comment.getTimestamp(), comment.getLikeCount(), comment.getId());
+    }
+
+    public String encode() {
+        String value = sort == CommentSort.POPULAR ? String.valueOf(likeCount) : timestamp.toString();
+        String raw = sort.name() + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CommentCursor decode(String cursor, CommentSort sort) {
+        String[] parts = new String(decodeBase64(cursor), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length != 3 || !parts[0].equals(sort.name())) {
+            throw new RuntimeException("Comment cursor does not match sort " + sort);
+        }
+        try {
+            if (sort == CommentSort.POPULAR) {
+                return new CommentCursor(sort, null, Long.parseLong(parts[1]), parts[2]);
+            }
+            return new CommentCursor(sort, LocalDateTime.parse(parts[1]), 0, parts[2]);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid comment cursor", e);
+        }
+    }
+
+    private static byte[] decodeBase64(String cursor) {
+        try {
+            return Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid comment cursor", e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.castify.backend.models.comment;
+
+/**
+ * likeCount của một comment ngay sau khi like/bỏ like, kèm podcast chứa comment.
+ */
+public record CommentLikeCount(String commentId, String podcastId, long likeCount) {
+}
@@ -0,0 +1,16 @@
+package com.castify.backend.models.comment;
+
+public enum CommentSort {
+    LATEST,
+    OLDEST,
+    POPULAR;
+
+    // Giá trị sortBy của API: latest (mặc định), oldest, popular
+    public static CommentSort from(String sortBy) {
+        return switch (sortBy == null ? "" : sortBy) {
+            case "popular" -> POPULAR;
+            case "oldest" -> OLDEST;
+            default -> LATEST;
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.castify.backend.models.comment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Một frame gửi lên /topic/podcast/{id}/comments, gom mọi thay đổi của podcast trong một khoảng flush.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CommentStreamFrame {
+    private String podcastId;
+    // Comment và reply mới, theo thứ tự tạo
+    private List<CommentModel> comments;
+    // commentId -> likeCount mới nhất (giá trị tuyệt đối, frame sau ghi đè frame trước)
+    private Map<String, Long> likeCounts;
+    // Số comment mới bị bỏ bớt khi vượt giới hạn mỗi frame, client có thể tải lại danh sách
+    private int omittedComments;
+}
@@ -17,4 +17,7 @@ public class CreatePodcastModel {
     private String thumbnailPath;
     private List<String> genresId;
     private long duration;
+    private String videoHash;
+    private String thumbnailsVttUrl;
+    private String previewUrl;
 }
@@ -0,0 +1,5 @@
+package com.castify.backend.models.podcast;
+
+// Keyframe của luồng video: thời điểm (ms) và vị trí byte của packet trong file
+public record Keyframe(long timeMs, long offset) {
+}
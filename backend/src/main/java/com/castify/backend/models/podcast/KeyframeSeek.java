@@ -0,0 +1,8 @@
+package com.castify.backend.models.podcast;
+
+/**
+ * Kết quả seek: keyframe gần nhất trước thời điểm yêu cầu và khoảng byte [start, end]
+ * tới keyframe kế tiếp (hoặc cuối file), client gửi thẳng một Range thay vì dò nhiều lần.
+ */
+public record KeyframeSeek(long timeMs, long start, long end) {
+}
@@ -0,0 +1,33 @@
+package com.castify.backend.models.podcast;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Vị trí của like cuối cùng trong trang trước (timestamp, id), mới nhất trước. Mã hóa base64url như CommentCursor.
+ */
+public record LikeCursor(LocalDateTime timestamp, String id) {
+
+    public static LikeCursor of(PodcastLikeRef like) {
+        return new LikeCursor(like.timestamp(), like.id());
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LikeCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new RuntimeException("Invalid like cursor");
+            }
+            return new LikeCursor(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid like cursor", e);
+        }
+    }
+}
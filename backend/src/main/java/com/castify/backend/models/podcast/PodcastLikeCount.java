@@ -0,0 +1,7 @@
+package com.castify.backend.models.podcast;
+
+/**
+ * likeCount của podcast ngay sau khi like/bỏ like, kèm chủ podcast và tiêu đề để gửi thông báo.
+ */
+public record PodcastLikeCount(String podcastId, long likeCount, String ownerId, String title) {
+}
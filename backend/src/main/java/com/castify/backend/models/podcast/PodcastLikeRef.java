@@ -0,0 +1,9 @@
+package com.castify.backend.models.podcast;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng podcastLike chỉ gồm id của hai DBRef, để service resolve user / podcast theo lô thay vì từng like.
+ */
+public record PodcastLikeRef(String id, LocalDateTime timestamp, String userId, String podcastId) {
+}
@@ -0,0 +1,18 @@
+package com.castify.backend.models.podcast;
+
+import com.castify.backend.models.user.ShortUser;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PodcastLikerModel {
+    private ShortUser user;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime likedAt;
+}
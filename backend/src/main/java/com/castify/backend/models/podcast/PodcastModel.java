@@ -19,6 +19,8 @@ public class PodcastModel {
     private String content;
     private String thumbnailUrl;
     private String videoUrl;
+    private String thumbnailsVttUrl;
+    private String previewUrl;
     private List<GenreSimple> genres;
     private long views;
     private long duration;
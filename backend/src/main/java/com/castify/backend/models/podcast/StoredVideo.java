@@ -0,0 +1,6 @@
+package com.castify.backend.models.podcast;
+
+// Blob video sau khi upload, key trong IMediaStore; reused = file trùng nội dung đã có, không probe/transcode lại
+public record StoredVideo(String hash, String key, long duration, String thumbnailUrl,
+                          String thumbnailsVttUrl, String previewUrl, boolean reused) {
+}
@@ -0,0 +1,5 @@
+package com.castify.backend.models.storage;
+
+// Kích thước (byte) và thời điểm sửa (epoch ms) của một object trong IMediaStore
+public record MediaStat(long size, long lastModified) {
+}
@@ -0,0 +1,17 @@
+package com.castify.backend.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Số lệnh Mongo tối đa mà một endpoint được phép gửi trong một request.
+ * Vượt ngân sách chỉ ghi log cảnh báo, không chặn request.
+ * Không khai báo thì dùng castify.mongo.command-budget.default.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MongoCommandBudget {
+    int value();
+}
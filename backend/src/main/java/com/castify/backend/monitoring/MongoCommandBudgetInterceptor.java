@@ -0,0 +1,93 @@
+package com.castify.backend.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gắn handler + ngân sách vào MongoCommandStats của request, sau khi xử lý xong thì ghi log,
+ * đẩy số liệu lên Micrometer (tag handler) và cảnh báo nếu vượt {@link MongoCommandBudget}.
+ */
+@Component
+public class MongoCommandBudgetInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(MongoCommandBudgetInterceptor.class);
+    private static final String OPENED_HERE = MongoCommandBudgetInterceptor.class.getName() + ".opened";
+
+    @Autowired
+    private MongoCommandTracker tracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${castify.mongo.command-budget.default:25}")
+    private int defaultBudget;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Không đi qua MongoCommandScopeFilter (ví dụ MockMvc không add filter) thì tự mở phạm vi
+        if (tracker.begin()) {
+            request.setAttribute(OPENED_HERE, Boolean.TRUE);
+        }
+        MongoCommandStats stats = tracker.current();
+        if (handler instanceof HandlerMethod handlerMethod) {
+            stats.setHandler(handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName());
+            stats.setBudget(budgetOf(handlerMethod));
+        } else {
+            stats.setBudget(defaultBudget);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MongoCommandStats stats = request.getAttribute(OPENED_HERE) != null ? tracker.end() : tracker.current();
+        if (stats == null) {
+            return;
+        }
+
+        DistributionSummary.builder("castify.mongo.request.commands")
+                .description("Số lệnh Mongo mỗi request")
+                .tag("handler", stats.getHandler())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getCommands());
+        DistributionSummary.builder("castify.mongo.request.documents")
+                .description("Số document Mongo trả về mỗi request")
+                .tag("handler", stats.getHandler())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getDocuments());
+        Timer.builder("castify.mongo.request.time")
+                .description("Tổng thời gian chờ Mongo mỗi request")
+                .tag("handler", stats.getHandler())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.isOverBudget()) {
+            logger.warn("Vượt ngân sách lệnh Mongo ({}): {} {}", stats.getBudget(), request.getRequestURI(), stats);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} {}", request.getRequestURI(), stats);
+        }
+    }
+
+    private int budgetOf(HandlerMethod handlerMethod) {
+        MongoCommandBudget budget = handlerMethod.getMethodAnnotation(MongoCommandBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), MongoCommandBudget.class);
+        }
+        return budget != null ? budget.value() : defaultBudget;
+    }
+}
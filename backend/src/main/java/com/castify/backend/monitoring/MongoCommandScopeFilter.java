@@ -0,0 +1,34 @@
+package com.castify.backend.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Mở phạm vi đếm trước security filter chain để các lệnh Mongo của JwtAuthenticationFilter
+ * (load user, kiểm tra token) cũng được tính vào request. Đăng ký trong MongoMonitoringConfig.
+ */
+public class MongoCommandScopeFilter extends OncePerRequestFilter {
+    private final MongoCommandTracker tracker;
+
+    public MongoCommandScopeFilter(MongoCommandTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean opened = tracker.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (opened) {
+                tracker.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.castify.backend.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Số lệnh Mongo, số document trả về và thời gian chờ Mongo của một HTTP request.
+ * Chỉ được ghi bởi thread đang xử lý request (driver sync gọi listener trên chính thread đó).
+ */
+@Getter
+public class MongoCommandStats {
+    private int commands;
+    private int failures;
+    private long documents;
+    private long elapsedNanos;
+
+    // Tên handler (Controller#method) và ngân sách, do MongoCommandBudgetInterceptor gán
+    @Setter
+    private String handler = "unmapped";
+    @Setter
+    private int budget;
+
+    void recordSuccess(long nanos, long returned) {
+        commands++;
+        documents += returned;
+        elapsedNanos += nanos;
+    }
+
+    void recordFailure(long nanos) {
+        commands++;
+        failures++;
+        elapsedNanos += nanos;
+    }
+
+    public double elapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && commands > budget;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d lệnh mongo (%d lỗi), %d document, %.1f ms", handler, commands, failures, documents, elapsedMillis());
+    }
+}
@@ -0,0 +1,73 @@
+package com.castify.backend.monitoring;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommandListener đếm lệnh Mongo cho request đang được xử lý trên thread hiện tại.
+ * Lệnh chạy ngoài một request (scheduler, monitor thread của driver...) bị bỏ qua.
+ */
+@Component
+public class MongoCommandTracker implements CommandListener {
+    private static final ThreadLocal<MongoCommandStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Mở phạm vi đếm cho thread hiện tại. Trả về false nếu phạm vi đã được mở ở tầng ngoài.
+     */
+    public boolean begin() {
+        if (CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(new MongoCommandStats());
+        return true;
+    }
+
+    public MongoCommandStats current() {
+        return CURRENT.get();
+    }
+
+    public MongoCommandStats end() {
+        MongoCommandStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        MongoCommandStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.recordSuccess(event.getElapsedTime(TimeUnit.NANOSECONDS), documentsReturned(event.getResponse()));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        MongoCommandStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.recordFailure(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    // find/aggregate/getMore trả về cursor.firstBatch|nextBatch, count/delete/update trả về n
+    private static long documentsReturned(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonDocument cursorDocument = cursor.asDocument();
+            BsonValue batch = cursorDocument.containsKey("firstBatch") ? cursorDocument.get("firstBatch") : cursorDocument.get("nextBatch");
+            return batch instanceof BsonArray array ? array.size() : 0;
+        }
+        BsonValue value = response.get("value");
+        if (value != null) {
+            return value.isNull() ? 0 : 1;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.castify.backend.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Thêm header Server-Timing (mongo;dur=..;desc="N cmd") ngay trước khi body được ghi,
+ * vì đến postHandle thì response của @RestController đã commit.
+ */
+@ControllerAdvice
+public class MongoServerTimingAdvice implements ResponseBodyAdvice<Object> {
+    @Autowired
+    private MongoCommandTracker tracker;
+
+    @Value("${castify.mongo.server-timing.enabled:false}")
+    private boolean enabled;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        MongoCommandStats stats = tracker.current();
+        if (stats != null) {
+            response.getHeaders().add("Server-Timing", String.format(Locale.ROOT,
+                    "mongo;dur=%.1f;desc=\"%d cmd, %d docs\"", stats.elapsedMillis(), stats.getCommands(), stats.getDocuments()));
+        }
+        return body;
+    }
+}
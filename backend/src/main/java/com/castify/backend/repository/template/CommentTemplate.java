@@ -0,0 +1,162 @@
+package com.castify.backend.repository.template;
+
+import com.castify.backend.entity.CommentEntity;
+import com.castify.backend.models.comment.CommentCursor;
+import com.castify.backend.models.comment.CommentLikeCount;
+import com.castify.backend.models.comment.CommentSort;
+import com.mongodb.DBRef;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class CommentTemplate {
+    private static final String COMMENT_COLLECTION = "comment";
+    private static final String COMMENT_LIKE_COLLECTION = "commentLike";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Comment cấp 0 của podcast, khớp tiền tố (podcast.$id, parentId) của hai index trên CommentEntity
+    private static Criteria topLevel(String podcastId) {
+        return Criteria.where("podcast.$id").is(new ObjectId(podcastId)).and("parentId").is(null);
+    }
+
+    public long countTopLevelComments(String podcastId) {
+        return mongoTemplate.count(Query.query(topLevel(podcastId)), CommentEntity.class);
+    }
+
+    /**
+     * Đọc một trang comment cấp 0 theo index. Có cursor thì đọc tiếp sau comment cuối trang trước,
+     * không có thì dùng skip (tương thích client cũ gửi page).
+     */
+    public List<CommentEntity> findTopLevelComments(String podcastId, CommentSort sort, CommentCursor after, int skip, int limit) {
+        Criteria criteria = topLevel(podcastId);
+        Sort.Direction direction = sort == CommentSort.OLDEST ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String sortField = sort == CommentSort.POPULAR ? "likeCount" : "timestamp";
+
+        if (after != null) {
+            Object value = sort == CommentSort.POPULAR ? after.likeCount() : after.timestamp();
+            criteria = new Criteria().andOperator(criteria, Keyset.beyond(sortField, direction, value, after.id()));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(direction, sortField, "_id"))
+                .limit(limit);
+        if (after == null && skip > 0) {
+            query.skip(skip);
+        }
+        return mongoTemplate.find(query, CommentEntity.class);
+    }
+
+    /**
+     * Một trang reply của comment, cũ nhất trước. after là reply cuối của trang trước (cursor OLDEST).
+     */
+    public List<CommentEntity> findReplies(String parentId, CommentCursor after, int limit) {
+        Criteria criteria = Criteria.where("parentId").is(parentId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, Keyset.beyond("timestamp", Sort.Direction.ASC, after.timestamp(), after.id()));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, CommentEntity.class);
+    }
+
+    /**
+     * replyCount của comment cha, chỉ đọc một field. Null khi comment không tồn tại.
+     */
+    public Long findReplyCount(String commentId) {
+        Query query = Query.query(Criteria.where("_id").is(commentId));
+        query.fields().include("replyCount");
+        Document comment = mongoTemplate.findOne(query, Document.class, COMMENT_COLLECTION);
+        if (comment == null) {
+            return null;
+        }
+        Number replyCount = comment.get("replyCount", Number.class);
+        return replyCount != null ? replyCount.longValue() : 0L;
+    }
+
+    /**
+     * Thêm like vào comment: push DBRef và tăng likeCount trong cùng một lệnh.
+     * Điều kiện $ne giữ cho like đã có không bị đếm hai lần. Trả về likeCount mới, null khi không có gì thay đổi.
+     */
+    public CommentLikeCount addLike(String commentId, String likeId) {
+        DBRef like = new DBRef(COMMENT_LIKE_COLLECTION, new ObjectId(likeId));
+        return updateLikeCount(Query.query(Criteria.where("_id").is(commentId).and("likes").ne(like)),
+                new Update().push("likes", like).inc("likeCount", 1));
+    }
+
+    public CommentLikeCount removeLike(String commentId, String likeId) {
+        DBRef like = new DBRef(COMMENT_LIKE_COLLECTION, new ObjectId(likeId));
+        return updateLikeCount(Query.query(Criteria.where("_id").is(commentId).and("likes").is(like)),
+                new Update().pull("likes", like).inc("likeCount", -1));
+    }
+
+    // Đọc likeCount hiện tại khi reaction không đổi (like lại, bỏ like khi chưa like)
+    public CommentLikeCount findLikeCount(String commentId) {
+        Query query = Query.query(Criteria.where("_id").is(commentId));
+        query.fields().include("likeCount").include("podcast");
+        return toLikeCount(mongoTemplate.findOne(query, Document.class, COMMENT_COLLECTION));
+    }
+
+    // findAndModify trả luôn bộ đếm sau khi cập nhật (và podcast để phát lên kênh live), không cần đọc lại
+    private CommentLikeCount updateLikeCount(Query query, Update update) {
+        query.fields().include("likeCount").include("podcast");
+        Document comment = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                Document.class, COMMENT_COLLECTION);
+        return toLikeCount(comment);
+    }
+
+    private static CommentLikeCount toLikeCount(Document comment) {
+        if (comment == null) {
+            return null;
+        }
+        String podcastId = comment.get("podcast") instanceof DBRef podcast ? podcast.getId().toString() : null;
+        Number likeCount = comment.get("likeCount", Number.class);
+        return new CommentLikeCount(comment.getObjectId("_id").toHexString(), podcastId, likeCount != null ? likeCount.longValue() : 0L);
+    }
+
+    public boolean addReply(String parentId, String replyId) {
+        DBRef reply = new DBRef(COMMENT_COLLECTION, new ObjectId(replyId));
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(parentId).and("replies").ne(reply)),
+                new Update().push("replies", reply).inc("replyCount", 1),
+                CommentEntity.class);
+        return result.getModifiedCount() > 0;
+    }
+
+    public boolean removeReply(String parentId, String replyId) {
+        DBRef reply = new DBRef(COMMENT_COLLECTION, new ObjectId(replyId));
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(parentId).and("replies").is(reply)),
+                new Update().pull("replies", reply).inc("replyCount", -1),
+                CommentEntity.class);
+        return result.getModifiedCount() > 0;
+    }
+
+    /**
+     * Điền likeCount/replyCount cho comment tạo trước khi có bộ đếm, tính từ độ dài hai list DBRef.
+     * Chạy lại nhiều lần không sao: chỉ đụng tới document chưa có likeCount.
+     */
+    public long backfillCounters() {
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("likeCount").toValue(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("likes").then(List.of())))
+                .set("replyCount").toValue(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("replies").then(List.of())));
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("likeCount").exists(false)), update, CommentEntity.class)
+                .getModifiedCount();
+    }
+}
@@ -0,0 +1,20 @@
+package com.castify.backend.repository.template;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+// Điều kiện keyset dùng chung cho các trang theo cursor của template
+final class Keyset {
+    private Keyset() {
+    }
+
+    // (sortField, _id) đi sau (value, id) theo chiều sắp xếp
+    static Criteria beyond(String sortField, Sort.Direction direction, Object value, String id) {
+        ObjectId objectId = new ObjectId(id);
+        boolean ascending = direction == Sort.Direction.ASC;
+        Criteria beyondValue = ascending ? Criteria.where(sortField).gt(value) : Criteria.where(sortField).lt(value);
+        Criteria beyondId = ascending ? Criteria.where("_id").gt(objectId) : Criteria.where("_id").lt(objectId);
+        return new Criteria().orOperator(beyondValue, new Criteria().andOperator(Criteria.where(sortField).is(value), beyondId));
+    }
+}
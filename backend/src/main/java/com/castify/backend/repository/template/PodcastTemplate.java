@@ -0,0 +1,222 @@
+package com.castify.backend.repository.template;
+
+import com.castify.backend.entity.GenreEntity;
+import com.castify.backend.entity.PodcastEntity;
+import com.castify.backend.models.podcast.LikeCursor;
+import com.castify.backend.models.podcast.PodcastLikeCount;
+import com.castify.backend.models.podcast.PodcastLikeRef;
+import com.castify.backend.utils.MediaKeyUtils;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+@Repository
+public class PodcastTemplate {
+    private static final String PODCAST_COLLECTION = "podcast";
+    private static final String PODCAST_LIKE_COLLECTION = "podcastLike";
+    private static final String COMMENT_COLLECTION = "comment";
+    private static final int MIGRATION_BATCH = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Push DBRef like và tăng likeCount trong một lệnh, trả về likeCount mới. Null khi podcast không tồn tại.
+     */
+    public PodcastLikeCount addLike(String podcastId, String likeId) {
+        DBRef like = new DBRef(PODCAST_LIKE_COLLECTION, new ObjectId(likeId));
+        return updateLikeCount(Query.query(Criteria.where("_id").is(podcastId).and("likes").ne(like)),
+                new Update().push("likes", like).inc("likeCount", 1));
+    }
+
+    public PodcastLikeCount removeLike(String podcastId, String likeId) {
+        DBRef like = new DBRef(PODCAST_LIKE_COLLECTION, new ObjectId(likeId));
+        return updateLikeCount(Query.query(Criteria.where("_id").is(podcastId).and("likes").is(like)),
+                new Update().pull("likes", like).inc("likeCount", -1));
+    }
+
+    // Đọc likeCount hiện tại khi reaction không đổi (like lại, bỏ like khi chưa like)
+    public PodcastLikeCount findLikeCount(String podcastId) {
+        Query query = Query.query(Criteria.where("_id").is(podcastId));
+        includeLikeFields(query);
+        return toLikeCount(mongoTemplate.findOne(query, Document.class, PODCAST_COLLECTION));
+    }
+
+    /**
+     * Một trang like của podcast, mới nhất trước, theo index (podcastEntity.$id, timestamp).
+     * after là like cuối của trang trước.
+     */
+    public List<PodcastLikeRef> findLikesByPodcast(String podcastId, LikeCursor after, int limit) {
+        return findLikes("podcastEntity", podcastId, after, limit);
+    }
+
+    // Kệ "podcast đã thích" của user, theo index (userEntity.$id, timestamp)
+    public List<PodcastLikeRef> findLikesByUser(String userId, LikeCursor after, int limit) {
+        return findLikes("userEntity", userId, after, limit);
+    }
+
+    public long countLikesByUser(String userId) {
+        return mongoTemplate.count(Query.query(Criteria.where("userEntity.$id").is(new ObjectId(userId))), PODCAST_LIKE_COLLECTION);
+    }
+
+    /*
+     * Các lệnh sửa podcast dưới đây chỉ đụng field được sửa: save cả document sẽ ghi lại bản đọc trước đó,
+     * làm mất like/likeCount ($inc/$push song song) và sprite/preview gán nền bằng setPreviewMedia.
+     */
+
+    // Thêm ref comment vào podcast; false khi podcast không tồn tại
+    public boolean addComment(String podcastId, String commentId) {
+        DBRef comment = new DBRef(COMMENT_COLLECTION, new ObjectId(commentId));
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(podcastId)),
+                new Update().push("comments", comment), PodcastEntity.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * $set các field thông tin được sửa (null = giữ nguyên) cùng lastEdited, trả về podcast sau khi sửa.
+     * Null khi podcast không tồn tại.
+     */
+    public PodcastEntity updateDetails(String podcastId, String title, String content, String thumbnailUrl,
+                                       List<GenreEntity> genres, LocalDateTime lastEdited) {
+        Update update = new Update().set("lastEdited", lastEdited);
+        if (title != null) {
+            update.set("title", title);
+        }
+        if (content != null) {
+            update.set("content", content);
+        }
+        if (thumbnailUrl != null) {
+            update.set("thumbnailUrl", thumbnailUrl);
+        }
+        if (genres != null) {
+            update.set("genres", genres);
+        }
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(podcastId)), update,
+                FindAndModifyOptions.options().returnNew(true), PodcastEntity.class);
+    }
+
+    // Ẩn/hiện các podcast, chỉ $set isActive; trả về số podcast đã đổi
+    public long setActive(List<String> podcastIds, boolean active) {
+        if (podcastIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(podcastIds)),
+                new Update().set("isActive", active), PodcastEntity.class).getModifiedCount();
+    }
+
+    // Gán sprite/preview sinh nền cho mọi podcast dùng blob, không ghi đè các field khác có thể đã đổi trong lúc chờ
+    public long setPreviewMedia(String videoHash, String thumbnailsVttUrl, String previewUrl) {
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("videoHash").is(videoHash)),
+                new Update().set("thumbnailsVttUrl", thumbnailsVttUrl).set("previewUrl", previewUrl),
+                PodcastEntity.class).getModifiedCount();
+    }
+
+    /**
+     * Đổi videoUrl tuyệt đối (podcast tạo trước IMediaStore) thành key của store; keyOf trả null thì giữ nguyên.
+     */
+    public long migrateVideoUrlsToKeys(UnaryOperator<String> keyOf) {
+        Query query = Query.query(Criteria.where("videoUrl").regex(MediaKeyUtils.ABSOLUTE_PATH_PATTERN));
+        query.fields().include("videoUrl");
+
+        long migrated = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PODCAST_COLLECTION);
+        int pending = 0;
+        try (Stream<Document> podcasts = mongoTemplate.stream(query, Document.class, PODCAST_COLLECTION)) {
+            for (Document podcast : (Iterable<Document>) podcasts::iterator) {
+                String key = keyOf.apply(podcast.getString("videoUrl"));
+                if (key == null) {
+                    continue;
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(podcast.get("_id"))), new Update().set("videoUrl", key));
+                migrated++;
+                if (++pending == MIGRATION_BATCH) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PODCAST_COLLECTION);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return migrated;
+    }
+
+    /**
+     * Điền likeCount cho podcast tạo trước khi có bộ đếm, tính từ độ dài list likes.
+     */
+    public long backfillLikeCounts() {
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("likeCount").toValue(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("likes").then(List.of())));
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("likeCount").exists(false)), update, PodcastEntity.class)
+                .getModifiedCount();
+    }
+
+    // Đọc dạng Document để DBRef userEntity (eager) không bị resolve cho từng like
+    private List<PodcastLikeRef> findLikes(String refField, String refId, LikeCursor after, int limit) {
+        Criteria criteria = Criteria.where(refField + ".$id").is(new ObjectId(refId));
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, Keyset.beyond("timestamp", Sort.Direction.DESC, after.timestamp(), after.id()));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "_id"))
+                .limit(limit);
+        query.fields().include("timestamp").include("userEntity").include("podcastEntity");
+
+        return mongoTemplate.find(query, Document.class, PODCAST_LIKE_COLLECTION).stream()
+                .map(like -> new PodcastLikeRef(
+                        like.getObjectId("_id").toHexString(),
+                        toLocalDateTime(like.getDate("timestamp")),
+                        refIdOf(like.get("userEntity")),
+                        refIdOf(like.get("podcastEntity"))))
+                .toList();
+    }
+
+    private static String refIdOf(Object ref) {
+        return ref instanceof DBRef dbRef ? dbRef.getId().toString() : null;
+    }
+
+    // Cùng múi giờ mà converter của Spring Data dùng khi ghi LocalDateTime
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    private PodcastLikeCount updateLikeCount(Query query, Update update) {
+        includeLikeFields(query);
+        Document podcast = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                Document.class, PODCAST_COLLECTION);
+        return toLikeCount(podcast);
+    }
+
+    private static void includeLikeFields(Query query) {
+        query.fields().include("likeCount").include("user").include("title");
+    }
+
+    private static PodcastLikeCount toLikeCount(Document podcast) {
+        if (podcast == null) {
+            return null;
+        }
+        String ownerId = podcast.get("user") instanceof DBRef user ? user.getId().toString() : null;
+        Number likeCount = podcast.get("likeCount", Number.class);
+        return new PodcastLikeCount(podcast.getObjectId("_id").toHexString(), likeCount != null ? likeCount.longValue() : 0L,
+                ownerId, podcast.getString("title"));
+    }
+}
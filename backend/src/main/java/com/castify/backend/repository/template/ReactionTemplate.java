@@ -0,0 +1,175 @@
+package com.castify.backend.repository.template;
+
+import com.castify.backend.entity.CommentLikeEntity;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Thao tác trên các collection like/reaction (commentLike, podcastLike).
+ * Mỗi cặp (userEntity, đối tượng) chỉ có một reaction nhờ unique index (userEntity.$id, &lt;target&gt;.$id),
+ * nên thêm/xóa reaction là một lệnh duy nhất và gọi lặp lại (double-click, retry) không tạo bản ghi trùng.
+ */
+@Repository
+public class ReactionTemplate {
+    private static final int UNIQUE_INDEX_ATTEMPTS = 5;
+    private static final String LOOKUP_INDEX_SUFFIX = "_lookup";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Lưu reaction mới. Trả về null khi user đã react đối tượng này (unique index từ chối bản ghi trùng).
+     */
+    public <T> T insertReaction(T reaction) {
+        try {
+            return mongoTemplate.insert(reaction);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Xóa reaction của user trên đối tượng, trả về id reaction đã xóa hoặc null khi không có gì để xóa.
+     */
+    public String deleteReaction(Class<?> reactionType, String targetField, String userId, String targetId) {
+        Query query = Query.query(Criteria.where("userEntity.$id").is(new ObjectId(userId))
+                .and(targetField + ".$id").is(new ObjectId(targetId)));
+        query.fields().include("_id");
+        Document removed = mongoTemplate.findAndRemove(query, Document.class, mongoTemplate.getCollectionName(reactionType));
+        return removed != null ? removed.getObjectId("_id").toHexString() : null;
+    }
+
+    /**
+     * Tạo unique index (userEntity.$id, &lt;target&gt;.$id) cho collection reaction. Dữ liệu cũ có thể đã có
+     * like trùng (double-click trước khi có index), nên trước đó giữ lại bản ghi đầu tiên của mỗi cặp,
+     * gỡ ref của các bản ghi thừa khỏi list likes của đối tượng và tính lại likeCount.
+     * Chạy khi server đã nhận request: like trùng ghi giữa lúc dọn và lúc dựng index làm index lỗi, khi đó dọn lại
+     * và dựng lại tối đa UNIQUE_INDEX_ATTEMPTS lần rồi ném lỗi. Trong lúc đó index tra cứu tạm
+     * (&lt;indexName&gt;_lookup) thay cho index không unique cũ, nó chỉ bị bỏ khi unique index đã dựng xong.
+     *
+     * @return số reaction trùng đã xóa
+     */
+    public long ensureUniqueIndex(Class<?> reactionType, String targetField, Class<?> targetType, String indexName) {
+        String collection = mongoTemplate.getCollectionName(reactionType);
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        Document keys = new Document("userEntity.$id", 1).append(targetField + ".$id", 1);
+        String lookupName = indexName + LOOKUP_INDEX_SUFFIX;
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            if (index.getName().equals(indexName)) {
+                if (index.isUnique()) {
+                    // Lần chạy trước dừng giữa chừng sau khi đã dựng unique index
+                    dropIndexIfExists(indexOps, lookupName);
+                    return 0;
+                }
+                // Index cùng tên nhưng không unique (bản trước) phải bỏ đi thì mới tạo lại được.
+                // Mongo không cho hai index cùng key pattern, index tạm thêm _id để vẫn phục vụ tra cứu
+                indexOps.ensureIndex(new CompoundIndexDefinition(new Document(keys).append("_id", 1)).named(lookupName));
+                indexOps.dropIndex(indexName);
+            }
+        }
+
+        long removed = 0;
+        for (int attempt = 1; ; attempt++) {
+            removed += removeDuplicates(collection, targetField, targetType);
+            try {
+                indexOps.ensureIndex(new CompoundIndexDefinition(keys).named(indexName).unique());
+                break;
+            } catch (DuplicateKeyException e) {
+                if (attempt >= UNIQUE_INDEX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+        dropIndexIfExists(indexOps, lookupName);
+        return removed;
+    }
+
+    private static void dropIndexIfExists(IndexOperations indexOps, String indexName) {
+        if (indexOps.getIndexInfo().stream().anyMatch(index -> index.getName().equals(indexName))) {
+            indexOps.dropIndex(indexName);
+        }
+    }
+
+    // Duyệt theo (user, target, _id): bản trùng nằm liền nhau nên chỉ cần so với bản trước, không giữ cả collection trong bộ nhớ
+    private long removeDuplicates(String collection, String targetField, Class<?> targetType) {
+        Query query = new Query().with(Sort.by("userEntity.$id", targetField + ".$id", "_id")).allowDiskUse(true);
+        query.fields().include("userEntity").include(targetField);
+
+        Map<DBRef, List<ObjectId>> duplicates = new HashMap<>();
+        Object previousUser = null;
+        Object previousTarget = null;
+        try (Stream<Document> reactions = mongoTemplate.stream(query, Document.class, collection)) {
+            for (Document reaction : (Iterable<Document>) reactions::iterator) {
+                Object user = reaction.get("userEntity") instanceof DBRef ref ? ref.getId() : null;
+                DBRef target = reaction.get(targetField) instanceof DBRef ref ? ref : null;
+                if (user != null && target != null && user.equals(previousUser) && target.getId().equals(previousTarget)) {
+                    duplicates.computeIfAbsent(target, key -> new ArrayList<>()).add(reaction.getObjectId("_id"));
+                }
+                previousUser = user;
+                previousTarget = target != null ? target.getId() : null;
+            }
+        }
+
+        long removed = 0;
+        for (Map.Entry<DBRef, List<ObjectId>> entry : duplicates.entrySet()) {
+            List<ObjectId> extra = entry.getValue();
+            removed += mongoTemplate.remove(Query.query(Criteria.where("_id").in(extra)), collection).getDeletedCount();
+
+            Object targetId = entry.getKey().getId();
+            long likeCount = mongoTemplate.count(Query.query(Criteria.where(targetField + ".$id").is(targetId)), collection);
+            Object[] extraRefs = extra.stream().map(id -> new DBRef(collection, id)).toArray();
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(targetId)),
+                    new Update().pullAll("likes", extraRefs).set("likeCount", likeCount),
+                    targetType);
+        }
+        return removed;
+    }
+
+    public Set<String> findLikedCommentIds(String userId, Collection<String> commentIds) {
+        return findReactedIds(CommentLikeEntity.class, "commentEntity", userId, commentIds);
+    }
+
+    /**
+     * Id các đối tượng trong targetIds mà user đã react.
+     *
+     * @param reactionType entity like/reaction có @DBRef userEntity và @DBRef tới đối tượng
+     * @param targetField  tên field @DBRef tới đối tượng được react
+     */
+    public Set<String> findReactedIds(Class<?> reactionType, String targetField, String userId, Collection<String> targetIds) {
+        if (userId == null || targetIds.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("userEntity.$id").is(new ObjectId(userId))
+                .and(targetField + ".$id").in(targetIds.stream().map(ObjectId::new).toList()));
+        query.fields().include(targetField);
+
+        Set<String> reacted = new HashSet<>();
+        for (Document reaction : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(reactionType))) {
+            if (reaction.get(targetField) instanceof DBRef ref) {
+                reacted.add(ref.getId().toString());
+            }
+        }
+        return reacted;
+    }
+}
@@ -0,0 +1,116 @@
+package com.castify.backend.repository.template;
+
+import com.castify.backend.entity.TokenEntity;
+import com.castify.backend.utils.TokenHashUtils;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Repository
+public class TokenTemplate {
+    private static final String TOKEN_COLLECTION = "token";
+    private static final int MIGRATION_BATCH = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Thu hồi mọi token còn hiệu lực của user bằng một lệnh updateMulti (theo index userId),
+     * rồi đọc jti/expiresAt của đúng các token vừa thu hồi (cùng revokedAt) để cập nhật tập trong bộ nhớ.
+     */
+    public List<TokenEntity> revokeAllByUser(String userId) {
+        // Mongo lưu Date tới mili giây, cắt trước để điều kiện revokedAt khớp đúng giá trị đã ghi
+        LocalDateTime revokedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        long modified = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId).and("revoked").is(false)),
+                revokeUpdate(revokedAt),
+                TokenEntity.class).getModifiedCount();
+        if (modified == 0) {
+            return List.of();
+        }
+        Query revoked = Query.query(Criteria.where("userId").is(userId).and("revokedAt").is(revokedAt));
+        revoked.fields().include("jti").include("expiresAt");
+        return mongoTemplate.find(revoked, TokenEntity.class);
+    }
+
+    // Thu hồi một token (logout). Null khi token không được lưu
+    public TokenEntity revokeByHash(String tokenHash) {
+        LocalDateTime revokedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Query query = Query.query(Criteria.where("tokenHash").is(tokenHash));
+        query.fields().include("jti").include("expiresAt");
+        return mongoTemplate.findAndModify(query, revokeUpdate(revokedAt),
+                FindAndModifyOptions.options().returnNew(true), TokenEntity.class);
+    }
+
+    // Thu hồi token dùng một lần (refresh, reset mật khẩu). Null khi token không được lưu hoặc đã bị thu hồi
+    public TokenEntity revokeActiveByHash(String tokenHash) {
+        LocalDateTime revokedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Query query = Query.query(Criteria.where("tokenHash").is(tokenHash).and("revoked").is(false));
+        query.fields().include("jti").include("expiresAt");
+        return mongoTemplate.findAndModify(query, revokeUpdate(revokedAt),
+                FindAndModifyOptions.options().returnNew(true), TokenEntity.class);
+    }
+
+    // Token bị thu hồi từ since (theo index revokedAt), chỉ đọc jti, expiresAt và userId
+    public List<TokenEntity> findRevokedSince(LocalDateTime since) {
+        Query query = Query.query(Criteria.where("revokedAt").gte(since).and("jti").ne(null));
+        query.fields().include("jti").include("expiresAt").include("userId");
+        return mongoTemplate.find(query, TokenEntity.class);
+    }
+
+    /**
+     * Chuyển document cũ còn lưu JWT nguyên văn (field token) sang tokenHash + expiresAt để TTL index dọn được.
+     * expiresAtOf trả về null khi không đọc được hạn của token, document đó bị xóa.
+     *
+     * @return số document đã chuyển hoặc xóa
+     */
+    public long migrateRawTokens(Function<String, LocalDateTime> expiresAtOf) {
+        Query query = Query.query(Criteria.where("token").exists(true));
+        query.fields().include("token");
+
+        long migrated = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TOKEN_COLLECTION);
+        int pending = 0;
+        try (Stream<Document> tokens = mongoTemplate.stream(query, Document.class, TOKEN_COLLECTION)) {
+            for (Document token : (Iterable<Document>) tokens::iterator) {
+                Query byId = Query.query(Criteria.where("_id").is(token.get("_id")));
+                String jwt = token.getString("token");
+                LocalDateTime expiresAt = jwt != null ? expiresAtOf.apply(jwt) : null;
+                if (expiresAt == null) {
+                    bulk.remove(byId);
+                } else {
+                    bulk.updateOne(byId, new Update()
+                            .set("tokenHash", TokenHashUtils.sha256(jwt))
+                            .set("expiresAt", expiresAt)
+                            .unset("token"));
+                }
+                migrated++;
+                if (++pending == MIGRATION_BATCH) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TOKEN_COLLECTION);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return migrated;
+    }
+
+    private static Update revokeUpdate(LocalDateTime revokedAt) {
+        return new Update().set("revoked", true).set("expired", true).set("revokedAt", revokedAt);
+    }
+}
@@ -2,6 +2,7 @@ package com.castify.backend.repository.template;
 
 import com.castify.backend.entity.UserEntity;
 import com.castify.backend.models.user.FollowInfo;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -9,6 +10,7 @@ import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
@@ -19,6 +21,20 @@ public class UserTemplate {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    // Cùng điều kiện với UserRepository#findByEmailOrUsername nhưng trả document thô để cache rồi map lại mỗi lần dùng
+    public Document findDocumentByEmailOrUsername(String keyword) {
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("email").is(keyword),
+                Criteria.where("username").is(keyword)));
+        return mongoTemplate.findOne(query, Document.class, "user");
+    }
+
+    // Chỉ ghi field password, không save cả entity (principal có thể là bản cũ)
+    public void updatePassword(String userId, String encodedPassword) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)),
+                new Update().set("password", encodedPassword), UserEntity.class);
+    }
+
     public Page<UserEntity> findSimilarUsers(UserEntity currentUser, Pageable pageable) {
         Criteria criteria = new Criteria();
 
@@ -0,0 +1,85 @@
+package com.castify.backend.repository.template;
+
+import com.castify.backend.entity.VideoBlobEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * refCount của blob video chỉ đổi bằng $inc để hai request cùng lúc không ghi đè nhau.
+ * Mọi quyết định dùng lại / xoá blob đều do MongoDB phân xử để nhiều node dùng chung một store vẫn đúng:
+ * unique _id quyết định upload nào tạo blob, deletingAt đánh dấu blob đang bị xoá để acquire không nhận lại.
+ */
+@Repository
+public class VideoBlobTemplate {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Tăng refCount của blob đã có và trả về blob sau khi tăng; null khi chưa có blob cho hash hoặc blob đang bị xoá
+    public VideoBlobEntity acquire(String hash) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(hash).and("deletingAt").is(null)),
+                new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                VideoBlobEntity.class);
+    }
+
+    // Tạo blob mới; null khi đã có document cùng hash (upload khác, có thể ở node khác, vừa tạo trước)
+    public VideoBlobEntity insertIfAbsent(VideoBlobEntity blob) {
+        try {
+            return mongoTemplate.insert(blob);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    // Giảm refCount và trả về blob sau khi giảm; null khi blob không tồn tại hoặc đã về 0
+    public VideoBlobEntity release(String hash) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(hash).and("refCount").gt(0)),
+                new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true),
+                VideoBlobEntity.class);
+    }
+
+    /**
+     * Nhận việc xoá blob khi vẫn không còn tham chiếu (acquire có thể vừa tăng lại) và chưa ai nhận.
+     * Trả về blob đã đánh dấu, null khi không được xoá.
+     */
+    public VideoBlobEntity markDeleting(String hash) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(hash).and("refCount").lte(0).and("deletingAt").is(null)),
+                new Update().set("deletingAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                VideoBlobEntity.class);
+    }
+
+    // Xoá document sau khi đã xoá xong object và file phụ của blob
+    public boolean removeDeleted(String hash) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(hash).and("deletingAt").ne(null)), VideoBlobEntity.class)
+                .getDeletedCount() > 0;
+    }
+
+    // Bỏ document mà node nhận xoá đã dừng giữa chừng (quá hạn), để upload mới tạo lại blob
+    public boolean removeStaleDeleting(String hash, LocalDateTime deletingBefore) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(hash).and("deletingAt").lt(deletingBefore)), VideoBlobEntity.class)
+                .getDeletedCount() > 0;
+    }
+
+    public boolean setThumbnail(String hash, String thumbnailUrl) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(hash).and("deletingAt").is(null)),
+                new Update().set("thumbnailUrl", thumbnailUrl), VideoBlobEntity.class).getMatchedCount() > 0;
+    }
+
+    // Chỉ gán khi blob chưa có preview: lần sinh lại chạy song song (upload trùng ở node khác) thua thì tự xoá object của nó
+    public boolean setPreviewMedia(String hash, String thumbnailsVttUrl, String previewUrl) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(hash).and("deletingAt").is(null).and("previewUrl").is(null)),
+                new Update().set("thumbnailsVttUrl", thumbnailsVttUrl).set("previewUrl", previewUrl),
+                VideoBlobEntity.class).getMatchedCount() > 0;
+    }
+}
@@ -4,11 +4,14 @@ import com.castify.backend.entity.TokenEntity;
 import com.castify.backend.entity.UserEntity;
 import com.castify.backend.enums.Role;
 import com.castify.backend.enums.TokenType;
+import com.castify.backend.exception.PasswordHashingBusyException;
 import com.castify.backend.models.authentication.*;
 import com.castify.backend.service.email.EmailServiceImpl;
 import com.castify.backend.service.email.IEmailService;
 import com.castify.backend.service.authenticatation.jwt.IJwtService;
 import com.castify.backend.service.authenticatation.jwt.JwtServiceImpl;
+import com.castify.backend.utils.TokenHashUtils;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -17,12 +20,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.castify.backend.repository.UserRepository;
 import com.castify.backend.repository.TokenRepository;
@@ -40,8 +47,12 @@ public class AuthenticationService implements IAuthenticationService {
     @Autowired
     private IJwtService jwtService = new JwtServiceImpl();
     @Autowired
+    private IUserDetailsCacheService userDetailsCacheService;
+    @Autowired
     private TokenRepository tokenRepository;
     @Autowired
+    private ITokenRevocationService tokenRevocationService;
+    @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
     private UserRepository repository;
@@ -56,23 +67,26 @@ public class AuthenticationService implements IAuthenticationService {
 
     @Override
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        try {
+            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        } catch (InternalAuthenticationServiceException e) {
+            // BCrypt chống dò user (user không tồn tại) bị từ chối vì quá tải, trả lại lỗi gốc để controller trả 503
+            if (e.getCause() instanceof PasswordHashingBusyException busy) {
+                throw busy;
+            }
+            throw e;
+        }
         var user = repository.findByEmailOrUsername(request.getEmail()).orElseThrow();
         var jwtToken = jwtService.generateToken(user);
         var refreshToken = jwtService.generateRefreshToken(user);
-        revokeAllUserTokens(user);
+        // Đăng nhập thêm một phiên, không đăng xuất các thiết bị khác
         saveUserToken(user, jwtToken, TokenType.BEARER);
+        saveUserToken(user, refreshToken, TokenType.REFRESH);
         return AuthenticationResponse.builder().accessToken(jwtToken).refreshToken(refreshToken).build();
     }
 
     private void revokeAllUserTokens(UserEntity userEntity) {
-        var validUserTokens = tokenRepository.findAllValidTokenByUser(userEntity.getId());
-        if (validUserTokens.isEmpty()) return;
-        validUserTokens.forEach(token -> {
-            token.setExpired(true);
-            token.setRevoked(true);
-        });
-        tokenRepository.saveAll(validUserTokens);
+        tokenRevocationService.revokeAllUserTokens(userEntity.getId());
     }
 
     private void saveUserToken(UserEntity userEntity, String jwtToken, TokenType type) {
@@ -80,7 +94,11 @@ public class AuthenticationService implements IAuthenticationService {
             type = TokenType.BEARER; // Set default TokenType if not provided
         }
 
-        TokenEntity token = TokenEntity.builder().userId(userEntity.getId()).token(jwtToken).tokenType(type).expired(false).revoked(false).build();
+        // jti và hạn lưu kèm để tập thu hồi trong bộ nhớ không phải parse lại token
+        Claims claims = jwtService.parseClaims(jwtToken);
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        TokenEntity token = TokenEntity.builder().userId(userEntity.getId()).tokenHash(TokenHashUtils.sha256(jwtToken)).tokenType(type).expired(false).revoked(false)
+                .jti(claims.getId()).expiresAt(expiresAt).build();
 
         tokenRepository.save(token);
     }
@@ -140,6 +158,7 @@ public class AuthenticationService implements IAuthenticationService {
         var accessToken = jwtService.generateToken(user);
         String refreshToken = jwtService.generateRefreshToken(user);
         saveUserToken(user, accessToken, TokenType.BEARER);
+        saveUserToken(user, refreshToken, TokenType.REFRESH);
         return AuthenticationResponse.builder().accessToken(accessToken).refreshToken(refreshToken).build();
     }
     @Override
@@ -147,9 +166,11 @@ public class AuthenticationService implements IAuthenticationService {
 //        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 //
         var user = repository.findByEmailOrUsername(request.getEmail()).orElseThrow();
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
-        revokeAllUserTokens(user);
+        // Claim RESET_PASS để token này không dùng được như access token
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtServiceImpl.TOKEN_TYPE_CLAIM, TokenType.RESET_PASS.name());
+        var jwtToken = jwtService.generateToken(claims, user);
+        // Endpoint không cần đăng nhập: chỉ cấp token reset, các phiên đang có bị thu hồi khi reset xong
         saveUserToken(user, jwtToken, TokenType.RESET_PASS);
 //        return true;
 //        return AuthenticationResponse.builder().accessToken(jwtToken).refreshToken(refreshToken).build();
@@ -169,18 +190,25 @@ public class AuthenticationService implements IAuthenticationService {
             throw new IOException("Not found user"+validToken);
         }
         var user = this.repository.findByEmailOrUsername(userEmail).orElseThrow();
-        if (!jwtService.isTokenValid(validToken, user)) {
+        Claims claims = jwtService.parseClaims(validToken);
+        // Chỉ token reset còn hiệu lực, mỗi token dùng được một lần
+        if (!TokenType.RESET_PASS.name().equals(claims.get(JwtServiceImpl.TOKEN_TYPE_CLAIM, String.class))
+                || !jwtService.isTokenValid(claims, user)
+                || !tokenRevocationService.consumeToken(validToken)) {
             throw new IOException(("Your token isn't valid"));
         }
 
 //        user.setActive(true);
         user.setPassword(passwordEncoder.encode(newPassword));
         repository.save(user);
+        userDetailsCacheService.evictUser(user.getId());
 
+        // Đổi mật khẩu xong mới đăng xuất mọi thiết bị
         revokeAllUserTokens(user);
         var accessToken = jwtService.generateToken(user);
         String refreshToken = jwtService.generateRefreshToken(user);
         saveUserToken(user, accessToken, TokenType.BEARER);
+        saveUserToken(user, refreshToken, TokenType.REFRESH);
         return AuthenticationResponse.builder().accessToken(accessToken).refreshToken(refreshToken).build();
     }
     @Override
@@ -197,16 +225,23 @@ public class AuthenticationService implements IAuthenticationService {
             throw new IOException("User not found");
         }
         var user = this.repository.findByEmailOrUsername(userEmail).orElseThrow();
-        if (!jwtService.isTokenValid(refreshToken, user)) {
+        Claims claims = jwtService.parseClaims(refreshToken);
+        // Access token hay token reset không đổi được lấy token mới
+        if (!JwtServiceImpl.REFRESH_TOKEN_TYPE.equals(claims.get(JwtServiceImpl.TOKEN_TYPE_CLAIM, String.class))
+                || !jwtService.isTokenValid(claims, user)) {
+            throw new IOException("Token is not valid");
+        }
+        // Xoay refresh token: chỉ thu hồi token đang dùng, token đã thu hồi (dùng lại, sau reset mật khẩu) bị từ chối
+        if (!tokenRevocationService.consumeToken(refreshToken)) {
             throw new IOException("Token is not valid");
         }
         var accessToken = jwtService.generateToken(user);
-        revokeAllUserTokens(user);
-//                saveUserToken(user, accessToken, TokenType.BEARER);
+        var newRefreshToken = jwtService.generateRefreshToken(user);
 //                var authResponse = AuthenticationResponse.builder().accessToken(accessToken).refreshToken(refreshToken).build();
 //                new ObjectMapper().writeValue(response.getOutputStream(), authResponse);
         saveUserToken(user, accessToken, TokenType.BEARER);
-        return AuthenticationResponse.builder().accessToken(accessToken).refreshToken(refreshToken).build();
+        saveUserToken(user, newRefreshToken, TokenType.REFRESH);
+        return AuthenticationResponse.builder().accessToken(accessToken).refreshToken(newRefreshToken).build();
 
 
     }
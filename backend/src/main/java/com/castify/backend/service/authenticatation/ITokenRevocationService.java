@@ -0,0 +1,17 @@
+package com.castify.backend.service.authenticatation;
+
+import io.jsonwebtoken.Claims;
+
+public interface ITokenRevocationService {
+    // Access token còn dùng được: đúng loại BEARER và jti chưa bị thu hồi
+    boolean isActive(String jwt, Claims claims);
+
+    // Thu hồi mọi token của user trong DB và thêm jti vào tập thu hồi của node hiện tại
+    void revokeAllUserTokens(String userId);
+
+    // Thu hồi một token (logout). False khi token không được lưu
+    boolean revokeToken(String jwt);
+
+    // Dùng token một lần (refresh, reset mật khẩu): thu hồi nó, false khi token không được lưu hoặc đã bị thu hồi
+    boolean consumeToken(String jwt);
+}
@@ -0,0 +1,19 @@
+package com.castify.backend.service.authenticatation;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+public interface IUserDetailsCacheService {
+    // UserDetails theo subject của JWT (email hoặc username), đọc từ cache nếu còn hạn
+    UserDetails loadUserByUsername(String subject);
+
+    // Đọc thẳng DB, bỏ qua cache: đăng nhập bằng mật khẩu phải thấy ngay ban và mật khẩu mới từ mọi node
+    UserDetails loadUserForLogin(String subject);
+
+    // Bỏ mọi entry của user, gọi sau khi đổi trạng thái khóa/ban, mật khẩu, username hoặc role
+    void evictUser(String userId);
+
+    void evictAll();
+
+    // Lưu hash mới khi đăng nhập với mật khẩu băm bằng cost cũ (UserDetailsPasswordService)
+    UserDetails updatePassword(UserDetails user, String newPassword);
+}
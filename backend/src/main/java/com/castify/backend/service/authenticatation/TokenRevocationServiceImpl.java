@@ -0,0 +1,151 @@
+package com.castify.backend.service.authenticatation;
+
+import com.castify.backend.entity.TokenEntity;
+import com.castify.backend.enums.TokenType;
+import com.castify.backend.repository.TokenRepository;
+import com.castify.backend.repository.template.TokenTemplate;
+import com.castify.backend.service.authenticatation.jwt.JwtServiceImpl;
+import com.castify.backend.utils.TokenHashUtils;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Kiểm tra thu hồi JWT bằng tập jti trong bộ nhớ thay vì query bảng token ở mỗi request.
+ * Node thu hồi token cập nhật tập của mình ngay. Các node khác poll các token có revokedAt mới
+ * (theo index) mỗi pollIntervalMs, nên token bị thu hồi ở node khác còn dùng được tối đa một chu kỳ poll.
+ * Jti được bỏ khỏi tập khi token hết hạn, lúc đó chữ ký JWT đã tự bị từ chối.
+ * Poll thấy jti mới bị thu hồi thì bỏ luôn UserDetails đã cache của user đó (ban, reset mật khẩu ở node khác).
+ */
+@Service
+public class TokenRevocationServiceImpl implements ITokenRevocationService {
+    private static final Logger logger = Logger.getLogger(TokenRevocationServiceImpl.class.getName());
+    // Bù lệch đồng hồ giữa các node khi so revokedAt
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private TokenTemplate tokenTemplate;
+
+    @Autowired
+    private IUserDetailsCacheService userDetailsCacheService;
+
+    @Value("${castify.token-revocation.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${application.security.jwt.expiration}")
+    private long jwtExpiration;
+
+    // jti -> thời điểm token hết hạn
+    private final Map<String, Instant> revokedJtis = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime polledUntil;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-revocation-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void start() {
+        // Luôn nạp jti đã bị thu hồi trước khi nhận request: token có jti được chấp nhận mà không tra DB,
+        // bỏ bước này thì token thu hồi trước lúc restart lại dùng được
+        poll();
+        // 0 chỉ tắt poll định kỳ (một node)
+        if (pollIntervalMs > 0) {
+            poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+    }
+
+    @Override
+    public boolean isActive(String jwt, Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            // Token cấp trước khi có jti: giữ cách kiểm tra cũ cho tới khi chúng hết hạn
+            return tokenRepository.findByTokenHash(TokenHashUtils.sha256(jwt))
+                    .map(t -> !t.isExpired() && !t.isRevoked())
+                    .orElse(false);
+        }
+        return TokenType.BEARER.name().equals(claims.get(JwtServiceImpl.TOKEN_TYPE_CLAIM, String.class))
+                && !revokedJtis.containsKey(jti);
+    }
+
+    @Override
+    public void revokeAllUserTokens(String userId) {
+        tokenTemplate.revokeAllByUser(userId).forEach(this::remember);
+    }
+
+    @Override
+    public boolean revokeToken(String jwt) {
+        TokenEntity token = tokenTemplate.revokeByHash(TokenHashUtils.sha256(jwt));
+        if (token == null) {
+            return false;
+        }
+        remember(token);
+        return true;
+    }
+
+    @Override
+    public boolean consumeToken(String jwt) {
+        TokenEntity token = tokenTemplate.revokeActiveByHash(TokenHashUtils.sha256(jwt));
+        if (token == null) {
+            return false;
+        }
+        remember(token);
+        return true;
+    }
+
+    void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Lần đầu nạp mọi token bị thu hồi còn có thể chưa hết hạn
+            LocalDateTime since = polledUntil != null
+                    ? polledUntil.minusSeconds(POLL_OVERLAP_SECONDS)
+                    : now.minusNanos(jwtExpiration * 1_000_000);
+            for (TokenEntity token : tokenTemplate.findRevokedSince(since)) {
+                // Cửa sổ poll chồng nhau: chỉ evict lần đầu thấy jti, node thu hồi đã tự evict
+                if (remember(token) && token.getUserId() != null) {
+                    userDetailsCacheService.evictUser(token.getUserId());
+                }
+            }
+            polledUntil = now;
+
+            Instant current = Instant.now();
+            revokedJtis.values().removeIf(expiresAt -> expiresAt.isBefore(current));
+        } catch (Exception e) {
+            logger.warning("Token revocation poll failed: " + e.getMessage());
+        }
+    }
+
+    // True khi jti chưa có trong tập thu hồi
+    private boolean remember(TokenEntity token) {
+        if (token.getJti() == null) {
+            return false;
+        }
+        Instant expiresAt = token.getExpiresAt() != null
+                ? token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now().plusMillis(jwtExpiration);
+        return revokedJtis.put(token.getJti(), expiresAt) == null;
+    }
+}
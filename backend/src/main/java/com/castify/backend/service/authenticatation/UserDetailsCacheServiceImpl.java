@@ -0,0 +1,113 @@
+package com.castify.backend.service.authenticatation;
+
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.repository.template.UserTemplate;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache UserDetails cho JwtAuthenticationFilter và STOMP CONNECT, tránh query $or email/username ở mỗi request.
+ * Cache giữ document thô và map ra UserEntity mới ở mỗi lần đọc, vì principal được các service sửa rồi save
+ * trong request; dùng chung một instance giữa các request sẽ ghi đè dữ liệu của nhau.
+ * Entry hết hạn sau ttlMs và bị bỏ ngay khi user được save (UserCacheEvictionListener) hoặc evictUser.
+ * evictUser chỉ tác động node hiện tại; node khác bỏ entry khi poll thấy token của user bị thu hồi
+ * (TokenRevocationServiceImpl). Đăng nhập bằng mật khẩu không đi qua cache (loadUserForLogin).
+ */
+@Service
+public class UserDetailsCacheServiceImpl implements IUserDetailsCacheService {
+    @Autowired
+    private UserTemplate userTemplate;
+
+    @Autowired
+    private MongoConverter mongoConverter;
+
+    @Value("${castify.user-details-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${castify.user-details-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    // Tăng ở mỗi lần evict; document đọc trước một lần evict không được đưa vào cache
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Override
+    public UserDetails loadUserByUsername(String subject) {
+        long now = System.currentTimeMillis();
+        CachedUser cached = cache.get(subject);
+        if (cached != null && cached.expiresAt() > now) {
+            return toUser(cached.document());
+        }
+
+        long version = evictions.get();
+        Document document = userTemplate.findDocumentByEmailOrUsername(subject);
+        if (document == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        if (ttlMs > 0) {
+            if (cache.size() >= maxSize) {
+                cache.values().removeIf(entry -> entry.expiresAt() <= now);
+                if (cache.size() >= maxSize) {
+                    cache.clear();
+                }
+            }
+            cache.put(subject, new CachedUser(String.valueOf(document.get("_id")), document, now + ttlMs));
+            // Có evict chạy song song với lần đọc: document vừa đọc có thể đã cũ
+            if (evictions.get() != version) {
+                cache.remove(subject);
+            }
+        }
+        return toUser(document);
+    }
+
+    @Override
+    public UserDetails loadUserForLogin(String subject) {
+        Document document = userTemplate.findDocumentByEmailOrUsername(subject);
+        if (document == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        return toUser(document);
+    }
+
+    @Override
+    public void evictUser(String userId) {
+        if (userId == null) {
+            return;
+        }
+        evictions.incrementAndGet();
+        cache.values().removeIf(entry -> userId.equals(entry.userId()));
+    }
+
+    @Override
+    public void evictAll() {
+        evictions.incrementAndGet();
+        cache.clear();
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity userEntity = (UserEntity) user;
+        userTemplate.updatePassword(userEntity.getId(), newPassword);
+        // updateFirst không phát AfterSaveEvent
+        evictUser(userEntity.getId());
+        userEntity.setPassword(newPassword);
+        return userEntity;
+    }
+
+    private UserEntity toUser(Document document) {
+        return mongoConverter.read(UserEntity.class, document);
+    }
+
+    private record CachedUser(String userId, Document document, long expiresAt) {
+    }
+}
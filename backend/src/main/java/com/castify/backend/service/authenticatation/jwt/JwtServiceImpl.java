@@ -1,6 +1,7 @@
 package com.castify.backend.service.authenticatation.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -9,14 +10,19 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
+import com.castify.backend.enums.TokenType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 @Service
 public class JwtServiceImpl implements IJwtService{
+    // Loại token trong claim: chỉ access token (BEARER) được JwtAuthenticationFilter chấp nhận
+    public static final String TOKEN_TYPE_CLAIM = "token_type";
+    public static final String REFRESH_TOKEN_TYPE = TokenType.REFRESH.name();
 
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
@@ -27,6 +33,9 @@ public class JwtServiceImpl implements IJwtService{
     @Value("${JWT_VALID_EXPIRATION}")
     private long validExpiration;
 
+    // Key và parser dựng một lần thay vì decode secret ở mỗi lần parse
+    private volatile JwtParser parser;
+
     @Override
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -37,6 +46,11 @@ public class JwtServiceImpl implements IJwtService{
         return claimsResolver.apply(claims);
     }
 
+    @Override
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
 
     @Override
     public String generateToken(UserDetails userDetails) {
@@ -47,6 +61,7 @@ public class JwtServiceImpl implements IJwtService{
             Map<String, Object> extraClaims,
             UserDetails userDetails
     ) {
+        extraClaims.putIfAbsent(TOKEN_TYPE_CLAIM, TokenType.BEARER.name());
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
     @Override
@@ -58,13 +73,16 @@ public class JwtServiceImpl implements IJwtService{
             Map<String, Object> extraClaims,
             String username
     ) {
+        extraClaims.putIfAbsent(TOKEN_TYPE_CLAIM, TokenType.VALID.name());
         return buildValidToken(extraClaims, username, validExpiration);
     }
     @Override
     public String generateRefreshToken(
             UserDetails userDetails
     ) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        return buildToken(claims, userDetails, refreshExpiration);
     }
     private String buildValidToken(
             Map<String, Object> extraClaims,
@@ -80,6 +98,7 @@ public class JwtServiceImpl implements IJwtService{
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
@@ -94,6 +113,7 @@ public class JwtServiceImpl implements IJwtService{
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
@@ -102,27 +122,33 @@ public class JwtServiceImpl implements IJwtService{
     }
     @Override
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    @Override
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername())) && !claims.getExpiration().before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignInKey())
-                .build()
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts
+                    .parser()
+                    .setSigningKey(getSignInKey())
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
     private Key getSignInKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
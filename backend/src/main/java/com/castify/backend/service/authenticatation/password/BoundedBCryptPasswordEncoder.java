@@ -0,0 +1,149 @@
+package com.castify.backend.service.authenticatation.password;
+
+import com.castify.backend.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt chạy trên executor riêng có giới hạn thay vì trên thread Tomcat, để một đợt đăng nhập dồn dập
+ * không chiếm hết worker của các request khác. Hàng đợi đầy hoặc chờ quá timeoutMs thì ném
+ * {@link PasswordHashingBusyException} (controller trả 503).
+ * upgradeEncoding trả true khi cost của hash khác strength hiện tại, DaoAuthenticationProvider dựa vào đó
+ * để băm lại mật khẩu lúc đăng nhập thành công.
+ */
+@Component
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+    // $2a$10$<53 ký tự salt+hash>, nhóm 1 là cost
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${castify.password-hashing.strength:10}")
+    private int strength;
+
+    @Value("${castify.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${castify.password-hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${castify.password-hashing.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private BCryptPasswordEncoder delegate;
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer waitTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void start() {
+        delegate = new BCryptPasswordEncoder(strength);
+        // 0 = số core, BCrypt thuần CPU nên nhiều thread hơn cũng không nhanh hơn
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        encodeTimer = Timer.builder("castify.password.hashing")
+                .description("Thời gian chạy BCrypt")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        matchesTimer = Timer.builder("castify.password.hashing")
+                .description("Thời gian chạy BCrypt")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        waitTimer = Timer.builder("castify.password.hashing.wait")
+                .description("Thời gian chờ trong hàng đợi trước khi chạy BCrypt")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejected = Counter.builder("castify.password.hashing.rejected")
+                .description("Số lần từ chối vì executor băm mật khẩu quá tải")
+                .register(meterRegistry);
+        Gauge.builder("castify.password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Số tác vụ BCrypt đang chờ")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Chỉ đọc cost trong chuỗi hash, không cần chạy trên executor.
+        // BCryptPasswordEncoder.upgradeEncoding chỉ báo khi cost thấp hơn strength; giảm cost cũng phải băm lại
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Server is busy, please try again later");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingBusyException("Server is busy, please try again later");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
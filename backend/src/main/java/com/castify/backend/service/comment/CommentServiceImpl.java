@@ -1,11 +1,19 @@
 package com.castify.backend.service.comment;
 
+import com.castify.backend.mapper.CommentMapper;
 import com.castify.backend.entity.*;
 import com.castify.backend.enums.NotiType;
-import com.castify.backend.models.PageDTO;
+import com.castify.backend.models.CursorPageDTO;
+import com.castify.backend.models.ReactionModel;
+import com.castify.backend.models.comment.CommentCursor;
+import com.castify.backend.models.comment.CommentLikeCount;
 import com.castify.backend.models.comment.CommentModel;
 import com.castify.backend.models.comment.CommentRequestDTO;
+import com.castify.backend.models.comment.CommentSort;
 import com.castify.backend.repository.*;
+import com.castify.backend.repository.template.CommentTemplate;
+import com.castify.backend.repository.template.PodcastTemplate;
+import com.castify.backend.repository.template.ReactionTemplate;
 import com.castify.backend.service.notification.INotificationService;
 import com.castify.backend.service.notification.NotificationServiceImpl;
 import com.castify.backend.service.user.IUserService;
@@ -14,9 +22,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class CommentServiceImpl implements ICommentService {
@@ -35,6 +43,18 @@ public class CommentServiceImpl implements ICommentService {
     @Autowired
     private CommentLikeRepository commentLikeRepository;
 
+    @Autowired
+    private CommentTemplate commentTemplate;
+
+    @Autowired
+    private ReactionTemplate reactionTemplate;
+
+    @Autowired
+    private PodcastTemplate podcastTemplate;
+
+    @Autowired
+    private ICommentStreamService commentStreamService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -61,20 +81,10 @@ public class CommentServiceImpl implements ICommentService {
             CommentEntity savedComment = new CommentEntity();
             // Nếu có parentId, tìm comment cha và thêm vào replies
             if (commentRequestDTO.getParentId() != null) {
-                CommentEntity parentComment = commentRepository.findById(commentRequestDTO.getParentId())
-                        .orElseThrow(() -> new RuntimeException("Parent comment not found"));
-
-                // replies là null thì tạo một danh sách rỗng
-                if (parentComment.getReplies() == null) {
-                    parentComment.setReplies(new ArrayList<>());
+                if (!commentRepository.existsById(commentRequestDTO.getParentId())) {
+                    throw new RuntimeException("Parent comment not found");
                 }
 
-                // Lưu comment con trước để MongoDB sinh ID cho commentEntity
-                savedComment= commentRepository.save(commentEntity);
-
-                // Sau khi lưu, commentEntity sẽ có ID hợp lệ
-                parentComment.getReplies().add(commentEntity);
-
                 // Mention user nếu có
                 if (commentRequestDTO.getMentionedUser() != null) {
                     UserEntity mentionedUser = userRepository.findByUsername(commentRequestDTO.getMentionedUser())
@@ -82,20 +92,16 @@ public class CommentServiceImpl implements ICommentService {
                     commentEntity.setMentionedUser(mentionedUser.getUsername());
                 }
 
-                commentRepository.save(parentComment);
+                // Lưu comment con trước để MongoDB sinh ID, sau đó push ref + tăng replyCount của cha bằng một lệnh
+                savedComment = commentRepository.save(commentEntity);
+                commentTemplate.addReply(commentRequestDTO.getParentId(), savedComment.getId());
             } else {
                 // Nếu không có parentId, đây là comment cấp 0
                 savedComment= commentRepository.save(commentEntity);
             }
 
-            // Thêm ref trong PodcastEntity
-            if (podcastEntity.getComments() == null) {
-                podcastEntity.setComments(new ArrayList<>());
-            }
-
-            podcastEntity.getComments().add(commentEntity);
-
-            podcastRepository.save(podcastEntity);
+            // Thêm ref trong PodcastEntity bằng $push, không ghi lại cả podcast
+            podcastTemplate.addComment(podcastEntity.getId(), savedComment.getId());
             String content = userEntity.getFullname() + " đã bình luận "+commentRequestDTO.getContent()+" trên video " + podcastEntity.getTitle();
             if (podcastEntity.getUser() != null) {
                 notificationService.saveNotification(
@@ -106,7 +112,9 @@ public class CommentServiceImpl implements ICommentService {
                         "/watch?pid=" + podcastEntity.getId()
                 );
             }
-            return modelMapper.map(commentEntity, CommentModel.class);
+            CommentModel commentModel = CommentMapper.toModel(commentEntity);
+            commentStreamService.publishComment(podcastEntity.getId(), commentModel);
+            return commentModel;
         } catch (Exception e) {
             System.out.println("Error saving comment: " + e.getMessage());
             throw new RuntimeException("Failed to save comment", e);
@@ -114,7 +122,7 @@ public class CommentServiceImpl implements ICommentService {
     }
 
     @Override
-    public PageDTO<CommentModel> getPodcastComments(String id, int page, int size, String sortBy) {
+    public CursorPageDTO<CommentModel> getPodcastComments(String id, int page, int size, String sortBy, String cursor) {
         try {
             UserEntity userEntity = null;
             try {
@@ -123,40 +131,24 @@ public class CommentServiceImpl implements ICommentService {
                 // Anonymous user
             }
 
-            String sortField = switch (sortBy) {
-                case "popular" -> "likeCount"; // Sắp xếp theo số like === BUG
-                case "oldest" -> "timestamp"; // Sắp xếp theo thời gian cũ nhất
-                default -> "timestamp"; // Mặc định sắp xếp theo thời gian mới nhất
-            };
+            CommentSort sort = CommentSort.from(sortBy);
+            CommentCursor after = cursor != null && !cursor.isBlank() ? CommentCursor.decode(cursor, sort) : null;
 
-            int sortDirection = sortBy.equals("oldest") ? 1 : -1; // 1 = ASC, -1 = DESC
-            int skip = page * size;
-
-            long totalElements = commentRepository.countByPodcastId(id);
+            // Chỉ đếm comment cấp 0, reply được tải riêng theo từng comment
+            long totalElements = commentTemplate.countTopLevelComments(id);
             int totalPages = (int) Math.ceil(totalElements / (double) size);
 
-            List<CommentEntity> commentEntities = commentRepository.findCommentsWithLikes(
-                    id, sortField, sortDirection, skip, size
-            );
-
-            UserEntity finalUserEntity = userEntity;
-
-            List<CommentModel> commentModels = commentEntities.stream()
-                    .map(comment -> {
-                        CommentModel model = modelMapper.map(comment, CommentModel.class);
-                        model.setTotalLikes(comment.getLikes() != null ? comment.getLikes().size() : 0); // Thiết lập `totalLikes`
-                        model.setTotalReplies(comment.getTotalReplies());
-                        // Neu user entity ton tai thi kiem tra isLiked, nguoc lai set false cho isLiked
-                        if (finalUserEntity != null) {
-                            boolean isLiked = commentLikeRepository.existsByUserEntityIdAndCommentEntityId(finalUserEntity.getId(), comment.getId());
-                            model.setLiked(isLiked);
-                        } else {
-                            model.setLiked(false);
-                        }
-                        return model;
-                    }).toList();
+            // Lấy dư một phần tử để biết còn trang sau hay không
+            List<CommentEntity> commentEntities = commentTemplate.findTopLevelComments(id, sort, after, page * size, size + 1);
+            String nextCursor = null;
+            if (commentEntities.size() > size) {
+                commentEntities = commentEntities.subList(0, size);
+                nextCursor = CommentCursor.of(sort, commentEntities.get(size - 1)).encode();
+            }
 
-            return new PageDTO<>(commentModels, size, page, totalPages, totalElements);
+            List<CommentModel> commentModels = toModelsWithLiked(commentEntities, userEntity);
+
+            return new CursorPageDTO<>(commentModels, size, page, totalPages, totalElements, nextCursor);
         } catch (Exception e) {
             System.out.println("Error getting comments: " + e.getMessage());
             throw new RuntimeException("Failed to get comments", e);
@@ -166,39 +158,78 @@ public class CommentServiceImpl implements ICommentService {
     @Override
     public boolean toggleLikeOnComment(String id) throws Exception {
         UserEntity userEntity = userService.getUserByAuthentication();
+        // Client cũ: bỏ like nếu đang like, không thì like
+        String removedLikeId = reactionTemplate.deleteReaction(CommentLikeEntity.class, "commentEntity", userEntity.getId(), id);
+        if (removedLikeId != null) {
+            afterUnlike(id, removedLikeId);
+            return false;
+        }
+        like(userEntity, id);
+        return true;
+    }
 
-        CommentEntity commentEntity = commentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Comment not found"));
+    @Override
+    public ReactionModel likeComment(String id) throws Exception {
+        return like(userService.getUserByAuthentication(), id);
+    }
 
-        Optional<CommentLikeEntity> existingLike = commentLikeRepository
-                .findByUserEntityIdAndCommentEntityId(userEntity.getId(), commentEntity.getId());
+    @Override
+    public ReactionModel unlikeComment(String id) throws Exception {
+        UserEntity userEntity = userService.getUserByAuthentication();
+        String removedLikeId = reactionTemplate.deleteReaction(CommentLikeEntity.class, "commentEntity", userEntity.getId(), id);
+        if (removedLikeId == null) {
+            // Chưa like (hoặc request lặp lại): không đổi gì
+            return new ReactionModel(false, currentLikeCount(id));
+        }
+        return afterUnlike(id, removedLikeId);
+    }
 
-        if (existingLike.isPresent()) {
-            // If like, delete it
-            commentLikeRepository.delete(existingLike.get());
-            commentEntity.getLikes().remove(existingLike.get());
-            commentRepository.save(commentEntity);
-            return false;
-        } else {
-            // If not , add a like
-            CommentLikeEntity newLike = new CommentLikeEntity();
-            newLike.setCommentEntity(commentEntity);
-            newLike.setUserEntity(userEntity);
-            newLike.setTimestamp(LocalDateTime.now());
-            CommentLikeEntity savedLike = commentLikeRepository.save(newLike);
-
-            if (commentEntity.getLikes() == null) {
-                commentEntity.setLikes(new ArrayList<>());
-            }
+    // Insert like (unique index chặn bản trùng) rồi $push ref + $inc likeCount: hai lệnh, gọi lặp lại không đếm hai lần
+    private ReactionModel like(UserEntity userEntity, String id) {
+        CommentEntity commentRef = new CommentEntity();
+        commentRef.setId(id);
+        CommentLikeEntity newLike = new CommentLikeEntity();
+        newLike.setCommentEntity(commentRef);
+        newLike.setUserEntity(userEntity);
+        newLike.setTimestamp(LocalDateTime.now());
+
+        if (reactionTemplate.insertReaction(newLike) == null) {
+            return new ReactionModel(true, currentLikeCount(id));
+        }
+        CommentLikeCount likeCount = commentTemplate.addLike(id, newLike.getId());
+        if (likeCount == null) {
+            // Comment không tồn tại: gỡ like vừa thêm
+            commentLikeRepository.deleteById(newLike.getId());
+            throw new RuntimeException("Comment not found");
+        }
+        publishLikeCount(likeCount);
+        return new ReactionModel(true, likeCount.likeCount());
+    }
 
-            commentEntity.getLikes().add(savedLike);
-            commentRepository.save(commentEntity);
-            return true;
+    private ReactionModel afterUnlike(String id, String removedLikeId) {
+        CommentLikeCount likeCount = commentTemplate.removeLike(id, removedLikeId);
+        if (likeCount == null) {
+            // Ref không nằm trong list likes (dữ liệu cũ), likeCount không đổi
+            return new ReactionModel(false, currentLikeCount(id));
         }
+        publishLikeCount(likeCount);
+        return new ReactionModel(false, likeCount.likeCount());
+    }
+
+    private long currentLikeCount(String id) {
+        CommentLikeCount likeCount = commentTemplate.findLikeCount(id);
+        if (likeCount == null) {
+            throw new RuntimeException("Comment not found");
+        }
+        return likeCount.likeCount();
+    }
+
+    private void publishLikeCount(CommentLikeCount likeCount) {
+        commentStreamService.publishLikeCount(likeCount.podcastId(), likeCount.commentId(), likeCount.likeCount());
     }
 
     @Override
-    public List<CommentModel> getReplies(String id) {
+    public CursorPageDTO<CommentModel> getReplies(String id, int size, String cursor) {
         UserEntity userEntity = null;
         try {
             userEntity = userService.getUserByAuthentication();
@@ -206,32 +237,43 @@ public class CommentServiceImpl implements ICommentService {
             // Anonymous user
         }
 
-        Optional<CommentEntity> parentComment = commentRepository.findById(id);
-        if (parentComment.isPresent()) {
-            UserEntity finalUserEntity = userEntity;
-            return parentComment.get().getReplies().stream()
-                    .map(reply -> {
-                        CommentModel model = modelMapper.map(reply, CommentModel.class);
-                        model.setTotalLikes(reply.getLikes() != null ? reply.getLikes().size() : 0);
-                        model.setTotalReplies(reply.getTotalReplies());
-                        if (finalUserEntity != null) {
-                            boolean isLiked = commentLikeRepository.existsByUserEntityIdAndCommentEntityId(finalUserEntity.getId(), reply.getId());
-                            model.setLiked(isLiked);
-                        } else {
-                            model.setLiked(false);
-                        }
-                        return model;
-                    })
-                    .toList();
+        // Tổng số reply lấy từ bộ đếm của comment cha, không resolve list DBRef replies
+        Long replyCount = commentTemplate.findReplyCount(id);
+        if (replyCount == null) {
+            throw new RuntimeException("Comment not found with id: " + id);
         }
-        return null;
+
+        CommentCursor after = cursor != null && !cursor.isBlank() ? CommentCursor.decode(cursor, CommentSort.OLDEST) : null;
+        List<CommentEntity> replies = commentTemplate.findReplies(id, after, size + 1);
+        String nextCursor = null;
+        if (replies.size() > size) {
+            replies = replies.subList(0, size);
+            nextCursor = CommentCursor.of(CommentSort.OLDEST, replies.get(size - 1)).encode();
+        }
+
+        int totalPages = (int) Math.ceil(replyCount / (double) size);
+        return new CursorPageDTO<>(toModelsWithLiked(replies, userEntity), size, 0, totalPages, replyCount, nextCursor);
+    }
+
+    // isLiked của cả danh sách lấy bằng một query $in trên commentLike
+    private List<CommentModel> toModelsWithLiked(List<CommentEntity> comments, UserEntity userEntity) {
+        Set<String> likedIds = userEntity != null
+                ? reactionTemplate.findLikedCommentIds(userEntity.getId(), comments.stream().map(CommentEntity::getId).toList())
+                : Set.of();
+        return comments.stream()
+                .map(comment -> {
+                    CommentModel model = CommentMapper.toModel(comment);
+                    model.setLiked(likedIds.contains(comment.getId()));
+                    return model;
+                })
+                .toList();
     }
 
     @Override
     public CommentModel getById(String id) {
         Optional<CommentEntity> comment = commentRepository.findById(id);
         if (comment.isPresent()) {
-            return modelMapper.map(comment.get(), CommentModel.class);
+            return CommentMapper.toModel(comment.get());
         } else {
             throw new RuntimeException("Comment not found with id: " + id); // Hoặc xử lý lỗi tùy ý
         }
@@ -269,10 +311,7 @@ public class CommentServiceImpl implements ICommentService {
 
             // Nếu comment là con, xóa tham chiếu trong cha
             if (comment.getParentId() != null) {
-                CommentEntity parentComment = commentRepository.findById(comment.getParentId())
-                        .orElseThrow(() -> new RuntimeException("Parent comment not found."));
-                parentComment.getReplies().removeIf(reply -> reply.getId().equals(comment.getId()));
-                commentRepository.save(parentComment);
+                commentTemplate.removeReply(comment.getParentId(), comment.getId());
             }
 
             // Xóa likes của comment
@@ -0,0 +1,107 @@
+package com.castify.backend.service.comment;
+
+import com.castify.backend.models.comment.CommentModel;
+import com.castify.backend.models.comment.CommentStreamFrame;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Phát comment mới và likeCount lên /topic/podcast/{id}/comments.
+ * Sự kiện đầu tiên của một podcast mở một cửa sổ flushIntervalMs, mọi sự kiện trong cửa sổ được gom vào
+ * cùng một frame. Mỗi podcast vì vậy nhận tối đa một frame mỗi cửa sổ, dù lượng ghi lớn tới đâu.
+ */
+@Service
+public class CommentStreamServiceImpl implements ICommentStreamService {
+    private static final Logger logger = Logger.getLogger(CommentStreamServiceImpl.class.getName());
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${castify.comment-stream.flush-interval-ms:300}")
+    private long flushIntervalMs;
+
+    @Value("${castify.comment-stream.max-comments-per-frame:50}")
+    private int maxCommentsPerFrame;
+
+    private final Map<String, PendingFrame> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "comment-stream-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public String destination(String podcastId) {
+        return "/topic/podcast/" + podcastId + "/comments";
+    }
+
+    @Override
+    public void publishComment(String podcastId, CommentModel comment) {
+        enqueue(podcastId, frame -> {
+            if (frame.comments.size() < maxCommentsPerFrame) {
+                frame.comments.add(comment);
+            } else {
+                frame.omittedComments++;
+            }
+        });
+    }
+
+    @Override
+    public void publishLikeCount(String podcastId, String commentId, long likeCount) {
+        enqueue(podcastId, frame -> frame.likeCounts.put(commentId, likeCount));
+    }
+
+    // compute() và remove() trên cùng key là nguyên tử nên sự kiện không thể rơi vào frame đã flush
+    private void enqueue(String podcastId, Consumer<PendingFrame> change) {
+        if (podcastId == null) {
+            return;
+        }
+        pending.compute(podcastId, (key, frame) -> {
+            if (frame == null) {
+                frame = new PendingFrame();
+                flusher.schedule(() -> flush(key), flushIntervalMs, TimeUnit.MILLISECONDS);
+            }
+            change.accept(frame);
+            return frame;
+        });
+    }
+
+    private void flush(String podcastId) {
+        PendingFrame frame = pending.remove(podcastId);
+        if (frame == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSend(destination(podcastId),
+                    new CommentStreamFrame(podcastId, frame.comments, frame.likeCounts, frame.omittedComments));
+        } catch (Exception e) {
+            logger.warning("Failed to publish comment stream for podcast " + podcastId + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private static class PendingFrame {
+        private final List<CommentModel> comments = new ArrayList<>();
+        private final Map<String, Long> likeCounts = new LinkedHashMap<>();
+        private int omittedComments;
+    }
+}
@@ -1,7 +1,8 @@
 package com.castify.backend.service.comment;
 
 import com.castify.backend.entity.UserEntity;
-import com.castify.backend.models.PageDTO;
+import com.castify.backend.models.CursorPageDTO;
+import com.castify.backend.models.ReactionModel;
 import com.castify.backend.models.comment.CommentModel;
 import com.castify.backend.models.comment.CommentRequestDTO;
 import org.springframework.data.domain.Page;
@@ -10,9 +11,11 @@ import java.util.List;
 
 public interface ICommentService {
     CommentModel addComment(CommentRequestDTO commentRequestDTO);
-    PageDTO<CommentModel> getPodcastComments(String id, int page, int size, String sortBy);
+    CursorPageDTO<CommentModel> getPodcastComments(String id, int page, int size, String sortBy, String cursor);
     boolean toggleLikeOnComment(String id) throws Exception;
-    List<CommentModel> getReplies(String id);
+    ReactionModel likeComment(String id) throws Exception;
+    ReactionModel unlikeComment(String id) throws Exception;
+    CursorPageDTO<CommentModel> getReplies(String id, int size, String cursor);
 
     CommentModel getById(String id);
     void deleteCommentsByIds(List<String> commentIds, boolean isAdmin) throws Exception;
@@ -0,0 +1,9 @@
+package com.castify.backend.service.comment;
+
+import com.castify.backend.models.comment.CommentModel;
+
+public interface ICommentStreamService {
+    String destination(String podcastId);
+    void publishComment(String podcastId, CommentModel comment);
+    void publishLikeCount(String podcastId, String commentId, long likeCount);
+}
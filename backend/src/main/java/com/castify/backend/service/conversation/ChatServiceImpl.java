@@ -1,5 +1,6 @@
 package com.castify.backend.service.conversation;
 
+import com.castify.backend.mapper.MessageMapper;
 import com.castify.backend.controller.ConversationController;
 import com.castify.backend.entity.ChatEntity;
 import com.castify.backend.entity.MessageEntity;
@@ -175,7 +176,7 @@ public class ChatServiceImpl implements IChatService {
         msg.setContent(message);
         msg.setChatId(groupId);
         MessageEntity newMess = messageRepository.save(msg);
-        return modelMapper.map(newMess, MessageResponse.class);
+        return MessageMapper.toResponse(newMess);
     }
 
     private void checkValidMessage(String groupId, String userId) {
@@ -198,7 +199,7 @@ public class ChatServiceImpl implements IChatService {
 
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, "timestamp"));
         Page<MessageEntity> msgs = messageRepository.findMessageEntitiesByChatId(groupId, pageable);
-        List<MessageResponse> responses = msgs.getContent().stream().map(msg -> modelMapper.map(msg, MessageResponse.class)).toList();
+        List<MessageResponse> responses = msgs.getContent().stream().map(MessageMapper::toResponse).toList();
         logger.info(msgs.toString());
         return new PaginatedResponse<>(responses, msgs.getTotalPages());
     }
@@ -1,9 +1,22 @@
 package com.castify.backend.service.ffmpeg;
 
+import com.castify.backend.models.podcast.Keyframe;
+
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 public interface IFFmpegService {
     String addThumbnailToVideo(String videoPath, String thumbnailPath, String outputPath) throws IOException, InterruptedException;
     String captureFrameFromVideo(String videoPath, String outputImagePath) throws IOException, InterruptedException;
     long getVideoDuration(String videoPath);
+    // Keyframe của luồng video đầu tiên theo thứ tự thời gian (đọc packet, không decode)
+    List<Keyframe> probeKeyframes(String videoPath) throws IOException, InterruptedException;
+    // Một ảnh ghép columns x rows tile, mỗi tile là frame cách nhau intervalSeconds, co vào khung tileWidth x tileHeight
+    String generateSpriteSheet(String videoPath, String outputImagePath, int intervalSeconds, int columns, int rows,
+                               int tileWidth, int tileHeight) throws IOException, InterruptedException;
+    // Clip ngắn không tiếng, bitrate thấp dùng cho preview khi hover
+    String generatePreviewClip(String videoPath, String outputPath, long startSeconds, int durationSeconds) throws IOException, InterruptedException;
+    // Ghi luồng audio đã decode ra out dạng PCM s16le mono ở sampleRate, không giữ cả file trong bộ nhớ
+    void decodeMonoPcm(String videoPath, int sampleRate, OutputStream out) throws IOException, InterruptedException;
 }
@@ -1,10 +1,15 @@
 package com.castify.backend.service.ffmpeg;
 
+import com.castify.backend.models.podcast.Keyframe;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 @Service
 public class ffmpegServiceImpl implements IFFmpegService {
@@ -95,4 +100,133 @@ public class ffmpegServiceImpl implements IFFmpegService {
         }
         return 0;
     }
+
+    @Override
+    public List<Keyframe> probeKeyframes(String videoPath) throws IOException, InterruptedException {
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                "ffprobe",
+                "-v", "error",
+                "-select_streams", "v:0",
+                "-show_entries", "packet=pts_time,pos,flags", // Chỉ đọc packet, không decode frame
+                "-of", "csv=p=0",
+                videoPath
+        );
+        Process process = processBuilder.start();
+
+        List<Keyframe> keyframes = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Keyframe keyframe = parseKeyframe(line);
+                if (keyframe != null) {
+                    keyframes.add(keyframe);
+                }
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException("FFprobe process failed with exit code " + exitCode);
+        }
+        // Packet ra theo thứ tự decode, B-frame có thể làm pts lệch thứ tự
+        keyframes.sort(Comparator.comparingLong(Keyframe::timeMs));
+        return keyframes;
+    }
+
+    @Override
+    public String generateSpriteSheet(String videoPath, String outputImagePath, int intervalSeconds, int columns, int rows,
+                                      int tileWidth, int tileHeight) throws IOException, InterruptedException {
+        String size = tileWidth + ":" + tileHeight;
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                "ffmpeg",
+                "-y",
+                "-i", videoPath,
+                // Giữ tỉ lệ khung hình, pad cho đủ tile để toạ độ trong file VTT tính được theo lưới
+                "-vf", "fps=1/" + intervalSeconds
+                        + ",scale=" + size + ":force_original_aspect_ratio=decrease"
+                        + ",pad=" + size + ":(ow-iw)/2:(oh-ih)/2"
+                        + ",tile=" + columns + "x" + rows,
+                "-frames:v", "1",
+                "-q:v", "5",
+                outputImagePath
+        );
+        run(processBuilder);
+        return outputImagePath;
+    }
+
+    @Override
+    public String generatePreviewClip(String videoPath, String outputPath, long startSeconds, int durationSeconds) throws IOException, InterruptedException {
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                "ffmpeg",
+                "-y",
+                "-ss", String.valueOf(startSeconds), // Seek trước -i: nhảy theo keyframe, không decode đoạn đầu
+                "-i", videoPath,
+                "-t", String.valueOf(durationSeconds),
+                "-an",
+                "-vf", "scale=320:-2",
+                "-c:v", "libx264",
+                "-preset", "veryfast",
+                "-crf", "32",
+                "-movflags", "+faststart",
+                outputPath
+        );
+        run(processBuilder);
+        return outputPath;
+    }
+
+    @Override
+    public void decodeMonoPcm(String videoPath, int sampleRate, OutputStream out) throws IOException, InterruptedException {
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                "ffmpeg",
+                "-v", "error",
+                "-i", videoPath,
+                "-vn", // Bỏ qua luồng video, chỉ decode audio
+                "-ac", "1",
+                "-ar", String.valueOf(sampleRate),
+                "-f", "s16le",
+                "pipe:1"
+        );
+        // stdout là dữ liệu PCM, log lỗi không cần đọc
+        processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = processBuilder.start();
+
+        try (var pcm = process.getInputStream()) {
+            pcm.transferTo(out);
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException("FFmpeg process failed with exit code " + exitCode);
+        }
+    }
+
+    private static void run(ProcessBuilder processBuilder) throws IOException, InterruptedException {
+        processBuilder.redirectErrorStream(true);
+        Process process = processBuilder.start();
+
+        // Đọc hết log để ffmpeg không bị block khi buffer pipe đầy
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            while (reader.readLine() != null) {
+                // bỏ qua
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException("FFmpeg process failed with exit code " + exitCode);
+        }
+    }
+
+    // Dòng "pts_time,pos,flags", ví dụ "35.200000,1048576,K__"; packet không phải keyframe hoặc thiếu pts/pos trả null
+    static Keyframe parseKeyframe(String line) {
+        String[] parts = line.trim().split(",");
+        if (parts.length < 3 || !parts[2].startsWith("K")) {
+            return null;
+        }
+        try {
+            return new Keyframe(Math.round(Double.parseDouble(parts[0]) * 1000), Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
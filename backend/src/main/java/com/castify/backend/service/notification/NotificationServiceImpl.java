@@ -1,5 +1,6 @@
 package com.castify.backend.service.notification;
 
+import com.castify.backend.mapper.NotificationMapper;
 import com.castify.backend.entity.NotificationEntity;
 import com.castify.backend.entity.UserEntity;
 import com.castify.backend.enums.NotiType;
@@ -8,7 +9,6 @@ import com.castify.backend.models.notification.ReturnNumber;
 import com.castify.backend.models.paginated.PaginatedResponse;
 import com.castify.backend.repository.NotificationRepository;
 import com.castify.backend.service.user.IUserService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
@@ -31,8 +31,6 @@ public class NotificationServiceImpl implements INotificationService {
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
-    @Autowired
-    private ModelMapper modelMapper;
 
     @Override
     public void saveNotification(String receiverId, NotiType type, String title, String content, String url) throws Exception {
@@ -50,7 +48,7 @@ public class NotificationServiceImpl implements INotificationService {
         messagingTemplate.convertAndSendToUser(
                 receiverId,
                 "/queue/notification",
-                modelMapper.map(savedNoti, NotifiModel.class)
+                NotificationMapper.toModel(savedNoti)
         );
     }
 
@@ -60,7 +58,7 @@ public class NotificationServiceImpl implements INotificationService {
         Pageable pageable = PageRequest.of(pageNumber,pageSize,sort);
         UserEntity currentUser = userService.getUserByAuthentication();
         Page<NotificationEntity> notis = notificationRepository.getNotificationEntitiesByReceiverId(currentUser.getId(),pageable);
-        List<NotifiModel> returnData = notis.getContent().stream().map(noti -> modelMapper.map(noti, NotifiModel.class)).toList();
+        List<NotifiModel> returnData = notis.getContent().stream().map(NotificationMapper::toModel).toList();
         return new PaginatedResponse<>(returnData,notis.getTotalPages());
     }
     @Override
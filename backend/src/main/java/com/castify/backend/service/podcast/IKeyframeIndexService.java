@@ -0,0 +1,16 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.podcast.KeyframeSeek;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface IKeyframeIndexService {
+    // Chạy ffprobe trên bản local của video (file upload) và ghi index <key>.kfi vào IMediaStore, gọi lúc ingest
+    void buildIndex(String videoKey, Path localVideo) throws IOException, InterruptedException;
+
+    // Keyframe gần nhất trước timeMs; null khi video chưa có index hoặc index không khớp object video
+    KeyframeSeek seek(String videoKey, long timeMs) throws IOException;
+
+    void deleteIndex(String videoKey) throws IOException;
+}
@@ -0,0 +1,16 @@
+package com.castify.backend.service.podcast;
+
+import java.io.IOException;
+
+public interface IMediaPreviewService {
+    // Prefix key trong IMediaStore và prefix URL tương ứng (MediaPreviewController)
+    String DIRECTORY = "previews";
+    String URL_PREFIX = "/media/previews/";
+
+    // Đưa việc sinh waveform, sprite + VTT, clip preview của blob video vào hàng đợi nền;
+    // false khi hàng đợi đầy hoặc tính năng bị tắt; blob đang chờ/đang sinh trên node này không được thêm lần nữa
+    boolean schedule(String videoHash, String videoKey, long durationSeconds);
+
+    // Xoá sprite, VTT và clip của một lần sinh, suy ra từ URL đã lưu trên blob (null được bỏ qua)
+    void deletePreviews(String thumbnailsVttUrl, String previewUrl) throws IOException;
+}
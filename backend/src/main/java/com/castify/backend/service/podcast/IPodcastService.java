@@ -1,10 +1,13 @@
 package com.castify.backend.service.podcast;
 
 import com.castify.backend.entity.UserEntity;
+import com.castify.backend.models.CursorPageDTO;
 import com.castify.backend.models.PageDTO;
+import com.castify.backend.models.ReactionModel;
 import com.castify.backend.models.comment.CommentModel;
 import com.castify.backend.models.podcast.CreatePodcastModel;
 import com.castify.backend.models.podcast.EditPodcastDTO;
+import com.castify.backend.models.podcast.PodcastLikerModel;
 import com.castify.backend.models.podcast.PodcastModel;
 
 import java.util.List;
@@ -14,11 +17,15 @@ public interface IPodcastService {
     PodcastModel createPodcast(CreatePodcastModel createPodcastModel, String userId);
     PageDTO<PodcastModel> getAllSelfPodcasts(int page, int size, Integer minViews,
                                            Integer minComments, String sortByViews,
-                                           String sortByComments, String sortByCreatedDay);
+                                           String sortByComments, String sortByCreatedDay) throws Exception;
     PodcastModel getPodcastById(String id) throws Exception;
     PodcastModel getPodcastBySelf(String podcastId) throws Exception;
     PodcastModel getPodcastByIdAnonymous(String id);
     String toggleLikeOnPodcast(String id) throws Exception;
+    ReactionModel likePodcast(String id) throws Exception;
+    ReactionModel unlikePodcast(String id) throws Exception;
+    CursorPageDTO<PodcastLikerModel> getPodcastLikers(String id, int size, String cursor);
+    CursorPageDTO<PodcastModel> getLikedPodcasts(int size, String cursor) throws Exception;
     PageDTO<PodcastModel> getRecentPodcasts(int page, int size);
     PageDTO<PodcastModel> getPopularPodcasts(int page, int size);
     PageDTO<PodcastModel> getPodcastsByGenre(String genreId, int page, int size);
@@ -0,0 +1,17 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.podcast.StoredVideo;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface IVideoBlobService {
+    // Băm SHA-256 trong lúc ghi file upload; nội dung đã có thì tăng refCount và bỏ bản vừa nhận
+    StoredVideo store(MultipartFile videoFile) throws IOException, InterruptedException;
+
+    // Thumbnail capture từ frame đầu, dùng lại cho lần upload trùng sau
+    void rememberThumbnail(String hash, String thumbnailUrl);
+
+    // Giảm refCount; về 0 thì xoá blob cùng index (.kfi, .wfm) và preview
+    void release(String hash) throws IOException;
+}
@@ -0,0 +1,11 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.storage.MediaStat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IVideoChunkCacheService {
+    // Luồng đọc byte [start, end] của object key (stat từ IMediaStore), các chunk nóng đọc từ cache off-heap thay vì store
+    InputStream openRange(String key, MediaStat stat, long start, long end) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.entity.PodcastEntity;
+
+public interface IVideoUrlService {
+    // Bản gốc người dùng upload; các rendition khác thêm sau
+    String SOURCE_RENDITION = "source";
+
+    // URL tương đối /api/v1/podcast/video/{id}/{rendition}?path=&exp=&sig=, null khi podcast không có video
+    String signedUrl(PodcastEntity podcast);
+
+    // Key video trong IMediaStore nếu chữ ký hợp lệ và chưa hết hạn, ngược lại null. Không truy cập DB
+    String resolve(String podcastId, String rendition, String path, long expires, String signature);
+}
@@ -0,0 +1,13 @@
+package com.castify.backend.service.podcast;
+
+import java.io.IOException;
+
+public interface IWaveformService {
+    // Decode audio một lần và ghi object <key>.wfm vào IMediaStore, chứa peak min/max ở nhiều mức zoom
+    void buildWaveform(String videoKey) throws IOException, InterruptedException;
+
+    // Nội dung blob .wfm; null khi video chưa có waveform hoặc waveform không khớp object video
+    byte[] readWaveform(String videoKey) throws IOException;
+
+    void deleteWaveform(String videoKey) throws IOException;
+}
@@ -0,0 +1,197 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.podcast.Keyframe;
+import com.castify.backend.models.podcast.KeyframeSeek;
+import com.castify.backend.models.storage.MediaStat;
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.IMediaStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index keyframe → byte offset lưu thành object nhị phân <key video>.kfi trong IMediaStore:
+ * header (magic "CKFI", version, độ dài file video, số entry) rồi các entry (int thời gian ms, long offset)
+ * theo thứ tự thời gian. Khi seek, bản local trong index-cache-dir được map bằng MappedByteBuffer và tìm nhị phân,
+ * không đọc cả file; node chưa có bản local thì tải object về một lần. Với store local và cache-dir mặc định,
+ * bản local chính là object trong store.
+ * Độ dài video trong header khác object video hiện tại thì coi như index cũ và bỏ qua.
+ */
+@Service
+public class KeyframeIndexServiceImpl implements IKeyframeIndexService {
+    static final String SUFFIX = ".kfi";
+    private static final int MAGIC = 0x434B4649;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 8 + 4;
+    private static final int ENTRY_BYTES = 4 + 8;
+    private static final int MAX_MAPPED = 4096;
+
+    @Autowired
+    private IFFmpegService ffmpegService;
+
+    @Autowired
+    private IMediaStore mediaStore;
+
+    @Value("${castify.media.index-cache-dir:${podcast.video.base-path}}")
+    private String indexCacheDir;
+
+    private final Map<String, MappedIndex> mapped = new ConcurrentHashMap<>();
+
+    @Override
+    public void buildIndex(String videoKey, Path localVideo) throws IOException, InterruptedException {
+        writeIndex(videoKey, Files.size(localVideo), ffmpegService.probeKeyframes(localVideo.toString()));
+    }
+
+    @Override
+    public KeyframeSeek seek(String videoKey, long timeMs) throws IOException {
+        MappedIndex index = mappedIndex(videoKey);
+        if (index == null || index.count() == 0) {
+            return null;
+        }
+        MediaStat video = mediaStore.stat(videoKey);
+        if (video == null || index.videoLength() != video.size()) {
+            return null;
+        }
+        MappedByteBuffer buffer = index.buffer();
+
+        // Entry cuối cùng có thời gian <= timeMs (trước keyframe đầu thì lấy keyframe đầu)
+        int low = 0;
+        int high = index.count() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (timeAt(buffer, mid) <= timeMs) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        long start = offsetAt(buffer, low);
+        long next = low + 1 < index.count() ? offsetAt(buffer, low + 1) : index.videoLength();
+        return new KeyframeSeek(timeAt(buffer, low), start, Math.max(start, next - 1));
+    }
+
+    @Override
+    public void deleteIndex(String videoKey) throws IOException {
+        mediaStore.delete(indexKeyOf(videoKey));
+        Files.deleteIfExists(cacheFileOf(videoKey));
+        mapped.remove(videoKey);
+    }
+
+    void writeIndex(String videoKey, long videoLength, List<Keyframe> keyframes) throws IOException {
+        // Vài nghìn entry x 12 byte: dựng trong bộ nhớ rồi ghi một lần, store không để lộ object ghi dở
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + keyframes.size() * ENTRY_BYTES);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeLong(videoLength);
+            out.writeInt(keyframes.size());
+            for (Keyframe keyframe : keyframes) {
+                out.writeInt((int) Math.min(Integer.MAX_VALUE, keyframe.timeMs()));
+                out.writeLong(keyframe.offset());
+            }
+        }
+        byte[] content = bytes.toByteArray();
+        mediaStore.write(indexKeyOf(videoKey), new ByteArrayInputStream(content), content.length);
+        // Node ingest có sẵn bản local, không phải tải lại (store local + cache-dir mặc định: cùng một file)
+        writeLocal(cacheFileOf(videoKey), content);
+        mapped.remove(videoKey);
+    }
+
+    private MappedIndex mappedIndex(String videoKey) throws IOException {
+        Path sidecar = cacheFileOf(videoKey);
+        if (!Files.exists(sidecar) && !download(videoKey, sidecar)) {
+            return null;
+        }
+        long modified = Files.getLastModifiedTime(sidecar).toMillis();
+        MappedIndex index = mapped.get(videoKey);
+        if (index != null && index.modified() == modified) {
+            return index;
+        }
+
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            // Mapping vẫn dùng được sau khi đóng channel
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+                return null;
+            }
+            int count = buffer.getInt(16);
+            if (HEADER_BYTES + (long) count * ENTRY_BYTES > channel.size()) {
+                return null;
+            }
+            index = new MappedIndex(modified, buffer.getLong(8), count, buffer);
+        }
+        if (mapped.size() >= MAX_MAPPED) {
+            mapped.clear();
+        }
+        mapped.put(videoKey, index);
+        return index;
+    }
+
+    private boolean download(String videoKey, Path sidecar) throws IOException {
+        String indexKey = indexKeyOf(videoKey);
+        MediaStat stat = mediaStore.stat(indexKey);
+        if (stat == null) {
+            return false;
+        }
+        try (InputStream in = mediaStore.openRange(indexKey, 0, stat.size() - 1)) {
+            writeLocal(sidecar, in.readAllBytes());
+        }
+        return true;
+    }
+
+    private static void writeLocal(Path sidecar, byte[] content) throws IOException {
+        Files.createDirectories(sidecar.getParent());
+        Path temp = Files.createTempFile(sidecar.getParent(), "." + sidecar.getFileName(), ".part");
+        try {
+            Files.write(temp, content);
+            // Reader không bao giờ thấy file ghi dở
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long timeAt(MappedByteBuffer buffer, int entry) {
+        return buffer.getInt(HEADER_BYTES + entry * ENTRY_BYTES);
+    }
+
+    private static long offsetAt(MappedByteBuffer buffer, int entry) {
+        return buffer.getLong(HEADER_BYTES + entry * ENTRY_BYTES + 4);
+    }
+
+    static String indexKeyOf(String videoKey) {
+        return videoKey + SUFFIX;
+    }
+
+    private Path cacheFileOf(String videoKey) {
+        Path base = Paths.get(indexCacheDir).toAbsolutePath().normalize();
+        Path file = base.resolve(indexKeyOf(videoKey)).normalize();
+        if (!file.startsWith(base)) {
+            throw new IllegalArgumentException("Invalid media key: " + videoKey);
+        }
+        return file;
+    }
+
+    private record MappedIndex(long modified, long videoLength, int count, MappedByteBuffer buffer) {
+    }
+}
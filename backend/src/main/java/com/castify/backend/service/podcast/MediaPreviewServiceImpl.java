@@ -0,0 +1,278 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.podcast.KeyframeSeek;
+import com.castify.backend.repository.template.PodcastTemplate;
+import com.castify.backend.repository.template.VideoBlobTemplate;
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.IMediaStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Sinh waveform, sprite thumbnail + WebVTT và clip preview sau khi upload, trên một pool nhỏ có hàng đợi giới hạn
+ * để ffmpeg không tranh CPU với request. ffmpeg đọc video thẳng từ IMediaStore và ghi ra thư mục tạm local;
+ * waveform là object .wfm cạnh video, sprite, VTT và clip được đưa vào store ở previews/<hash của blob video>/<version>/
+ * và phục vụ qua MediaPreviewController với cache immutable: mỗi lần sinh lại dùng version mới nên URL cũ
+ * không bao giờ đổi nội dung.
+ * Thời lượng lấy lại từ lần ffprobe lúc upload, điểm bắt đầu clip bám keyframe trong index .kfi.
+ */
+@Service
+public class MediaPreviewServiceImpl implements IMediaPreviewService {
+    static final String SPRITE_FILE = "sprite.jpg";
+    static final String VTT_FILE = "thumbnails.vtt";
+    static final String PREVIEW_FILE = "preview.mp4";
+    static final List<String> FILES = List.of(SPRITE_FILE, VTT_FILE, PREVIEW_FILE);
+
+    private static final Logger logger = Logger.getLogger(MediaPreviewServiceImpl.class.getName());
+
+    @Autowired
+    private IFFmpegService ffmpegService;
+
+    @Autowired
+    private IKeyframeIndexService keyframeIndexService;
+
+    @Autowired
+    private IWaveformService waveformService;
+
+    @Autowired
+    private VideoBlobTemplate videoBlobTemplate;
+
+    @Autowired
+    private PodcastTemplate podcastTemplate;
+
+    @Autowired
+    private IMediaStore mediaStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    // 0 = tắt
+    @Value("${castify.media-preview.threads:1}")
+    private int threads;
+
+    @Value("${castify.media-preview.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${castify.media-preview.interval-seconds:10}")
+    private int intervalSeconds;
+
+    @Value("${castify.media-preview.max-tiles:200}")
+    private int maxTiles;
+
+    @Value("${castify.media-preview.columns:10}")
+    private int columns;
+
+    @Value("${castify.media-preview.tile-width:160}")
+    private int tileWidth;
+
+    @Value("${castify.media-preview.tile-height:90}")
+    private int tileHeight;
+
+    @Value("${castify.media-preview.clip-seconds:6}")
+    private int clipSeconds;
+
+    // Hash của blob đang chờ hoặc đang sinh, để upload trùng liên tiếp không xếp hàng cùng một video nhiều lần
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+    private Timer generateTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void start() {
+        if (threads <= 0) {
+            return;
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-preview-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        generateTimer = Timer.builder("castify.media-preview.generate")
+                .description("Thời gian sinh sprite, VTT và clip preview cho một video")
+                .register(meterRegistry);
+        rejected = Counter.builder("castify.media-preview.rejected")
+                .description("Số video bỏ qua vì hàng đợi sinh preview đầy")
+                .register(meterRegistry);
+        Gauge.builder("castify.media-preview.queue", executor, e -> e.getQueue().size())
+                .description("Số video đang chờ sinh preview")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean schedule(String videoHash, String videoKey, long durationSeconds) {
+        if (executor == null || videoHash == null || durationSeconds <= 0) {
+            return false;
+        }
+        if (!pending.add(videoHash)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> generateTimer.record(() -> {
+                try {
+                    buildWaveform(videoHash, videoKey);
+                    generate(videoHash, videoKey, durationSeconds);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    logger.warning("Cannot generate preview media for video " + videoHash + ": " + e.getMessage());
+                } finally {
+                    pending.remove(videoHash);
+                }
+            }));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(videoHash);
+            rejected.increment();
+            logger.warning("Preview queue is full, skipping video " + videoHash);
+            return false;
+        }
+    }
+
+    @Override
+    public void deletePreviews(String thumbnailsVttUrl, String previewUrl) throws IOException {
+        for (String url : new String[]{thumbnailsVttUrl, previewUrl}) {
+            if (url == null || !url.startsWith(URL_PREFIX) || url.lastIndexOf('/') < URL_PREFIX.length()) {
+                continue;
+            }
+            String versionKey = DIRECTORY + "/" + url.substring(URL_PREFIX.length(), url.lastIndexOf('/'));
+            for (String file : FILES) {
+                mediaStore.delete(versionKey + "/" + file);
+            }
+        }
+    }
+
+    // Waveform là object riêng của video, lỗi (ví dụ video không có audio) không chặn sprite/preview
+    private void buildWaveform(String videoHash, String videoKey) throws InterruptedException {
+        try {
+            waveformService.buildWaveform(videoKey);
+        } catch (IOException e) {
+            logger.warning("Cannot build waveform for video " + videoHash + ": " + e.getMessage());
+        }
+    }
+
+    void generate(String videoHash, String videoKey, long durationSeconds) throws IOException, InterruptedException {
+        SpriteLayout layout = layout(durationSeconds, intervalSeconds, maxTiles, columns);
+        String version = Long.toString(System.currentTimeMillis(), 36);
+        String input = mediaStore.ffmpegInput(videoKey);
+        Path tempRoot = Paths.get(uploadDir, "tmp");
+        Files.createDirectories(tempRoot);
+        Path dir = Files.createTempDirectory(tempRoot, "preview-");
+        String versionKey = DIRECTORY + "/" + videoHash + "/" + version;
+
+        boolean stored = false;
+        try {
+            ffmpegService.generateSpriteSheet(input, dir.resolve(SPRITE_FILE).toString(),
+                    layout.interval(), layout.columns(), layout.rows(), tileWidth, tileHeight);
+            Files.writeString(dir.resolve(VTT_FILE),
+                    buildVtt(durationSeconds, layout, tileWidth, tileHeight, SPRITE_FILE), StandardCharsets.UTF_8);
+
+            int clipLength = (int) Math.min(clipSeconds, durationSeconds);
+            ffmpegService.generatePreviewClip(input, dir.resolve(PREVIEW_FILE).toString(),
+                    previewStart(videoKey, durationSeconds, clipLength), clipLength);
+
+            // VTT trỏ tới sprite nên đưa sprite vào store trước
+            for (String file : FILES) {
+                mediaStore.writeFile(versionKey + "/" + file, dir.resolve(file));
+            }
+
+            String base = URL_PREFIX + videoHash + "/" + version + "/";
+            // Blob bị dọn (mọi podcast đã xoá) trong lúc chờ thì không còn ai trỏ tới các object này.
+            // Lưu trên blob cho lần upload trùng sau, rồi gán cho mọi podcast đang dùng blob
+            stored = videoBlobTemplate.setPreviewMedia(videoHash, base + VTT_FILE, base + PREVIEW_FILE);
+            if (stored) {
+                podcastTemplate.setPreviewMedia(videoHash, base + VTT_FILE, base + PREVIEW_FILE);
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(dir);
+            if (!stored) {
+                for (String file : FILES) {
+                    mediaStore.delete(versionKey + "/" + file);
+                }
+            }
+        }
+    }
+
+    // Khoảng 10% đầu video thường là intro/màn hình đen; bám về keyframe gần nhất để -ss không phải decode
+    private long previewStart(String videoKey, long durationSeconds, int clipLength) {
+        long start = Math.min(durationSeconds / 10, durationSeconds - clipLength);
+        try {
+            KeyframeSeek seek = keyframeIndexService.seek(videoKey, start * 1000);
+            if (seek != null) {
+                return seek.timeMs() / 1000;
+            }
+        } catch (IOException e) {
+            // Không có index thì dùng mốc đã tính
+        }
+        return Math.max(0, start);
+    }
+
+    // Nới interval cho video dài để số tile không vượt maxTiles (giữ kích thước sprite cố định)
+    static SpriteLayout layout(long durationSeconds, int intervalSeconds, int maxTiles, int columns) {
+        int interval = (int) Math.max(intervalSeconds, (durationSeconds + maxTiles - 1) / maxTiles);
+        int tiles = (int) Math.max(1, (durationSeconds + interval - 1) / interval);
+        int cols = Math.min(columns, tiles);
+        return new SpriteLayout(interval, tiles, cols, (tiles + cols - 1) / cols);
+    }
+
+    // Mỗi cue trỏ tới một vùng của sprite theo media fragment #xywh, đường dẫn tương đối với file .vtt
+    static String buildVtt(long durationSeconds, SpriteLayout layout, int tileWidth, int tileHeight, String sprite) {
+        StringBuilder vtt = new StringBuilder("WEBVTT\n");
+        for (int i = 0; i < layout.tiles(); i++) {
+            long from = (long) i * layout.interval();
+            long to = Math.min(from + layout.interval(), durationSeconds);
+            int x = (i % layout.columns()) * tileWidth;
+            int y = (i / layout.columns()) * tileHeight;
+            vtt.append('\n')
+                    .append(timestamp(from)).append(" --> ").append(timestamp(to)).append('\n')
+                    .append(sprite).append("#xywh=").append(x).append(',').append(y).append(',')
+                    .append(tileWidth).append(',').append(tileHeight).append('\n');
+        }
+        return vtt.toString();
+    }
+
+    private static String timestamp(long seconds) {
+        return String.format("%02d:%02d:%02d.000", seconds / 3600, (seconds % 3600) / 60, seconds % 60);
+    }
+
+    record SpriteLayout(int interval, int tiles, int columns, int rows) {
+    }
+}
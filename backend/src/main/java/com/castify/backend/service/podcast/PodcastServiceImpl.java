@@ -1,20 +1,31 @@
 package com.castify.backend.service.podcast;
 
+import com.castify.backend.mapper.PodcastMapper;
+import com.castify.backend.mapper.UserMapper;
 import com.castify.backend.entity.*;
 import com.castify.backend.enums.ActivityType;
 import com.castify.backend.enums.NotiType;
+import com.castify.backend.models.CursorPageDTO;
 import com.castify.backend.models.PageDTO;
+import com.castify.backend.models.ReactionModel;
 import com.castify.backend.models.podcast.CreatePodcastModel;
 import com.castify.backend.models.podcast.EditPodcastDTO;
+import com.castify.backend.models.podcast.LikeCursor;
+import com.castify.backend.models.podcast.PodcastLikeCount;
+import com.castify.backend.models.podcast.PodcastLikeRef;
+import com.castify.backend.models.podcast.PodcastLikerModel;
 import com.castify.backend.models.podcast.PodcastModel;
 import com.castify.backend.models.user.FollowInfo;
 import com.castify.backend.models.user.UserSimple;
 import com.castify.backend.models.userActivity.AddActivityRequestDTO;
 import com.castify.backend.repository.*;
+import com.castify.backend.repository.template.PodcastTemplate;
+import com.castify.backend.repository.template.ReactionTemplate;
 import com.castify.backend.service.notification.INotificationService;
 import com.castify.backend.service.uploadFile.UploadFileServiceImpl;
 import com.castify.backend.service.user.IUserService;
 import com.castify.backend.service.userActivity.UserActivityServiceImpl;
+import com.castify.backend.utils.DBRefUtils;
 import org.bson.types.ObjectId;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,8 +37,6 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -66,6 +75,12 @@ public class PodcastServiceImpl implements IPodcastService {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private PodcastTemplate podcastTemplate;
+
+    @Autowired
+    private ReactionTemplate reactionTemplate;
+
     @Autowired
     private UserActivityServiceImpl userActivityService;
 
@@ -73,6 +88,10 @@ public class PodcastServiceImpl implements IPodcastService {
     private UploadFileServiceImpl uploadFileService;
     @Autowired
     private INotificationService notificationService;
+    @Autowired
+    private IVideoUrlService videoUrlService;
+    @Autowired
+    private IVideoBlobService videoBlobService;
     @Override
     public PodcastModel createPodcast(CreatePodcastModel createPodcastModel, String userId) {
         PodcastEntity podcastEntity = modelMapper.map(createPodcastModel, PodcastEntity.class);
@@ -88,6 +107,9 @@ public class PodcastServiceImpl implements IPodcastService {
         podcastEntity.setVideoUrl(createPodcastModel.getVideoPath());
         podcastEntity.setThumbnailUrl(createPodcastModel.getThumbnailPath());
         podcastEntity.setDuration(createPodcastModel.getDuration());
+        podcastEntity.setVideoHash(createPodcastModel.getVideoHash());
+        podcastEntity.setThumbnailsVttUrl(createPodcastModel.getThumbnailsVttUrl());
+        podcastEntity.setPreviewUrl(createPodcastModel.getPreviewUrl());
 
         podcastEntity.setGenres(validGenres);
         podcastEntity.setUser(userEntity);
@@ -97,7 +119,7 @@ public class PodcastServiceImpl implements IPodcastService {
 
         podcastRepository.save(podcastEntity);
 
-        return modelMapper.map(podcastEntity, PodcastModel.class);
+        return toModel(podcastEntity);
     }
 
     @Override
@@ -109,12 +131,8 @@ public class PodcastServiceImpl implements IPodcastService {
             String sortByViews,
             String sortByComments,
             String sortByCreatedDay
-    ) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String userEmail = authentication.getName();
-
-        UserEntity userEntity = userRepository.findByEmailOrUsername(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + userEmail));
+    ) throws Exception {
+        UserEntity userEntity = userService.getUserByAuthentication();
 
         // Xử lý giá trị mặc định cho minViews và minComments
         int minViewsValue = (minViews != null) ? minViews : 0;
@@ -144,9 +162,8 @@ public class PodcastServiceImpl implements IPodcastService {
                 .map(podcast -> {
                     long totalComments = commentRepository.countByPodcastId(podcast.getId());
                     if (totalComments >= minCommentsValue) { // Lọc tại đây
-                        PodcastModel podcastModel = modelMapper.map(podcast, PodcastModel.class);
+                        PodcastModel podcastModel = toModel(podcast);
                         podcastModel.setTotalComments(totalComments);
-                        podcastModel.setTotalLikes(podcastLikeRepository.countByPodcastEntityId(podcast.getId()));
                         podcastModel.setUsername(podcast.getUser().getUsername());
 //                    podcastModel.setVideoUrl("/api/v1/podcast/video?path=" + podcast.getVideoUrl());
                         return podcastModel;
@@ -167,11 +184,7 @@ public class PodcastServiceImpl implements IPodcastService {
 
     @Override
     public PodcastModel getPodcastById(String podcastId) throws Exception {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String userEmail = authentication.getName();
-
-        UserEntity userEntity = userRepository.findByEmailOrUsername(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + userEmail));
+        UserEntity userEntity = userService.getUserByAuthentication();
 
         PodcastEntity podcastEntity;
 
@@ -200,11 +213,9 @@ public class PodcastServiceImpl implements IPodcastService {
         userActivityService.addActivity(activityDTO);
 
         long totalComments = commentRepository.countByPodcastId(podcastId);
-        long totalLikes = podcastLikeRepository.countByPodcastEntityId(podcastId);
 
-        PodcastModel podcastModel = modelMapper.map(podcastEntity, PodcastModel.class);
+        PodcastModel podcastModel = toModel(podcastEntity);
         podcastModel.setTotalComments(totalComments);
-        podcastModel.setTotalLikes(totalLikes);
         podcastModel.setUsername(podcastEntity.getUser().getUsername());
 
         boolean isLiked = podcastLikeRepository.existsByUserEntityIdAndPodcastEntityId(userEntity.getId(), podcastId);
@@ -212,7 +223,7 @@ public class PodcastServiceImpl implements IPodcastService {
 
         // Ánh xạ UserSimple
         UserEntity podcastUser = podcastEntity.getUser();
-        UserSimple userSimple = modelMapper.map(podcastUser, UserSimple.class);
+        UserSimple userSimple = UserMapper.toSimple(podcastUser);
 
         // Tính tổng follower
         long followerSize = userRepository.findUsersFollowers(podcastUser.getId()).size();
@@ -249,14 +260,12 @@ public class PodcastServiceImpl implements IPodcastService {
             throw new RuntimeException("Access denied");
         }
 
-        // Tính tổng số bình luận và lượt thích
+        // Tính tổng số bình luận (lượt thích lấy từ likeCount qua PodcastMapper)
         long totalComments = commentRepository.countByPodcastId(podcastId);
-        long totalLikes = podcastLikeRepository.countByPodcastEntityId(podcastId);
 
         // Ánh xạ PodcastEntity sang PodcastModel
-        PodcastModel podcastModel = modelMapper.map(podcastEntity, PodcastModel.class);
+        PodcastModel podcastModel = toModel(podcastEntity);
         podcastModel.setTotalComments(totalComments);
-        podcastModel.setTotalLikes(totalLikes);
         podcastModel.setUsername(podcastEntity.getUser().getUsername());
 
         // Kiểm tra xem người dùng hiện tại có thích podcast này không
@@ -265,7 +274,7 @@ public class PodcastServiceImpl implements IPodcastService {
 
         // Ánh xạ thông tin user của podcast
         UserEntity podcastUser = podcastEntity.getUser();
-        UserSimple userSimple = modelMapper.map(podcastUser, UserSimple.class);
+        UserSimple userSimple = UserMapper.toSimple(podcastUser);
 
         // Tính tổng follower
         long followerSize = userRepository.findUsersFollowers(podcastUser.getId()).size();
@@ -296,18 +305,16 @@ public class PodcastServiceImpl implements IPodcastService {
                 .orElseThrow(() -> new RuntimeException("Podcast not found"));
 
         long totalComments = commentRepository.countByPodcastId(id);
-        long totalLikes = podcastLikeRepository.countByPodcastEntityId(id);
 
-        PodcastModel podcastModel = modelMapper.map(podcastEntity, PodcastModel.class);
+        PodcastModel podcastModel = toModel(podcastEntity);
         podcastModel.setTotalComments(totalComments);
-        podcastModel.setTotalLikes(totalLikes);
         podcastModel.setUsername(podcastEntity.getUser().getUsername());
 
         podcastModel.setLiked(false);
 
         // Ánh xạ UserSimple
         UserEntity podcastUser = podcastEntity.getUser();
-        UserSimple userSimple = modelMapper.map(podcastUser, UserSimple.class);
+        UserSimple userSimple = UserMapper.toSimple(podcastUser);
 
         // Tính tổng follower
         long followerSize = userRepository.findUsersFollowers(podcastUser.getId()).size();
@@ -321,45 +328,145 @@ public class PodcastServiceImpl implements IPodcastService {
 
     @Override
     public String toggleLikeOnPodcast(String id) throws Exception {
-        System.out.println(id);
         UserEntity userEntity = userService.getUserByAuthentication();
+        // Client cũ: bỏ like nếu đang like, không thì like
+        String removedLikeId = reactionTemplate.deleteReaction(PodcastLikeEntity.class, "podcastEntity", userEntity.getId(), id);
+        if (removedLikeId != null) {
+            afterUnlike(id, removedLikeId);
+        } else {
+            like(userEntity, id);
+        }
+        return "Success";
+    }
 
-        PodcastEntity podcastEntity = podcastRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Podcast not found"));
-
-        Optional<PodcastLikeEntity> existingLike = podcastLikeRepository
-                .findByUserEntityIdAndPodcastEntityId(userEntity.getId(), podcastEntity.getId());
+    @Override
+    public ReactionModel likePodcast(String id) throws Exception {
+        return like(userService.getUserByAuthentication(), id);
+    }
 
-        if (existingLike.isPresent()) {
-            // Nếu đã like, thì unlike
-            PodcastLikeEntity likeToRemove = existingLike.get();
-            podcastLikeRepository.delete(likeToRemove);
+    @Override
+    public ReactionModel unlikePodcast(String id) throws Exception {
+        UserEntity userEntity = userService.getUserByAuthentication();
+        String removedLikeId = reactionTemplate.deleteReaction(PodcastLikeEntity.class, "podcastEntity", userEntity.getId(), id);
+        if (removedLikeId == null) {
+            // Chưa like (hoặc request lặp lại): không đổi gì
+            return new ReactionModel(false, currentLikeCount(id));
+        }
+        return afterUnlike(id, removedLikeId);
+    }
 
-            // Gỡ bỏ tham chiếu ngược
-            podcastEntity.getLikes().remove(likeToRemove);
-        } else {
-            // Nếu chưa like, thì thêm like
-            PodcastLikeEntity newLike = new PodcastLikeEntity();
-            newLike.setUserEntity(userEntity);
-            newLike.setPodcastEntity(podcastEntity);
-            newLike.setTimestamp(LocalDateTime.now());
-            podcastLikeRepository.save(newLike);
+    // Insert like (unique index chặn bản trùng) rồi $push ref + $inc likeCount: hai lệnh, gọi lặp lại không đếm hai lần
+    private ReactionModel like(UserEntity userEntity, String id) throws Exception {
+        PodcastEntity podcastRef = new PodcastEntity();
+        podcastRef.setId(id);
+        PodcastLikeEntity newLike = new PodcastLikeEntity();
+        newLike.setUserEntity(userEntity);
+        newLike.setPodcastEntity(podcastRef);
+        newLike.setTimestamp(LocalDateTime.now());
+
+        if (reactionTemplate.insertReaction(newLike) == null) {
+            return new ReactionModel(true, currentLikeCount(id));
+        }
+        PodcastLikeCount likeCount = podcastTemplate.addLike(id, newLike.getId());
+        if (likeCount == null) {
+            // Podcast không tồn tại: gỡ like vừa thêm
+            podcastLikeRepository.deleteById(newLike.getId());
+            throw new RuntimeException("Podcast not found");
+        }
+        // Chỉ thông báo cho lượt like mới, request lặp lại không gửi thêm
+        if (likeCount.ownerId() != null) {
             notificationService.saveNotification(
-                    podcastEntity.getUser().getId(),
+                    likeCount.ownerId(),
                     NotiType.LIKE,
                     "Bạn vừa nhận thêm 1 lượt thích!",
-                    "Bạn vừa nhận thêm 1 lượt thích ở video "+podcastEntity.getTitle()+"!",
-                    "/watch?pid=" + podcastEntity.getId()
+                    "Bạn vừa nhận thêm 1 lượt thích ở video "+likeCount.title()+"!",
+                    "/watch?pid=" + id
             );
-            // Thêm tham chiếu ngược
-            if (podcastEntity.getLikes() == null) {
-                podcastEntity.setLikes(new ArrayList<>());
+        }
+        return new ReactionModel(true, likeCount.likeCount());
+    }
+
+    private ReactionModel afterUnlike(String id, String removedLikeId) {
+        PodcastLikeCount likeCount = podcastTemplate.removeLike(id, removedLikeId);
+        if (likeCount == null) {
+            // Ref không nằm trong list likes (dữ liệu cũ), likeCount không đổi
+            return new ReactionModel(false, currentLikeCount(id));
+        }
+        return new ReactionModel(false, likeCount.likeCount());
+    }
+
+    private long currentLikeCount(String id) {
+        PodcastLikeCount likeCount = podcastTemplate.findLikeCount(id);
+        if (likeCount == null) {
+            throw new RuntimeException("Podcast not found");
+        }
+        return likeCount.likeCount();
+    }
+
+    @Override
+    public CursorPageDTO<PodcastLikerModel> getPodcastLikers(String id, int size, String cursor) {
+        // Tổng số lấy từ likeCount lưu sẵn
+        long totalLikes = currentLikeCount(id);
+
+        LikeCursor after = cursor != null && !cursor.isBlank() ? LikeCursor.decode(cursor) : null;
+        List<PodcastLikeRef> likes = podcastTemplate.findLikesByPodcast(id, after, size + 1);
+        String nextCursor = null;
+        if (likes.size() > size) {
+            likes = likes.subList(0, size);
+            nextCursor = LikeCursor.of(likes.get(size - 1)).encode();
+        }
+
+        // User của cả trang lấy bằng một query $in
+        Map<String, UserEntity> users = userRepository.findAllById(likes.stream().map(PodcastLikeRef::userId).toList()).stream()
+                .collect(Collectors.toMap(UserEntity::getId, user -> user));
+        List<PodcastLikerModel> content = likes.stream()
+                .filter(like -> users.containsKey(like.userId()))
+                .map(like -> new PodcastLikerModel(UserMapper.toShort(users.get(like.userId())), like.timestamp()))
+                .toList();
+
+        int totalPages = (int) Math.ceil(totalLikes / (double) size);
+        return new CursorPageDTO<>(content, size, 0, totalPages, totalLikes, nextCursor);
+    }
+
+    @Override
+    public CursorPageDTO<PodcastModel> getLikedPodcasts(int size, String cursor) throws Exception {
+        UserEntity userEntity = userService.getUserByAuthentication();
+
+        LikeCursor after = cursor != null && !cursor.isBlank() ? LikeCursor.decode(cursor) : null;
+        List<PodcastLikeRef> likes = podcastTemplate.findLikesByUser(userEntity.getId(), after, size + 1);
+        String nextCursor = null;
+        if (likes.size() > size) {
+            likes = likes.subList(0, size);
+            nextCursor = LikeCursor.of(likes.get(size - 1)).encode();
+        }
+
+        // Podcast của cả trang một query, chủ podcast thêm một query thay vì resolve DBRef lazy từng cái
+        Map<String, PodcastEntity> podcasts = podcastRepository.findAllById(likes.stream().map(PodcastLikeRef::podcastId).toList()).stream()
+                .collect(Collectors.toMap(PodcastEntity::getId, podcast -> podcast));
+        Set<String> ownerIds = podcasts.values().stream()
+                .map(podcast -> DBRefUtils.refId(podcast.getUser()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, UserEntity> owners = userRepository.findAllById(ownerIds).stream()
+                .collect(Collectors.toMap(UserEntity::getId, user -> user));
+
+        List<PodcastModel> content = new ArrayList<>();
+        for (PodcastLikeRef like : likes) {
+            PodcastEntity podcast = podcasts.get(like.podcastId());
+            String ownerId = podcast != null ? DBRefUtils.refId(podcast.getUser()) : null;
+            // Podcast đã xóa hoặc bị ẩn (trừ podcast của chính user) không hiện trên kệ
+            if (podcast == null || (!podcast.isActive() && !userEntity.getId().equals(ownerId))) {
+                continue;
             }
-            podcastEntity.getLikes().add(newLike);
+            podcast.setUser(owners.get(ownerId));
+            PodcastModel model = toModel(podcast);
+            model.setLiked(true);
+            content.add(model);
         }
 
-        podcastRepository.save(podcastEntity);
-        return "Success";
+        long totalLikes = podcastTemplate.countLikesByUser(userEntity.getId());
+        int totalPages = (int) Math.ceil(totalLikes / (double) size);
+        return new CursorPageDTO<>(content, size, 0, totalPages, totalLikes, nextCursor);
     }
 
     @Override
@@ -370,7 +477,7 @@ public class PodcastServiceImpl implements IPodcastService {
 
         List<PodcastModel> podcastModels = podcastPage.getContent()
                 .stream()
-                .map(podcastEntity -> modelMapper.map(podcastEntity, PodcastModel.class))
+                .map(this::toModel)
                 .toList();
 
         return new PageDTO<>(
@@ -393,7 +500,7 @@ public class PodcastServiceImpl implements IPodcastService {
         // Chuyển đổi dữ liệu từ PodcastEntity sang PodcastModel
         List<PodcastModel> podcastModels = podcastPage.getContent()
                 .stream()
-                .map(podcastEntity -> modelMapper.map(podcastEntity, PodcastModel.class))
+                .map(this::toModel)
                 .toList();
 
         // Trả về PageDTO chứa thông tin paginated
@@ -417,7 +524,7 @@ public class PodcastServiceImpl implements IPodcastService {
         // Ánh xạ từ PodcastEntity sang PodcastModel
         List<PodcastModel> podcastModels = podcastPage.getContent()
                 .stream()
-                .map(podcastEntity -> modelMapper.map(podcastEntity, PodcastModel.class))
+                .map(this::toModel)
                 .toList();
 
         // Tạo PageDTO
@@ -448,7 +555,7 @@ public class PodcastServiceImpl implements IPodcastService {
         List<PodcastEntity> podcastEntities = mongoTemplate.find(pagedQuery, PodcastEntity.class);
 
         List<PodcastModel> podcastModels = podcastEntities.stream()
-                .map(podcast -> modelMapper.map(podcast, PodcastModel.class))
+                .map(this::toModel)
                 .toList();
 
         int totalPages = (int) Math.ceil((double) totalElements / size);
@@ -515,7 +622,7 @@ public class PodcastServiceImpl implements IPodcastService {
         // Chuyển đổi dữ liệu từ PodcastEntity sang PodcastModel
         List<PodcastModel> podcastModels = podcastPage.getContent()
                 .stream()
-                .map(podcastEntity -> modelMapper.map(podcastEntity, PodcastModel.class))
+                .map(this::toModel)
                 .toList();
 
         return new PageDTO<>(
@@ -549,40 +656,28 @@ public class PodcastServiceImpl implements IPodcastService {
             throw new RuntimeException("One or more podcasts not found.");
         }
 
-        for (PodcastEntity podcast : podcasts) {
-            podcast.setActive(!podcast.isActive());
-        }
-
-        podcastRepository.saveAll(podcasts);
+        // Chỉ $set isActive theo trạng thái vừa đọc, không ghi lại cả document
+        Map<Boolean, List<String>> idsByActive = podcasts.stream()
+                .collect(Collectors.partitioningBy(PodcastEntity::isActive,
+                        Collectors.mapping(PodcastEntity::getId, Collectors.toList())));
+        podcastTemplate.setActive(idsByActive.get(true), false);
+        podcastTemplate.setActive(idsByActive.get(false), true);
     }
 
     @Override
     public PodcastModel updatePodcast(String podcastId, EditPodcastDTO editPodcastDTO) {
-        PodcastEntity podcast = podcastRepository.findById(podcastId)
-                .orElseThrow(() -> new RuntimeException("Podcast not found"));
-
-        if (editPodcastDTO.getTitle() != null) {
-            podcast.setTitle(editPodcastDTO.getTitle());
-        }
-
-        if (editPodcastDTO.getContent() != null) {
-            podcast.setContent(editPodcastDTO.getContent());
-        }
-
-        if (editPodcastDTO.getThumbnailPath() != null) {
-            podcast.setThumbnailUrl(editPodcastDTO.getThumbnailPath());
-        }
-
-        if (editPodcastDTO.getGenresId() != null) {
-            List<GenreEntity> genres = genreRepository.findAllById(editPodcastDTO.getGenresId());
-            podcast.setGenres(genres);
+        List<GenreEntity> genres = editPodcastDTO.getGenresId() != null
+                ? genreRepository.findAllById(editPodcastDTO.getGenresId())
+                : null;
+
+        // Chỉ $set field được sửa để like và sprite/preview ghi song song không bị bản đọc cũ đè lên
+        PodcastEntity podcast = podcastTemplate.updateDetails(podcastId, editPodcastDTO.getTitle(),
+                editPodcastDTO.getContent(), editPodcastDTO.getThumbnailPath(), genres, LocalDateTime.now());
+        if (podcast == null) {
+            throw new RuntimeException("Podcast not found");
         }
 
-        podcast.setLastEdited(LocalDateTime.now());
-
-        podcastRepository.save(podcast);
-
-        return modelMapper.map(podcast, PodcastModel.class);
+        return toModel(podcast);
     }
 
     @Override
@@ -636,15 +731,19 @@ public class PodcastServiceImpl implements IPodcastService {
             }
 
             podcastRepository.delete(podcast);
+
+            // File video dùng chung theo nội dung, chỉ bị xoá khi podcast cuối cùng tham chiếu tới nó bị xoá
+            if (podcast.getVideoHash() != null) {
+                videoBlobService.release(podcast.getVideoHash());
+            }
         }
     }
 
     private PageDTO<PodcastModel> convertPodcastEntitiesToPageDTO(Page<PodcastEntity> podcastEntities) {
         List<PodcastModel> podcastModels = podcastEntities.getContent().stream()
                 .map(podcast -> {
-                    PodcastModel podcastModel = modelMapper.map(podcast, PodcastModel.class);
+                    PodcastModel podcastModel = toModel(podcast);
                     podcastModel.setTotalComments(commentRepository.countByPodcastId(podcast.getId()));
-                    podcastModel.setTotalLikes(podcastLikeRepository.countByPodcastEntityId(podcast.getId()));
                     podcastModel.setUsername(podcast.getUser().getUsername());
                     return podcastModel;
                 })
@@ -658,4 +757,11 @@ public class PodcastServiceImpl implements IPodcastService {
 
         return pageDTO;
     }
+
+    // videoUrl trả cho client là URL đã ký, không phải đường dẫn file lưu trong entity
+    private PodcastModel toModel(PodcastEntity podcast) {
+        PodcastModel model = PodcastMapper.toModel(podcast);
+        model.setVideoUrl(videoUrlService.signedUrl(podcast));
+        return model;
+    }
 }
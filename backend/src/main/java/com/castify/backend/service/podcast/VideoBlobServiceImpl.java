@@ -0,0 +1,227 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.entity.VideoBlobEntity;
+import com.castify.backend.models.podcast.StoredVideo;
+import com.castify.backend.repository.template.VideoBlobTemplate;
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.IMediaStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Video lưu theo nội dung trong IMediaStore ở key blobs/<2 ký tự đầu của hash>/<sha256>-<id lần upload>.<đuôi>.
+ * Upload được băm trong lúc ghi ra file tạm local nên không phải đọc lại; ffprobe và index keyframe chạy trên file
+ * tạm trước khi đưa vào store. File trùng chỉ tăng refCount, không probe, index hay sinh preview lại.
+ * Không có lock trong JVM: nhiều node dùng chung store, nên MongoDB là nơi phân xử duy nhất. Mỗi lần upload ghi vào
+ * key riêng, unique _id quyết định lần nào thành blob, lần thua chỉ xoá key của chính nó. Việc xoá được nhận qua
+ * deletingAt mà acquire bỏ qua, nên upload trùng không bao giờ nhận blob đang bị dọn.
+ */
+@Service
+public class VideoBlobServiceImpl implements IVideoBlobService {
+    private static final Logger logger = Logger.getLogger(VideoBlobServiceImpl.class.getName());
+    static final String DIRECTORY = "blobs";
+    // Chờ blob đang bị xoá được dọn xong trước khi tạo lại
+    static final int INSERT_ATTEMPTS = 20;
+    static final long INSERT_RETRY_MS = 250;
+    // Node nhận xoá quá lâu coi như đã dừng giữa chừng
+    static final Duration DELETE_LEASE = Duration.ofMinutes(5);
+
+    @Autowired
+    private VideoBlobTemplate videoBlobTemplate;
+
+    @Autowired
+    private IFFmpegService ffmpegService;
+
+    @Autowired
+    private IKeyframeIndexService keyframeIndexService;
+
+    @Autowired
+    private IWaveformService waveformService;
+
+    @Autowired
+    private IMediaPreviewService mediaPreviewService;
+
+    @Autowired
+    private IMediaStore mediaStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // File upload tạm trước khi vào store
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    private Counter storedUploads;
+    private Counter dedupedUploads;
+
+    @PostConstruct
+    void start() {
+        storedUploads = Counter.builder("castify.video.blob.uploads")
+                .description("Số video upload theo kết quả lưu blob")
+                .tag("result", "stored")
+                .register(meterRegistry);
+        dedupedUploads = Counter.builder("castify.video.blob.uploads")
+                .description("Số video upload theo kết quả lưu blob")
+                .tag("result", "deduplicated")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public StoredVideo store(MultipartFile videoFile) throws IOException, InterruptedException {
+        Path tempDir = Paths.get(uploadDir, "tmp");
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(videoFile.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            VideoBlobEntity blob = videoBlobTemplate.acquire(hash);
+            if (blob != null) {
+                dedupedUploads.increment();
+                return toStoredVideo(blob, true);
+            }
+
+            // Key riêng cho lần upload này: upload cùng hash ở node khác không ghi đè hay xoá nhầm object của nhau
+            String key = DIRECTORY + "/" + hash.substring(0, 2) + "/" + hash + "-" + new ObjectId().toHexString()
+                    + extensionOf(videoFile.getOriginalFilename());
+            long size = Files.size(temp);
+            long duration = ffmpegService.getVideoDuration(temp.toString());
+            // Index keyframe cho seek theo thời gian; thiếu index thì client vẫn seek bằng Range như cũ
+            try {
+                keyframeIndexService.buildIndex(key, temp);
+            } catch (IOException e) {
+                logger.warning("Cannot build keyframe index for " + key + ": " + e.getMessage());
+            }
+            // Store local chỉ đổi tên file tạm, store từ xa upload một lần
+            try {
+                mediaStore.writeFile(key, temp);
+            } catch (IOException | RuntimeException e) {
+                keyframeIndexService.deleteIndex(key);
+                throw e;
+            }
+
+            blob = VideoBlobEntity.builder()
+                    .hash(hash)
+                    .key(key)
+                    .size(size)
+                    .duration(duration)
+                    .refCount(1)
+                    .createdDay(LocalDateTime.now())
+                    .build();
+            try {
+                return insertOrReuse(blob);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                // Không có document trỏ tới key này thì không ai release được nó
+                discard(key);
+                throw e;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Unique _id chọn lần upload thắng; lần thua dùng blob đã có và bỏ object vừa ghi của mình
+    private StoredVideo insertOrReuse(VideoBlobEntity blob) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            if (videoBlobTemplate.insertIfAbsent(blob) != null) {
+                storedUploads.increment();
+                return toStoredVideo(blob, false);
+            }
+            VideoBlobEntity existing = videoBlobTemplate.acquire(blob.getHash());
+            if (existing != null) {
+                discard(blob.getKey());
+                dedupedUploads.increment();
+                return toStoredVideo(existing, true);
+            }
+            // Blob cùng hash đang bị xoá: chờ node đó dọn xong, quá hạn lease thì bỏ document cũ và tạo lại
+            if (videoBlobTemplate.removeStaleDeleting(blob.getHash(), LocalDateTime.now().minus(DELETE_LEASE))) {
+                logger.warning("Took over stale deletion of video blob " + blob.getHash());
+                continue;
+            }
+            if (attempt >= INSERT_ATTEMPTS) {
+                throw new RuntimeException("Video blob " + blob.getHash() + " is being deleted, try again later");
+            }
+            Thread.sleep(INSERT_RETRY_MS);
+        }
+    }
+
+    // Dọn object và index của lần upload không thành blob; lỗi chỉ để lại file mồ côi nên không ném tiếp
+    private void discard(String key) {
+        try {
+            keyframeIndexService.deleteIndex(key);
+            mediaStore.delete(key);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Cannot discard video object " + key + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void rememberThumbnail(String hash, String thumbnailUrl) {
+        videoBlobTemplate.setThumbnail(hash, thumbnailUrl);
+    }
+
+    @Override
+    public void release(String hash) throws IOException {
+        VideoBlobEntity released = videoBlobTemplate.release(hash);
+        if (released == null || released.getRefCount() > 0) {
+            return;
+        }
+        // Chỉ một node nhận được việc xoá; blob vừa được acquire lại thì giữ nguyên
+        VideoBlobEntity blob = videoBlobTemplate.markDeleting(hash);
+        if (blob == null) {
+            return;
+        }
+        keyframeIndexService.deleteIndex(blob.getKey());
+        waveformService.deleteWaveform(blob.getKey());
+        mediaPreviewService.deletePreviews(blob.getThumbnailsVttUrl(), blob.getPreviewUrl());
+        mediaStore.delete(blob.getKey());
+        videoBlobTemplate.removeDeleted(hash);
+    }
+
+    private static StoredVideo toStoredVideo(VideoBlobEntity blob, boolean reused) {
+        return new StoredVideo(blob.getHash(), blob.getKey(), blob.getDuration(), blob.getThumbnailUrl(),
+                blob.getThumbnailsVttUrl(), blob.getPreviewUrl(), reused);
+    }
+
+    // Chỉ giữ đuôi file dạng chữ/số ngắn, tên gốc không đi vào đường dẫn blob
+    static String extensionOf(String originalName) {
+        if (originalName == null) {
+            return "";
+        }
+        int lastDotIndex = originalName.lastIndexOf('.');
+        String extension = lastDotIndex >= 0 ? originalName.substring(lastDotIndex + 1).toLowerCase(Locale.ROOT) : "";
+        return extension.matches("[a-z0-9]{1,8}") ? "." + extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.storage.MediaStat;
+import com.castify.backend.service.storage.IMediaStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache các chunk kích thước cố định (mặc định 1 MB) của video trong bộ nhớ off-heap (direct ByteBuffer),
+ * key là (key trong IMediaStore, size, lastModified, chỉ số chunk) nên object bị ghi đè tự động không khớp entry cũ.
+ * Chunk miss đọc bằng một lần openRange của store (disk hoặc GET Range tới S3).
+ * Thay thế theo LRU nhưng chỉ nhận chunk mới khi tần suất truy cập (count-min sketch, giảm nửa định kỳ,
+ * kiểu TinyLFU) lớn hơn tần suất của chunk sắp bị đẩy ra, để một lượt xem lướt không đẩy các đoạn đầu
+ * của video nóng ra khỏi cache.
+ * Slot được giữ (refs) trong lúc copy ra ngoài lock; slot đã bị đẩy ra chỉ được dùng lại khi không còn ai đọc.
+ * Luồng đọc copy thẳng từ slot vào buffer của caller và chunk miss được đọc thẳng vào slot, nên mỗi luồng
+ * không giữ bản copy 1 MB trên heap; chỉ chunk không được nhận vào cache mới đi qua buffer heap không lớn hơn range.
+ */
+@Service
+public class VideoChunkCacheServiceImpl implements IVideoChunkCacheService {
+    private static final int SKETCH_DEPTH = 4;
+    private static final int MAX_FREQUENCY = 15;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IMediaStore mediaStore;
+
+    @Value("${castify.video.chunk-cache.max-mb:256}")
+    private long maxMb;
+
+    @Value("${castify.video.chunk-cache.chunk-kb:1024}")
+    private int chunkKb;
+
+    private int chunkSize;
+    private int maxSlots;
+    private int allocatedSlots;
+
+    private final LinkedHashMap<ChunkKey, Slot> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ArrayDeque<Slot> freeSlots = new ArrayDeque<>();
+
+    private byte[][] sketch;
+    private int sketchMask;
+    private int sampleSize;
+    private int samples;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong residentBytes = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        chunkSize = chunkKb * 1024;
+        maxSlots = (int) Math.min(Integer.MAX_VALUE, maxMb * 1024 * 1024 / chunkSize);
+        int width = Integer.highestOneBit(Math.max(1024, maxSlots * 8) - 1) << 1;
+        sketch = new byte[SKETCH_DEPTH][width];
+        sketchMask = width - 1;
+        sampleSize = Math.max(1024, maxSlots * 10);
+
+        FunctionCounter.builder("castify.video.chunk-cache.requests", hits, AtomicLong::get)
+                .description("Số lần đọc chunk video")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("castify.video.chunk-cache.requests", misses, AtomicLong::get)
+                .description("Số lần đọc chunk video")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("castify.video.chunk-cache.hit-ratio", this, VideoChunkCacheServiceImpl::hitRatio)
+                .description("Tỉ lệ chunk đọc từ cache")
+                .register(meterRegistry);
+        Gauge.builder("castify.video.chunk-cache.resident", residentBytes, AtomicLong::get)
+                .description("Số byte video đang nằm trong cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public InputStream openRange(String key, MediaStat stat, long start, long end) {
+        return new ChunkRangeInputStream(new ChunkFile(key, stat.size(), stat.lastModified()), start, end);
+    }
+
+    double hitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Copy byte [offset, offset + len) của chunk thẳng từ slot off-heap vào dest, -1 khi chunk không có trong cache.
+     * record = lần đầu luồng đọc chunk này: chỉ lần đó được đếm vào sketch và số hit.
+     */
+    private int copyCached(ChunkKey key, int offset, byte[] dest, int off, int len, boolean record) {
+        Slot slot = acquire(key, record);
+        if (slot == null) {
+            return -1;
+        }
+        try {
+            if (record) {
+                hits.incrementAndGet();
+            }
+            int count = Math.max(0, Math.min(len, slot.length - offset));
+            // Get tuyệt đối không đổi position, nhiều luồng đọc cùng slot song song được
+            slot.buffer.get(offset, dest, off, count);
+            return count;
+        } finally {
+            release(slot);
+        }
+    }
+
+    // Đọc chunk từ store thẳng vào một slot rồi đưa vào cache; không làm gì khi chunk không được nhận (TinyLFU)
+    private void load(ChunkKey key) throws IOException {
+        Slot slot = reserveSlot(key);
+        if (slot == null) {
+            return;
+        }
+        boolean admitted = false;
+        try {
+            // Copy ngoài lock: slot đã rời free list và chưa nằm trong entries nên không ai khác thấy
+            int length = expectedLength(key.file(), key.index());
+            long position = key.index() * chunkSize;
+            slot.buffer.clear().limit(length);
+            try (InputStream in = mediaStore.openRange(key.file().key(), position, position + length - 1)) {
+                ReadableByteChannel channel = Channels.newChannel(in);
+                while (slot.buffer.hasRemaining() && channel.read(slot.buffer) >= 0) {
+                    // Đọc tới khi đủ chunk hoặc hết object
+                }
+            }
+            // Chunk đọc thiếu (object bị cắt/ghi đè giữa chừng) không được cache
+            if (slot.buffer.hasRemaining()) {
+                return;
+            }
+            slot.length = length;
+            synchronized (this) {
+                if (!entries.containsKey(key)) {
+                    entries.put(key, slot);
+                    residentBytes.addAndGet(length);
+                    admitted = true;
+                }
+            }
+        } finally {
+            if (!admitted) {
+                synchronized (this) {
+                    freeSlots.push(slot);
+                }
+            }
+        }
+    }
+
+    private int expectedLength(ChunkFile file, long index) {
+        return (int) Math.min(chunkSize, file.length() - index * chunkSize);
+    }
+
+    private synchronized Slot acquire(ChunkKey key, boolean record) {
+        if (record) {
+            recordAccess(key);
+        }
+        Slot slot = entries.get(key);
+        if (slot != null) {
+            slot.refs++;
+        }
+        return slot;
+    }
+
+    private synchronized void release(Slot slot) {
+        if (--slot.refs == 0 && slot.evicted) {
+            slot.evicted = false;
+            freeSlots.push(slot);
+        }
+    }
+
+    private synchronized Slot reserveSlot(ChunkKey key) {
+        if (entries.containsKey(key)) {
+            return null;
+        }
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (allocatedSlots < maxSlots) {
+            allocatedSlots++;
+            return new Slot(ByteBuffer.allocateDirect(chunkSize));
+        }
+
+        Iterator<Map.Entry<ChunkKey, Slot>> eldest = entries.entrySet().iterator();
+        if (!eldest.hasNext()) {
+            return null;
+        }
+        Map.Entry<ChunkKey, Slot> victim = eldest.next();
+        if (frequency(key) <= frequency(victim.getKey())) {
+            return null;
+        }
+        eldest.remove();
+        Slot slot = victim.getValue();
+        residentBytes.addAndGet(-slot.length);
+        if (slot.refs > 0) {
+            // Còn request đang copy từ slot này: trả về free list khi release
+            slot.evicted = true;
+            return null;
+        }
+        return slot;
+    }
+
+    // Chỉ gọi trong monitor (acquire): đếm mẫu và lượt giảm nửa phải tuần tự thì chu kỳ phai mới đúng sampleSize
+    private void recordAccess(ChunkKey key) {
+        int hash = key.hashCode();
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int index = indexOf(hash, row);
+            if (sketch[row][index] < MAX_FREQUENCY) {
+                sketch[row][index]++;
+            }
+        }
+        if (++samples >= sampleSize) {
+            samples = 0;
+            // Giảm nửa để tần suất cũ phai dần, video hết nóng nhường chỗ cho video mới
+            for (byte[] counters : sketch) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+            }
+        }
+    }
+
+    private int frequency(ChunkKey key) {
+        int hash = key.hashCode();
+        int min = MAX_FREQUENCY;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            min = Math.min(min, sketch[row][indexOf(hash, row)]);
+        }
+        return min;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = hash * (0x9E3779B9 + (row << 1));
+        h ^= h >>> 16;
+        return h & sketchMask;
+    }
+
+    record ChunkFile(String key, long length, long lastModified) {
+    }
+
+    private record ChunkKey(ChunkFile file, long index) {
+    }
+
+    private static final class Slot {
+        private final ByteBuffer buffer;
+        private int length;
+        private int refs;
+        private boolean evicted;
+
+        private Slot(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private final class ChunkRangeInputStream extends InputStream {
+        private final ChunkFile file;
+        private final long start;
+        private final long end;
+        private long position;
+        // Chunk vừa đọc: các lần read sau trong cùng chunk không đếm lại vào sketch, hit hay miss
+        private long accessedIndex = -1;
+        // Chỉ cấp khi có chunk không nằm trong cache, phần [windowStart, windowStart + windowLength) của object
+        private byte[] window;
+        private long windowStart;
+        private int windowLength;
+
+        private ChunkRangeInputStream(ChunkFile file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.position = start;
+            this.end = Math.min(end, file.length() - 1);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position > end) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            long index = position / chunkSize;
+            int offset = (int) (position - index * chunkSize);
+            int want = (int) Math.min(Math.min(len, chunkSize - offset), end - position + 1);
+            int count = readInChunk(index, offset, b, off, want);
+            if (count <= 0) {
+                // Object ngắn hơn stat (bị cắt/ghi đè)
+                return -1;
+            }
+            position += count;
+            return count;
+        }
+
+        private int readInChunk(long index, int offset, byte[] b, int off, int len) throws IOException {
+            if (position >= windowStart && position < windowStart + windowLength) {
+                int count = (int) Math.min(len, windowStart + windowLength - position);
+                System.arraycopy(window, (int) (position - windowStart), b, off, count);
+                return count;
+            }
+            boolean first = index != accessedIndex;
+            accessedIndex = index;
+            if (maxSlots > 0) {
+                ChunkKey key = new ChunkKey(file, index);
+                int count = copyCached(key, offset, b, off, len, first);
+                if (count >= 0) {
+                    return count;
+                }
+                if (first) {
+                    misses.incrementAndGet();
+                    load(key);
+                    count = copyCached(key, offset, b, off, len, false);
+                    if (count >= 0) {
+                        return count;
+                    }
+                }
+            }
+            return readWindow(index, b, off, len);
+        }
+
+        // Chunk không có trong cache: đọc phần còn lại của chunk trong range vào window một lần
+        private int readWindow(long index, byte[] b, int off, int len) throws IOException {
+            if (window == null) {
+                window = new byte[(int) Math.min(chunkSize, end - start + 1)];
+            }
+            long chunkEnd = Math.min((index + 1) * chunkSize, file.length()) - 1;
+            long last = Math.min(Math.min(chunkEnd, end), position + window.length - 1);
+            windowStart = position;
+            try (InputStream in = mediaStore.openRange(file.key(), position, last)) {
+                windowLength = in.readNBytes(window, 0, (int) (last - position + 1));
+            }
+            int count = Math.min(len, windowLength);
+            System.arraycopy(window, 0, b, off, count);
+            return count;
+        }
+    }
+}
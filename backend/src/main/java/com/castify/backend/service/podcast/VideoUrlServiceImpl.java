@@ -0,0 +1,98 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.entity.PodcastEntity;
+import com.castify.backend.utils.MediaKeyUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * URL video ký bằng HMAC-SHA256 trên (podcastId, rendition, path, exp), kiểm tra không cần DB hay Referer.
+ * exp được làm tròn lên theo bucketSeconds nên mọi URL cấp trong cùng một bucket giống hệt nhau,
+ * reverse proxy / CDN cache được theo URL.
+ */
+@Service
+public class VideoUrlServiceImpl implements IVideoUrlService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${castify.video.url-secret}")
+    private String secret;
+
+    @Value("${castify.video.url-ttl-seconds:21600}")
+    private long ttlSeconds;
+
+    @Value("${castify.video.url-bucket-seconds:3600}")
+    private long bucketSeconds;
+
+    // Chỉ để đổi videoUrl tuyệt đối chưa migrate (castify.migration.media-keys) thành key
+    @Value("${podcast.video.base-path}")
+    private String videoBasePath;
+
+    // Mac không thread-safe, mỗi thread giữ một instance đã init key
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+    // Khoá riêng cho URL video, không dùng lại khoá ký JWT
+    @PostConstruct
+    void start() {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("castify.video.url-secret is not set, configure VIDEO_URL_SECRET");
+        }
+    }
+
+    @Override
+    public String signedUrl(PodcastEntity podcast) {
+        if (podcast.getVideoUrl() == null) {
+            return null;
+        }
+        String path = MediaKeyUtils.toKey(podcast.getVideoUrl(), videoBasePath);
+        if (path == null) {
+            return null;
+        }
+        long now = Instant.now().getEpochSecond();
+        long expires = ((now + ttlSeconds) / bucketSeconds + 1) * bucketSeconds;
+        // Encode cả "/" và "+" trong path để server decode lại đúng chuỗi đã ký
+        return "/api/v1/podcast/video/" + UriUtils.encodePathSegment(podcast.getId(), StandardCharsets.UTF_8)
+                + "/" + SOURCE_RENDITION
+                + "?path=" + UriUtils.encode(path, StandardCharsets.UTF_8)
+                + "&exp=" + expires
+                + "&sig=" + sign(podcast.getId(), SOURCE_RENDITION, path, expires);
+    }
+
+    @Override
+    public String resolve(String podcastId, String rendition, String path, long expires, String signature) {
+        if (!SOURCE_RENDITION.equals(rendition) || expires < Instant.now().getEpochSecond()) {
+            return null;
+        }
+        byte[] expected = sign(podcastId, rendition, path, expires).getBytes(StandardCharsets.US_ASCII);
+        if (signature == null || !MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        // path đã được ký nên người dùng không sửa được; store vẫn chặn key thoát khỏi root
+        return path;
+    }
+
+    private String sign(String podcastId, String rendition, String path, long expires) {
+        String payload = podcastId + '\n' + rendition + '\n' + path + '\n' + expires;
+        byte[] digest = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize video URL signer", e);
+        }
+    }
+}
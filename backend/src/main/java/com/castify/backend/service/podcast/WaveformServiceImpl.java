@@ -0,0 +1,219 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.storage.MediaStat;
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.IMediaStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+
+/**
+ * Waveform cho scrubber lưu thành object nhị phân <key video>.wfm trong IMediaStore:
+ * header (magic "CWFM", version, số mức zoom, độ dài file video, sample rate, tổng số sample) rồi từng mức
+ * (int số cặp, sau đó các cặp byte min/max có dấu, tức sample 16 bit bỏ 8 bit thấp), mức thô trước.
+ * Audio được decode một lần thành PCM mono (ffmpeg đọc thẳng từ store) và gom peak theo luồng,
+ * không giữ cả file trong bộ nhớ.
+ */
+@Service
+public class WaveformServiceImpl implements IWaveformService {
+    static final String SUFFIX = ".wfm";
+    private static final int MAGIC = 0x4357464D;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 8 + 4 + 8;
+    // Bucket mịn nhất lúc decode; các mức zoom gộp từ đây
+    private static final int BUCKET_SAMPLES = 64;
+
+    @Autowired
+    private IFFmpegService ffmpegService;
+
+    @Autowired
+    private IMediaStore mediaStore;
+
+    @Value("${castify.waveform.sample-rate:8000}")
+    private int sampleRate;
+
+    // Số cặp min/max của từng mức; video quá ngắn thì mức đó có ít cặp hơn
+    @Value("${castify.waveform.levels:512,2048,8192}")
+    private int[] levels;
+
+    @Override
+    public void buildWaveform(String videoKey) throws IOException, InterruptedException {
+        MediaStat video = mediaStore.stat(videoKey);
+        if (video == null) {
+            throw new NoSuchFileException(videoKey);
+        }
+        PeakAccumulator peaks = new PeakAccumulator(BUCKET_SAMPLES);
+        ffmpegService.decodeMonoPcm(mediaStore.ffmpegInput(videoKey), sampleRate, peaks);
+        peaks.finish();
+        writeWaveform(videoKey, video.size(), peaks);
+    }
+
+    @Override
+    public byte[] readWaveform(String videoKey) throws IOException {
+        String waveformKey = waveformKeyOf(videoKey);
+        MediaStat stat = mediaStore.stat(waveformKey);
+        if (stat == null || stat.size() < HEADER_BYTES) {
+            return null;
+        }
+        byte[] blob;
+        try (InputStream in = mediaStore.openRange(waveformKey, 0, stat.size() - 1)) {
+            blob = in.readAllBytes();
+        }
+        MediaStat video = mediaStore.stat(videoKey);
+        ByteBuffer header = ByteBuffer.wrap(blob);
+        if (video == null || blob.length < HEADER_BYTES || header.getInt(0) != MAGIC || header.getShort(4) != VERSION
+                || header.getLong(8) != video.size()) {
+            return null;
+        }
+        return blob;
+    }
+
+    @Override
+    public void deleteWaveform(String videoKey) throws IOException {
+        mediaStore.delete(waveformKeyOf(videoKey));
+    }
+
+    void writeWaveform(String videoKey, long videoLength, PeakAccumulator peaks) throws IOException {
+        int[] sortedLevels = Arrays.stream(levels).filter(pairs -> pairs > 0).sorted().distinct().toArray();
+        // Vài chục KB: dựng trong bộ nhớ rồi ghi một lần, store không để lộ object ghi dở
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(sortedLevels.length);
+            out.writeLong(videoLength);
+            out.writeInt(sampleRate);
+            out.writeLong(peaks.samples());
+            for (int pairs : sortedLevels) {
+                byte[] level = downsample(peaks, pairs);
+                out.writeInt(level.length / 2);
+                out.write(level);
+            }
+        }
+        mediaStore.write(waveformKeyOf(videoKey), new ByteArrayInputStream(bytes.toByteArray()), bytes.size());
+    }
+
+    // Bucket j của mức gộp các bucket mịn [j * count / n, (j + 1) * count / n)
+    static byte[] downsample(PeakAccumulator peaks, int pairs) {
+        int count = peaks.buckets();
+        int n = Math.min(pairs, count);
+        byte[] level = new byte[n * 2];
+        for (int j = 0; j < n; j++) {
+            int from = (int) ((long) j * count / n);
+            int to = (int) ((long) (j + 1) * count / n);
+            short min = Short.MAX_VALUE;
+            short max = Short.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                min = (short) Math.min(min, peaks.min(i));
+                max = (short) Math.max(max, peaks.max(i));
+            }
+            level[j * 2] = (byte) (min >> 8);
+            level[j * 2 + 1] = (byte) (max >> 8);
+        }
+        return level;
+    }
+
+    static String waveformKeyOf(String videoKey) {
+        return videoKey + SUFFIX;
+    }
+
+    /**
+     * Nhận PCM s16le mono từ ffmpeg và giữ min/max của từng bucket bucketSamples sample.
+     * Một sample có thể bị tách giữa hai lần write nên byte thấp còn dư được giữ lại.
+     */
+    static final class PeakAccumulator extends OutputStream {
+        private final int bucketSamples;
+        private short[] mins = new short[1024];
+        private short[] maxs = new short[1024];
+        private int buckets;
+        private int inBucket;
+        private short bucketMin;
+        private short bucketMax;
+        private long samples;
+        private int pendingLow = -1;
+
+        PeakAccumulator(int bucketSamples) {
+            this.bucketSamples = bucketSamples;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) {
+            int i = off;
+            int end = off + len;
+            if (pendingLow >= 0 && i < end) {
+                add((short) ((bytes[i++] << 8) | pendingLow));
+                pendingLow = -1;
+            }
+            for (; i + 1 < end; i += 2) {
+                add((short) ((bytes[i + 1] << 8) | (bytes[i] & 0xFF)));
+            }
+            if (i < end) {
+                pendingLow = bytes[i] & 0xFF;
+            }
+        }
+
+        // Đóng bucket cuối chưa đủ sample
+        void finish() {
+            if (inBucket > 0) {
+                closeBucket();
+            }
+        }
+
+        int buckets() {
+            return buckets;
+        }
+
+        long samples() {
+            return samples;
+        }
+
+        short min(int bucket) {
+            return mins[bucket];
+        }
+
+        short max(int bucket) {
+            return maxs[bucket];
+        }
+
+        private void add(short sample) {
+            if (inBucket == 0) {
+                bucketMin = sample;
+                bucketMax = sample;
+            } else if (sample < bucketMin) {
+                bucketMin = sample;
+            } else if (sample > bucketMax) {
+                bucketMax = sample;
+            }
+            samples++;
+            if (++inBucket == bucketSamples) {
+                closeBucket();
+            }
+        }
+
+        private void closeBucket() {
+            if (buckets == mins.length) {
+                mins = Arrays.copyOf(mins, buckets * 2);
+                maxs = Arrays.copyOf(maxs, buckets * 2);
+            }
+            mins[buckets] = bucketMin;
+            maxs[buckets] = bucketMax;
+            buckets++;
+            inBucket = 0;
+        }
+    }
+}
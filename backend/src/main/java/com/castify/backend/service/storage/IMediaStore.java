@@ -0,0 +1,36 @@
+package com.castify.backend.service.storage;
+
+import com.castify.backend.models.storage.MediaStat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Nơi lưu file media theo key tương đối dạng "blobs/ab/<sha256>.mp4" (PodcastEntity.videoUrl lưu key này),
+ * để podcast không bị gắn với ổ đĩa của một node. Chọn backend bằng castify.media.store=local|s3.
+ */
+public interface IMediaStore {
+    // null khi object không tồn tại
+    MediaStat stat(String key) throws IOException;
+
+    // Luồng đọc byte [start, end] (end tính cả, cắt ở cuối object)
+    InputStream openRange(String key, long start, long end) throws IOException;
+
+    // Ghi length byte từ in thành object key, ghi đè object cũ; người đọc không bao giờ thấy object ghi dở
+    MediaStat write(String key, InputStream in, long length) throws IOException;
+
+    // Ghi nội dung file local; source có thể bị chuyển đi nên không dùng lại sau lời gọi
+    default MediaStat writeFile(String key, Path source) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            return write(key, in, Files.size(source));
+        }
+    }
+
+    // Không lỗi khi object không tồn tại
+    void delete(String key) throws IOException;
+
+    // Đầu vào -i cho ffmpeg/ffprobe: đường dẫn file với backend local, URL ký tạm với backend từ xa
+    String ffmpegInput(String key);
+}
@@ -0,0 +1,155 @@
+package com.castify.backend.service.storage;
+
+import com.castify.backend.models.storage.MediaStat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Backend mặc định: key là đường dẫn tương đối dưới root (mặc định podcast.video.base-path, nơi video cũ vẫn nằm).
+ * Ghi ra file tạm cùng thư mục rồi đổi tên atomic nên người đọc không bao giờ thấy file ghi dở.
+ */
+@Service
+@ConditionalOnProperty(name = "castify.media.store", havingValue = "local", matchIfMissing = true)
+public class LocalMediaStore implements IMediaStore {
+    @Value("${castify.media.local.root:${podcast.video.base-path}}")
+    private String root;
+
+    @Override
+    public MediaStat stat(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new MediaStat(attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        try {
+            channel.position(start);
+            return new RangeInputStream(Channels.newInputStream(channel), Math.max(0, end - start + 1));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public MediaStat write(String key, InputStream in, long length) throws IOException {
+        Path target = resolve(key);
+        Path temp = tempFileFor(target);
+        try {
+            long written = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            if (length >= 0 && written != length) {
+                throw new IOException("Expected " + length + " bytes for " + key + " but got " + written);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return stat(key);
+    }
+
+    // Cùng ổ đĩa thì chỉ đổi tên, không copy lại file upload
+    @Override
+    public MediaStat writeFile(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try (InputStream in = Files.newInputStream(source)) {
+                write(key, in, Files.size(source));
+            }
+            Files.deleteIfExists(source);
+        }
+        return stat(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public String ffmpegInput(String key) {
+        return resolve(key).toString();
+    }
+
+    // Key đến từ DB hoặc URL đã ký nhưng vẫn không được thoát ra ngoài root
+    Path resolve(String key) {
+        Path base = Paths.get(root).toAbsolutePath().normalize();
+        Path file = base.resolve(key).normalize();
+        if (!file.startsWith(base) || file.equals(base)) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        return file;
+    }
+
+    private static Path tempFileFor(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return Files.createTempFile(target.getParent(), "." + target.getFileName(), ".part");
+    }
+
+    // Dừng sau remaining byte; đóng stream thì đóng luôn FileChannel
+    private static final class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        private RangeInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = in.read(b, off, (int) Math.min(len, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.castify.backend.service.storage;
+
+import com.castify.backend.models.storage.MediaStat;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Backend S3-compatible (AWS S3, MinIO, ...) gọi thẳng REST API qua java.net.http, ký SigV4 bằng S3RequestSigner.
+ * Range đọc bằng GET có header Range; ffmpeg/ffprobe đọc qua URL GET ký sẵn nên không phải tải cả video về node.
+ * Kết quả HEAD được cache ngắn (stat-cache-seconds) vì mỗi request Range đều cần độ dài object;
+ * ghi/xoá trên node này bỏ entry ngay, node khác thấy thay đổi sau tối đa TTL.
+ */
+@Service
+@ConditionalOnProperty(name = "castify.media.store", havingValue = "s3")
+public class S3MediaStore implements IMediaStore {
+    private static final int MAX_CACHED_STATS = 10_000;
+
+    // Ví dụ http://localhost:9000 cho MinIO, https://s3.ap-southeast-1.amazonaws.com cho AWS
+    @Value("${castify.media.s3.endpoint}")
+    private String endpoint;
+
+    @Value("${castify.media.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${castify.media.s3.bucket}")
+    private String bucket;
+
+    @Value("${castify.media.s3.access-key}")
+    private String accessKey;
+
+    @Value("${castify.media.s3.secret-key}")
+    private String secretKey;
+
+    // MinIO mặc định dùng path-style (endpoint/bucket/key); false = virtual-hosted (bucket.endpoint/key)
+    @Value("${castify.media.s3.path-style:true}")
+    private boolean pathStyle;
+
+    @Value("${castify.media.s3.presign-seconds:21600}")
+    private long presignSeconds;
+
+    @Value("${castify.media.s3.stat-cache-seconds:60}")
+    private long statCacheSeconds;
+
+    private HttpClient httpClient;
+    private S3RequestSigner signer;
+    private URI baseUri;
+
+    private final LinkedHashMap<String, CachedStat> stats = new LinkedHashMap<>(16, 0.75f, true);
+
+    @PostConstruct
+    void start() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        signer = new S3RequestSigner(accessKey, secretKey, region);
+        URI configured = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        baseUri = pathStyle ? URI.create(configured + "/" + bucket)
+                : URI.create(configured.getScheme() + "://" + bucket + "." + configured.getRawAuthority());
+    }
+
+    @Override
+    public MediaStat stat(String key) throws IOException {
+        CachedStat cached = cachedStat(key);
+        if (cached != null) {
+            return cached.stat();
+        }
+        HttpResponse<Void> response = send(signed("HEAD", key, Map.of(), S3RequestSigner.EMPTY_PAYLOAD)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.discarding());
+        MediaStat stat = null;
+        if (response.statusCode() == 200) {
+            long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+            long modified = response.headers().firstValue("Last-Modified")
+                    .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                    .orElse(0L);
+            stat = new MediaStat(size, modified);
+        } else if (response.statusCode() != 404) {
+            throw new IOException("S3 HEAD " + key + " failed with status " + response.statusCode());
+        }
+        cacheStat(key, stat);
+        return stat;
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        HttpResponse<InputStream> response = send(signed("GET", key, Map.of("Range", "bytes=" + start + "-" + end),
+                S3RequestSigner.EMPTY_PAYLOAD).GET(), HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if (status == 206 || status == 200) {
+            return response.body();
+        }
+        response.body().close();
+        if (status == 404) {
+            invalidate(key);
+            throw new NoSuchFileException(key);
+        }
+        throw new IOException("S3 GET " + key + " failed with status " + status);
+    }
+
+    // PUT một lần (tối đa 5 GB theo S3, upload đã bị giới hạn 1 GB); payload không băm trước để ghi theo luồng
+    @Override
+    public MediaStat write(String key, InputStream in, long length) throws IOException {
+        return put(key, HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> in), length));
+    }
+
+    @Override
+    public MediaStat writeFile(String key, Path source) throws IOException {
+        MediaStat stat = put(key, HttpRequest.BodyPublishers.ofFile(source));
+        Files.deleteIfExists(source);
+        return stat;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        invalidate(key);
+        HttpResponse<Void> response = send(signed("DELETE", key, Map.of(), S3RequestSigner.EMPTY_PAYLOAD).DELETE(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw new IOException("S3 DELETE " + key + " failed with status " + response.statusCode());
+        }
+    }
+
+    @Override
+    public String ffmpegInput(String key) {
+        URI uri = objectUri(key);
+        return uri + "?" + signer.presignedQuery("GET", uri.getRawPath(), hostOf(uri), Instant.now(), presignSeconds);
+    }
+
+    private MediaStat put(String key, HttpRequest.BodyPublisher body) throws IOException {
+        invalidate(key);
+        HttpResponse<String> response = send(signed("PUT", key, Map.of(), S3RequestSigner.UNSIGNED_PAYLOAD).PUT(body),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 PUT " + key + " failed with status " + response.statusCode() + ": " + response.body());
+        }
+        // PUT không trả Last-Modified; HEAD lại để stat khớp với mọi lần stat() sau (key chunk cache có lastModified)
+        invalidate(key);
+        return stat(key);
+    }
+
+    private HttpRequest.Builder signed(String method, String key, Map<String, String> extraHeaders, String payloadHash) {
+        URI uri = objectUri(key);
+        Instant now = Instant.now();
+        Map<String, String> headers = new TreeMap<>(extraHeaders);
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", S3RequestSigner.amzDate(now));
+
+        // HttpClient tự gửi Host từ URI nên chỉ đưa vào phần ký
+        Map<String, String> signedHeaders = new TreeMap<>(headers);
+        signedHeaders.put("host", hostOf(uri));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMinutes(10))
+                .header("Authorization", signer.authorization(method, uri.getRawPath(), Map.of(), signedHeaders, payloadHash, now));
+        headers.forEach(builder::header);
+        return builder;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest.Builder request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling S3");
+        }
+    }
+
+    URI objectUri(String key) {
+        if (key.isEmpty() || key.startsWith("/")) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        return URI.create(baseUri + "/" + S3RequestSigner.encode(key, true));
+    }
+
+    private static String hostOf(URI uri) {
+        return uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+
+    private synchronized CachedStat cachedStat(String key) {
+        CachedStat cached = stats.get(key);
+        if (cached != null && cached.expiresAt() < System.currentTimeMillis()) {
+            stats.remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    private synchronized void cacheStat(String key, MediaStat stat) {
+        if (stat == null || statCacheSeconds <= 0) {
+            return;
+        }
+        stats.put(key, new CachedStat(stat, System.currentTimeMillis() + statCacheSeconds * 1000));
+        if (stats.size() > MAX_CACHED_STATS) {
+            stats.remove(stats.keySet().iterator().next());
+        }
+    }
+
+    private synchronized void invalidate(String key) {
+        stats.remove(key);
+    }
+
+    // Chỉ cache object đã tồn tại: object vừa được node khác ghi không bị coi là thiếu
+    private record CachedStat(MediaStat stat, long expiresAt) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.castify.backend.service.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Ký request S3 theo AWS Signature Version 4 (header Authorization hoặc query của URL ký sẵn),
+ * đủ cho các lệnh object mà S3MediaStore dùng; MinIO, Ceph RGW, R2... chấp nhận cùng cách ký.
+ */
+final class S3RequestSigner {
+    static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    static final String EMPTY_PAYLOAD = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final String SERVICE = "s3";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    S3RequestSigner(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    static String amzDate(Instant now) {
+        return AMZ_DATE.format(now);
+    }
+
+    /**
+     * Giá trị header Authorization. headers phải có host, x-amz-date và x-amz-content-sha256 (= payloadHash);
+     * mọi header truyền vào đều được ký.
+     */
+    String authorization(String method, String canonicalUri, Map<String, String> query, Map<String, String> headers,
+                         String payloadHash, Instant now) {
+        SortedMap<String, String> signed = new TreeMap<>();
+        headers.forEach((name, value) -> signed.put(name.toLowerCase(), value.trim()));
+        String signedHeaders = String.join(";", signed.keySet());
+        String signature = sign(method, canonicalUri, canonicalQuery(query), signed, payloadHash, now);
+        return ALGORITHM + " Credential=" + accessKey + "/" + scope(now)
+                + ",SignedHeaders=" + signedHeaders + ",Signature=" + signature;
+    }
+
+    // Query string (đã encode) của URL GET ký sẵn, chỉ ký header host để client tự gửi Range
+    String presignedQuery(String method, String canonicalUri, String host, Instant now, long expiresSeconds) {
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope(now));
+        query.put("X-Amz-Date", amzDate(now));
+        query.put("X-Amz-Expires", Long.toString(expiresSeconds));
+        query.put("X-Amz-SignedHeaders", "host");
+        String canonicalQuery = canonicalQuery(query);
+        String signature = sign(method, canonicalUri, canonicalQuery, new TreeMap<>(Map.of("host", host)), UNSIGNED_PAYLOAD, now);
+        return canonicalQuery + "&X-Amz-Signature=" + signature;
+    }
+
+    private String sign(String method, String canonicalUri, String canonicalQuery, SortedMap<String, String> headers,
+                        String payloadHash, Instant now) {
+        StringBuilder canonicalHeaders = new StringBuilder();
+        headers.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value).append('\n'));
+        String canonicalRequest = method + '\n'
+                + canonicalUri + '\n'
+                + canonicalQuery + '\n'
+                + canonicalHeaders + '\n'
+                + String.join(";", headers.keySet()) + '\n'
+                + payloadHash;
+        String stringToSign = ALGORITHM + '\n'
+                + amzDate(now) + '\n'
+                + scope(now) + '\n'
+                + sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+
+        String date = amzDate(now).substring(0, 8);
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private String scope(Instant now) {
+        return amzDate(now).substring(0, 8) + "/" + region + "/" + SERVICE + "/aws4_request";
+    }
+
+    private static String canonicalQuery(Map<String, String> query) {
+        return new TreeMap<>(query).entrySet().stream()
+                .map(entry -> encode(entry.getKey(), false) + "=" + encode(entry.getValue(), false))
+                .collect(Collectors.joining("&"));
+    }
+
+    // URI encode kiểu AWS: giữ nguyên A-Z a-z 0-9 - _ . ~ (và "/" trong path), còn lại %XX viết hoa
+    static String encode(String value, boolean keepSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return encoded.toString();
+    }
+
+    static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign S3 request", e);
+        }
+    }
+}
@@ -29,6 +29,9 @@ public interface IUserService {
 
     UserEntity getUserByAuthentication() throws Exception;
 
+    // Đọc lại user đang đăng nhập từ DB và thay principal của request
+    UserEntity refreshAuthenticatedUser() throws Exception;
+
     UpdateUserModel updateUserInformationById(UpdateUserModel updateUserModel) throws Exception;
 
     String updateUsernameById(String username) throws Exception;
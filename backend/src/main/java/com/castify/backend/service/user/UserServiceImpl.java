@@ -1,5 +1,6 @@
 package com.castify.backend.service.user;
 
+import com.castify.backend.mapper.UserMapper;
 import com.castify.backend.entity.UserEntity;
 import com.castify.backend.enums.NotiType;
 import com.castify.backend.enums.Role;
@@ -8,6 +9,8 @@ import com.castify.backend.models.user.*;
 import com.castify.backend.repository.PodcastRepository;
 import com.castify.backend.repository.UserRepository;
 import com.castify.backend.repository.template.UserTemplate;
+import com.castify.backend.service.authenticatation.ITokenRevocationService;
+import com.castify.backend.service.authenticatation.IUserDetailsCacheService;
 import com.castify.backend.service.notification.INotificationService;
 import com.castify.backend.service.notification.NotificationServiceImpl;
 import com.castify.backend.service.uploadFile.IUploadFileService;
@@ -17,6 +20,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -40,6 +45,10 @@ public class UserServiceImpl implements IUserService {
     @Autowired
     UserTemplate userRepositoryTemplate;
     @Autowired
+    private IUserDetailsCacheService userDetailsCacheService;
+    @Autowired
+    private ITokenRevocationService tokenRevocationService;
+    @Autowired
     private INotificationService notificationService = new NotificationServiceImpl();
 
     @Override
@@ -148,14 +157,40 @@ public class UserServiceImpl implements IUserService {
         return imageUrl;
     }
 
+    /**
+     * Principal do JwtAuthenticationFilter nạp qua UserDetailsService chính là UserEntity,
+     * nên dùng lại cho cả request thay vì query findByEmailOrUsername ở mỗi service.
+     * Cần dữ liệu mới nhất (sau khi sửa user bằng lệnh update) thì gọi refreshAuthenticatedUser().
+     */
     @Override
     public UserEntity getUserByAuthentication() throws Exception {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw new RuntimeException("User is not authenticated");
+        }
+        if (authentication.getPrincipal() instanceof UserEntity user) {
+            return user;
+        }
         String usernameOrEmail = authentication.getName();
         return userRepository.findByEmailOrUsername(usernameOrEmail)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + usernameOrEmail));
     }
 
+    @Override
+    public UserEntity refreshAuthenticatedUser() throws Exception {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserEntity current = getUserByAuthentication();
+        UserEntity fresh = userRepository.findById(current.getId())
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + current.getId()));
+
+        // Thay principal để các lần gọi getUserByAuthentication() sau trong request thấy bản mới
+        UsernamePasswordAuthenticationToken refreshed = new UsernamePasswordAuthenticationToken(
+                fresh, authentication.getCredentials(), fresh.getAuthorities());
+        refreshed.setDetails(authentication.getDetails());
+        SecurityContextHolder.getContext().setAuthentication(refreshed);
+        return fresh;
+    }
+
     @Override
     public UpdateUserModel updateUserInformationById(UpdateUserModel updateUserModel) throws Exception {
         UserEntity userData = getUserByAuthentication();
@@ -182,6 +217,7 @@ public class UserServiceImpl implements IUserService {
         userData.setUsername(username);
         userData.setLastUpdateUsername(LocalDateTime.now());
         userRepository.save(userData);
+        userDetailsCacheService.evictUser(userData.getId());
         return username;
     }
 
@@ -314,6 +350,11 @@ public class UserServiceImpl implements IUserService {
 //        userBan.isNonBanned(!userBan.isNonBanned());
         userBan.setNonBanned(!userBan.isNonBanned());
         userRepository.save(userBan);
+        userDetailsCacheService.evictUser(userId);
+        if (!userBan.isNonBanned()) {
+            // Kết thúc mọi phiên; node khác thấy qua poll thu hồi và bỏ UserDetails đã cache
+            tokenRevocationService.revokeAllUserTokens(userId);
+        }
         if (userBan.isNonBanned())
             return "Unban Account Successfully";
         return "Ban Account Successfully";
@@ -325,6 +366,8 @@ public class UserServiceImpl implements IUserService {
 //        userBan.isNonBanned(!userBan.isNonBanned());
         userBan.setNonBanned(false);
         userRepository.save(userBan);
+        userDetailsCacheService.evictUser(userId);
+        tokenRevocationService.revokeAllUserTokens(userId);
     }
 
     @Override
@@ -424,7 +467,7 @@ public class UserServiceImpl implements IUserService {
 
     private UserSimple mapToUserSimpleAnonymous(UserEntity userEntity) {
         // Chuyển đổi UserEntity thành UserSimple
-        UserSimple userSimple = modelMapper.map(userEntity, UserSimple.class);
+        UserSimple userSimple = UserMapper.toSimple(userEntity);
 
         // Tính toán các thuộc tính bổ sung
         userSimple.setTotalFollower(getFollowerCount(userEntity));
@@ -441,7 +484,7 @@ public class UserServiceImpl implements IUserService {
 
     private UserSimple mapToUserSimple(UserEntity userEntity, UserEntity currentUser) {
         // Chuyển đổi UserEntity thành UserSimple
-        UserSimple userSimple = modelMapper.map(userEntity, UserSimple.class);
+        UserSimple userSimple = UserMapper.toSimple(userEntity);
 
         // Tính toán các thuộc tính bổ sung
         userSimple.setTotalFollower(getFollowerCount(userEntity));
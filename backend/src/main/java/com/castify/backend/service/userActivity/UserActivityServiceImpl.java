@@ -1,5 +1,6 @@
 package com.castify.backend.service.userActivity;
 
+import com.castify.backend.mapper.PodcastMapper;
 import com.castify.backend.entity.CommentEntity;
 import com.castify.backend.entity.PodcastEntity;
 import com.castify.backend.entity.UserActivityEntity;
@@ -13,6 +14,7 @@ import com.castify.backend.models.userActivity.UserActivityModel;
 import com.castify.backend.repository.CommentRepository;
 import com.castify.backend.repository.PodcastRepository;
 import com.castify.backend.repository.UserActivityRepository;
+import com.castify.backend.service.podcast.IVideoUrlService;
 import com.castify.backend.service.user.UserServiceImpl;
 import org.bson.Document;
 import org.modelmapper.ModelMapper;
@@ -42,6 +44,9 @@ public class UserActivityServiceImpl implements IUserActivityService{
     @Autowired
     private PodcastRepository podcastRepository;
 
+    @Autowired
+    private IVideoUrlService videoUrlService;
+
     @Autowired
     private CommentRepository commentRepository;
 
@@ -193,7 +198,8 @@ public class UserActivityServiceImpl implements IUserActivityService{
 
                     // Mapping PodcastEntity sang PodcastModel
                     if (entity.getPodcast() != null) {
-                        PodcastModel podcastModel = modelMapper.map(entity.getPodcast(), PodcastModel.class);
+                        PodcastModel podcastModel = PodcastMapper.toModel(entity.getPodcast());
+                        podcastModel.setVideoUrl(videoUrlService.signedUrl(entity.getPodcast()));
                         model.setPodcast(podcastModel);
                     }
 
@@ -0,0 +1,28 @@
+package com.castify.backend.utils;
+
+import com.mongodb.DBRef;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import java.util.Collection;
+
+public class DBRefUtils {
+    // Đếm số phần tử của một list @DBRef(lazy = true) mà không resolve proxy (không query collection đích)
+    public static long countRefs(Collection<?> refs) {
+        if (refs == null) {
+            return 0;
+        }
+        if (refs instanceof LazyLoadingProxy proxy) {
+            Object source = proxy.getSource();
+            return source instanceof Collection<?> dbRefs ? dbRefs.size() : 0;
+        }
+        return refs.size();
+    }
+
+    // Id của một @DBRef(lazy = true) đơn lẻ mà không resolve proxy
+    public static String refId(Object ref) {
+        if (ref instanceof LazyLoadingProxy proxy) {
+            return proxy.getSource() instanceof DBRef dbRef ? dbRef.getId().toString() : null;
+        }
+        return null;
+    }
+}
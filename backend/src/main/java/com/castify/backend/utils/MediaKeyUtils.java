@@ -0,0 +1,28 @@
+package com.castify.backend.utils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class MediaKeyUtils {
+    // videoUrl / đường dẫn blob cũ lưu tuyệt đối trên ổ đĩa của node
+    public static final String ABSOLUTE_PATH_PATTERN = "^(/|\\\\|[A-Za-z]:[/\\\\])";
+
+    /**
+     * Đổi giá trị đã lưu thành key của IMediaStore: đường dẫn tuyệt đối dưới basePath thành phần tương đối,
+     * key sẵn có giữ nguyên (chỉ đổi "\" thành "/"). Null khi là đường dẫn tuyệt đối nằm ngoài basePath.
+     */
+    public static String toKey(String stored, String basePath) {
+        if (stored == null) {
+            return null;
+        }
+        Path path = Paths.get(stored).normalize();
+        if (path.isAbsolute() || stored.startsWith("/")) {
+            Path base = Paths.get(basePath).toAbsolutePath().normalize();
+            if (!path.startsWith(base)) {
+                return null;
+            }
+            path = base.relativize(path);
+        }
+        return path.toString().replace('\\', '/');
+    }
+}
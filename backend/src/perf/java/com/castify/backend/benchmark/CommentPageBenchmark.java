@@ -0,0 +1,124 @@
+package com.castify.backend.benchmark;
+
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.models.CursorPageDTO;
+import com.castify.backend.models.comment.CommentModel;
+import com.castify.backend.queryplan.QueryPlanFixtures;
+import com.castify.backend.repository.CommentRepository;
+import com.castify.backend.repository.template.CommentTemplate;
+import com.castify.backend.service.comment.CommentServiceImpl;
+import com.castify.backend.service.comment.ICommentService;
+import com.castify.backend.service.notification.INotificationService;
+import com.castify.backend.service.user.IUserService;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.Document;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dựng một trang comment qua CommentServiceImpl.getPodcastComments trên Mongo thật.
+ * Mặc định chạy mongod nhúng (flapdoodle) với dữ liệu của QueryPlanFixtures,
+ * hoặc trỏ tới Mongo có sẵn bằng -Dbench.mongo.uri=mongodb://localhost:27017/castify_bench.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class CommentPageBenchmark {
+    @Param({"newest", "popular"})
+    private String sortBy;
+
+    @Param({"true"})
+    private boolean authenticated;
+
+    private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private ConfigurableApplicationContext context;
+    private ICommentService commentService;
+    private String podcastId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String uri = System.getProperty("bench.mongo.uri");
+        if (uri == null) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            uri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/castify_bench";
+        }
+        context = new SpringApplicationBuilder(BenchConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.data.mongodb.uri=" + uri, "--spring.main.banner-mode=off");
+
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        // Xóa dữ liệu cũ nhưng giữ index do auto-index-creation tạo lúc khởi động
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            mongoTemplate.getCollection(collection).deleteMany(new Document());
+        }
+        QueryPlanFixtures fixtures = new QueryPlanFixtures();
+        fixtures.seed(mongoTemplate);
+        podcastId = fixtures.hotActivePodcast().getId();
+
+        UserEntity viewer = authenticated ? fixtures.hotUser() : null;
+        IUserService userService = context.getBean(IUserService.class);
+        if (viewer != null) {
+            Mockito.when(userService.getUserByAuthentication()).thenReturn(viewer);
+        } else {
+            Mockito.when(userService.getUserByAuthentication()).thenThrow(new RuntimeException("anonymous"));
+        }
+        commentService = context.getBean(ICommentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @Benchmark
+    public CursorPageDTO<CommentModel> firstPage() {
+        return commentService.getPodcastComments(podcastId, 0, 20, sortBy, null);
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({MongoAutoConfiguration.class, MongoDataAutoConfiguration.class})
+    @EnableMongoRepositories(basePackageClasses = CommentRepository.class)
+    @Import({CommentServiceImpl.class, CommentTemplate.class})
+    static class BenchConfig {
+        @Bean
+        ModelMapper modelMapper() {
+            return new ModelMapper();
+        }
+
+        @Bean
+        IUserService userService() {
+            return Mockito.mock(IUserService.class);
+        }
+
+        @Bean
+        INotificationService notificationService() {
+            return Mockito.mock(INotificationService.class);
+        }
+    }
+}
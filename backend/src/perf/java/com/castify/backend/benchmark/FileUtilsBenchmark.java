@@ -0,0 +1,21 @@
+package com.castify.backend.benchmark;
+
+import com.castify.backend.utils.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FileUtilsBenchmark {
+    @Param({"video.mp4", "Tập 12 - Chuyện kể lúc nửa đêm (bản đầy đủ).mp4"})
+    private String originalName;
+
+    @Benchmark
+    public String formatFileName() {
+        return FileUtils.formatFileName(originalName);
+    }
+}
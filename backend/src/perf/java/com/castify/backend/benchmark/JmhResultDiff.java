@@ -0,0 +1,106 @@
+package com.castify.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * So sánh hai file kết quả JMH (-rf json -rff ...) giữa hai commit.
+ *
+ * mvn -Pperf test-compile exec:exec -Djmh.main=com.castify.backend.benchmark.JmhResultDiff \
+ *     -Djmh.args="base.json head.json [--threshold 10] [--fail]"
+ *
+ * Với mode thời gian (avgt, sample, ss) điểm tăng là chậm đi; với thrpt điểm giảm là chậm đi.
+ * --fail trả exit code 1 khi có benchmark chậm đi quá ngưỡng (%).
+ */
+public final class JmhResultDiff {
+    private JmhResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        double threshold = 5.0;
+        boolean failOnRegression = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--fail" -> failOnRegression = true;
+                default -> files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Usage: JmhResultDiff <base.json> <head.json> [--threshold percent] [--fail]");
+            System.exit(2);
+        }
+
+        Map<String, Result> base = read(new File(files.get(0)));
+        Map<String, Result> head = read(new File(files.get(1)));
+
+        Set<String> keys = new TreeSet<>(base.keySet());
+        keys.addAll(head.keySet());
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "Benchmark", "Base", "Head", "Delta", "");
+        for (String key : keys) {
+            Result before = base.get(key);
+            Result after = head.get(key);
+            if (before == null || after == null) {
+                System.out.printf("%-70s %14s %14s %9s  %s%n", key,
+                        before == null ? "-" : format(before), after == null ? "-" : format(after), "",
+                        before == null ? "new" : "removed");
+                continue;
+            }
+            double delta = (after.score() - before.score()) / before.score() * 100;
+            // Với throughput, điểm thấp hơn mới là chậm đi
+            double slowdown = after.higherIsBetter() ? -delta : delta;
+            // Chênh lệch nằm trong sai số của cả hai lần chạy thì không tính
+            boolean withinError = Math.abs(after.score() - before.score()) <= before.error() + after.error();
+            String verdict = "";
+            if (!withinError && slowdown > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (!withinError && slowdown < -threshold) {
+                verdict = "improved";
+            }
+            System.out.printf("%-70s %14s %14s %+8.1f%%  %s%n", key, format(before), format(after), delta, verdict);
+        }
+
+        if (failOnRegression && regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(node.path("benchmark").asText()
+                    .replace("com.castify.backend.benchmark.", ""));
+            JsonNode params = node.path("params");
+            if (params.isObject()) {
+                List<String> names = new ArrayList<>();
+                params.fieldNames().forEachRemaining(names::add);
+                Collections.sort(names);
+                key.append(names.stream().map(name -> name + "=" + params.get(name).asText())
+                        .reduce((a, b) -> a + "," + b).map(value -> "[" + value + "]").orElse(""));
+            }
+            String mode = node.path("mode").asText();
+            key.append(" (").append(mode).append(')');
+
+            JsonNode metric = node.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            results.put(key.toString(), new Result(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText(), "thrpt".equals(mode)));
+        }
+        return results;
+    }
+
+    private static String format(Result result) {
+        return String.format("%.3f %s", result.score(), result.unit());
+    }
+
+    private record Result(double score, double error, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.castify.backend.benchmark;
+
+import com.castify.backend.entity.TokenEntity;
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.enums.Role;
+import com.castify.backend.service.authenticatation.TokenRevocationServiceImpl;
+import com.castify.backend.service.authenticatation.jwt.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí ký / parse JWT. filterPath mô phỏng đường nhanh của JwtAuthenticationFilter cho một request:
+ * parse một lần, kiểm tra jti trong tập thu hồi rồi isTokenValid trên cùng Claims.
+ * legacyFilterPath là cách cũ (extractUsername rồi isTokenValid, parse token 3 lần) để so sánh;
+ * cách cũ còn thêm một lệnh findByToken xuống Mongo không đo ở đây.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtBenchmark {
+    private JwtServiceImpl jwtService;
+    private TokenRevocationServiceImpl revocationService;
+    private UserEntity user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "validExpiration", 7_200_000L);
+        user = UserEntity.builder().id("u1").username("bench").email("bench@castify.test").role(Role.USER).build();
+        token = jwtService.generateToken(user);
+
+        // Tập thu hồi có sẵn vài nghìn jti như một node đang chạy
+        revocationService = new TokenRevocationServiceImpl();
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 86_400_000L);
+        for (int i = 0; i < 5_000; i++) {
+            ReflectionTestUtils.invokeMethod(revocationService, "remember",
+                    TokenEntity.builder().jti(UUID.randomUUID().toString()).build());
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean filterPath() {
+        Claims claims = jwtService.parseClaims(token);
+        return claims.getSubject() != null
+                && revocationService.isActive(token, claims)
+                && jwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = jwtService.extractUsername(token);
+        return username != null && jwtService.isTokenValid(token, user);
+    }
+}
@@ -0,0 +1,163 @@
+package com.castify.backend.benchmark;
+
+import com.castify.backend.config.ModelMapperConfig;
+import com.castify.backend.entity.*;
+import com.castify.backend.enums.NotiType;
+import com.castify.backend.enums.Role;
+import com.castify.backend.mapper.CommentMapper;
+import com.castify.backend.mapper.MessageMapper;
+import com.castify.backend.mapper.NotificationMapper;
+import com.castify.backend.mapper.PodcastMapper;
+import com.castify.backend.models.comment.CommentModel;
+import com.castify.backend.models.conversation.MessageResponse;
+import com.castify.backend.models.notification.NotifiModel;
+import com.castify.backend.models.podcast.PodcastModel;
+import com.castify.backend.models.user.FollowInfo;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh modelMapper.map(...) với mapper viết tay trên một trang kết quả (mặc định 20 phần tử).
+ * Entity ở đây không có proxy @DBRef nên chỉ đo chi phí ánh xạ; phần tiết kiệm query khi
+ * không resolve list lazy được kiểm tra riêng bằng bộ đếm lệnh Mongo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MapperBenchmark {
+    @Param({"20"})
+    private int pageSize;
+
+    private ModelMapper modelMapper;
+    private List<PodcastEntity> podcasts;
+    private List<CommentEntity> comments;
+    private List<MessageEntity> messages;
+    private List<NotificationEntity> notifications;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapperConfig().modelMapper();
+        podcasts = new ArrayList<>();
+        comments = new ArrayList<>();
+        messages = new ArrayList<>();
+        notifications = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            UserEntity user = user(i);
+            podcasts.add(podcast(i, user));
+            comments.add(comment(i, user));
+            messages.add(new MessageEntity("m" + i, "chat", user, new ArrayList<>(), "message " + i, LocalDateTime.now()));
+            notifications.add(new NotificationEntity("n" + i, "title", "content", LocalDateTime.now(), "/profile/" + i,
+                    NotiType.LIKE, user, "receiver", false));
+        }
+        // Làm nóng cache TypeMap của ModelMapper như trong ứng dụng đang chạy
+        modelMapper.map(podcasts.get(0), PodcastModel.class);
+        modelMapper.map(comments.get(0), CommentModel.class);
+        modelMapper.map(messages.get(0), MessageResponse.class);
+        modelMapper.map(notifications.get(0), NotifiModel.class);
+    }
+
+    @Benchmark
+    public List<PodcastModel> podcastModelMapper() {
+        return podcasts.stream().map(podcast -> modelMapper.map(podcast, PodcastModel.class)).toList();
+    }
+
+    @Benchmark
+    public List<PodcastModel> podcastHandwritten() {
+        return podcasts.stream().map(PodcastMapper::toModel).toList();
+    }
+
+    @Benchmark
+    public List<CommentModel> commentModelMapper() {
+        return comments.stream().map(comment -> modelMapper.map(comment, CommentModel.class)).toList();
+    }
+
+    @Benchmark
+    public List<CommentModel> commentHandwritten() {
+        return comments.stream().map(CommentMapper::toModel).toList();
+    }
+
+    @Benchmark
+    public List<MessageResponse> messageModelMapper() {
+        return messages.stream().map(message -> modelMapper.map(message, MessageResponse.class)).toList();
+    }
+
+    @Benchmark
+    public List<MessageResponse> messageHandwritten() {
+        return messages.stream().map(MessageMapper::toResponse).toList();
+    }
+
+    @Benchmark
+    public List<NotifiModel> notificationModelMapper() {
+        return notifications.stream().map(notification -> modelMapper.map(notification, NotifiModel.class)).toList();
+    }
+
+    @Benchmark
+    public List<NotifiModel> notificationHandwritten() {
+        return notifications.stream().map(NotificationMapper::toModel).toList();
+    }
+
+    private static UserEntity user(int i) {
+        List<FollowInfo> following = new ArrayList<>();
+        for (int f = 0; f < 10; f++) {
+            following.add(new FollowInfo("u" + f, LocalDateTime.now()));
+        }
+        return UserEntity.builder()
+                .id("u" + i)
+                .firstName("An")
+                .middleName("Van")
+                .lastName("Nguyen")
+                .username("user" + i)
+                .email("user" + i + "@castify.test")
+                .avatarUrl("https://cdn.castify.test/u" + i + ".png")
+                .role(Role.USER)
+                .following(following)
+                .build();
+    }
+
+    private static PodcastEntity podcast(int i, UserEntity user) {
+        PodcastEntity podcast = new PodcastEntity();
+        podcast.setId("p" + i);
+        podcast.setTitle("Podcast " + i);
+        podcast.setContent("Content " + i);
+        podcast.setThumbnailUrl("/thumb/" + i + ".jpg");
+        podcast.setVideoUrl("/video/" + i + ".mp4");
+        podcast.setViews(i * 10L);
+        podcast.setDuration(600);
+        podcast.setGenres(List.of(new GenreEntity("g1", "Tech", true, LocalDateTime.now()),
+                new GenreEntity("g2", "News", true, LocalDateTime.now())));
+        podcast.setLikes(new ArrayList<>());
+        podcast.setComments(new ArrayList<>());
+        for (int l = 0; l < 25; l++) {
+            podcast.getLikes().add(new PodcastLikeEntity("pl" + l, null, LocalDateTime.now(), null));
+            podcast.getComments().add(new CommentEntity());
+        }
+        podcast.setLikeCount(podcast.getLikes().size());
+        podcast.setCreatedDay(LocalDateTime.now());
+        podcast.setLastEdited(LocalDateTime.now());
+        podcast.setActive(true);
+        podcast.setUser(user);
+        return podcast;
+    }
+
+    private static CommentEntity comment(int i, UserEntity user) {
+        CommentEntity comment = new CommentEntity();
+        comment.setId("c" + i);
+        comment.setContent("Comment " + i);
+        comment.setTimestamp(LocalDateTime.now());
+        comment.setUser(user);
+        comment.setLikes(new ArrayList<>());
+        comment.setReplies(new ArrayList<>());
+        for (int l = 0; l < 5; l++) {
+            comment.getLikes().add(new CommentLikeEntity("cl" + l, null, LocalDateTime.now(), null));
+        }
+        comment.setLikeCount(comment.getLikes().size());
+        return comment;
+    }
+}
@@ -0,0 +1,55 @@
+package com.castify.backend.benchmark;
+
+import com.castify.backend.service.payment.vnPay.VNPayPaymentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ký / kiểm tra chữ ký callback VNPay với bộ tham số điển hình của một giao dịch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VNPayBenchmark {
+    private static final String SECRET = "BENCHMARKHASHSECRET0123456789ABCD";
+
+    private VNPayPaymentService paymentService;
+    private Map<String, String> fields;
+    private String hashData;
+
+    @Setup
+    public void setUp() {
+        paymentService = new VNPayPaymentService();
+        ReflectionTestUtils.setField(paymentService, "hashSecret", SECRET);
+        fields = new HashMap<>();
+        fields.put("vnp_Amount", "10000000");
+        fields.put("vnp_BankCode", "NCB");
+        fields.put("vnp_BankTranNo", "VNP14226112");
+        fields.put("vnp_CardType", "ATM");
+        fields.put("vnp_OrderInfo", "Nap+coin+cho+tai+khoan+bench");
+        fields.put("vnp_PayDate", "20241215103000");
+        fields.put("vnp_ResponseCode", "00");
+        fields.put("vnp_TmnCode", "BENCH001");
+        fields.put("vnp_TransactionNo", "14226112");
+        fields.put("vnp_TransactionStatus", "00");
+        fields.put("vnp_TxnRef", "675e8f7a1c2b3d4e5f607182");
+        fields.put("vnp_SecureHashType", "HmacSHA512");
+        hashData = String.join("&", fields.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).sorted().toList());
+    }
+
+    @Benchmark
+    public String hmacSHA512() {
+        return paymentService.hmacSHA512(SECRET, hashData);
+    }
+
+    @Benchmark
+    public String hashAllFields() {
+        return paymentService.hashAllFields(fields);
+    }
+}
@@ -0,0 +1,143 @@
+package com.castify.backend.benchmark;
+
+import com.castify.backend.controller.PodcastController;
+import com.castify.backend.entity.PodcastEntity;
+import com.castify.backend.service.podcast.IVideoUrlService;
+import com.castify.backend.service.podcast.VideoChunkCacheServiceImpl;
+import com.castify.backend.service.podcast.VideoUrlServiceImpl;
+import com.castify.backend.service.storage.LocalMediaStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Đường Range của PodcastController.getVideo trên LocalMediaStore: kiểm tra chữ ký URL, stat, parse header,
+ * mở stream (qua cache chunk khi cacheMb > 0) rồi đọc hết chunk như khi Tomcat ghi ra response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VideoRangeBenchmark {
+    private static final String VIDEO = "bench_user/podcast/video.mp4";
+
+    @Param({"64"})
+    private int fileSizeMb;
+
+    @Param({"1048576"})
+    private int chunkSize;
+
+    // 0 = đọc thẳng từ disk; lớn hơn file thì sau warmup mọi chunk nằm trong cache
+    @Param({"0", "256"})
+    private long cacheMb;
+
+    private Path baseDir;
+    private PodcastController controller;
+    private long fileLength;
+    private long expires;
+    private String signature;
+    private final byte[] buffer = new byte[64 * 1024];
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        baseDir = Files.createTempDirectory("castify-video-bench");
+        Path video = baseDir.resolve(VIDEO);
+        Files.createDirectories(video.getParent());
+        byte[] block = new byte[1024 * 1024];
+        new Random(1).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(video)) {
+            for (int i = 0; i < fileSizeMb; i++) {
+                out.write(block);
+            }
+        }
+        fileLength = Files.size(video);
+
+        VideoUrlServiceImpl videoUrlService = new VideoUrlServiceImpl();
+        ReflectionTestUtils.setField(videoUrlService, "secret", "bench-secret");
+        ReflectionTestUtils.setField(videoUrlService, "ttlSeconds", 21600L);
+        ReflectionTestUtils.setField(videoUrlService, "bucketSeconds", 3600L);
+        ReflectionTestUtils.setField(videoUrlService, "videoBasePath", baseDir.toString());
+        PodcastEntity podcast = new PodcastEntity();
+        podcast.setId("bench");
+        podcast.setVideoUrl(video.toString());
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(videoUrlService.signedUrl(podcast))
+                .build().getQueryParams();
+        expires = Long.parseLong(query.getFirst("exp"));
+        signature = query.getFirst("sig");
+
+        LocalMediaStore mediaStore = new LocalMediaStore();
+        ReflectionTestUtils.setField(mediaStore, "root", baseDir.toString());
+
+        VideoChunkCacheServiceImpl chunkCacheService = new VideoChunkCacheServiceImpl();
+        ReflectionTestUtils.setField(chunkCacheService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(chunkCacheService, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(chunkCacheService, "maxMb", cacheMb);
+        ReflectionTestUtils.setField(chunkCacheService, "chunkKb", 1024);
+        ReflectionTestUtils.invokeMethod(chunkCacheService, "start");
+
+        controller = new PodcastController();
+        ReflectionTestUtils.setField(controller, "videoUrlService", videoUrlService);
+        ReflectionTestUtils.setField(controller, "videoChunkCacheService", chunkCacheService);
+        ReflectionTestUtils.setField(controller, "mediaStore", mediaStore);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(baseDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long rangeRequest(Blackhole blackhole) throws IOException {
+        long start = (long) (random.nextDouble() * (fileLength - chunkSize));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/podcast/video/bench/source");
+        request.addHeader("Range", "bytes=" + start + "-" + (start + chunkSize - 1));
+
+        ResponseEntity<Resource> response = controller.getVideo("bench", IVideoUrlService.SOURCE_RENDITION, VIDEO, expires, signature, request);
+        return drain(response, blackhole);
+    }
+
+    @Benchmark
+    public long openEndedRangeRequest(Blackhole blackhole) throws IOException {
+        // Trình duyệt thường gửi "bytes=N-": server quyết định trả bao nhiêu
+        long start = (long) (random.nextDouble() * (fileLength - chunkSize));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/podcast/video/bench/source");
+        request.addHeader("Range", "bytes=" + start + "-");
+
+        ResponseEntity<Resource> response = controller.getVideo("bench", IVideoUrlService.SOURCE_RENDITION, VIDEO, expires, signature, request);
+        return drain(response, blackhole);
+    }
+
+    private long drain(ResponseEntity<Resource> response, Blackhole blackhole) throws IOException {
+        long remaining = response.getHeaders().getContentLength();
+        long total = 0;
+        try (InputStream in = response.getBody().getInputStream()) {
+            int read;
+            while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+                blackhole.consume(buffer);
+                remaining -= read;
+                total += read;
+            }
+        }
+        return total;
+    }
+}
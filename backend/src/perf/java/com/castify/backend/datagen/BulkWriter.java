@@ -0,0 +1,90 @@
+package com.castify.backend.datagen;
+
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gom document theo collection rồi insertMany (unordered) trên một pool ghi cố định.
+ * Entity được chuyển qua MappingMongoConverter của ứng dụng nên _class, DBRef, enum... giống hệt dữ liệu thật.
+ * Số batch đang chờ bị chặn bởi semaphore để bộ sinh không chạy quá xa so với Mongo.
+ */
+final class BulkWriter implements AutoCloseable {
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Map<String, List<Document>> buffers = new HashMap<>();
+    private final Map<String, AtomicLong> written = new ConcurrentHashMap<>();
+    private final List<Future<?>> pending = new ArrayList<>();
+
+    BulkWriter(MongoTemplate mongoTemplate, int batchSize, int writers) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.executor = Executors.newFixedThreadPool(writers);
+        this.inFlight = new Semaphore(writers * 2);
+    }
+
+    void insert(Object entity) {
+        String collection = mongoTemplate.getCollectionName(entity.getClass());
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        List<Document> buffer = buffers.computeIfAbsent(collection, key -> new ArrayList<>(batchSize));
+        buffer.add(document);
+        if (buffer.size() >= batchSize) {
+            submit(collection, buffer);
+            buffers.put(collection, new ArrayList<>(batchSize));
+        }
+    }
+
+    Map<String, Long> flush() {
+        buffers.forEach((collection, buffer) -> {
+            if (!buffer.isEmpty()) {
+                submit(collection, buffer);
+            }
+        });
+        buffers.clear();
+        pending.forEach(BulkWriter::await);
+        pending.clear();
+        Map<String, Long> counts = new TreeMap<>();
+        written.forEach((collection, count) -> counts.put(collection, count.get()));
+        return counts;
+    }
+
+    private void submit(String collection, List<Document> batch) {
+        inFlight.acquireUninterruptibly();
+        // Batch đã xong thì lấy kết quả luôn để lỗi ghi không bị nuốt đến cuối
+        pending.removeIf(future -> future.isDone() && await(future));
+        pending.add(executor.submit(() -> {
+            try {
+                mongoTemplate.getCollection(collection).insertMany(batch, UNORDERED);
+                written.computeIfAbsent(collection, key -> new AtomicLong()).addAndGet(batch.size());
+            } finally {
+                inFlight.release();
+            }
+        }));
+    }
+
+    private static boolean await(Future<?> future) {
+        try {
+            future.get();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing batches", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Bulk insert failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
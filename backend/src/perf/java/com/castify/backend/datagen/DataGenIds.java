@@ -0,0 +1,59 @@
+package com.castify.backend.datagen;
+
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ObjectId cố định theo (collection, chỉ số) để dữ liệu sinh lại từ cùng seed có cùng id,
+ * và để load test / benchmark tính được id của user hay podcast thứ i mà không cần truy vấn.
+ */
+public final class DataGenIds {
+    // 2021-01-01T00:00:00Z, chỉ để phần timestamp của ObjectId trông hợp lệ
+    private static final int TIMESTAMP = 1_609_459_200;
+
+    public static final byte USER = 1;
+    public static final byte GENRE = 2;
+    public static final byte PODCAST = 3;
+    public static final byte COMMENT = 4;
+    public static final byte COMMENT_LIKE = 5;
+    public static final byte PODCAST_LIKE = 6;
+    public static final byte ACTIVITY = 7;
+    public static final byte CHAT = 8;
+    public static final byte MESSAGE = 9;
+    public static final byte NOTIFICATION = 10;
+
+    private DataGenIds() {
+    }
+
+    public static String of(byte collection, long index) {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putInt(TIMESTAMP);
+        buffer.put(collection);
+        // 7 byte còn lại cho chỉ số
+        buffer.put((byte) (index >>> 48));
+        buffer.putShort((short) (index >>> 32));
+        buffer.putInt((int) index);
+        return new ObjectId(buffer.array()).toHexString();
+    }
+
+    public static String user(long index) {
+        return of(USER, index);
+    }
+
+    public static String podcast(long index) {
+        return of(PODCAST, index);
+    }
+
+    public static String comment(long index) {
+        return of(COMMENT, index);
+    }
+
+    public static String chat(long index) {
+        return of(CHAT, index);
+    }
+
+    public static String username(long index) {
+        return "user" + index;
+    }
+}
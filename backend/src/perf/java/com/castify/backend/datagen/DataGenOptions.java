@@ -0,0 +1,109 @@
+package com.castify.backend.datagen;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Tham số dòng lệnh của {@link DataGenerator}, dạng --key=value.
+ * --profile chọn bộ số lượng mặc định; từng số lượng vẫn ghi đè được riêng (ví dụ --users=500000).
+ */
+@Getter
+public class DataGenOptions {
+    private static final Map<String, long[]> PROFILES = Map.of(
+            // users, podcasts, comments, podcastLikes, commentLikes, activities, chats, messages, notifications
+            "small", new long[]{10_000, 2_000, 50_000, 100_000, 100_000, 100_000, 2_000, 50_000, 50_000},
+            "medium", new long[]{200_000, 40_000, 1_000_000, 1_000_000, 1_000_000, 1_000_000, 20_000, 500_000, 500_000},
+            "large", new long[]{2_000_000, 300_000, 5_000_000, 10_000_000, 5_000_000, 10_000_000, 100_000, 5_000_000, 5_000_000});
+
+    private String uri = "mongodb://localhost:27017/castify_perf";
+    private long seed = 42;
+    private boolean drop;
+
+    private int users;
+    private int podcasts;
+    private long comments;
+    private long podcastLikes;
+    private long commentLikes;
+    private long activities;
+    private int chats;
+    private long messages;
+    private long notifications;
+    private int genres = 24;
+
+    private double zipf = 1.1;
+    private int maxFollowing = 200;
+    private double replyRatio = 0.35;
+    // Giới hạn số phần tử mỗi list @DBRef nhúng trong podcast/comment để document không vượt 16MB
+    private int maxRefsPerDocument = 50_000;
+    private int days = 180;
+    private String password = "Castify@123";
+
+    private int batchSize = 2_000;
+    private int writers = 4;
+
+    private String videoDir = System.getProperty("user.dir") + "/castify_resources/user";
+    private List<Integer> videoSizesMb = List.of();
+
+    public static DataGenOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            values.put(equals < 0 ? arg.substring(2) : arg.substring(2, equals), equals < 0 ? "true" : arg.substring(equals + 1));
+        }
+
+        DataGenOptions options = new DataGenOptions();
+        String profile = values.getOrDefault("profile", "small");
+        long[] counts = PROFILES.get(profile);
+        if (counts == null) {
+            throw new IllegalArgumentException("Unknown profile '" + profile + "', expected one of " + PROFILES.keySet());
+        }
+        options.users = (int) counts[0];
+        options.podcasts = (int) counts[1];
+        options.comments = counts[2];
+        options.podcastLikes = counts[3];
+        options.commentLikes = counts[4];
+        options.activities = counts[5];
+        options.chats = (int) counts[6];
+        options.messages = counts[7];
+        options.notifications = counts[8];
+
+        values.forEach((key, value) -> {
+            switch (key) {
+                case "profile" -> { }
+                case "uri" -> options.uri = value;
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "drop" -> options.drop = Boolean.parseBoolean(value);
+                case "users" -> options.users = Integer.parseInt(value);
+                case "podcasts" -> options.podcasts = Integer.parseInt(value);
+                case "comments" -> options.comments = Long.parseLong(value);
+                case "podcast-likes" -> options.podcastLikes = Long.parseLong(value);
+                case "comment-likes" -> options.commentLikes = Long.parseLong(value);
+                case "activities" -> options.activities = Long.parseLong(value);
+                case "chats" -> options.chats = Integer.parseInt(value);
+                case "messages" -> options.messages = Long.parseLong(value);
+                case "notifications" -> options.notifications = Long.parseLong(value);
+                case "genres" -> options.genres = Integer.parseInt(value);
+                case "zipf" -> options.zipf = Double.parseDouble(value);
+                case "max-following" -> options.maxFollowing = Integer.parseInt(value);
+                case "reply-ratio" -> options.replyRatio = Double.parseDouble(value);
+                case "max-refs" -> options.maxRefsPerDocument = Integer.parseInt(value);
+                case "days" -> options.days = Integer.parseInt(value);
+                case "password" -> options.password = value;
+                case "batch" -> options.batchSize = Integer.parseInt(value);
+                case "writers" -> options.writers = Integer.parseInt(value);
+                case "video-dir" -> options.videoDir = value;
+                case "video-sizes" -> options.videoSizesMb = Arrays.stream(value.split(","))
+                        .map(String::strip).filter(size -> !size.isEmpty()).map(Integer::parseInt).toList();
+                default -> throw new IllegalArgumentException("Unknown option --" + key);
+            }
+        });
+        if (options.users < 2 || options.podcasts < 1 || options.genres < 1) {
+            throw new IllegalArgumentException("Need at least 2 users, 1 podcast and 1 genre");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,452 @@
+package com.castify.backend.datagen;
+
+import com.castify.backend.entity.*;
+import com.castify.backend.enums.ActivityType;
+import com.castify.backend.enums.MemberRole;
+import com.castify.backend.enums.NotiType;
+import com.castify.backend.enums.Role;
+import com.castify.backend.models.conversation.MemberInfor;
+import com.castify.backend.models.user.FollowInfo;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Sinh dữ liệu tổng hợp cho load test và benchmark: user kèm danh sách following, podcast, cây comment,
+ * like, userActivity, chat/message và notification, ghi bằng insertMany theo lô.
+ *
+ * <pre>
+ * mvn -Pperf test-compile exec:exec@datagen -Ddatagen.args="--profile=medium --uri=mongodb://localhost:27017/castify --drop --video-sizes=1,16,128"
+ * </pre>
+ *
+ * Mọi lựa chọn ngẫu nhiên đi qua một Random(seed) duy nhất và id được tính từ chỉ số ({@link DataGenIds}),
+ * nên cùng seed, cùng tham số và cùng ngày chạy cho ra cùng dữ liệu. Độ "hot" theo Zipf: user0 / podcast0
+ * được follow, xem, like và bình luận nhiều nhất. Mọi user có username userN và chung mật khẩu --password;
+ * thêm một tài khoản "admin" (role ADMIN) cho dashboard.
+ */
+public class DataGenerator {
+    private static final String[] LAST_NAMES = {"Nguyen", "Tran", "Le", "Pham", "Hoang", "Huynh", "Phan", "Vu", "Vo", "Dang", "Bui", "Do", "Ho", "Ngo"};
+    private static final String[] MIDDLE_NAMES = {"Van", "Thi", "Minh", "Ngoc", "Thanh", "Duc", "Gia", "Bao", "Quoc", "Hai"};
+    private static final String[] FIRST_NAMES = {"An", "Binh", "Chi", "Dung", "Giang", "Ha", "Hieu", "Hoa", "Huy", "Khanh",
+            "Lan", "Linh", "Long", "Mai", "Nam", "Nhung", "Phuc", "Quan", "Son", "Tam", "Thao", "Trang", "Tuan", "Vy"};
+    private static final String[] GENRE_NAMES = {"Technology", "News", "Comedy", "Education", "Music", "Sports", "Business",
+            "Health", "History", "Science", "Gaming", "Travel", "Food", "Film", "Books", "Politics", "Society", "Kids",
+            "Religion", "Fashion", "Art", "Language", "Nature", "True Crime"};
+    private static final String[] WORDS = {"podcast", "cau chuyen", "cong nghe", "am nhac", "cuoc song", "ha noi", "sai gon",
+            "lap trinh", "java", "mongo", "tin tuc", "the thao", "du lich", "am thuc", "sach", "phim", "hoc tap", "startup",
+            "suc khoe", "tam ly", "lich su", "khoa hoc", "tro choi", "thoi trang", "hai huoc", "phong van", "review", "tap"};
+    private static final ActivityType[] ACTIVITY_TYPES = {
+            // Tỉ lệ gần đúng: xem nhiều hơn hẳn thích / bình luận
+            ActivityType.VIEW_PODCAST, ActivityType.VIEW_PODCAST, ActivityType.VIEW_PODCAST, ActivityType.VIEW_PODCAST,
+            ActivityType.VIEW_PODCAST, ActivityType.VIEW_PODCAST, ActivityType.VIEW_PODCAST, ActivityType.LIKE_PODCAST,
+            ActivityType.LIKE_PODCAST, ActivityType.COMMENT_PODCAST, ActivityType.LIKE_COMMENT};
+
+    private final DataGenOptions options;
+    private final Random random;
+    private final LocalDateTime anchor;
+    private final ZipfSampler userZipf;
+    private final ZipfSampler podcastZipf;
+    private final BulkWriter writer;
+
+    private final List<GenreEntity> genres = new ArrayList<>();
+    private List<String> videoUrls = List.of();
+    // Podcast chứa comment thứ i, dùng khi sinh userActivity cho comment
+    private int[] commentPodcast = new int[0];
+    private int totalComments;
+
+    DataGenerator(DataGenOptions options, BulkWriter writer) {
+        this.options = options;
+        this.writer = writer;
+        this.random = new Random(options.getSeed());
+        this.anchor = LocalDate.now().atStartOfDay();
+        this.userZipf = new ZipfSampler(options.getUsers(), options.getZipf());
+        this.podcastZipf = new ZipfSampler(options.getPodcasts(), options.getZipf());
+    }
+
+    public static void main(String[] args) throws IOException {
+        DataGenOptions options = DataGenOptions.parse(args);
+        ConnectionString connectionString = new ConnectionString(options.getUri());
+        String database = connectionString.getDatabase() != null ? connectionString.getDatabase() : "castify_perf";
+
+        long started = System.nanoTime();
+        try (MongoClient client = MongoClients.create(connectionString);
+             BulkWriter writer = new BulkWriter(new MongoTemplate(client, database), options.getBatchSize(), options.getWriters())) {
+            if (options.isDrop()) {
+                client.getDatabase(database).drop();
+            }
+            Map<String, Long> counts = new DataGenerator(options, writer).generate();
+
+            System.out.printf("Generated into %s (seed %d) in %.1f s%n", database, options.getSeed(), (System.nanoTime() - started) / 1e9);
+            counts.forEach((collection, count) -> System.out.printf("  %-14s %,d%n", collection, count));
+            System.out.println("  hot user:    " + DataGenIds.username(0) + " / " + DataGenIds.user(0));
+            System.out.println("  hot podcast: " + DataGenIds.podcast(0));
+        }
+    }
+
+    Map<String, Long> generate() throws IOException {
+        generateVideos();
+        generateGenres();
+        generateUsers();
+        generatePodcasts();
+        generateActivities();
+        generateChats();
+        generateNotifications();
+        return writer.flush();
+    }
+
+    // File video giả (byte ngẫu nhiên, không phải MP4 hợp lệ) chỉ để đo đường đọc Range của /video
+    private void generateVideos() throws IOException {
+        if (options.getVideoSizesMb().isEmpty()) {
+            videoUrls = List.of(Paths.get(options.getVideoDir(), "datagen", "podcast", "missing.mp4").toAbsolutePath().toString());
+            return;
+        }
+        Path dir = Paths.get(options.getVideoDir(), "datagen", "podcast").toAbsolutePath();
+        Files.createDirectories(dir);
+        byte[] block = new byte[1024 * 1024];
+        List<String> urls = new ArrayList<>();
+        for (int sizeMb : options.getVideoSizesMb()) {
+            Path file = dir.resolve("sample_" + sizeMb + "mb.mp4");
+            if (!Files.exists(file) || Files.size(file) != sizeMb * (long) block.length) {
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    for (int i = 0; i < sizeMb; i++) {
+                        random.nextBytes(block);
+                        out.write(block);
+                    }
+                }
+            }
+            urls.add(file.toString());
+        }
+        videoUrls = urls;
+    }
+
+    private void generateGenres() {
+        for (int i = 0; i < options.getGenres(); i++) {
+            String name = GENRE_NAMES[i % GENRE_NAMES.length] + (i < GENRE_NAMES.length ? "" : " " + i);
+            GenreEntity genre = new GenreEntity(DataGenIds.of(DataGenIds.GENRE, i), name, i % 8 != 7, anchor.minusDays(options.getDays()));
+            genres.add(genre);
+            writer.insert(genre);
+        }
+    }
+
+    private void generateUsers() {
+        String passwordHash = new BCryptPasswordEncoder().encode(options.getPassword());
+        int maxFollowing = Math.min(options.getMaxFollowing(), options.getUsers() - 1);
+        ZipfSampler followingCount = new ZipfSampler(maxFollowing + 1, 1.0);
+
+        for (int i = 0; i < options.getUsers(); i++) {
+            UserEntity user = user(i, DataGenIds.username(i), passwordHash, Role.USER);
+            int count = followingCount.sample(random);
+            for (int target : distinctUsers(count, i)) {
+                user.getFollowing().add(new FollowInfo(DataGenIds.user(target), randomTime(user.getCreatedDay())));
+            }
+            writer.insert(user);
+        }
+        writer.insert(user(options.getUsers(), "admin", passwordHash, Role.ADMIN));
+    }
+
+    private UserEntity user(int index, String username, String passwordHash, Role role) {
+        LocalDateTime createdDay = anchor.minusMinutes(random.nextInt(options.getDays() * 24 * 60));
+        return UserEntity.builder()
+                .id(DataGenIds.user(index))
+                .firstName(pick(FIRST_NAMES))
+                .middleName(pick(MIDDLE_NAMES))
+                .lastName(pick(LAST_NAMES))
+                .username(username)
+                .email(username + "@castify.test")
+                .password(passwordHash)
+                .phone(String.format("09%08d", random.nextInt(100_000_000)))
+                .avatarUrl("https://cdn.castify.test/avatar/" + index + ".png")
+                .birthday(anchor.minusYears(16 + random.nextInt(45)).minusDays(random.nextInt(365)))
+                .ward("Phuong " + (1 + random.nextInt(20)))
+                .district("Quan " + (1 + random.nextInt(12)))
+                .provinces(random.nextBoolean() ? "Ho Chi Minh" : "Ha Noi")
+                .isActive(true)
+                .isNonLocked(true)
+                .isNonBanned(random.nextInt(200) != 0)
+                .role(role)
+                .createdDay(createdDay)
+                .lastLogin(randomTime(createdDay))
+                .following(new ArrayList<>())
+                .badgesId(new ArrayList<>())
+                .build();
+    }
+
+    /**
+     * Podcast được sinh lần lượt cùng comment, like comment và like podcast của nó, để các list @DBRef
+     * (podcast.comments, podcast.likes, comment.likes, comment.replies) khớp với các document con mà không
+     * phải giữ toàn bộ dữ liệu trong bộ nhớ.
+     */
+    private void generatePodcasts() {
+        int podcasts = options.getPodcasts();
+        int maxRefs = options.getMaxRefsPerDocument();
+        int[] commentCounts = allocate(options.getComments(), podcastZipf, p -> maxRefs);
+        int[] podcastLikeCounts = allocate(options.getPodcastLikes(), podcastZipf, p -> Math.min(maxRefs, options.getUsers()));
+        int[] commentLikeCounts = allocate(options.getCommentLikes(), podcastZipf,
+                p -> (int) Math.min((long) commentCounts[p] * Math.min(maxRefs, options.getUsers()), Integer.MAX_VALUE));
+
+        totalComments = Arrays.stream(commentCounts).sum();
+        commentPodcast = new int[totalComments];
+        int commentIndex = 0;
+        long commentLikeIndex = 0;
+        long podcastLikeIndex = 0;
+
+        for (int p = 0; p < podcasts; p++) {
+            PodcastEntity podcast = podcast(p);
+
+            List<CommentEntity> comments = new ArrayList<>(commentCounts[p]);
+            for (int c = 0; c < commentCounts[p]; c++) {
+                commentPodcast[commentIndex] = p;
+                CommentEntity comment = new CommentEntity();
+                comment.setId(DataGenIds.comment(commentIndex++));
+                comment.setPodcast(podcast);
+                comment.setUser(userRef(userZipf.sample(random)));
+                comment.setContent(sentence(3 + random.nextInt(20)));
+                comment.setLikes(new ArrayList<>());
+                comment.setReplies(new ArrayList<>());
+                LocalDateTime after = podcast.getCreatedDay();
+                // Reply trỏ tới comment trước đó, lệch về các thread đầu tiên nên có thread rất dài và nhiều tầng
+                if (c > 0 && random.nextDouble() < options.getReplyRatio()) {
+                    double u = random.nextDouble();
+                    CommentEntity parent = comments.get((int) (c * u * u));
+                    comment.setParentId(parent.getId());
+                    parent.getReplies().add(comment);
+                    after = parent.getTimestamp();
+                    if (parent.getParentId() != null) {
+                        comment.setMentionedUser(parent.getUser().getUsername());
+                    }
+                }
+                comment.setTimestamp(randomTime(after));
+                comments.add(comment);
+            }
+
+            if (!comments.isEmpty() && commentLikeCounts[p] > 0) {
+                ZipfSampler commentZipf = new ZipfSampler(comments.size(), options.getZipf());
+                int[] likesPerComment = allocate(commentLikeCounts[p], commentZipf, c -> Math.min(maxRefs, options.getUsers()));
+                for (int c = 0; c < comments.size(); c++) {
+                    CommentEntity comment = comments.get(c);
+                    for (int liker : distinctUsers(likesPerComment[c], -1)) {
+                        CommentLikeEntity like = new CommentLikeEntity(DataGenIds.of(DataGenIds.COMMENT_LIKE, commentLikeIndex++),
+                                userRef(liker), randomTime(comment.getTimestamp()), comment);
+                        comment.getLikes().add(like);
+                        writer.insert(like);
+                    }
+                }
+            }
+            for (CommentEntity comment : comments) {
+                comment.setLikeCount(comment.getLikes().size());
+                comment.setReplyCount(comment.getReplies().size());
+                writer.insert(comment);
+            }
+            podcast.setComments(comments);
+
+            List<PodcastLikeEntity> likes = new ArrayList<>(podcastLikeCounts[p]);
+            for (int liker : distinctUsers(podcastLikeCounts[p], -1)) {
+                PodcastLikeEntity like = new PodcastLikeEntity(DataGenIds.of(DataGenIds.PODCAST_LIKE, podcastLikeIndex++),
+                        userRef(liker), randomTime(podcast.getCreatedDay()), podcast);
+                likes.add(like);
+                writer.insert(like);
+            }
+            podcast.setLikes(likes);
+            podcast.setLikeCount(likes.size());
+            writer.insert(podcast);
+        }
+    }
+
+    private PodcastEntity podcast(int index) {
+        PodcastEntity podcast = new PodcastEntity();
+        podcast.setId(DataGenIds.podcast(index));
+        podcast.setTitle(capitalize(sentence(2 + random.nextInt(6))) + " #" + index);
+        podcast.setContent(sentence(10 + random.nextInt(60)));
+        podcast.setThumbnailUrl("https://cdn.castify.test/thumbnail/" + index + ".jpg");
+        podcast.setVideoUrl(videoUrls.get(index % videoUrls.size()));
+        // Lượt xem giảm theo thứ hạng giống phân phối Zipf, cộng nhiễu để không trùng nhau
+        podcast.setViews((long) (5_000_000 / Math.pow(index + 1, options.getZipf())) + random.nextInt(500));
+        podcast.setDuration(60 + random.nextInt(2 * 60 * 60));
+        int genreCount = 1 + random.nextInt(Math.min(3, genres.size()));
+        Set<GenreEntity> podcastGenres = new LinkedHashSet<>();
+        while (podcastGenres.size() < genreCount) {
+            podcastGenres.add(genres.get(random.nextInt(genres.size())));
+        }
+        podcast.setGenres(new ArrayList<>(podcastGenres));
+        podcast.setCreatedDay(anchor.minusMinutes(random.nextInt(options.getDays() * 24 * 60)));
+        podcast.setLastEdited(podcast.getCreatedDay());
+        podcast.setActive(random.nextInt(20) != 0);
+        podcast.setUser(userRef(userZipf.sample(random)));
+        return podcast;
+    }
+
+    private void generateActivities() {
+        for (long i = 0; i < options.getActivities(); i++) {
+            ActivityType type = ACTIVITY_TYPES[random.nextInt(ACTIVITY_TYPES.length)];
+            int podcast = podcastZipf.sample(random);
+            CommentEntity comment = null;
+            if ((type == ActivityType.COMMENT_PODCAST || type == ActivityType.LIKE_COMMENT) && totalComments > 0) {
+                int commentIndex = random.nextInt(totalComments);
+                podcast = commentPodcast[commentIndex];
+                comment = new CommentEntity();
+                comment.setId(DataGenIds.comment(commentIndex));
+            }
+            writer.insert(new UserActivityEntity(DataGenIds.of(DataGenIds.ACTIVITY, i), userRef(userZipf.sample(random)), type,
+                    podcastRef(podcast), comment, anchor.minusMinutes(random.nextInt(options.getDays() * 24 * 60))));
+        }
+    }
+
+    private void generateChats() {
+        if (options.getChats() == 0) {
+            return;
+        }
+        int[][] members = new int[options.getChats()][];
+        for (int c = 0; c < options.getChats(); c++) {
+            // Phần lớn là chat 1-1, còn lại là nhóm nhỏ
+            int size = random.nextInt(5) == 0 ? 3 + random.nextInt(8) : 2;
+            members[c] = distinctUsers(Math.min(size, options.getUsers()), -1);
+            ChatEntity chat = new ChatEntity();
+            chat.setId(DataGenIds.chat(c));
+            chat.setTitle(size > 2 ? capitalize(sentence(2)) : null);
+            chat.setCreatedAt(anchor.minusMinutes(random.nextInt(options.getDays() * 24 * 60)));
+            List<MemberInfor> memberList = new ArrayList<>();
+            for (int m = 0; m < members[c].length; m++) {
+                memberList.add(new MemberInfor(DataGenIds.user(members[c][m]), m == 0 ? MemberRole.LEADER : MemberRole.MEMBER, chat.getCreatedAt()));
+            }
+            chat.setMemberList(memberList);
+            writer.insert(chat);
+        }
+
+        ZipfSampler chatZipf = new ZipfSampler(options.getChats(), options.getZipf());
+        for (long i = 0; i < options.getMessages(); i++) {
+            int chat = chatZipf.sample(random);
+            int[] chatMembers = members[chat];
+            MessageEntity message = new MessageEntity();
+            message.setId(DataGenIds.of(DataGenIds.MESSAGE, i));
+            message.setChatId(DataGenIds.chat(chat));
+            message.setSender(userRef(chatMembers[random.nextInt(chatMembers.length)]));
+            message.setContent(sentence(1 + random.nextInt(15)));
+            message.setTimestamp(anchor.minusSeconds(random.nextInt(options.getDays() * 24 * 60 * 60)));
+            List<String> seenUsers = new ArrayList<>();
+            for (int member : chatMembers) {
+                if (random.nextInt(4) != 0) {
+                    seenUsers.add(DataGenIds.user(member));
+                }
+            }
+            message.setSeenUsers(seenUsers);
+            writer.insert(message);
+        }
+    }
+
+    private void generateNotifications() {
+        NotiType[] types = NotiType.values();
+        for (long i = 0; i < options.getNotifications(); i++) {
+            NotiType type = types[random.nextInt(types.length)];
+            int podcast = podcastZipf.sample(random);
+            NotificationEntity notification = new NotificationEntity();
+            notification.setId(DataGenIds.of(DataGenIds.NOTIFICATION, i));
+            notification.setTitle(type.name());
+            notification.setContent(sentence(5 + random.nextInt(10)));
+            notification.setType(type);
+            notification.setSender(userRef(random.nextInt(options.getUsers())));
+            notification.setReceiverId(DataGenIds.user(userZipf.sample(random)));
+            notification.setTargetUrl(type == NotiType.FOLLOW ? "/profile/" + DataGenIds.username(random.nextInt(options.getUsers()))
+                    : "/podcast/" + DataGenIds.podcast(podcast));
+            notification.setRead(random.nextInt(10) < 6);
+            notification.setCreatedAt(anchor.minusMinutes(random.nextInt(options.getDays() * 24 * 60)));
+            writer.insert(notification);
+        }
+    }
+
+    /**
+     * Chia {@code total} phần tử cho các vị trí theo {@code sampler}; vị trí đã đầy (theo {@code capacity})
+     * thì dồn sang vị trí kế tiếp còn chỗ. Tổng vượt sức chứa sẽ bị cắt bớt.
+     */
+    private int[] allocate(long total, ZipfSampler sampler, IntUnaryOperator capacity) {
+        int size = sampler.size();
+        int[] counts = new int[size];
+        long available = 0;
+        for (int i = 0; i < size; i++) {
+            available += capacity.applyAsInt(i);
+        }
+        for (long t = Math.min(total, available); t > 0; t--) {
+            int index = sampler.sample(random);
+            if (counts[index] >= capacity.applyAsInt(index)) {
+                index = random.nextInt(size);
+                while (counts[index] >= capacity.applyAsInt(index)) {
+                    index = (index + 1) % size;
+                }
+            }
+            counts[index]++;
+        }
+        return counts;
+    }
+
+    /**
+     * {@code count} user khác nhau (theo Zipf), bỏ qua {@code exclude}. Khi cần gần hết số user thì chuyển dần
+     * sang chọn đều rồi lấy tuần tự để không quay vòng mãi ở phần đuôi.
+     */
+    private int[] distinctUsers(int count, int exclude) {
+        int limit = Math.min(count, exclude >= 0 ? options.getUsers() - 1 : options.getUsers());
+        if (limit <= 0) {
+            return new int[0];
+        }
+        Set<Integer> chosen = new LinkedHashSet<>();
+        long attempts = 0;
+        while (chosen.size() < limit && attempts < 8L * limit) {
+            int user = attempts++ < 4L * limit ? userZipf.sample(random) : random.nextInt(options.getUsers());
+            if (user != exclude) {
+                chosen.add(user);
+            }
+        }
+        for (int user = 0; chosen.size() < limit; user++) {
+            if (user != exclude) {
+                chosen.add(user);
+            }
+        }
+        return chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private UserEntity userRef(int index) {
+        return UserEntity.builder().id(DataGenIds.user(index)).username(DataGenIds.username(index)).build();
+    }
+
+    private PodcastEntity podcastRef(int index) {
+        PodcastEntity podcast = new PodcastEntity();
+        podcast.setId(DataGenIds.podcast(index));
+        return podcast;
+    }
+
+    // Thời điểm ngẫu nhiên trong khoảng (after, anchor]
+    private LocalDateTime randomTime(LocalDateTime after) {
+        long minutes = Math.max(1, Duration.between(after, anchor).toMinutes());
+        return after.plusMinutes(1 + (long) (random.nextDouble() * (minutes - 1)));
+    }
+
+    private String sentence(int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(pick(WORDS));
+        }
+        return builder.toString();
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
@@ -0,0 +1,131 @@
+package com.castify.backend.mapper;
+
+import com.castify.backend.config.ModelMapperConfig;
+import com.castify.backend.entity.*;
+import com.castify.backend.enums.NotiType;
+import com.castify.backend.enums.Role;
+import com.castify.backend.models.comment.CommentModel;
+import com.castify.backend.models.conversation.MessageResponse;
+import com.castify.backend.models.notification.NotifiModel;
+import com.castify.backend.models.podcast.PodcastModel;
+import com.castify.backend.models.user.FollowInfo;
+import com.castify.backend.models.user.UserSimple;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mapper viết tay phải cho ra cùng kết quả với modelMapper.map(...) mà chúng thay thế.
+ */
+class MapperParityTest {
+    private final ModelMapper modelMapper = new ModelMapperConfig().modelMapper();
+
+    @Test
+    void podcastModelMatchesModelMapper() {
+        PodcastEntity podcast = MapperFixtures.podcast(3, 5);
+
+        PodcastModel expected = modelMapper.map(podcast, PodcastModel.class);
+        // ModelMapper để trống username, các service trước đây tự gán lại từ podcast.getUser()
+        expected.setUsername(podcast.getUser().getUsername());
+        assertEquals(expected, PodcastMapper.toModel(podcast));
+    }
+
+    @Test
+    void commentModelMatchesModelMapper() {
+        CommentEntity comment = MapperFixtures.comment(4, 2);
+
+        assertEquals(modelMapper.map(comment, CommentModel.class), CommentMapper.toModel(comment));
+    }
+
+    @Test
+    void userSimpleMatchesModelMapper() {
+        UserEntity user = MapperFixtures.user("alice");
+
+        assertEquals(modelMapper.map(user, UserSimple.class), UserMapper.toSimple(user));
+    }
+
+    @Test
+    void messageResponseMatchesModelMapper() {
+        MessageEntity message = new MessageEntity("m1", "c1", MapperFixtures.user("bob"), new ArrayList<>(), "xin chào", LocalDateTime.now());
+
+        assertEquals(modelMapper.map(message, MessageResponse.class), MessageMapper.toResponse(message));
+    }
+
+    @Test
+    void notificationMatchesModelMapper() {
+        NotificationEntity notification = new NotificationEntity("n1", "title", "content", LocalDateTime.now(),
+                "/profile/bob", NotiType.FOLLOW, MapperFixtures.user("bob"), "receiver", true);
+
+        assertEquals(modelMapper.map(notification, NotifiModel.class), NotificationMapper.toModel(notification));
+    }
+
+    static class MapperFixtures {
+        static UserEntity user(String username) {
+            List<FollowInfo> following = new ArrayList<>(List.of(new FollowInfo("u2", LocalDateTime.now()), new FollowInfo("u3", LocalDateTime.now())));
+            return UserEntity.builder()
+                    .id("id-" + username)
+                    .firstName("An")
+                    .middleName("Van")
+                    .lastName("Nguyen")
+                    .username(username)
+                    .email(username + "@castify.test")
+                    .avatarUrl("https://cdn.castify.test/" + username + ".png")
+                    .role(Role.USER)
+                    .following(following)
+                    .build();
+        }
+
+        static PodcastEntity podcast(int likes, int comments) {
+            PodcastEntity podcast = new PodcastEntity();
+            podcast.setId("p1");
+            podcast.setTitle("Podcast");
+            podcast.setContent("Nội dung");
+            podcast.setThumbnailUrl("/thumb.jpg");
+            podcast.setVideoUrl("/video.mp4");
+            podcast.setThumbnailsVttUrl("/media/previews/p1/v1/thumbnails.vtt");
+            podcast.setPreviewUrl("/media/previews/p1/v1/preview.mp4");
+            podcast.setViews(120);
+            podcast.setDuration(360);
+            podcast.setGenres(List.of(new GenreEntity("g1", "Tech", true, LocalDateTime.now())));
+            podcast.setLikes(new ArrayList<>());
+            for (int i = 0; i < likes; i++) {
+                podcast.getLikes().add(new PodcastLikeEntity("pl" + i, null, LocalDateTime.now(), null));
+            }
+            podcast.setLikeCount(likes);
+            podcast.setComments(new ArrayList<>());
+            for (int i = 0; i < comments; i++) {
+                podcast.getComments().add(new CommentEntity());
+            }
+            podcast.setCreatedDay(LocalDateTime.now().minusDays(1));
+            podcast.setLastEdited(LocalDateTime.now());
+            podcast.setActive(true);
+            podcast.setUser(user("owner"));
+            return podcast;
+        }
+
+        static CommentEntity comment(int likes, int replies) {
+            CommentEntity comment = new CommentEntity();
+            comment.setId("c1");
+            comment.setContent("Hay quá");
+            comment.setMentionedUser("bob");
+            comment.setTimestamp(LocalDateTime.now());
+            comment.setUser(user("alice"));
+            comment.setLikes(new ArrayList<>());
+            for (int i = 0; i < likes; i++) {
+                comment.getLikes().add(new CommentLikeEntity("cl" + i, null, LocalDateTime.now(), null));
+            }
+            comment.setReplies(new ArrayList<>());
+            for (int i = 0; i < replies; i++) {
+                comment.getReplies().add(new CommentEntity());
+            }
+            comment.setLikeCount(likes);
+            comment.setReplyCount(replies);
+            return comment;
+        }
+    }
+}
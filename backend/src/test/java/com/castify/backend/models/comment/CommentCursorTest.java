@@ -0,0 +1,48 @@
+package com.castify.backend.models.comment;
+
+import com.castify.backend.entity.CommentEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentCursorTest {
+
+    @Test
+    void latestCursorRoundTrip() {
+        CommentEntity comment = comment(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000), 7);
+
+        String encoded = CommentCursor.of(CommentSort.LATEST, comment).encode();
+        CommentCursor decoded = CommentCursor.decode(encoded, CommentSort.LATEST);
+
+        assertEquals(comment.getTimestamp(), decoded.timestamp());
+        assertEquals(comment.getId(), decoded.id());
+    }
+
+    @Test
+    void popularCursorKeepsLikeCount() {
+        CommentEntity comment = comment(LocalDateTime.now(), 42);
+
+        CommentCursor decoded = CommentCursor.decode(CommentCursor.of(CommentSort.POPULAR, comment).encode(), CommentSort.POPULAR);
+
+        assertEquals(42, decoded.likeCount());
+        assertEquals(comment.getId(), decoded.id());
+    }
+
+    @Test
+    void cursorFromAnotherSortIsRejected() {
+        String encoded = CommentCursor.of(CommentSort.POPULAR, comment(LocalDateTime.now(), 1)).encode();
+
+        assertThrows(RuntimeException.class, () -> CommentCursor.decode(encoded, CommentSort.LATEST));
+        assertThrows(RuntimeException.class, () -> CommentCursor.decode("not a cursor!", CommentSort.LATEST));
+    }
+
+    private static CommentEntity comment(LocalDateTime timestamp, long likeCount) {
+        CommentEntity comment = new CommentEntity();
+        comment.setId("6650f1c2a1b2c3d4e5f60718");
+        comment.setTimestamp(timestamp);
+        comment.setLikeCount(likeCount);
+        return comment;
+    }
+}
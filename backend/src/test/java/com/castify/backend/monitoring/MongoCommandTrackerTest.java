@@ -0,0 +1,70 @@
+package com.castify.backend.monitoring;
+
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoCommandTrackerTest {
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final MongoCommandTracker tracker = new MongoCommandTracker();
+
+    @AfterEach
+    void cleanUp() {
+        tracker.end();
+    }
+
+    @Test
+    void countsCommandsAndDocumentsForCurrentRequest() {
+        assertTrue(tracker.begin());
+        assertFalse(tracker.begin(), "phạm vi đã mở thì không mở lại");
+
+        tracker.commandSucceeded(succeeded("find", "{ cursor: { id: 0, ns: 'castify.podcast', firstBatch: [ {}, {}, {} ] }, ok: 1 }", 2));
+        tracker.commandSucceeded(succeeded("getMore", "{ cursor: { id: 0, ns: 'castify.podcast', nextBatch: [ {} ] }, ok: 1 }", 1));
+        tracker.commandSucceeded(succeeded("count", "{ n: 42, ok: 1 }", 1));
+        tracker.commandFailed(new CommandFailedEvent(null, 1, 1, CONNECTION, "castify", "find",
+                TimeUnit.MILLISECONDS.toNanos(3), new MongoException("boom")));
+
+        MongoCommandStats stats = tracker.end();
+        assertEquals(4, stats.getCommands());
+        assertEquals(1, stats.getFailures());
+        assertEquals(46, stats.getDocuments());
+        assertEquals(7.0, stats.elapsedMillis(), 0.001);
+        assertNull(tracker.current());
+    }
+
+    @Test
+    void ignoresCommandsOutsideRequest() {
+        tracker.commandSucceeded(succeeded("find", "{ cursor: { firstBatch: [ {} ] }, ok: 1 }", 1));
+        assertNull(tracker.current());
+    }
+
+    @Test
+    void budgetIsExceededOnlyAboveLimit() {
+        tracker.begin();
+        MongoCommandStats stats = tracker.current();
+        stats.setBudget(2);
+        tracker.commandSucceeded(succeeded("find", "{ ok: 1 }", 1));
+        tracker.commandSucceeded(succeeded("find", "{ ok: 1 }", 1));
+        assertFalse(stats.isOverBudget());
+        tracker.commandSucceeded(succeeded("find", "{ ok: 1 }", 1));
+        assertTrue(stats.isOverBudget());
+    }
+
+    private static CommandSucceededEvent succeeded(String commandName, String response, long millis) {
+        return new CommandSucceededEvent(null, 1, 1, CONNECTION, "castify", commandName,
+                BsonDocument.parse(response), TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
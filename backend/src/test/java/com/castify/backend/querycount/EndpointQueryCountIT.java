@@ -0,0 +1,154 @@
+package com.castify.backend.querycount;
+
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.enums.Role;
+import com.castify.backend.queryplan.QueryPlanFixtures;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Giới hạn trên số lệnh Mongo cho các endpoint chính với trang 20 phần tử. Một lệnh countBy.../findBy... cho
+ * từng dòng kết quả sẽ vượt giới hạn ngay, nên mọi thay đổi đưa N+1 quay lại sẽ làm build fail.
+ * Giới hạn đặt sát số lệnh hiện tại (kể cả lệnh của JwtAuthenticationFilter); khi tối ưu làm giảm số lệnh,
+ * hạ giới hạn tương ứng xuống.
+ *
+ * Chạy bằng {@code mvn verify} (failsafe), cùng mongod nhúng với QueryPlanIT.
+ */
+class EndpointQueryCountIT extends MongoQueryCountTestBase {
+    private static final int PAGE_SIZE = 20;
+
+    private final QueryPlanFixtures fixtures = new QueryPlanFixtures();
+    private String userAuthorization;
+    private String adminAuthorization;
+
+    @BeforeAll
+    void seed() {
+        clearDatabase();
+        fixtures.seed(mongoTemplate);
+
+        UserEntity admin = UserEntity.builder()
+                .firstName("Admin")
+                .lastName("Castify")
+                .username("admin")
+                .email("admin@castify.test")
+                .password("{noop}password")
+                .isActive(true)
+                .isNonLocked(true)
+                .isNonBanned(true)
+                .role(Role.ADMIN)
+                .createdDay(LocalDateTime.now())
+                .build();
+        mongoTemplate.insert(admin);
+
+        userAuthorization = bearer(fixtures.hotUser());
+        adminAuthorization = bearer(admin);
+    }
+
+    @Test
+    void recentPodcasts() throws Exception {
+        assertCommandsAtMost(25, get("/api/v1/podcast/recent")
+                .param("page", "0")
+                .param("size", String.valueOf(PAGE_SIZE)));
+    }
+
+    @Test
+    void podcastDetail() throws Exception {
+        assertCommandsAtMost(10, get("/api/v1/podcast/{id}", fixtures.hotActivePodcast().getId())
+                .header("Authorization", userAuthorization));
+    }
+
+    // Đếm + một trang theo index, sau đó mỗi comment resolve user (lazy DBRef)
+    @Test
+    void commentList() throws Exception {
+        assertCommandsAtMost(25, get("/api/v1/comment/list/{id}", fixtures.hotActivePodcast().getId())
+                .param("page", "0")
+                .param("size", String.valueOf(PAGE_SIZE)));
+    }
+
+    // isLiked của cả trang lấy bằng một query trên commentLike
+    @Test
+    void commentListAuthenticatedNextPage() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/comment/list/{id}", fixtures.hotActivePodcast().getId())
+                        .param("size", String.valueOf(PAGE_SIZE))
+                        .param("sortBy", "popular"))
+                .andReturn();
+        String cursor = JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor");
+
+        assertCommandsAtMost(28, get("/api/v1/comment/list/{id}", fixtures.hotActivePodcast().getId())
+                .header("Authorization", userAuthorization)
+                .param("size", String.valueOf(PAGE_SIZE))
+                .param("sortBy", "popular")
+                .param("cursor", cursor));
+    }
+
+    // Tổng số lấy từ replyCount của comment cha, một trang theo index (parentId, timestamp), isLiked một lệnh
+    @Test
+    void repliesAuthenticatedNextPage() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/comment/list/replies/{id}", fixtures.threadComment().getId())
+                        .param("size", "5"))
+                .andReturn();
+        String cursor = JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor");
+
+        assertCommandsAtMost(28, get("/api/v1/comment/list/replies/{id}", fixtures.threadComment().getId())
+                .header("Authorization", userAuthorization)
+                .param("size", String.valueOf(PAGE_SIZE))
+                .param("cursor", cursor));
+    }
+
+    // Một trang theo index (podcastEntity.$id, timestamp), user của cả trang một query $in
+    @Test
+    void podcastLikers() throws Exception {
+        assertCommandsAtMost(4, get("/api/v1/podcast/{id}/likes", fixtures.hotActivePodcast().getId())
+                .param("size", String.valueOf(PAGE_SIZE)));
+    }
+
+    // Một trang theo index (userEntity.$id, timestamp), podcast và chủ podcast mỗi thứ một query $in
+    @Test
+    void likedPodcasts() throws Exception {
+        assertCommandsAtMost(6, get("/api/v1/podcast/liked")
+                .header("Authorization", userAuthorization)
+                .param("size", String.valueOf(PAGE_SIZE)));
+    }
+
+    @Test
+    void followerList() throws Exception {
+        assertCommandsAtMost(45, get("/api/v1/user/list/follower")
+                .param("username", fixtures.hotUser().getUsername())
+                .param("pageNumber", "0")
+                .param("pageSize", String.valueOf(PAGE_SIZE)));
+    }
+
+    @Test
+    void conversations() throws Exception {
+        assertCommandsAtMost(60, get("/api/v1/conversation")
+                .header("Authorization", userAuthorization)
+                .param("pageNumber", "0")
+                .param("pageSize", String.valueOf(PAGE_SIZE)));
+    }
+
+    // Nợ cũ: service đọc toàn bộ lịch sử xem rồi resolve podcast của từng activity để lọc isActive
+    @Test
+    void viewPodcastActivities() throws Exception {
+        assertCommandsAtMost(175, get("/api/v1/activities/view-podcast")
+                .header("Authorization", userAuthorization)
+                .param("page", "0"));
+    }
+
+    @Test
+    void creatorDashboard() throws Exception {
+        assertCommandsAtMost(4, get("/api/v1/creator/statistics")
+                .header("Authorization", userAuthorization));
+    }
+
+    @Test
+    void adminDashboard() throws Exception {
+        assertCommandsAtMost(45, get("/api/v1/admin/statistics")
+                .header("Authorization", adminAuthorization));
+    }
+}
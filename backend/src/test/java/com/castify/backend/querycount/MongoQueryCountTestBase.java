@@ -0,0 +1,138 @@
+package com.castify.backend.querycount;
+
+import com.castify.backend.entity.TokenEntity;
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.enums.TokenType;
+import com.castify.backend.monitoring.MongoCommandStats;
+import com.castify.backend.monitoring.MongoCommandTracker;
+import com.castify.backend.service.authenticatation.IUserDetailsCacheService;
+import com.castify.backend.service.authenticatation.jwt.IJwtService;
+import com.castify.backend.utils.TokenHashUtils;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.jsonwebtoken.Claims;
+import org.bson.Document;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Khởi động toàn bộ ứng dụng trên một mongod nhúng và đếm số lệnh Mongo của từng lệnh gọi MockMvc
+ * bằng MongoCommandTracker (cùng bộ đếm với log/metric khi chạy thật, gồm cả lệnh của JwtAuthenticationFilter).
+ * Lớp con seed dữ liệu một lần trong @BeforeAll rồi dùng {@link #assertCommandsAtMost} để chặn N+1.
+ *
+ * Mặc định dùng flapdoodle như QueryPlanIT; -Dit.mongo.uri=mongodb://host:port để chạy trên Mongo có sẵn.
+ */
+// Profile test tắt auto-index và migration để contextLoads chạy không cần Mongo, ở đây cần index thật
+@SpringBootTest(properties = {"spring.data.mongodb.auto-index-creation=true", "castify.migration.reaction-indexes=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public abstract class MongoQueryCountTestBase {
+    private static final String DATABASE = "castify_querycount";
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+    @Autowired
+    protected MockMvc mockMvc;
+    @Autowired
+    protected MongoTemplate mongoTemplate;
+    @Autowired
+    private MongoCommandTracker tracker;
+    @Autowired
+    private IJwtService jwtService;
+    @Autowired
+    private IUserDetailsCacheService userDetailsCacheService;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MongoQueryCountTestBase::mongoUri);
+    }
+
+    // Context Spring được cache giữa các lớp test nên mongod sống đến hết JVM
+    private static synchronized String mongoUri() {
+        String external = System.getProperty("it.mongo.uri");
+        if (external != null) {
+            return external.replaceAll("/+$", "") + "/" + DATABASE;
+        }
+        if (mongod == null) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            Runtime.getRuntime().addShutdownHook(new Thread(mongod::close));
+        }
+        ServerAddress address = mongod.current().getServerAddress();
+        return "mongodb://" + address.getHost() + ":" + address.getPort() + "/" + DATABASE;
+    }
+
+    /**
+     * Thực hiện request trong một phạm vi đếm riêng. Request phải trả về 2xx để số lệnh có ý nghĩa.
+     */
+    protected MongoCommandStats perform(RequestBuilder request) throws Exception {
+        if (!tracker.begin()) {
+            throw new IllegalStateException("Phạm vi đếm lệnh Mongo đang mở trên thread test");
+        }
+        MvcResult result;
+        MongoCommandStats stats;
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } finally {
+            stats = tracker.end();
+        }
+        int status = result.getResponse().getStatus();
+        if (status < 200 || status >= 300) {
+            fail("HTTP " + status + " cho " + result.getRequest().getRequestURI() + ": " + result.getResponse().getContentAsString());
+        }
+        return stats;
+    }
+
+    protected MongoCommandStats assertCommandsAtMost(int maxCommands, RequestBuilder request) throws Exception {
+        MongoCommandStats stats = perform(request);
+        System.out.println("[querycount] " + stats);
+        assertTrue(stats.getCommands() <= maxCommands,
+                "Quá nhiều lệnh Mongo (tối đa " + maxCommands + "), có thể là N+1: " + stats);
+        return stats;
+    }
+
+    /**
+     * Header Authorization hợp lệ cho user, token được lưu như khi đăng nhập để qua được JwtAuthenticationFilter.
+     */
+    protected String bearer(UserEntity user) {
+        String jwt = jwtService.generateToken(user);
+        Claims claims = jwtService.parseClaims(jwt);
+        mongoTemplate.insert(TokenEntity.builder()
+                .userId(user.getId())
+                .tokenHash(TokenHashUtils.sha256(jwt))
+                .jti(claims.getId())
+                .expiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()))
+                .tokenType(TokenType.BEARER)
+                .expired(false)
+                .revoked(false)
+                .build());
+        return "Bearer " + jwt;
+    }
+
+    // Xóa document nhưng giữ index đã tạo lúc khởi động context
+    protected void clearDatabase() {
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            mongoTemplate.getCollection(collection).deleteMany(new Document());
+        }
+        // deleteMany không phát sự kiện mapping, cache UserDetails phải xóa tay
+        userDetailsCacheService.evictAll();
+    }
+}
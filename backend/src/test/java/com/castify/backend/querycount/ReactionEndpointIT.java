@@ -0,0 +1,184 @@
+package com.castify.backend.querycount;
+
+import com.castify.backend.entity.*;
+import com.castify.backend.enums.Role;
+import com.castify.backend.queryplan.QueryPlanFixtures;
+import com.castify.backend.repository.template.ReactionTemplate;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * PUT/DELETE reaction gọi lặp lại (double-click, retry) không tạo like trùng và không đếm hai lần.
+ * Giới hạn số lệnh gồm cả lệnh của JwtAuthenticationFilter; phần reaction là insert/findAndRemove + findAndModify.
+ * Thêm comment, sửa và ẩn/hiện podcast chỉ ghi field của mình, không đè likeCount hay sprite/preview.
+ */
+class ReactionEndpointIT extends MongoQueryCountTestBase {
+    private final QueryPlanFixtures fixtures = new QueryPlanFixtures();
+    @Autowired
+    private ReactionTemplate reactionTemplate;
+    private UserEntity fan;
+    private String fanAuthorization;
+
+    @BeforeAll
+    void seed() {
+        clearDatabase();
+        fixtures.seed(mongoTemplate);
+
+        fan = UserEntity.builder()
+                .firstName("Fan")
+                .lastName("Castify")
+                .username("fan")
+                .email("fan@castify.test")
+                .password("{noop}password")
+                .isActive(true)
+                .isNonLocked(true)
+                .isNonBanned(true)
+                .role(Role.USER)
+                .createdDay(LocalDateTime.now())
+                .build();
+        mongoTemplate.insert(fan);
+        fanAuthorization = bearer(fan);
+    }
+
+    @Test
+    void likeCommentTwiceCountsOnce() throws Exception {
+        CommentEntity comment = fixtures.getComments().get(1);
+        long before = comment.getLikeCount();
+
+        assertCommandsAtMost(8, put("/api/v1/comment/{id}/reaction", comment.getId()).header("Authorization", fanAuthorization));
+        assertCommandsAtMost(8, put("/api/v1/comment/{id}/reaction", comment.getId()).header("Authorization", fanAuthorization));
+
+        assertEquals(before + 1, storedLikeCount(CommentEntity.class, comment.getId()));
+        assertEquals(1, likesOf(CommentLikeEntity.class, "commentEntity", comment.getId()));
+
+        perform(delete("/api/v1/comment/{id}/reaction", comment.getId()).header("Authorization", fanAuthorization));
+        perform(delete("/api/v1/comment/{id}/reaction", comment.getId()).header("Authorization", fanAuthorization));
+
+        assertEquals(before, storedLikeCount(CommentEntity.class, comment.getId()));
+        assertEquals(0, likesOf(CommentLikeEntity.class, "commentEntity", comment.getId()));
+    }
+
+    @Test
+    void likePodcastTwiceNotifiesOnce() throws Exception {
+        PodcastEntity podcast = fixtures.hotActivePodcast();
+        long before = storedLikeCount(PodcastEntity.class, podcast.getId());
+        long notifications = notificationsFor(podcast.getUser().getId());
+
+        perform(put("/api/v1/podcast/{id}/reaction", podcast.getId()).header("Authorization", fanAuthorization));
+        perform(put("/api/v1/podcast/{id}/reaction", podcast.getId()).header("Authorization", fanAuthorization));
+
+        assertEquals(before + 1, storedLikeCount(PodcastEntity.class, podcast.getId()));
+        assertEquals(1, likesOf(PodcastLikeEntity.class, "podcastEntity", podcast.getId()));
+        assertEquals(notifications + 1, notificationsFor(podcast.getUser().getId()));
+
+        perform(delete("/api/v1/podcast/{id}/reaction", podcast.getId()).header("Authorization", fanAuthorization));
+        assertEquals(before, storedLikeCount(PodcastEntity.class, podcast.getId()));
+    }
+
+    // Nâng cấp từ index user_comment không unique: like trùng bị dọn, tra cứu vẫn có index trong lúc dựng unique index
+    @Test
+    void uniqueIndexReplacesLookupIndexAfterRemovingDuplicates() {
+        IndexOperations indexOps = mongoTemplate.indexOps(CommentLikeEntity.class);
+        indexOps.dropIndex("user_comment");
+        indexOps.ensureIndex(new CompoundIndexDefinition(new Document("userEntity.$id", 1).append("commentEntity.$id", 1))
+                .named("user_comment"));
+        ObjectId commentId = new ObjectId();
+        for (int i = 0; i < 2; i++) {
+            mongoTemplate.insert(new Document("userEntity", new DBRef("user", new ObjectId(fan.getId())))
+                    .append("commentEntity", new DBRef("comment", commentId)), "commentLike");
+        }
+
+        assertEquals(1, reactionTemplate.ensureUniqueIndex(CommentLikeEntity.class, "commentEntity", CommentEntity.class, "user_comment"));
+
+        assertEquals(1, likesOf(CommentLikeEntity.class, "commentEntity", commentId.toHexString()));
+        assertTrue(indexOps.getIndexInfo().stream().anyMatch(index -> index.getName().equals("user_comment") && index.isUnique()));
+        assertFalse(indexOps.getIndexInfo().stream().anyMatch(index -> index.getName().equals("user_comment_lookup")));
+    }
+
+    // POST /comment/reaction cũ vẫn là toggle
+    @Test
+    void legacyToggleStillToggles() throws Exception {
+        CommentEntity comment = fixtures.getComments().get(2);
+        String body = "{\"commentId\":\"" + comment.getId() + "\"}";
+
+        perform(post("/api/v1/comment/reaction").header("Authorization", fanAuthorization)
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+        assertEquals(1, likesOf(CommentLikeEntity.class, "commentEntity", comment.getId()));
+
+        perform(post("/api/v1/comment/reaction").header("Authorization", fanAuthorization)
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+        assertEquals(0, likesOf(CommentLikeEntity.class, "commentEntity", comment.getId()));
+    }
+
+    @Test
+    void commentEditAndToggleKeepLikesAndPreviewMedia() throws Exception {
+        PodcastEntity podcast = new PodcastEntity();
+        podcast.setTitle("Before");
+        podcast.setContent("Content");
+        podcast.setLikeCount(7);
+        podcast.setPreviewUrl("/media/previews/h/v1/preview.mp4");
+        podcast.setActive(true);
+        podcast.setUser(fixtures.hotUser());
+        podcast.setCreatedDay(LocalDateTime.now());
+        mongoTemplate.insert(podcast);
+        String genreId = fixtures.hotActivePodcast().getGenres().get(0).getId();
+
+        perform(post("/api/v1/comment/add").header("Authorization", fanAuthorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"podcastId\":\"" + podcast.getId() + "\",\"content\":\"Hay\"}"));
+        perform(multipart(HttpMethod.PUT, "/api/v1/podcast/edit/{id}", podcast.getId())
+                .file(new MockMultipartFile("title", "", MediaType.TEXT_PLAIN_VALUE, "After".getBytes(StandardCharsets.UTF_8)))
+                .param("genreIds", genreId)
+                .header("Authorization", fanAuthorization));
+        perform(put("/api/v1/podcast/toggle").header("Authorization", fanAuthorization)
+                .contentType(MediaType.APPLICATION_JSON).content("[\"" + podcast.getId() + "\"]"));
+
+        Document stored = mongoTemplate.findById(new ObjectId(podcast.getId()), Document.class,
+                mongoTemplate.getCollectionName(PodcastEntity.class));
+        assertEquals("After", stored.getString("title"));
+        assertEquals("Content", stored.getString("content"));
+        assertEquals(1, stored.getList("comments", Object.class).size());
+        assertEquals(1, stored.getList("genres", Document.class).size());
+        assertEquals(7L, ((Number) stored.get("likeCount")).longValue());
+        assertEquals("/media/previews/h/v1/preview.mp4", stored.getString("previewUrl"));
+        assertFalse(stored.getBoolean("isActive"));
+    }
+
+    private long storedLikeCount(Class<?> type, String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("likeCount");
+        Document document = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(type));
+        return ((Number) document.getOrDefault("likeCount", 0L)).longValue();
+    }
+
+    private long likesOf(Class<?> reactionType, String targetField, String targetId) {
+        return mongoTemplate.count(Query.query(Criteria.where("userEntity.$id").is(new ObjectId(fan.getId()))
+                .and(targetField + ".$id").is(new ObjectId(targetId))), reactionType);
+    }
+
+    private long notificationsFor(String receiverId) {
+        return mongoTemplate.count(Query.query(Criteria.where("receiverId").is(receiverId)), NotificationEntity.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.castify.backend.queryplan;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Đọc kết quả {@code explain} (verbosity executionStats) của find / count / delete / aggregate
+ * và rút ra các stage đã chạy cùng số document đã quét so với số document trả về.
+ */
+public class ExplainPlanAnalyzer {
+    public static final String COLLSCAN = "COLLSCAN";
+
+    // Bỏ qua các plan không được chọn và plan SBE dạng chuỗi
+    private static final Set<String> IGNORED_KEYS = Set.of("rejectedPlans", "allPlansExecution", "slotBasedPlan");
+
+    private final double maxExaminedRatio;
+    private final long minExaminedForRatio;
+
+    public ExplainPlanAnalyzer(double maxExaminedRatio, long minExaminedForRatio) {
+        this.maxExaminedRatio = maxExaminedRatio;
+        this.minExaminedForRatio = minExaminedForRatio;
+    }
+
+    public PlanSummary analyze(Document explain) {
+        PlanSummary summary = new PlanSummary(new TreeSet<>(), 0, 0, -1);
+        walk(explain, summary);
+        if (summary.getReturned() < 0) {
+            summary.setReturned(0);
+        }
+        return summary;
+    }
+
+    /**
+     * Trả về lý do vi phạm, hoặc null nếu plan chấp nhận được.
+     */
+    public String violation(PlanSummary summary) {
+        if (summary.getStages().contains(COLLSCAN)) {
+            return "COLLSCAN (docsExamined=" + summary.getDocsExamined() + ", nReturned=" + summary.getReturned() + ")";
+        }
+        if (summary.getDocsExamined() >= minExaminedForRatio && summary.examinedRatio() > maxExaminedRatio) {
+            return String.format("docsExamined/nReturned = %d/%d vượt ngưỡng %.1f (stages=%s)",
+                    summary.getDocsExamined(), summary.getReturned(), maxExaminedRatio, summary.getStages());
+        }
+        return null;
+    }
+
+    private void walk(Object node, PlanSummary summary) {
+        if (node instanceof Document document) {
+            for (var entry : document.entrySet()) {
+                String key = entry.getKey();
+                Object value = entry.getValue();
+                if (IGNORED_KEYS.contains(key)) {
+                    continue;
+                }
+                if ("stage".equals(key) && value instanceof String stage) {
+                    summary.getStages().add(stage);
+                } else if ("executionStats".equals(key) && value instanceof Document stats) {
+                    summary.setDocsExamined(summary.getDocsExamined() + number(stats.get("totalDocsExamined")));
+                    summary.setKeysExamined(summary.getKeysExamined() + number(stats.get("totalKeysExamined")));
+                    // Lấy nReturned của tầng ngoài cùng (với aggregate là số document đi vào pipeline)
+                    if (summary.getReturned() < 0) {
+                        summary.setReturned(number(stats.get("nReturned")));
+                    }
+                } else if ("$lookup".equals(key) && document.containsKey("collectionScans")) {
+                    // Stage $lookup trong explain aggregate báo số lần quét toàn collection phía foreign
+                    if (number(document.get("collectionScans")) > 0) {
+                        summary.getStages().add(COLLSCAN);
+                    }
+                    summary.setDocsExamined(summary.getDocsExamined() + number(document.get("totalDocsExamined")));
+                }
+                walk(value, summary);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                walk(item, summary);
+            }
+        }
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PlanSummary {
+        private Set<String> stages;
+        private long docsExamined;
+        private long keysExamined;
+        private long returned;
+
+        public double examinedRatio() {
+            return (double) docsExamined / Math.max(returned, 1);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.castify.backend.queryplan;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExplainPlanAnalyzerTest {
+    private final ExplainPlanAnalyzer analyzer = new ExplainPlanAnalyzer(10, 100);
+
+    @Test
+    void findWithCollectionScanIsViolation() {
+        Document explain = Document.parse("""
+                { queryPlanner: { winningPlan: { stage: 'COLLSCAN', filter: { username: { $eq: 'a' } } }, rejectedPlans: [] },
+                  executionStats: { nReturned: 1, totalKeysExamined: 0, totalDocsExamined: 5000,
+                                    executionStages: { stage: 'COLLSCAN', nReturned: 1, docsExamined: 5000 } } }
+                """);
+
+        ExplainPlanAnalyzer.PlanSummary summary = analyzer.analyze(explain);
+
+        assertTrue(summary.getStages().contains("COLLSCAN"));
+        assertEquals(5000, summary.getDocsExamined());
+        assertEquals(1, summary.getReturned());
+        assertNotNull(analyzer.violation(summary));
+    }
+
+    @Test
+    void selectiveIndexScanPasses() {
+        Document explain = Document.parse("""
+                { queryPlanner: { winningPlan: { stage: 'FETCH', inputStage: { stage: 'IXSCAN', indexName: 'username_1' } },
+                                  rejectedPlans: [ { stage: 'COLLSCAN' } ] },
+                  executionStats: { nReturned: 20, totalKeysExamined: 20, totalDocsExamined: 20,
+                                    executionStages: { stage: 'FETCH', inputStage: { stage: 'IXSCAN' } } } }
+                """);
+
+        ExplainPlanAnalyzer.PlanSummary summary = analyzer.analyze(explain);
+
+        assertFalse(summary.getStages().contains("COLLSCAN"), "rejectedPlans không được tính");
+        assertNull(analyzer.violation(summary));
+    }
+
+    @Test
+    void unselectiveIndexScanExceedsRatio() {
+        Document explain = Document.parse("""
+                { queryPlanner: { winningPlan: { stage: 'FETCH', filter: { isActive: true }, inputStage: { stage: 'IXSCAN' } } },
+                  executionStats: { nReturned: 5, totalKeysExamined: 900, totalDocsExamined: 900 } }
+                """);
+
+        String violation = analyzer.violation(analyzer.analyze(explain));
+
+        assertNotNull(violation);
+        assertTrue(violation.contains("900/5"));
+    }
+
+    @Test
+    void smallScansAreBelowRatioFloor() {
+        Document explain = Document.parse("""
+                { queryPlanner: { winningPlan: { stage: 'FETCH', inputStage: { stage: 'IXSCAN' } } },
+                  executionStats: { nReturned: 0, totalKeysExamined: 40, totalDocsExamined: 40 } }
+                """);
+
+        assertNull(analyzer.violation(analyzer.analyze(explain)));
+    }
+
+    @Test
+    void aggregateLookupCollectionScanIsDetected() {
+        Document explain = Document.parse("""
+                { stages: [
+                    { $cursor: { queryPlanner: { winningPlan: { stage: 'FETCH', inputStage: { stage: 'IXSCAN' } } },
+                                 executionStats: { nReturned: 30, totalKeysExamined: 30, totalDocsExamined: 30 } } },
+                    { $lookup: { from: 'commentLike', as: 'likes', localField: '_id', foreignField: 'commentEntity.$id' },
+                      totalDocsExamined: 180000, totalKeysExamined: 0, collectionScans: 30, nReturned: 30 },
+                    { $sort: { sortKey: { timestamp: -1 } }, nReturned: 30 } ] }
+                """);
+
+        ExplainPlanAnalyzer.PlanSummary summary = analyzer.analyze(explain);
+
+        assertTrue(summary.getStages().contains("COLLSCAN"));
+        assertEquals(180030, summary.getDocsExamined());
+        assertEquals(30, summary.getReturned());
+    }
+
+    @Test
+    void idLookupPasses() {
+        Document explain = Document.parse("""
+                { queryPlanner: { winningPlan: { stage: 'EXPRESS_IXSCAN', keyPattern: '{ _id: 1 }' } },
+                  executionStats: { nReturned: 1, totalKeysExamined: 1, totalDocsExamined: 1 } }
+                """);
+
+        assertNull(analyzer.violation(analyzer.analyze(explain)));
+    }
+}
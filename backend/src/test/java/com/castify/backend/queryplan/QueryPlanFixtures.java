@@ -0,0 +1,336 @@
+package com.castify.backend.queryplan;
+
+import com.castify.backend.entity.*;
+import com.castify.backend.enums.*;
+import com.castify.backend.models.conversation.MemberInfor;
+import com.castify.backend.models.user.FollowInfo;
+import com.castify.backend.utils.TokenHashUtils;
+import lombok.Getter;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Dữ liệu tổng hợp cho kiểm tra query plan và bảng giá trị mẫu cho tham số của các method repository.
+ * Kích thước đủ lớn để COLLSCAN / tỉ lệ quét bất thường lộ ra, nhưng vẫn seed trong vài giây.
+ */
+@Getter
+public class QueryPlanFixtures {
+    public static final int USERS = 400;
+    public static final int GENRES = 12;
+    public static final int PODCASTS = 1_500;
+    public static final int COMMENTS = 6_000;
+    public static final int LIKES = 6_000;
+
+    private static final String KEYWORD = "an";
+
+    private final Random random = new Random(42);
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private final List<UserEntity> users = new ArrayList<>();
+    private final List<GenreEntity> genres = new ArrayList<>();
+    private final List<PodcastEntity> podcasts = new ArrayList<>();
+    private final List<CommentEntity> comments = new ArrayList<>();
+    private final List<ChatEntity> chats = new ArrayList<>();
+    private final List<TokenEntity> tokens = new ArrayList<>();
+
+    public void seed(MongoTemplate mongoTemplate) {
+        for (int i = 0; i < GENRES; i++) {
+            genres.add(new GenreEntity(null, "Genre " + i, i % 4 != 0, now));
+        }
+        mongoTemplate.insertAll(genres);
+
+        for (int i = 0; i < USERS; i++) {
+            users.add(UserEntity.builder()
+                    .firstName("First" + i)
+                    .lastName(i % 3 == 0 ? "Tran" : "Nguyen")
+                    .middleName("Van")
+                    .username("user" + i)
+                    .email("user" + i + "@castify.test")
+                    .password("{noop}password")
+                    .phone("0900000000")
+                    .provinces("Province " + (i % 20))
+                    .district("District " + (i % 50))
+                    .ward("Ward " + (i % 100))
+                    .birthday(now.minusYears(18 + i % 30))
+                    .isActive(true)
+                    .isNonLocked(true)
+                    .isNonBanned(true)
+                    .role(Role.USER)
+                    .createdDay(now.minusDays(i % 90))
+                    .following(new ArrayList<>())
+                    .build());
+        }
+        mongoTemplate.insertAll(users);
+        // Mỗi user theo dõi vài user khác, user đầu tiên được theo dõi nhiều nhất
+        for (UserEntity user : users) {
+            for (int f = 0; f < 5; f++) {
+                UserEntity target = users.get(skewedIndex(USERS));
+                if (!target.getId().equals(user.getId())) {
+                    user.getFollowing().add(new FollowInfo(target.getId(), now.minusDays(random.nextInt(60))));
+                }
+            }
+            mongoTemplate.save(user);
+        }
+
+        for (int i = 0; i < PODCASTS; i++) {
+            PodcastEntity podcast = new PodcastEntity();
+            podcast.setTitle((i % 7 == 0 ? "Hanoi " : "Podcast ") + i);
+            podcast.setContent("Content of podcast " + i);
+            podcast.setVideoUrl("/videos/" + i + ".mp4");
+            podcast.setViews(random.nextInt(10_000));
+            podcast.setDuration(60 + random.nextInt(3_600));
+            podcast.setGenres(List.of(genres.get(i % GENRES)));
+            podcast.setCreatedDay(now.minusDays(i % 120));
+            podcast.setLastEdited(podcast.getCreatedDay());
+            podcast.setActive(i % 10 != 0);
+            podcast.setUser(users.get(skewedIndex(USERS)));
+            podcasts.add(podcast);
+        }
+        mongoTemplate.insertAll(podcasts);
+
+        for (int i = 0; i < COMMENTS; i++) {
+            CommentEntity comment = new CommentEntity();
+            // Id sinh trước để dựng đủ likes/replies và bộ đếm rồi mới insert một lần
+            comment.setId(new ObjectId().toHexString());
+            comment.setContent("Comment " + i);
+            comment.setUser(users.get(random.nextInt(USERS)));
+            comment.setPodcast(podcasts.get(skewedIndex(PODCASTS)));
+            comment.setTimestamp(now.minusMinutes(i));
+            comment.setLikes(new ArrayList<>());
+            comment.setReplies(new ArrayList<>());
+            // Một phần tư là reply của các comment gốc đã tạo trước đó
+            if (i > 100 && i % 4 == 0) {
+                CommentEntity parent = comments.get(random.nextInt(100));
+                comment.setParentId(parent.getId());
+                comment.setPodcast(parent.getPodcast());
+                parent.getReplies().add(comment);
+            }
+            comments.add(comment);
+        }
+
+        List<CommentLikeEntity> commentLikes = new ArrayList<>();
+        List<PodcastLikeEntity> podcastLikes = new ArrayList<>();
+        // Mỗi cặp (user, đối tượng) chỉ like một lần, khớp unique index trên collection like
+        Set<String> liked = new HashSet<>();
+        for (int i = 0; i < LIKES; i++) {
+            CommentEntity likedComment = comments.get(skewedIndex(COMMENTS));
+            UserEntity commentLiker = users.get(random.nextInt(USERS));
+            if (liked.add(commentLiker.getId() + likedComment.getId())) {
+                CommentLikeEntity commentLike = new CommentLikeEntity(new ObjectId().toHexString(), commentLiker, now.minusMinutes(i), likedComment);
+                likedComment.getLikes().add(commentLike);
+                commentLikes.add(commentLike);
+            }
+            PodcastEntity likedPodcast = podcasts.get(skewedIndex(PODCASTS));
+            UserEntity podcastLiker = users.get(random.nextInt(USERS));
+            if (liked.add(podcastLiker.getId() + likedPodcast.getId())) {
+                podcastLikes.add(new PodcastLikeEntity(null, podcastLiker, now.minusMinutes(i), likedPodcast));
+            }
+        }
+        for (CommentEntity comment : comments) {
+            comment.setLikeCount(comment.getLikes().size());
+            comment.setReplyCount(comment.getReplies().size());
+        }
+        mongoTemplate.insertAll(comments);
+        mongoTemplate.insertAll(commentLikes);
+        mongoTemplate.insertAll(podcastLikes);
+
+        List<UserActivityEntity> activities = new ArrayList<>();
+        for (int i = 0; i < 4_000; i++) {
+            ActivityType type = ActivityType.values()[i % ActivityType.values().length];
+            activities.add(new UserActivityEntity(null, users.get(skewedIndex(USERS)), type,
+                    podcasts.get(random.nextInt(PODCASTS)), comments.get(random.nextInt(COMMENTS)), now.minusMinutes(i)));
+        }
+        mongoTemplate.insertAll(activities);
+
+        for (int i = 0; i < 200; i++) {
+            ChatEntity chat = new ChatEntity();
+            chat.setTitle("Chat " + i);
+            chat.setMemberList(new ArrayList<>(List.of(
+                    new MemberInfor(users.get(skewedIndex(USERS)).getId(), MemberRole.LEADER, now),
+                    new MemberInfor(users.get(random.nextInt(USERS)).getId(), MemberRole.MEMBER, now))));
+            chats.add(chat);
+        }
+        mongoTemplate.insertAll(chats);
+
+        List<MessageEntity> messages = new ArrayList<>();
+        List<NotificationEntity> notifications = new ArrayList<>();
+        for (int i = 0; i < 4_000; i++) {
+            MessageEntity message = new MessageEntity();
+            message.setChatId(chats.get(skewedIndex(chats.size())).getId());
+            message.setSender(users.get(random.nextInt(USERS)));
+            message.setContent("Message " + i);
+            message.setTimestamp(now.minusMinutes(i));
+            messages.add(message);
+
+            NotificationEntity notification = new NotificationEntity();
+            notification.setTitle("Notification " + i);
+            notification.setType(NotiType.values()[i % NotiType.values().length]);
+            notification.setSender(users.get(random.nextInt(USERS)));
+            notification.setReceiverId(users.get(skewedIndex(USERS)).getId());
+            notification.setRead(i % 3 == 0);
+            notification.setCreatedAt(now.minusMinutes(i));
+            notifications.add(notification);
+        }
+        mongoTemplate.insertAll(messages);
+        mongoTemplate.insertAll(notifications);
+
+        for (int i = 0; i < 1_000; i++) {
+            tokens.add(TokenEntity.builder()
+                    .tokenHash(TokenHashUtils.sha256("token-" + i))
+                    .jti("jti-" + i)
+                    .expiresAt(now.plusDays(1))
+                    .tokenType(TokenType.BEARER)
+                    .userId(users.get(i % USERS).getId())
+                    .revoked(i % 5 != 0)
+                    .expired(i % 5 != 0)
+                    .build());
+        }
+        mongoTemplate.insertAll(tokens);
+
+        List<ReportEntity> reports = new ArrayList<>();
+        List<TransactionEntity> transactions = new ArrayList<>();
+        List<VisitorEntity> visitors = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            ReportEntity report = new ReportEntity();
+            report.setTitle("Report " + i);
+            report.setDetail("Detail " + i);
+            report.setType(ReportType.values()[i % ReportType.values().length]);
+            report.setStatus(ReportStatus.values()[i % ReportStatus.values().length]);
+            report.setTarget(podcasts.get(random.nextInt(PODCASTS)).getId());
+            report.setUserRequest(users.get(random.nextInt(USERS)));
+            report.setCreatedDay(now.minusDays(i % 60));
+            reports.add(report);
+
+            transactions.add(TransactionEntity.builder()
+                    .userId(users.get(random.nextInt(USERS)).getId())
+                    .paymentType(PaymentType.VNPAY)
+                    .amount(10_000L * (1 + i % 10))
+                    .status(TransactionStatus.SUCCESS)
+                    .createdDate(now.minusDays(i % 60))
+                    .build());
+
+            visitors.add(new VisitorEntity(null, "JUnit", "/podcast/" + i, now.minusHours(i)));
+        }
+        mongoTemplate.insertAll(reports);
+        mongoTemplate.insertAll(transactions);
+        mongoTemplate.insertAll(visitors);
+    }
+
+    /**
+     * Giá trị mẫu cho một tham số, chọn theo kiểu rồi theo tên tham số (cần -parameters, đã bật sẵn bởi spring-boot-starter-parent).
+     */
+    public Object sampleArgument(Method method, Parameter parameter, Class<?> domainType) {
+        Class<?> type = parameter.getType();
+        String name = parameter.getName().toLowerCase();
+
+        if (Pageable.class.isAssignableFrom(type)) {
+            return PageRequest.of(0, 20);
+        }
+        if (Sort.class.isAssignableFrom(type)) {
+            return Sort.by(Sort.Direction.DESC, "timestamp");
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (type == LocalDateTime.class) {
+            return name.contains("end") ? now : now.minusDays(30);
+        }
+        if (type == UserEntity.class) {
+            return hotUser();
+        }
+        if (type == PodcastEntity.class) {
+            return hotPodcast();
+        }
+        if (type == CommentEntity.class) {
+            return hotComment();
+        }
+        if (type == int.class || type == Integer.class || type == long.class || type == Long.class) {
+            int value = switch (name) {
+                case "skip", "minviews" -> 0;
+                case "sortdirection" -> -1;
+                default -> 20;
+            };
+            return type == long.class || type == Long.class ? (Object) (long) value : (Object) value;
+        }
+        if (List.class.isAssignableFrom(type)) {
+            boolean objectIds = parameter.getParameterizedType() instanceof ParameterizedType parameterized
+                    && parameterized.getActualTypeArguments()[0] == ObjectId.class;
+            List<String> ids = name.contains("user")
+                    ? users.subList(0, 20).stream().map(UserEntity::getId).toList()
+                    : genres.stream().map(GenreEntity::getId).toList();
+            return objectIds ? ids.stream().map(ObjectId::new).toList() : ids;
+        }
+        if (type == String.class) {
+            return switch (name) {
+                case "userid", "receiverid", "memberid" -> hotUser().getId();
+                case "podcastid" -> hotPodcast().getId();
+                case "commentid", "parentid" -> hotComment().getId();
+                case "chatid" -> chats.get(0).getId();
+                case "genreid" -> genres.get(0).getId();
+                case "username" -> hotUser().getUsername();
+                case "email" -> hotUser().getEmail();
+                case "tokenhash" -> tokens.get(0).getTokenHash();
+                case "sortfield" -> "timestamp";
+                case "keyword", "title", "detail", "podcasttitle" -> KEYWORD;
+                case "id" -> idOf(domainType);
+                default -> throw new IllegalStateException("Chưa có giá trị mẫu cho tham số '" + parameter.getName()
+                        + "' của " + method.getDeclaringClass().getSimpleName() + "#" + method.getName());
+            };
+        }
+        throw new IllegalStateException("Chưa hỗ trợ kiểu tham số " + type.getSimpleName()
+                + " của " + method.getDeclaringClass().getSimpleName() + "#" + method.getName());
+    }
+
+    public UserEntity hotUser() {
+        return users.get(0);
+    }
+
+    public PodcastEntity hotPodcast() {
+        return podcasts.get(0);
+    }
+
+    // hotPodcast() bị ẩn (isActive = false), các endpoint công khai cần podcast đang hiển thị
+    public PodcastEntity hotActivePodcast() {
+        return podcasts.stream().filter(PodcastEntity::isActive).findFirst().orElseThrow();
+    }
+
+    public CommentEntity hotComment() {
+        return comments.get(0);
+    }
+
+    // Comment gốc có nhiều reply nhất
+    public CommentEntity threadComment() {
+        return comments.stream().max(Comparator.comparingInt(comment -> comment.getReplies().size())).orElseThrow();
+    }
+
+    private String idOf(Class<?> domainType) {
+        if (domainType == UserEntity.class) return hotUser().getId();
+        if (domainType == PodcastEntity.class) return hotPodcast().getId();
+        if (domainType == CommentEntity.class) return hotComment().getId();
+        if (domainType == ChatEntity.class) return chats.get(0).getId();
+        if (domainType == GenreEntity.class) return genres.get(0).getId();
+        if (domainType == TokenEntity.class) return tokens.get(0).getId();
+        // Id không tồn tại vẫn cho ra plan hợp lệ (IDHACK / EXPRESS)
+        return new ObjectId().toHexString();
+    }
+
+    // Phân phối lệch về các phần tử đầu danh sách (gần giống dữ liệu thật: vài podcast/user "hot")
+    private int skewedIndex(int size) {
+        double u = random.nextDouble();
+        return (int) Math.min(size - 1, Math.floor(size * u * u * u));
+    }
+}
@@ -0,0 +1,298 @@
+package com.castify.backend.queryplan;
+
+import com.castify.backend.auditing.ApplicationAuditAware;
+import com.castify.backend.entity.CommentEntity;
+import com.castify.backend.entity.CommentLikeEntity;
+import com.castify.backend.entity.PodcastEntity;
+import com.castify.backend.entity.PodcastLikeEntity;
+import com.castify.backend.models.comment.CommentSort;
+import com.castify.backend.repository.template.CommentTemplate;
+import com.castify.backend.repository.template.DashboardTemplate;
+import com.castify.backend.repository.template.PodcastTemplate;
+import com.castify.backend.repository.template.ReactionTemplate;
+import com.castify.backend.repository.template.TokenTemplate;
+import com.castify.backend.repository.template.VideoBlobTemplate;
+import com.castify.backend.repository.template.UserTemplate;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Chạy explain cho mọi query method của các repository trong {@code com.castify.backend.repository}
+ * cùng CommentTemplate / DashboardTemplate / PodcastTemplate / ReactionTemplate / TokenTemplate / UserTemplate / VideoBlobTemplate trên một mongod nhúng đã seed dữ liệu tổng hợp.
+ * Build fail khi có COLLSCAN hoặc tỉ lệ docsExamined/nReturned vượt ngưỡng, trừ các query đã
+ * nằm trong {@code queryplan/baseline.txt} (nợ cũ, cần gỡ dần khi thêm index).
+ *
+ * Chạy bằng {@code mvn verify} (failsafe). Ngưỡng chỉnh qua -Dqueryplan.maxRatio / -Dqueryplan.minExamined;
+ * -Dit.mongo.uri=mongodb://host:port dùng mongod có sẵn thay cho bản nhúng (như MongoQueryCountTestBase).
+ */
+@DataMongoTest
+@Import({CommentTemplate.class, DashboardTemplate.class, PodcastTemplate.class, ReactionTemplate.class, TokenTemplate.class, UserTemplate.class, VideoBlobTemplate.class, QueryPlanIT.RecorderConfig.class})
+class QueryPlanIT {
+    private static final String BASELINE = "queryplan/baseline.txt";
+    private static final String DATABASE = "castify_queryplan";
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private QueryPlanRecorder recorder;
+    @Autowired
+    private DashboardTemplate dashboardTemplate;
+    @Autowired
+    private UserTemplate userTemplate;
+    @Autowired
+    private CommentTemplate commentTemplate;
+    @Autowired
+    private PodcastTemplate podcastTemplate;
+    @Autowired
+    private ReactionTemplate reactionTemplate;
+    @Autowired
+    private TokenTemplate tokenTemplate;
+    @Autowired
+    private VideoBlobTemplate videoBlobTemplate;
+
+    private final ExplainPlanAnalyzer analyzer = new ExplainPlanAnalyzer(
+            Double.parseDouble(System.getProperty("queryplan.maxRatio", "10")),
+            Long.getLong("queryplan.minExamined", 200));
+
+    @BeforeAll
+    static void startMongo() {
+        if (System.getProperty("it.mongo.uri") == null) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+        }
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> {
+            String external = System.getProperty("it.mongo.uri");
+            if (external != null) {
+                return external.replaceAll("/+$", "") + "/" + DATABASE;
+            }
+            ServerAddress address = mongod.current().getServerAddress();
+            return "mongodb://" + address.getHost() + ":" + address.getPort() + "/" + DATABASE;
+        });
+    }
+
+    @TestConfiguration
+    static class RecorderConfig {
+        // @EnableMongoAuditing trên BackendApplication tham chiếu bean theo tên
+        @Bean
+        ApplicationAuditAware applicationAuditAware() {
+            return new ApplicationAuditAware();
+        }
+
+        @Bean
+        QueryPlanRecorder queryPlanRecorder() {
+            return new QueryPlanRecorder();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer queryPlanRecorderCustomizer(QueryPlanRecorder recorder) {
+            return builder -> builder.addCommandListener(recorder);
+        }
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() throws IOException {
+        // mongod ngoài có thể còn dữ liệu của lần chạy trước; giữ index đã tạo lúc khởi động context
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            mongoTemplate.getCollection(collection).deleteMany(new Document());
+        }
+        QueryPlanFixtures fixtures = new QueryPlanFixtures();
+        fixtures.seed(mongoTemplate);
+        // Unique index của collection like do MongoMigrationConfig tạo, @DataMongoTest không chạy ApplicationRunner
+        reactionTemplate.ensureUniqueIndex(CommentLikeEntity.class, "commentEntity", CommentEntity.class, "user_comment");
+        reactionTemplate.ensureUniqueIndex(PodcastLikeEntity.class, "podcastEntity", PodcastEntity.class, "user_podcast");
+
+        Map<String, String> violations = new TreeMap<>();
+        Map<String, String> errors = new TreeMap<>();
+
+        Repositories repositories = new Repositories(applicationContext);
+        List<Invocation> invocations = new ArrayList<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            for (Method method : information.getQueryMethods()) {
+                String key = information.getRepositoryInterface().getSimpleName() + "#" + method.getName();
+                invocations.add(new Invocation(key, () -> {
+                    Parameter[] parameters = method.getParameters();
+                    Object[] args = new Object[parameters.length];
+                    for (int i = 0; i < parameters.length; i++) {
+                        args[i] = fixtures.sampleArgument(method, parameters[i], domainType);
+                    }
+                    method.invoke(repository, args);
+                }));
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        invocations.add(new Invocation("DashboardTemplate#getDashboardStatistics",
+                () -> dashboardTemplate.getDashboardStatistics(now.minusDays(30), now)));
+        String podcastId = fixtures.hotActivePodcast().getId();
+        invocations.add(new Invocation("CommentTemplate#countTopLevelComments",
+                () -> commentTemplate.countTopLevelComments(podcastId)));
+        for (CommentSort sort : CommentSort.values()) {
+            invocations.add(new Invocation("CommentTemplate#findTopLevelComments(" + sort + ")",
+                    () -> commentTemplate.findTopLevelComments(podcastId, sort, null, 40, 21)));
+        }
+        String threadId = fixtures.threadComment().getId();
+        invocations.add(new Invocation("CommentTemplate#findReplies",
+                () -> commentTemplate.findReplies(threadId, null, 21)));
+        invocations.add(new Invocation("CommentTemplate#findReplyCount",
+                () -> commentTemplate.findReplyCount(threadId)));
+        List<String> threadIds = fixtures.threadComment().getReplies().stream().map(CommentEntity::getId).toList();
+        invocations.add(new Invocation("ReactionTemplate#findLikedCommentIds",
+                () -> reactionTemplate.findLikedCommentIds(fixtures.hotUser().getId(), threadIds)));
+        invocations.add(new Invocation("PodcastTemplate#findLikesByPodcast",
+                () -> podcastTemplate.findLikesByPodcast(podcastId, null, 21)));
+        invocations.add(new Invocation("PodcastTemplate#findLikesByUser",
+                () -> podcastTemplate.findLikesByUser(fixtures.hotUser().getId(), null, 21)));
+        invocations.add(new Invocation("PodcastTemplate#countLikesByUser",
+                () -> podcastTemplate.countLikesByUser(fixtures.hotUser().getId())));
+        invocations.add(new Invocation("PodcastTemplate#setPreviewMedia",
+                () -> podcastTemplate.setPreviewMedia("0".repeat(64), "/media/previews/thumbnails.vtt", "/media/previews/preview.mp4")));
+        invocations.add(new Invocation("VideoBlobTemplate#acquire",
+                () -> videoBlobTemplate.acquire("0".repeat(64))));
+        invocations.add(new Invocation("VideoBlobTemplate#release",
+                () -> videoBlobTemplate.release("0".repeat(64))));
+        invocations.add(new Invocation("VideoBlobTemplate#markDeleting",
+                () -> videoBlobTemplate.markDeleting("0".repeat(64))));
+        invocations.add(new Invocation("TokenTemplate#findRevokedSince",
+                () -> tokenTemplate.findRevokedSince(now.minusMinutes(5))));
+        invocations.add(new Invocation("TokenTemplate#revokeAllByUser",
+                () -> tokenTemplate.revokeAllByUser(fixtures.hotUser().getId())));
+        invocations.add(new Invocation("TokenTemplate#revokeActiveByHash",
+                () -> tokenTemplate.revokeActiveByHash("0".repeat(64))));
+        invocations.add(new Invocation("UserTemplate#findSimilarUsers",
+                () -> userTemplate.findSimilarUsers(fixtures.hotUser(), PageRequest.of(0, 20))));
+        invocations.add(new Invocation("UserTemplate#findByKeywordWithAggregation",
+                () -> userTemplate.findByKeywordWithAggregation("an", PageRequest.of(0, 20))));
+
+        // Các method xóa chạy sau cùng để không làm thay đổi dữ liệu của các query khác
+        invocations.sort(Comparator.comparing((Invocation invocation) -> invocation.key().contains("#delete"))
+                .thenComparing(Invocation::key));
+
+        for (Invocation invocation : invocations) {
+            List<QueryPlanRecorder.RecordedCommand> commands;
+            recorder.start();
+            try {
+                invocation.action().run();
+            } catch (Exception e) {
+                Throwable cause = e instanceof InvocationTargetException ite ? ite.getCause() : e;
+                errors.put(invocation.key(), String.valueOf(cause));
+                continue;
+            } finally {
+                commands = recorder.stop();
+            }
+            for (QueryPlanRecorder.RecordedCommand command : commands) {
+                Document explain = explain(command);
+                String reason = analyzer.violation(analyzer.analyze(explain));
+                if (reason != null) {
+                    violations.merge(invocation.key(), command.name() + " " + reason, (a, b) -> a + "; " + b);
+                }
+            }
+        }
+
+        Set<String> baseline = readBaseline();
+        List<String> regressions = new ArrayList<>();
+        violations.forEach((key, reason) -> {
+            if (!baseline.contains(key)) {
+                regressions.add(key + " -> " + reason);
+            }
+        });
+        baseline.stream()
+                .filter(key -> !violations.containsKey(key) && !errors.containsKey(key))
+                .forEach(key -> System.out.println("[queryplan] " + key + " không còn vi phạm, có thể xóa khỏi " + BASELINE));
+
+        // Query lỗi nhưng đã nằm trong baseline (ví dụ method chưa từng dùng) chỉ được ghi log
+        errors.entrySet().removeIf(error -> {
+            boolean known = baseline.contains(error.getKey());
+            if (known) {
+                System.out.println("[queryplan] " + error.getKey() + " lỗi khi chạy: " + error.getValue());
+            }
+            return known;
+        });
+
+        if (!errors.isEmpty() || !regressions.isEmpty()) {
+            StringBuilder message = new StringBuilder();
+            if (!regressions.isEmpty()) {
+                message.append("Query plan không đạt (thêm index hoặc sửa query):\n  ")
+                        .append(String.join("\n  ", regressions)).append('\n');
+            }
+            if (!errors.isEmpty()) {
+                message.append("Không chạy được query:\n  ");
+                errors.forEach((key, error) -> message.append(key).append(" -> ").append(error).append("\n  "));
+            }
+            fail(message.toString());
+        }
+    }
+
+    private Document explain(QueryPlanRecorder.RecordedCommand command) {
+        BsonDocument explain = new BsonDocument("explain", command.command())
+                .append("verbosity", new BsonString("executionStats"));
+        return mongoTemplate.getMongoDatabaseFactory().getMongoDatabase(command.database()).runCommand(explain);
+    }
+
+    private static Set<String> readBaseline() throws IOException {
+        String content = new ClassPathResource(BASELINE).getContentAsString(StandardCharsets.UTF_8);
+        Set<String> keys = new HashSet<>();
+        for (String line : content.split("\\R")) {
+            String trimmed = line.strip();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                keys.add(trimmed);
+            }
+        }
+        return keys;
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private record Invocation(String key, Action action) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.castify.backend.queryplan;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ghi lại các lệnh đọc/xóa mà repository gửi xuống Mongo để chạy lại chúng dưới dạng explain.
+ */
+public class QueryPlanRecorder implements CommandListener {
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct", "delete", "update", "findAndModify");
+
+    // Các field do driver gắn thêm, explain không chấp nhận
+    private static final Set<String> DRIVER_FIELDS = Set.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "apiVersion", "apiStrict", "apiDeprecationErrors", "writeConcern");
+
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    private final List<RecordedCommand> commands = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean recording;
+
+    public void start() {
+        commands.clear();
+        recording = true;
+    }
+
+    public List<RecordedCommand> stop() {
+        recording = false;
+        synchronized (commands) {
+            return new ArrayList<>(commands);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!recording || !EXPLAINABLE.contains(event.getCommandName())) {
+            return;
+        }
+        // Command của driver là view trên buffer (chỉ đọc, bị giải phóng sau event) nên phải decode ra bản sao
+        BsonDocument command = CODEC.decode(new BsonDocumentReader(event.getCommand()), DecoderContext.builder().build());
+        DRIVER_FIELDS.forEach(command::remove);
+        commands.add(new RecordedCommand(event.getDatabaseName(), event.getCommandName(), command));
+    }
+
+    public record RecordedCommand(String database, String name, BsonDocument command) {
+    }
+}
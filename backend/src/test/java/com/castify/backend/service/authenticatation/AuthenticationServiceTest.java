@@ -0,0 +1,145 @@
+package com.castify.backend.service.authenticatation;
+
+import com.castify.backend.entity.TokenEntity;
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.enums.Role;
+import com.castify.backend.enums.TokenType;
+import com.castify.backend.models.authentication.AuthenticationRequest;
+import com.castify.backend.models.authentication.AuthenticationResponse;
+import com.castify.backend.models.authentication.ResetPasswordRequest;
+import com.castify.backend.repository.TokenRepository;
+import com.castify.backend.repository.UserRepository;
+import com.castify.backend.service.authenticatation.jwt.JwtServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AuthenticationServiceTest {
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private final ITokenRevocationService tokenRevocationService = mock(ITokenRevocationService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final JwtServiceImpl jwtService = new JwtServiceImpl();
+    private final AuthenticationService service = new AuthenticationService();
+    private final UserEntity user = UserEntity.builder().id("u1").username("alice").email("alice@castify.test").role(Role.USER).build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "secretKey", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "validExpiration", 7_200_000L);
+        ReflectionTestUtils.setField(service, "jwtService", jwtService);
+        ReflectionTestUtils.setField(service, "userDetailsCacheService", mock(IUserDetailsCacheService.class));
+        ReflectionTestUtils.setField(service, "tokenRepository", tokenRepository);
+        ReflectionTestUtils.setField(service, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(service, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(service, "repository", userRepository);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "authenticationManager", mock(AuthenticationManager.class));
+        when(userRepository.findByEmailOrUsername(anyString())).thenReturn(Optional.of(user));
+    }
+
+    // Đăng nhập thêm thiết bị không đăng xuất các phiên khác
+    @Test
+    void loginKeepsOtherSessions() {
+        AuthenticationRequest request = new AuthenticationRequest();
+        request.setEmail("alice@castify.test");
+        request.setPassword("password");
+
+        service.authenticate(request);
+
+        verify(tokenRevocationService, never()).revokeAllUserTokens(anyString());
+        ArgumentCaptor<TokenEntity> saved = ArgumentCaptor.forClass(TokenEntity.class);
+        verify(tokenRepository, times(2)).save(saved.capture());
+        assertEquals(TokenType.BEARER, saved.getAllValues().get(0).getTokenType());
+        assertEquals(TokenType.REFRESH, saved.getAllValues().get(1).getTokenType());
+    }
+
+    // Endpoint không cần đăng nhập, biết email không được đăng xuất được người khác
+    @Test
+    void resetRequestDoesNotRevokeSessions() throws Exception {
+        ResetPasswordRequest request = new ResetPasswordRequest();
+        request.setEmail("alice@castify.test");
+
+        service.sendRequest(request);
+
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    void refreshRotatesOnlyThePresentedToken() throws Exception {
+        String refresh = jwtService.generateRefreshToken(user);
+        when(tokenRevocationService.consumeToken(refresh)).thenReturn(true);
+
+        AuthenticationResponse response = service.refreshToken(bearer(refresh), new MockHttpServletResponse());
+
+        assertNotEquals(refresh, response.getRefreshToken());
+        verify(tokenRevocationService).consumeToken(refresh);
+        verify(tokenRevocationService, never()).revokeAllUserTokens(anyString());
+    }
+
+    @Test
+    void revokedRefreshTokenIsRejected() {
+        String refresh = jwtService.generateRefreshToken(user);
+        when(tokenRevocationService.consumeToken(refresh)).thenReturn(false);
+
+        assertThrows(IOException.class, () -> service.refreshToken(bearer(refresh), new MockHttpServletResponse()));
+        verify(tokenRepository, never()).save(any());
+    }
+
+    @Test
+    void accessTokenIsNotAcceptedAsRefreshToken() {
+        String access = jwtService.generateToken(user);
+        when(tokenRevocationService.consumeToken(anyString())).thenReturn(true);
+
+        assertThrows(IOException.class, () -> service.refreshToken(bearer(access), new MockHttpServletResponse()));
+        verify(tokenRevocationService, never()).consumeToken(anyString());
+        verify(tokenRepository, never()).save(any());
+    }
+
+    @Test
+    void resetPasswordRevokesAllSessionsAfterVerifyingResetToken() throws Exception {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtServiceImpl.TOKEN_TYPE_CLAIM, TokenType.RESET_PASS.name());
+        String reset = jwtService.generateToken(claims, user);
+        when(tokenRevocationService.consumeToken(reset)).thenReturn(true);
+
+        service.resetPassword(bearer(reset), new MockHttpServletResponse(), "new-password");
+
+        verify(tokenRevocationService).revokeAllUserTokens("u1");
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    void resetPasswordRejectsOtherTokenTypes() {
+        String access = jwtService.generateToken(user);
+        when(tokenRevocationService.consumeToken(anyString())).thenReturn(true);
+
+        assertThrows(IOException.class, () -> service.resetPassword(bearer(access), new MockHttpServletResponse(), "new-password"));
+        verify(tokenRevocationService, never()).revokeAllUserTokens(anyString());
+        verify(userRepository, never()).save(any());
+    }
+
+    private static MockHttpServletRequest bearer(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
+        return request;
+    }
+}
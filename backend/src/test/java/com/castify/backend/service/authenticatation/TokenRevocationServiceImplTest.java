@@ -0,0 +1,157 @@
+package com.castify.backend.service.authenticatation;
+
+import com.castify.backend.entity.TokenEntity;
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.enums.Role;
+import com.castify.backend.repository.TokenRepository;
+import com.castify.backend.repository.template.TokenTemplate;
+import com.castify.backend.service.authenticatation.jwt.JwtServiceImpl;
+import com.castify.backend.utils.TokenHashUtils;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceImplTest {
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private final TokenTemplate tokenTemplate = mock(TokenTemplate.class);
+    private final IUserDetailsCacheService userDetailsCacheService = mock(IUserDetailsCacheService.class);
+    private final TokenRevocationServiceImpl service = new TokenRevocationServiceImpl();
+    private final JwtServiceImpl jwtService = new JwtServiceImpl();
+    private final UserEntity user = UserEntity.builder().id("u1").username("alice").email("alice@castify.test").role(Role.USER).build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "secretKey", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "validExpiration", 7_200_000L);
+        ReflectionTestUtils.setField(service, "tokenRepository", tokenRepository);
+        ReflectionTestUtils.setField(service, "tokenTemplate", tokenTemplate);
+        ReflectionTestUtils.setField(service, "userDetailsCacheService", userDetailsCacheService);
+        ReflectionTestUtils.setField(service, "jwtExpiration", 86_400_000L);
+    }
+
+    @Test
+    void revokedJtiIsRejectedWithoutTokenLookup() {
+        String jwt = jwtService.generateToken(user);
+        Claims claims = jwtService.parseClaims(jwt);
+        assertTrue(service.isActive(jwt, claims));
+
+        when(tokenTemplate.revokeByHash(TokenHashUtils.sha256(jwt)))
+                .thenReturn(TokenEntity.builder().jti(claims.getId()).build());
+
+        assertTrue(service.revokeToken(jwt));
+        assertFalse(service.isActive(jwt, claims));
+        verify(tokenRepository, never()).findByTokenHash(any());
+    }
+
+    @Test
+    void revokeAllRemembersEveryRevokedJti() {
+        String first = jwtService.generateToken(user);
+        String second = jwtService.generateToken(user);
+        Claims firstClaims = jwtService.parseClaims(first);
+        Claims secondClaims = jwtService.parseClaims(second);
+        when(tokenTemplate.revokeAllByUser("u1")).thenReturn(List.of(
+                TokenEntity.builder().jti(firstClaims.getId()).build(),
+                TokenEntity.builder().jti(secondClaims.getId()).build()));
+
+        service.revokeAllUserTokens("u1");
+
+        assertFalse(service.isActive(first, firstClaims));
+        assertFalse(service.isActive(second, secondClaims));
+    }
+
+    @Test
+    void consumedTokenCannotBeUsedTwice() {
+        String refresh = jwtService.generateRefreshToken(user);
+        when(tokenTemplate.revokeActiveByHash(TokenHashUtils.sha256(refresh)))
+                .thenReturn(TokenEntity.builder().jti(jwtService.parseClaims(refresh).getId()).build())
+                .thenReturn(null);
+
+        assertTrue(service.consumeToken(refresh));
+        assertFalse(service.consumeToken(refresh));
+    }
+
+    @Test
+    void unknownTokenIsNotRevoked() {
+        assertFalse(service.revokeToken("unknown"));
+    }
+
+    @Test
+    void onlyAccessTokensAreAccepted() {
+        String refresh = jwtService.generateRefreshToken(user);
+        String valid = jwtService.generateValidToken("alice");
+
+        assertFalse(service.isActive(refresh, jwtService.parseClaims(refresh)));
+        assertFalse(service.isActive(valid, jwtService.parseClaims(valid)));
+    }
+
+    @Test
+    void pollPicksUpRevocationsFromOtherNodes() {
+        String jwt = jwtService.generateToken(user);
+        Claims claims = jwtService.parseClaims(jwt);
+        when(tokenTemplate.findRevokedSince(any()))
+                .thenReturn(List.of(TokenEntity.builder().jti(claims.getId()).build()));
+
+        service.poll();
+
+        assertFalse(service.isActive(jwt, claims));
+    }
+
+    // Ban hoặc reset mật khẩu ở node khác: bỏ UserDetails đã cache một lần, không evict lại ở các lần poll chồng nhau
+    @Test
+    void pollEvictsCachedUserOfNewlyRevokedToken() {
+        String jwt = jwtService.generateToken(user);
+        when(tokenTemplate.findRevokedSince(any()))
+                .thenReturn(List.of(TokenEntity.builder().jti(jwtService.parseClaims(jwt).getId()).userId("u1").build()));
+
+        service.poll();
+        service.poll();
+
+        verify(userDetailsCacheService, times(1)).evictUser("u1");
+    }
+
+    // Tắt poll định kỳ vẫn nạp token đã thu hồi trước lúc restart
+    @Test
+    void startupLoadsRevokedTokensEvenWithoutPolling() {
+        String jwt = jwtService.generateToken(user);
+        Claims claims = jwtService.parseClaims(jwt);
+        ReflectionTestUtils.setField(service, "pollIntervalMs", 0L);
+        when(tokenTemplate.findRevokedSince(any()))
+                .thenReturn(List.of(TokenEntity.builder().jti(claims.getId()).build()));
+
+        service.start();
+
+        assertFalse(service.isActive(jwt, claims));
+        service.shutdown();
+    }
+
+    @Test
+    void startupSurvivesUnavailableDatabase() {
+        ReflectionTestUtils.setField(service, "pollIntervalMs", 0L);
+        when(tokenTemplate.findRevokedSince(any())).thenThrow(new IllegalStateException("mongo down"));
+
+        assertDoesNotThrow(service::start);
+        service.shutdown();
+    }
+
+    @Test
+    void tokensWithoutJtiFallBackToTokenTable() {
+        Claims legacy = mock(Claims.class);
+        when(tokenRepository.findByTokenHash(TokenHashUtils.sha256("legacy"))).thenReturn(Optional.of(TokenEntity.builder().build()));
+        when(tokenRepository.findByTokenHash(TokenHashUtils.sha256("revoked"))).thenReturn(Optional.of(TokenEntity.builder().revoked(true).build()));
+
+        assertTrue(service.isActive("legacy", legacy));
+        assertFalse(service.isActive("revoked", legacy));
+    }
+}
@@ -0,0 +1,94 @@
+package com.castify.backend.service.authenticatation;
+
+import com.castify.backend.entity.UserEntity;
+import com.castify.backend.repository.template.UserTemplate;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserDetailsCacheServiceImplTest {
+    private final UserTemplate userTemplate = mock(UserTemplate.class);
+    private final UserDetailsCacheServiceImpl service = new UserDetailsCacheServiceImpl();
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        ReflectionTestUtils.setField(service, "userTemplate", userTemplate);
+        ReflectionTestUtils.setField(service, "mongoConverter", converter);
+        ReflectionTestUtils.setField(service, "ttlMs", 30_000L);
+        ReflectionTestUtils.setField(service, "maxSize", 100);
+        when(userTemplate.findDocumentByEmailOrUsername("alice")).thenReturn(new Document("_id", "u1")
+                .append("username", "alice")
+                .append("email", "alice@castify.test")
+                .append("isNonBanned", true));
+    }
+
+    @Test
+    void secondLoadIsServedFromCacheAsSeparateInstance() {
+        UserEntity first = (UserEntity) service.loadUserByUsername("alice");
+        UserEntity second = (UserEntity) service.loadUserByUsername("alice");
+
+        verify(userTemplate, times(1)).findDocumentByEmailOrUsername("alice");
+        assertEquals("u1", second.getId());
+        // Mỗi request sửa principal của mình mà không ảnh hưởng request khác
+        assertNotSame(first, second);
+        first.setUsername("changed");
+        assertEquals("alice", second.getUsername());
+    }
+
+    @Test
+    void evictUserForcesReload() {
+        service.loadUserByUsername("alice");
+
+        service.evictUser("u1");
+        service.loadUserByUsername("alice");
+
+        verify(userTemplate, times(2)).findDocumentByEmailOrUsername("alice");
+    }
+
+    @Test
+    void zeroTtlDisablesCache() {
+        ReflectionTestUtils.setField(service, "ttlMs", 0L);
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("alice");
+
+        verify(userTemplate, times(2)).findDocumentByEmailOrUsername("alice");
+    }
+
+    // Đăng nhập luôn đọc DB: ban hoặc mật khẩu mới từ node khác có hiệu lực ngay
+    @Test
+    void loginLoadBypassesCache() {
+        service.loadUserByUsername("alice");
+        when(userTemplate.findDocumentByEmailOrUsername("alice")).thenReturn(new Document("_id", "u1")
+                .append("username", "alice")
+                .append("email", "alice@castify.test")
+                .append("isNonBanned", false));
+
+        UserEntity login = (UserEntity) service.loadUserForLogin("alice");
+
+        assertFalse(login.isEnabled());
+        verify(userTemplate, times(2)).findDocumentByEmailOrUsername("alice");
+    }
+
+    @Test
+    void unknownSubjectThrows() {
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("nobody"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.castify.backend.service.authenticatation.password;
+
+import com.castify.backend.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBCryptPasswordEncoderTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedBCryptPasswordEncoder encoder;
+
+    private BoundedBCryptPasswordEncoder encoder(int strength) {
+        BoundedBCryptPasswordEncoder created = new BoundedBCryptPasswordEncoder();
+        ReflectionTestUtils.setField(created, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(created, "strength", strength);
+        ReflectionTestUtils.setField(created, "threads", 1);
+        ReflectionTestUtils.setField(created, "queueCapacity", 1);
+        ReflectionTestUtils.setField(created, "timeoutMs", 5_000L);
+        created.start();
+        return created;
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void encodesAndMatchesOnExecutor() {
+        encoder = encoder(4);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(2, meterRegistry.get("castify.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        encoder = encoder(4);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "executor");
+        // Một tác vụ giữ thread duy nhất, một tác vụ chiếm chỗ duy nhất trong hàng đợi
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("secret"));
+        assertEquals(1.0, meterRegistry.get("castify.password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void hashWithOtherCostNeedsUpgrade() {
+        encoder = encoder(5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    // Hạ cost trong đợt đăng nhập dồn dập: hash cost cao hơn cũng được băm lại
+    @Test
+    void hashWithHigherCostNeedsUpgrade() {
+        encoder = encoder(4);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.castify.backend.service.comment;
+
+import com.castify.backend.models.comment.CommentModel;
+import com.castify.backend.models.comment.CommentStreamFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CommentStreamServiceImplTest {
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final CommentStreamServiceImpl service = new CommentStreamServiceImpl();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 100L);
+        ReflectionTestUtils.setField(service, "maxCommentsPerFrame", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void coalescesBurstIntoOneFramePerPodcast() {
+        for (int i = 0; i < 5; i++) {
+            CommentModel comment = new CommentModel();
+            comment.setId("c" + i);
+            service.publishComment("p1", comment);
+        }
+        service.publishLikeCount("p1", "c0", 1);
+        service.publishLikeCount("p1", "c0", 2);
+        service.publishLikeCount("p2", "c9", 7);
+
+        ArgumentCaptor<CommentStreamFrame> frame = ArgumentCaptor.forClass(CommentStreamFrame.class);
+        verify(messagingTemplate, timeout(2_000)).convertAndSend(eq("/topic/podcast/p1/comments"), frame.capture());
+        verify(messagingTemplate, timeout(2_000)).convertAndSend(eq("/topic/podcast/p2/comments"), any(Object.class));
+
+        assertEquals(List.of("c0", "c1", "c2"), frame.getValue().getComments().stream().map(CommentModel::getId).toList());
+        assertEquals(2, frame.getValue().getOmittedComments());
+        assertEquals(Map.of("c0", 2L), frame.getValue().getLikeCounts());
+    }
+
+    @Test
+    void eventsAfterFlushOpenANewWindow() {
+        service.publishLikeCount("p1", "c0", 1);
+        verify(messagingTemplate, timeout(2_000).times(1)).convertAndSend(eq("/topic/podcast/p1/comments"), any(Object.class));
+
+        service.publishLikeCount("p1", "c0", 2);
+        verify(messagingTemplate, timeout(2_000).times(2)).convertAndSend(eq("/topic/podcast/p1/comments"), any(Object.class));
+    }
+}
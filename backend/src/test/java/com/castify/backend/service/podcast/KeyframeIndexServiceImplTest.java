@@ -0,0 +1,92 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.podcast.Keyframe;
+import com.castify.backend.models.podcast.KeyframeSeek;
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.LocalMediaStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KeyframeIndexServiceImplTest {
+    private static final String KEY = "blobs/ab/video.mp4";
+
+    private final IFFmpegService ffmpegService = mock(IFFmpegService.class);
+    private final LocalMediaStore mediaStore = new LocalMediaStore();
+    private final KeyframeIndexServiceImpl service = new KeyframeIndexServiceImpl();
+
+    @TempDir
+    Path dir;
+    @TempDir
+    Path cacheDir;
+    private Path video;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(mediaStore, "root", dir.toString());
+        ReflectionTestUtils.setField(service, "ffmpegService", ffmpegService);
+        ReflectionTestUtils.setField(service, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(service, "indexCacheDir", dir.toString());
+        video = dir.resolve(KEY);
+        Files.createDirectories(video.getParent());
+        Files.write(video, new byte[10_000]);
+        when(ffmpegService.probeKeyframes(video.toString())).thenReturn(List.of(
+                new Keyframe(0, 48),
+                new Keyframe(2_000, 3_000),
+                new Keyframe(4_000, 6_500)));
+        service.buildIndex(KEY, video);
+    }
+
+    @Test
+    void seekReturnsPrecedingKeyframeRange() throws IOException {
+        assertEquals(new KeyframeSeek(2_000, 3_000, 6_499), service.seek(KEY, 3_999));
+        assertEquals(new KeyframeSeek(2_000, 3_000, 6_499), service.seek(KEY, 2_000));
+        // Keyframe cuối chạy tới hết file
+        assertEquals(new KeyframeSeek(4_000, 6_500, 9_999), service.seek(KEY, 2_112_000));
+        assertEquals(new KeyframeSeek(0, 48, 2_999), service.seek(KEY, 0));
+    }
+
+    @Test
+    void missingOrStaleIndexIsIgnored() throws IOException {
+        Files.write(dir.resolve("other.mp4"), new byte[100]);
+        assertNull(service.seek("other.mp4", 1_000));
+
+        // File video bị thay sau khi index: độ dài không khớp header
+        Files.write(video, new byte[20_000]);
+        assertNull(service.seek(KEY, 1_000));
+    }
+
+    @Test
+    void rebuildReplacesMappedIndex() throws Exception {
+        service.seek(KEY, 1_000);
+        when(ffmpegService.probeKeyframes(video.toString())).thenReturn(List.of(new Keyframe(0, 48), new Keyframe(1_000, 5_000)));
+
+        service.buildIndex(KEY, video);
+
+        assertEquals(new KeyframeSeek(1_000, 5_000, 9_999), service.seek(KEY, 1_500));
+    }
+
+    @Test
+    void nodeWithoutLocalCopyDownloadsIndexFromStore() throws IOException {
+        // Node khác (store dùng chung, cache-dir riêng) chưa có bản local
+        ReflectionTestUtils.setField(service, "indexCacheDir", cacheDir.toString());
+
+        assertEquals(new KeyframeSeek(2_000, 3_000, 6_499), service.seek(KEY, 3_999));
+        assertTrue(Files.exists(cacheDir.resolve(KEY + ".kfi")));
+
+        service.deleteIndex(KEY);
+        assertFalse(Files.exists(cacheDir.resolve(KEY + ".kfi")));
+        assertFalse(Files.exists(dir.resolve(KEY + ".kfi")));
+        assertNull(service.seek(KEY, 3_999));
+    }
+}
@@ -0,0 +1,206 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.podcast.KeyframeSeek;
+import com.castify.backend.repository.template.PodcastTemplate;
+import com.castify.backend.repository.template.VideoBlobTemplate;
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.LocalMediaStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MediaPreviewServiceImplTest {
+    private static final String VIDEO = "video.mp4";
+
+    private final IFFmpegService ffmpegService = mock(IFFmpegService.class);
+    private final IKeyframeIndexService keyframeIndexService = mock(IKeyframeIndexService.class);
+    private final IWaveformService waveformService = mock(IWaveformService.class);
+    private final VideoBlobTemplate videoBlobTemplate = mock(VideoBlobTemplate.class);
+    private final PodcastTemplate podcastTemplate = mock(PodcastTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalMediaStore mediaStore = new LocalMediaStore();
+    private final MediaPreviewServiceImpl service = new MediaPreviewServiceImpl();
+
+    @TempDir
+    Path dir;
+    @TempDir
+    Path store;
+    private Path video;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(mediaStore, "root", store.toString());
+        ReflectionTestUtils.setField(service, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(service, "ffmpegService", ffmpegService);
+        ReflectionTestUtils.setField(service, "keyframeIndexService", keyframeIndexService);
+        ReflectionTestUtils.setField(service, "waveformService", waveformService);
+        ReflectionTestUtils.setField(service, "videoBlobTemplate", videoBlobTemplate);
+        ReflectionTestUtils.setField(service, "podcastTemplate", podcastTemplate);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "uploadDir", dir.toString());
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "intervalSeconds", 10);
+        ReflectionTestUtils.setField(service, "maxTiles", 200);
+        ReflectionTestUtils.setField(service, "columns", 10);
+        ReflectionTestUtils.setField(service, "tileWidth", 160);
+        ReflectionTestUtils.setField(service, "tileHeight", 90);
+        ReflectionTestUtils.setField(service, "clipSeconds", 6);
+        service.start();
+
+        video = store.resolve(VIDEO);
+        Files.write(video, new byte[100]);
+        // ffmpeg giả ghi file output vào thư mục tạm
+        doAnswer(invocation -> {
+            Files.writeString(Path.of((String) invocation.getArgument(1)), "jpg");
+            return null;
+        }).when(ffmpegService).generateSpriteSheet(anyString(), anyString(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+        doAnswer(invocation -> {
+            Files.writeString(Path.of((String) invocation.getArgument(1)), "mp4");
+            return null;
+        }).when(ffmpegService).generatePreviewClip(anyString(), anyString(), anyLong(), anyInt());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void longVideosWidenIntervalToCapTiles() {
+        MediaPreviewServiceImpl.SpriteLayout shortVideo = MediaPreviewServiceImpl.layout(95, 10, 200, 10);
+        assertEquals(new MediaPreviewServiceImpl.SpriteLayout(10, 10, 10, 1), shortVideo);
+
+        // 3 giờ: 1 frame / 10s sẽ ra 1080 tile, nới interval để còn <= 200
+        MediaPreviewServiceImpl.SpriteLayout longVideo = MediaPreviewServiceImpl.layout(10_800, 10, 200, 10);
+        assertEquals(54, longVideo.interval());
+        assertEquals(200, longVideo.tiles());
+        assertEquals(20, longVideo.rows());
+
+        assertEquals(new MediaPreviewServiceImpl.SpriteLayout(10, 1, 1, 1), MediaPreviewServiceImpl.layout(4, 10, 200, 10));
+    }
+
+    @Test
+    void vttMapsEachCueToItsTile() {
+        MediaPreviewServiceImpl.SpriteLayout layout = new MediaPreviewServiceImpl.SpriteLayout(10, 12, 10, 2);
+        String vtt = MediaPreviewServiceImpl.buildVtt(115, layout, 160, 90, "sprite.jpg");
+
+        assertTrue(vtt.startsWith("WEBVTT\n\n00:00:00.000 --> 00:00:10.000\nsprite.jpg#xywh=0,0,160,90\n"));
+        // Tile 11 sang hàng thứ hai, cue cuối dừng ở thời lượng video
+        assertTrue(vtt.contains("00:01:40.000 --> 00:01:50.000\nsprite.jpg#xywh=0,90,160,90\n"));
+        assertTrue(vtt.endsWith("00:01:50.000 --> 00:01:55.000\nsprite.jpg#xywh=160,90,160,90\n"));
+    }
+
+    @Test
+    void generateStoresVersionedUrls() throws Exception {
+        when(keyframeIndexService.seek(VIDEO, 12_000)).thenReturn(new KeyframeSeek(11_500, 4_000, 8_000));
+        when(videoBlobTemplate.setPreviewMedia(eq("h1"), anyString(), anyString())).thenReturn(true);
+
+        service.generate("h1", VIDEO, 120);
+
+        // ffmpeg đọc thẳng file của store local
+        verify(ffmpegService).generateSpriteSheet(eq(video.toString()), anyString(), eq(10), eq(10), eq(2), eq(160), eq(90));
+        // Clip bắt đầu ở keyframe trước mốc 10% thời lượng
+        verify(ffmpegService).generatePreviewClip(eq(video.toString()), anyString(), eq(11L), eq(6));
+
+        ArgumentCaptor<String> vttUrl = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> previewUrl = ArgumentCaptor.forClass(String.class);
+        verify(videoBlobTemplate).setPreviewMedia(eq("h1"), vttUrl.capture(), previewUrl.capture());
+        assertTrue(vttUrl.getValue().matches("/media/previews/h1/[0-9a-z]+/thumbnails\\.vtt"));
+        assertTrue(previewUrl.getValue().matches("/media/previews/h1/[0-9a-z]+/preview\\.mp4"));
+        // Mọi podcast dùng blob nhận cùng URL
+        verify(podcastTemplate).setPreviewMedia("h1", vttUrl.getValue(), previewUrl.getValue());
+
+        String relative = vttUrl.getValue().substring(IMediaPreviewService.URL_PREFIX.length());
+        Path vtt = store.resolve(IMediaPreviewService.DIRECTORY).resolve(relative);
+        assertTrue(Files.readString(vtt).startsWith("WEBVTT"));
+        assertEquals("mp4", Files.readString(vtt.resolveSibling("preview.mp4")));
+        assertNoTempFiles();
+
+        service.deletePreviews(vttUrl.getValue(), previewUrl.getValue());
+        assertFalse(Files.exists(vtt));
+        assertFalse(Files.exists(vtt.resolveSibling("sprite.jpg")));
+        assertFalse(Files.exists(vtt.resolveSibling("preview.mp4")));
+    }
+
+    @Test
+    void outputIsRemovedWhenBlobIsGoneOrFfmpegFails() throws Exception {
+        when(videoBlobTemplate.setPreviewMedia(anyString(), anyString(), anyString())).thenReturn(false);
+        service.generate("deleted", VIDEO, 60);
+        verifyNoInteractions(podcastTemplate);
+
+        doThrow(new java.io.IOException("FFmpeg process failed with exit code 1"))
+                .when(ffmpegService).generatePreviewClip(anyString(), anyString(), anyLong(), anyInt());
+        assertThrows(java.io.IOException.class, () -> service.generate("broken", VIDEO, 60));
+
+        try (Stream<Path> files = Files.walk(store.resolve(IMediaPreviewService.DIRECTORY))) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+        assertNoTempFiles();
+    }
+
+    private void assertNoTempFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void scheduleRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(ffmpegService).generateSpriteSheet(anyString(), anyString(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+
+        assertTrue(service.schedule("h1", VIDEO, 60));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        // Waveform chạy trước sprite trên cùng worker
+        verify(waveformService).buildWaveform(VIDEO);
+        assertTrue(service.schedule("h2", VIDEO, 60));
+        // 1 thread đang chạy + hàng đợi 1 chỗ đã đầy
+        assertFalse(service.schedule("h3", VIDEO, 60));
+        assertEquals(1.0, meterRegistry.get("castify.media-preview.rejected").counter().count());
+
+        // Không có thời lượng (ffprobe lỗi) thì không sinh
+        assertFalse(service.schedule("h4", VIDEO, 0));
+        release.countDown();
+    }
+
+    // Upload trùng liên tiếp khi blob chưa có preview: video đang sinh không được xếp hàng thêm lần nữa
+    @Test
+    void scheduleSkipsVideoAlreadyPending() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(ffmpegService).generateSpriteSheet(anyString(), anyString(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+
+        assertTrue(service.schedule("h1", VIDEO, 60));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertTrue(service.schedule("h1", VIDEO, 60));
+
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "executor");
+        assertEquals(0, executor.getQueue().size());
+        release.countDown();
+    }
+}
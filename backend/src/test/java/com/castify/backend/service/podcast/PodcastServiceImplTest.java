@@ -0,0 +1,62 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.entity.PodcastEntity;
+import com.castify.backend.models.PageDTO;
+import com.castify.backend.models.podcast.PodcastModel;
+import com.castify.backend.repository.PodcastRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PodcastServiceImplTest {
+    private static final String KEY = "blobs/ab/abcdef.mp4";
+
+    private final PodcastRepository podcastRepository = mock(PodcastRepository.class);
+    private final VideoUrlServiceImpl videoUrlService = new VideoUrlServiceImpl();
+    private final PodcastServiceImpl service = new PodcastServiceImpl();
+    private final PodcastEntity podcast = new PodcastEntity();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(videoUrlService, "secret", "video-secret");
+        ReflectionTestUtils.setField(videoUrlService, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(videoUrlService, "bucketSeconds", 300L);
+        ReflectionTestUtils.setField(videoUrlService, "videoBasePath", Paths.get("castify_resources", "user").toAbsolutePath().toString());
+        ReflectionTestUtils.setField(service, "podcastRepository", podcastRepository);
+        ReflectionTestUtils.setField(service, "videoUrlService", videoUrlService);
+        podcast.setId("p1");
+        podcast.setTitle("Tap 1");
+        podcast.setVideoUrl(KEY);
+    }
+
+    // Danh sách podcast trả URL đã ký như trang chi tiết, không lộ key lưu trữ
+    @Test
+    void listEndpointsReturnSignedVideoUrl() {
+        when(podcastRepository.findByIsActiveTrue(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(podcast), PageRequest.of(0, 20), 1));
+        when(podcastRepository.findByGenres_IdAndIsActiveTrue(eq("g1"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(podcast), PageRequest.of(0, 20), 1));
+
+        assertSigned(service.getRecentPodcasts(0, 20));
+        assertSigned(service.getPodcastsByGenre("g1", 0, 20));
+    }
+
+    private void assertSigned(PageDTO<PodcastModel> page) {
+        String videoUrl = page.getContent().get(0).getVideoUrl();
+        assertTrue(videoUrl.startsWith("/api/v1/podcast/video/p1/source?"), videoUrl);
+        assertTrue(videoUrl.contains("&sig="), videoUrl);
+        assertNotEquals(KEY, videoUrl);
+    }
+}
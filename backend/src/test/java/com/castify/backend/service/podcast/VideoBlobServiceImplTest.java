@@ -0,0 +1,217 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.entity.VideoBlobEntity;
+import com.castify.backend.models.podcast.StoredVideo;
+import com.castify.backend.repository.template.VideoBlobTemplate;
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.LocalMediaStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class VideoBlobServiceImplTest {
+    // Hash bất kỳ cho test release, file được tạo tay
+    private static final String HASH = "07a7f3d2af6c17a10e0c0f4dd50d5ba4a0fd7a2b2e0b6c5bd6f65ed21d4f6e2e";
+
+    private final VideoBlobTemplate videoBlobTemplate = mock(VideoBlobTemplate.class);
+    private final IFFmpegService ffmpegService = mock(IFFmpegService.class);
+    private final IKeyframeIndexService keyframeIndexService = mock(IKeyframeIndexService.class);
+    private final IWaveformService waveformService = mock(IWaveformService.class);
+    private final IMediaPreviewService mediaPreviewService = mock(IMediaPreviewService.class);
+    private final LocalMediaStore mediaStore = new LocalMediaStore();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VideoBlobServiceImpl service = new VideoBlobServiceImpl();
+
+    @TempDir
+    Path dir;
+    @TempDir
+    Path store;
+    private final MockMultipartFile upload = new MockMultipartFile("video", "Tap 1.MP4", "video/mp4",
+            "hello video".getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(mediaStore, "root", store.toString());
+        ReflectionTestUtils.setField(service, "videoBlobTemplate", videoBlobTemplate);
+        ReflectionTestUtils.setField(service, "ffmpegService", ffmpegService);
+        ReflectionTestUtils.setField(service, "keyframeIndexService", keyframeIndexService);
+        ReflectionTestUtils.setField(service, "waveformService", waveformService);
+        ReflectionTestUtils.setField(service, "mediaPreviewService", mediaPreviewService);
+        ReflectionTestUtils.setField(service, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "uploadDir", dir.toString());
+        service.start();
+        when(ffmpegService.getVideoDuration(anyString())).thenReturn(42L);
+        when(videoBlobTemplate.insertIfAbsent(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void newContentIsStoredUnderItsHash() throws Exception {
+        StoredVideo video = service.store(upload);
+
+        String hash = video.hash();
+        assertEquals(64, hash.length());
+        // Mỗi lần upload một key riêng dưới thư mục của hash
+        assertTrue(video.key().matches("blobs/" + hash.substring(0, 2) + "/" + hash + "-[0-9a-f]{24}\\.mp4"), video.key());
+        assertEquals("hello video", Files.readString(store.resolve(video.key())));
+        assertEquals(42, video.duration());
+        assertFalse(video.reused());
+        // Probe và index chạy trên file tạm trước khi vào store
+        verify(keyframeIndexService).buildIndex(eq(video.key()), any(Path.class));
+
+        ArgumentCaptor<VideoBlobEntity> blob = ArgumentCaptor.forClass(VideoBlobEntity.class);
+        verify(videoBlobTemplate).insertIfAbsent(blob.capture());
+        assertEquals(hash, blob.getValue().getHash());
+        assertEquals(1, blob.getValue().getRefCount());
+        assertEquals(11, blob.getValue().getSize());
+        assertNoTempFiles();
+    }
+
+    @Test
+    void duplicateUploadReusesBlobWithoutProbing() throws Exception {
+        when(videoBlobTemplate.acquire(anyString())).thenAnswer(invocation -> VideoBlobEntity.builder()
+                .hash(invocation.getArgument(0))
+                .key("blobs/ex/existing.mp4")
+                .duration(3600)
+                .thumbnailUrl("https://cdn.castify.test/thumb.jpg")
+                .previewUrl("/media/previews/x/v1/preview.mp4")
+                .refCount(2)
+                .build());
+
+        StoredVideo video = service.store(upload);
+
+        assertTrue(video.reused());
+        assertEquals("blobs/ex/existing.mp4", video.key());
+        assertEquals(3600, video.duration());
+        assertEquals("https://cdn.castify.test/thumb.jpg", video.thumbnailUrl());
+        verifyNoInteractions(ffmpegService, keyframeIndexService);
+        verify(videoBlobTemplate, never()).insertIfAbsent(any());
+        assertNoTempFiles();
+        assertEquals(1.0, meterRegistry.get("castify.video.blob.uploads").tag("result", "deduplicated").counter().count());
+    }
+
+    @Test
+    void lastReleaseDeletesBlobIndexesAndPreviews() throws Exception {
+        String key = "blobs/07/" + HASH + ".mp4";
+        Path video = store.resolve(key);
+        Files.createDirectories(video.getParent());
+        Files.writeString(video, "hello video");
+
+        VideoBlobEntity blob = VideoBlobEntity.builder().hash(HASH).key(key)
+                .thumbnailsVttUrl("/media/previews/" + HASH + "/v1/thumbnails.vtt")
+                .previewUrl("/media/previews/" + HASH + "/v1/preview.mp4")
+                .build();
+        blob.setRefCount(1);
+        when(videoBlobTemplate.release(HASH)).thenReturn(blob);
+        service.release(HASH);
+        // Còn podcast khác dùng: giữ nguyên file
+        assertTrue(Files.exists(video));
+        verify(videoBlobTemplate, never()).markDeleting(HASH);
+        verifyNoInteractions(keyframeIndexService, waveformService, mediaPreviewService);
+
+        blob.setRefCount(0);
+        when(videoBlobTemplate.markDeleting(HASH)).thenReturn(blob);
+        service.release(HASH);
+        assertFalse(Files.exists(video));
+        verify(keyframeIndexService).deleteIndex(key);
+        verify(waveformService).deleteWaveform(key);
+        verify(mediaPreviewService).deletePreviews(blob.getThumbnailsVttUrl(), blob.getPreviewUrl());
+        verify(videoBlobTemplate).removeDeleted(HASH);
+    }
+
+    @Test
+    void releaseKeepsBlobWhenDeletionIsNotClaimed() throws Exception {
+        // Upload trùng vừa acquire lại hoặc node khác đã nhận việc xoá
+        VideoBlobEntity blob = VideoBlobEntity.builder().hash(HASH).key("blobs/07/" + HASH + ".mp4").build();
+        when(videoBlobTemplate.release(HASH)).thenReturn(blob);
+        when(videoBlobTemplate.markDeleting(HASH)).thenReturn(null);
+
+        service.release(HASH);
+
+        verifyNoInteractions(keyframeIndexService, waveformService, mediaPreviewService);
+        verify(videoBlobTemplate, never()).removeDeleted(HASH);
+    }
+
+    @Test
+    void lostInsertRaceReusesWinnerAndKeepsItsObject() throws Exception {
+        Path winner = store.resolve("blobs/ex/winner.mp4");
+        Files.createDirectories(winner.getParent());
+        Files.writeString(winner, "hello video");
+        when(videoBlobTemplate.insertIfAbsent(any())).thenReturn(null);
+        when(videoBlobTemplate.acquire(anyString())).thenReturn(null).thenAnswer(invocation -> VideoBlobEntity.builder()
+                .hash(invocation.getArgument(0))
+                .key("blobs/ex/winner.mp4")
+                .duration(3600)
+                .refCount(2)
+                .build());
+
+        StoredVideo video = service.store(upload);
+
+        assertTrue(video.reused());
+        assertEquals("blobs/ex/winner.mp4", video.key());
+        assertTrue(Files.exists(winner));
+        // Chỉ object và index của lần upload thua bị dọn
+        ArgumentCaptor<String> discarded = ArgumentCaptor.forClass(String.class);
+        verify(keyframeIndexService).deleteIndex(discarded.capture());
+        assertNotEquals("blobs/ex/winner.mp4", discarded.getValue());
+        try (Stream<Path> files = Files.walk(store)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        assertNoTempFiles();
+    }
+
+    @Test
+    void uploadWaitsForBlobBeingDeleted() throws Exception {
+        // Document cùng hash đang bị xoá: acquire bỏ qua nó, insert thành công sau khi node kia dọn xong
+        when(videoBlobTemplate.insertIfAbsent(any())).thenReturn(null).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StoredVideo video = service.store(upload);
+
+        assertFalse(video.reused());
+        assertEquals("hello video", Files.readString(store.resolve(video.key())));
+        verify(videoBlobTemplate, times(2)).insertIfAbsent(any());
+        verify(keyframeIndexService, never()).deleteIndex(anyString());
+    }
+
+    @Test
+    void failedInsertRemovesStoredObject() throws Exception {
+        when(videoBlobTemplate.insertIfAbsent(any())).thenThrow(new IllegalStateException("mongo down"));
+
+        assertThrows(IllegalStateException.class, () -> service.store(upload));
+
+        try (Stream<Path> files = Files.walk(store)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+        verify(keyframeIndexService).deleteIndex(anyString());
+        assertNoTempFiles();
+    }
+
+    @Test
+    void extensionIsSanitized() {
+        assertEquals(".mkv", VideoBlobServiceImpl.extensionOf("Tap 1.MKV"));
+        assertEquals("", VideoBlobServiceImpl.extensionOf("../../etc/passwd"));
+        assertEquals("", VideoBlobServiceImpl.extensionOf("noextension"));
+        assertEquals("", VideoBlobServiceImpl.extensionOf(null));
+    }
+
+    private void assertNoTempFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.models.storage.MediaStat;
+import com.castify.backend.service.storage.LocalMediaStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VideoChunkCacheServiceImplTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalMediaStore mediaStore = new LocalMediaStore();
+    private final VideoChunkCacheServiceImpl service = new VideoChunkCacheServiceImpl();
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(mediaStore, "root", dir.toString());
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "mediaStore", mediaStore);
+        // Chunk 1 KB, số slot đặt trong từng test
+        ReflectionTestUtils.setField(service, "maxMb", 0L);
+        ReflectionTestUtils.setField(service, "chunkKb", 1);
+    }
+
+    private void start(int slots) {
+        ReflectionTestUtils.setField(service, "maxMb", 1L);
+        service.start();
+        ReflectionTestUtils.setField(service, "maxSlots", slots);
+    }
+
+    @Test
+    void rangeAcrossChunksMatchesFileAndIsServedFromCache() throws IOException {
+        start(8);
+        byte[] content = randomBytes(5000);
+        File file = write("video.mp4", content);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 3501), read(file, 1000, 3500));
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 3501), read(file, 1000, 3500));
+        // Chunk cuối ngắn hơn chunk size, end vượt quá file bị cắt về cuối file
+        assertArrayEquals(Arrays.copyOfRange(content, 4090, 5000), read(file, 4090, 9999));
+
+        // Lần đọc thứ hai trúng cả 4 chunk (0..3), lần thứ ba trúng chunk 3 và miss chunk 4
+        assertEquals(5.0, meterRegistry.get("castify.video.chunk-cache.requests").tag("result", "hit").functionCounter().count());
+        assertTrue(meterRegistry.get("castify.video.chunk-cache.resident").gauge().value() > 0);
+    }
+
+    @Test
+    void oneOffReadDoesNotEvictFrequentChunk() throws IOException {
+        start(1);
+        File hot = write("hot.mp4", randomBytes(1024));
+        File cold = write("cold.mp4", randomBytes(1024));
+
+        for (int i = 0; i < 5; i++) {
+            read(hot, 0, 1023);
+        }
+        // Chunk không được nhận vào cache vẫn đọc đúng từ store
+        assertArrayEquals(Files.readAllBytes(cold.toPath()), read(cold, 0, 1023));
+        read(hot, 0, 1023);
+
+        // 4 lần đọc lại hot trúng cache, cold không được nhận vào vì ít truy cập hơn
+        assertEquals(5.0, meterRegistry.get("castify.video.chunk-cache.requests").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void rewrittenFileIsNotServedFromStaleChunks() throws IOException {
+        start(8);
+        File file = write("video.mp4", randomBytes(2048));
+        read(file, 0, 2047);
+
+        byte[] replaced = randomBytes(3000);
+        Files.write(file.toPath(), replaced);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+        assertArrayEquals(replaced, read(file, 0, 2999));
+    }
+
+    // Đếm mẫu tuần tự dưới lock: không mất lượt nào, chu kỳ giảm nửa đúng sampleSize
+    @Test
+    void concurrentReadsCountEverySample() throws Exception {
+        start(8);
+        File file = write("video.mp4", randomBytes(1024));
+        MediaStat stat = mediaStore.stat(file.getName());
+        int threads = 8;
+        int readsPerThread = 20_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                readers.add(executor.submit(() -> {
+                    byte[] chunk = new byte[1024];
+                    for (int i = 0; i < readsPerThread; i++) {
+                        try (InputStream in = service.openRange(file.getName(), stat, 0, 1023)) {
+                            in.readNBytes(chunk, 0, chunk.length);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int sampleSize = (int) ReflectionTestUtils.getField(service, "sampleSize");
+        assertEquals(threads * readsPerThread % sampleSize, (int) ReflectionTestUtils.getField(service, "samples"));
+    }
+
+    // Chunk nằm trong cache được copy thẳng vào buffer của caller, đọc từng byte cũng không đếm lại lượt truy cập
+    @Test
+    void smallReadsWithinCachedChunkCountOneAccess() throws IOException {
+        start(8);
+        byte[] content = randomBytes(2048);
+        File file = write("video.mp4", content);
+        read(file, 0, 2047);
+
+        byte[] bytes = new byte[100];
+        try (InputStream in = service.openRange(file.getName(), mediaStore.stat(file.getName()), 1000, 1099)) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) in.read();
+            }
+            assertEquals(-1, in.read());
+        }
+
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 1100), bytes);
+        // Range 1000..1099 chạm chunk 0 và 1, mỗi chunk một hit
+        assertEquals(2.0, meterRegistry.get("castify.video.chunk-cache.requests").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void disabledCacheStillServesRanges() throws IOException {
+        service.start();
+        byte[] content = randomBytes(3000);
+        File file = write("video.mp4", content);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 2010), read(file, 10, 2009));
+        assertEquals(0.0, meterRegistry.get("castify.video.chunk-cache.resident").gauge().value());
+    }
+
+    private byte[] read(File file, long start, long end) throws IOException {
+        String key = file.getName();
+        try (InputStream in = service.openRange(key, mediaStore.stat(key), start, end)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private File write(String name, byte[] content) throws IOException {
+        Path path = dir.resolve(name);
+        Files.write(path, content);
+        return path.toFile();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
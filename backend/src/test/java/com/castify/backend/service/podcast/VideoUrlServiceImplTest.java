@@ -0,0 +1,92 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.entity.PodcastEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VideoUrlServiceImplTest {
+    private static final String BASE = Paths.get("castify_resources", "user").toAbsolutePath().toString();
+
+    private final VideoUrlServiceImpl service = new VideoUrlServiceImpl();
+    private final PodcastEntity podcast = new PodcastEntity();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "secret", "video-secret");
+        ReflectionTestUtils.setField(service, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(service, "bucketSeconds", 300L);
+        ReflectionTestUtils.setField(service, "videoBasePath", BASE);
+        podcast.setId("p1");
+        podcast.setVideoUrl(Paths.get(BASE, "alice_u1", "podcast", "ep 1+2.mp4").toString());
+    }
+
+    @Test
+    void signedUrlResolvesToStoredFile() {
+        UriComponents url = UriComponentsBuilder.fromUriString(service.signedUrl(podcast)).build();
+        MultiValueMap<String, String> query = url.getQueryParams();
+
+        assertEquals("/api/v1/podcast/video/p1/source", url.getPath());
+        assertEquals("alice_u1/podcast/ep 1+2.mp4", param(query, "path"));
+        String resolved = service.resolve("p1", "source", param(query, "path"),
+                Long.parseLong(param(query, "exp")), param(query, "sig"));
+        assertEquals("alice_u1/podcast/ep 1+2.mp4", resolved);
+    }
+
+    @Test
+    void storeKeyIsSignedAsIs() {
+        podcast.setVideoUrl("blobs/ab/abcdef.mp4");
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(service.signedUrl(podcast)).build().getQueryParams();
+
+        assertEquals("blobs/ab/abcdef.mp4", param(query, "path"));
+        // Đường dẫn tuyệt đối ngoài base-path không có key trong store
+        podcast.setVideoUrl(Paths.get(BASE).resolveSibling("elsewhere").resolve("video.mp4").toString());
+        assertNull(service.signedUrl(podcast));
+    }
+
+    @Test
+    void urlsIssuedInSameBucketAreIdentical() {
+        assertEquals(service.signedUrl(podcast), service.signedUrl(podcast));
+    }
+
+    @Test
+    void tamperedOrExpiredUrlIsRejected() {
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUriString(service.signedUrl(podcast)).build().getQueryParams();
+        String path = param(query, "path");
+        long expires = Long.parseLong(param(query, "exp"));
+        String signature = param(query, "sig");
+
+        assertNull(service.resolve("p2", "source", path, expires, signature));
+        assertNull(service.resolve("p1", "source", "bob_u2/podcast/other.mp4", expires, signature));
+        assertNull(service.resolve("p1", "source", path, expires + 300, signature));
+        assertNull(service.resolve("p1", "720p", path, expires, signature));
+        assertNull(service.resolve("p1", "source", path, expires, null));
+
+        long past = Instant.now().getEpochSecond() - 1;
+        ReflectionTestUtils.setField(service, "ttlSeconds", -10_000L);
+        MultiValueMap<String, String> expired = UriComponentsBuilder.fromUriString(service.signedUrl(podcast)).build().getQueryParams();
+        assertTrue(Long.parseLong(param(expired, "exp")) <= past);
+        assertNull(service.resolve("p1", "source", path, Long.parseLong(param(expired, "exp")), param(expired, "sig")));
+    }
+
+    @Test
+    void missingSecretFailsStartup() {
+        service.start();
+        ReflectionTestUtils.setField(service, "secret", "");
+        assertThrows(IllegalStateException.class, service::start);
+    }
+
+    private static String param(MultiValueMap<String, String> query, String name) {
+        return UriUtils.decode(query.getFirst(name), StandardCharsets.UTF_8);
+    }
+}
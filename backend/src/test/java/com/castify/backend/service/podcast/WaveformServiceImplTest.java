@@ -0,0 +1,113 @@
+package com.castify.backend.service.podcast;
+
+import com.castify.backend.service.ffmpeg.IFFmpegService;
+import com.castify.backend.service.storage.LocalMediaStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class WaveformServiceImplTest {
+    private static final int SAMPLES = 64 * 1000;
+    private static final String KEY = "video.mp4";
+
+    private final IFFmpegService ffmpegService = mock(IFFmpegService.class);
+    private final LocalMediaStore mediaStore = new LocalMediaStore();
+    private final WaveformServiceImpl service = new WaveformServiceImpl();
+
+    @TempDir
+    Path dir;
+    private Path video;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(mediaStore, "root", dir.toString());
+        ReflectionTestUtils.setField(service, "ffmpegService", ffmpegService);
+        ReflectionTestUtils.setField(service, "mediaStore", mediaStore);
+        ReflectionTestUtils.setField(service, "sampleRate", 8000);
+        ReflectionTestUtils.setField(service, "levels", new int[]{2000, 10});
+        video = dir.resolve(KEY);
+        Files.write(video, new byte[1_000]);
+
+        // Nửa đầu im lặng, nửa sau dao động ±16384; ghi theo khối lẻ để sample bị tách giữa hai lần write
+        ByteBuffer pcm = ByteBuffer.allocate(SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < SAMPLES; i++) {
+            pcm.putShort((short) (i < SAMPLES / 2 ? 0 : (i % 2 == 0 ? 16384 : -16384)));
+        }
+        byte[] bytes = pcm.array();
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            for (int off = 0; off < bytes.length; off += 777) {
+                out.write(bytes, off, Math.min(777, bytes.length - off));
+            }
+            return null;
+        }).when(ffmpegService).decodeMonoPcm(eq(video.toString()), anyInt(), any(OutputStream.class));
+    }
+
+    @Test
+    void blobHoldsLevelsCoarsestFirst() throws Exception {
+        service.buildWaveform(KEY);
+        // ffmpeg đọc thẳng file của store local, object .wfm nằm cạnh video
+        assertTrue(Files.exists(dir.resolve(KEY + ".wfm")));
+        ByteBuffer blob = ByteBuffer.wrap(service.readWaveform(KEY));
+
+        assertEquals(0x4357464D, blob.getInt());
+        assertEquals(1, blob.getShort());
+        assertEquals(2, blob.getShort());
+        assertEquals(1_000, blob.getLong());
+        assertEquals(8000, blob.getInt());
+        assertEquals(SAMPLES, blob.getLong());
+
+        assertEquals(10, blob.getInt());
+        byte[] coarse = new byte[20];
+        blob.get(coarse);
+        assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -64, 64, -64, 64, -64, 64, -64, 64, -64, 64}, coarse);
+
+        // 1000 bucket mịn (64 sample), ít hơn 2000 cặp yêu cầu nên giữ nguyên 1000
+        assertEquals(1_000, blob.getInt());
+        assertEquals(2_000, blob.remaining());
+        assertEquals(0, blob.get(blob.position() + 2 * 499 + 1));
+        assertEquals(-64, blob.get(blob.position() + 2 * 500));
+    }
+
+    @Test
+    void staleOrMissingWaveformIsIgnored() throws Exception {
+        assertNull(service.readWaveform(KEY));
+
+        service.buildWaveform(KEY);
+        // File video bị thay sau khi tính waveform: độ dài không khớp header
+        Files.write(video, new byte[2_000]);
+        assertNull(service.readWaveform(KEY));
+
+        service.deleteWaveform(KEY);
+        assertFalse(Files.exists(dir.resolve(KEY + ".wfm")));
+    }
+
+    @Test
+    void partialLastBucketIsKept() throws Exception {
+        WaveformServiceImpl.PeakAccumulator peaks = new WaveformServiceImpl.PeakAccumulator(4);
+        peaks.write(new byte[]{0x00, 0x10, 0x00, (byte) 0xF0, 0x00, 0x01, 0x00, 0x02, 0x00});
+        peaks.write(0x7F);
+        peaks.finish();
+
+        assertEquals(5, peaks.samples());
+        assertEquals(2, peaks.buckets());
+        assertEquals((short) 0xF000, peaks.min(0));
+        assertEquals(0x1000, peaks.max(0));
+        assertEquals(0x7F00, peaks.max(1));
+        assertArrayEquals(new byte[]{-16, 127}, WaveformServiceImpl.downsample(peaks, 1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.castify.backend.service.storage;
+
+import com.castify.backend.models.storage.MediaStat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalMediaStoreTest {
+    private final LocalMediaStore store = new LocalMediaStore();
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "root", root.toString());
+    }
+
+    @Test
+    void writeThenStatAndReadRanges() throws IOException {
+        byte[] content = "0123456789".getBytes(StandardCharsets.US_ASCII);
+        MediaStat written = store.write("blobs/ab/video.mp4", new ByteArrayInputStream(content), content.length);
+
+        assertEquals(10, written.size());
+        assertEquals(written, store.stat("blobs/ab/video.mp4"));
+        assertEquals("234", read("blobs/ab/video.mp4", 2, 4));
+        // end vượt quá object bị cắt về cuối
+        assertEquals("789", read("blobs/ab/video.mp4", 7, 100));
+        assertEquals(root.resolve("blobs/ab/video.mp4").toString(), store.ffmpegInput("blobs/ab/video.mp4"));
+        assertNoPartFiles();
+    }
+
+    @Test
+    void shortWriteKeepsPreviousObject() throws IOException {
+        store.write("a.vtt", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+
+        assertThrows(IOException.class, () -> store.write("a.vtt", new ByteArrayInputStream(new byte[]{9}), 5));
+        assertEquals(3, store.stat("a.vtt").size());
+        assertNoPartFiles();
+    }
+
+    @Test
+    void writeFileMovesSourceAndDeleteIsIdempotent() throws IOException {
+        Path upload = Files.writeString(root.resolve("upload.part"), "hello");
+
+        store.writeFile("blobs/cd/video.mp4", upload);
+
+        assertFalse(Files.exists(upload));
+        assertEquals("hello", read("blobs/cd/video.mp4", 0, 4));
+        store.delete("blobs/cd/video.mp4");
+        store.delete("blobs/cd/video.mp4");
+        assertNull(store.stat("blobs/cd/video.mp4"));
+    }
+
+    @Test
+    void keysCannotEscapeRoot() {
+        assertThrows(IllegalArgumentException.class, () -> store.stat("../outside.mp4"));
+        assertThrows(IllegalArgumentException.class, () -> store.openRange("blobs/../../etc/passwd", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> store.delete(""));
+    }
+
+    private String read(String key, long start, long end) throws IOException {
+        try (InputStream in = store.openRange(key, start, end)) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    private void assertNoPartFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".part")));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.castify.loadtest;
+
+import io.gatling.http.action.ws.WsInboundMessage;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Các hành trình chính của người dùng trên một backend đang chạy (Mongo local hoặc nhúng) đã được
+ * nạp dữ liệu bằng DataGenerator:
+ * <ul>
+ *     <li>visitor: /recent, /popular, trang xem podcast ẩn danh + đọc Range /video + /inc-views, danh sách comment</li>
+ *     <li>member: đăng nhập, feed, /podcast/{id} + /video + /inc-views, comment + reaction, follow/unfollow</li>
+ *     <li>chatter: đăng nhập, danh sách hội thoại, STOMP subscribe qua SockJS, gửi tin bằng REST và chờ broadcast</li>
+ * </ul>
+ * Tải tăng dần trong load.rampSeconds rồi giữ load.rate lượt/giây trong load.steadySeconds. Chạy bằng
+ * {@code mvn verify -Dcastify.baseUrl=...}; JsonReport ghi target/gatling/&lt;run&gt;/report.json và làm build fail
+ * khi assertion p95/p99 hoặc tỉ lệ lỗi không đạt.
+ */
+public class CastifySimulation extends Simulation {
+    private final LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+    private final Iterator<Map<String, Object>> feeder = DatasetFeeder.create(config);
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(config.baseUrl())
+            .wsBaseUrl(config.wsBaseUrl())
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json")
+            .userAgentHeader("castify-loadtest")
+            .wsUnmatchedInboundMessageBufferSize(64);
+
+    private final ChainBuilder login = group("login").on(
+            exec(http("authenticate")
+                    .post("/api/v1/auth/authenticate")
+                    .body(StringBody("{\"email\":\"#{email}\",\"password\":\"#{password}\"}"))
+                    .check(status().is(200), jsonPath("$.access_token").saveAs("token"))));
+
+    private final ChainBuilder homeFeed = group("home").on(
+            exec(http("recent")
+                    .get("/api/v1/podcast/recent").queryParam("page", 0).queryParam("size", 10)
+                    .check(status().is(200), jsonPath("$.content").exists()))
+                    .exec(http("popular")
+                            .get("/api/v1/podcast/popular").queryParam("page", 0).queryParam("size", 10)
+                            .check(status().is(200), jsonPath("$.content").exists())));
+
+    private final ScenarioBuilder visitors = scenario("visitor")
+            .feed(feeder)
+            .exec(homeFeed)
+            .pause(1, 3)
+            .exec(watch(false))
+            .pause(1, 3)
+            .exec(comments(false));
+
+    private final ScenarioBuilder members = scenario("member")
+            .feed(feeder)
+            .exec(login)
+            .exec(homeFeed)
+            .pause(1, 3)
+            .exec(watch(true))
+            .pause(1, 3)
+            .exec(comments(true))
+            .pause(1, 2)
+            .exec(group("follow").on(
+                    exec(authorized(http("follow").put("/api/v1/user/follow").queryParam("username", "#{followUsername}"))
+                            .check(status().is(200)))
+                            .pause(1)
+                            // Bấm lần nữa để trả lại trạng thái ban đầu, dữ liệu không bị trôi qua các lần chạy
+                            .exec(authorized(http("unfollow").put("/api/v1/user/follow").queryParam("username", "#{followUsername}"))
+                                    .check(status().is(200)))));
+
+    private final ScenarioBuilder chatters = scenario("chatter")
+            .feed(feeder)
+            .exec(login)
+            .exec(group("chat").on(
+                    exec(session -> session.remove("groupId"))
+                            .exec(authorized(http("conversations").get("/api/v1/conversation")
+                                    .queryParam("pageSize", 10).queryParam("pageNumber", 0))
+                                    .check(status().is(200), jsonPath("$.data[*].id").findRandom().optional().saveAs("groupId")))
+                            .doIf(session -> session.contains("groupId")).then(chat())));
+
+    {
+        double rate = config.arrivalsPerSecond();
+        setUp(
+                inject(visitors, rate * 0.5),
+                inject(members, rate * 0.4),
+                inject(chatters, rate * 0.1))
+                .protocols(httpProtocol)
+                .assertions(
+                        global().responseTime().percentile(95.0).lt(config.p95Millis()),
+                        global().responseTime().percentile(99.0).lt(config.p99Millis()),
+                        global().failedRequests().percent().lte(config.maxErrorPercent()),
+                        // Broadcast không tới chỉ làm group "chat" KO, không tính vào số request lỗi
+                        details("chat").failedRequests().percent().lte(config.maxErrorPercent()));
+    }
+
+    private PopulationBuilder inject(ScenarioBuilder scenario, double usersPerSecond) {
+        return scenario.injectOpen(
+                rampUsersPerSec(0.1).to(usersPerSecond).during(config.ramp()),
+                constantUsersPerSec(usersPerSecond).during(config.steady()));
+    }
+
+    private ChainBuilder watch(boolean authenticated) {
+        HttpRequestActionBuilder podcast = authenticated
+                ? authorized(http("podcast").get("/api/v1/podcast/#{podcastId}"))
+                : http("podcast anonymous").get("/api/v1/podcast/anonymous/#{podcastId}");
+        int chunk = config.videoChunkBytes();
+        return group("watch").on(
+                exec(podcast.check(status().is(200), jsonPath("$.videoUrl").saveAs("videoUrl")))
+                        .exec(video("video first chunk", "bytes=0-" + (chunk - 1))
+                                .check(header("Content-Range").transform(range -> Long.parseLong(range.substring(range.indexOf('/') + 1)))
+                                        .saveAs("videoSize")))
+                        .exec(session -> {
+                            // Tua tới một vị trí ngẫu nhiên như người xem kéo thanh thời gian
+                            long size = session.getLong("videoSize");
+                            long start = size > chunk ? ThreadLocalRandom.current().nextLong(size - chunk) : 0;
+                            return session.set("seekRange", "bytes=" + start + "-" + (start + Math.min(chunk, size) - 1));
+                        })
+                        .exec(video("video seek", "#{seekRange}"))
+                        .exec(http("inc views").post("/api/v1/podcast/#{podcastId}/inc-views").check(status().is(204))));
+    }
+
+    private HttpRequestActionBuilder video(String name, String range) {
+        return http(name)
+                .get("/api/v1/podcast/video")
+                .queryParam("path", "#{videoUrl}")
+                .header("Referer", config.origin() + "/")
+                .header("Range", range)
+                .check(status().is(206));
+    }
+
+    private ChainBuilder comments(boolean authenticated) {
+        HttpRequestActionBuilder list = http("comment list")
+                .get("/api/v1/comment/list/#{podcastId}")
+                .queryParam("page", 0).queryParam("size", 10).queryParam("sortBy", "latest")
+                .check(status().is(200), jsonPath("$.content[*].id").findRandom().optional().saveAs("commentId"));
+        if (!authenticated) {
+            return group("comments").on(exec(list));
+        }
+        return group("comments").on(
+                exec(session -> session.remove("commentId"))
+                        .exec(authorized(list))
+                        .doIf(session -> session.contains("commentId")).then(
+                                exec(authorized(http("comment reaction").post("/api/v1/comment/reaction")
+                                        .body(StringBody("{\"commentId\":\"#{commentId}\"}")))
+                                        .check(status().is(200)))));
+    }
+
+    private ChainBuilder chat() {
+        return exec(ws("stomp open").connect("/ws/#{wsServer}/#{wsSession}/websocket")
+                .header("Origin", config.origin())
+                .await(Duration.ofSeconds(5)).on(ws.checkTextMessage("sockjs open").check(regex("^o$"))))
+                .exec(ws("stomp connect").sendText(session -> StompFrames.connect(session.getString("token")))
+                        .await(Duration.ofSeconds(5)).on(ws.checkTextMessage("stomp connected").check(substring("CONNECTED"))))
+                .exec(ws("stomp subscribe").sendText(session -> StompFrames.subscribe("sub-0", "/topic/group/" + session.getString("groupId"))))
+                .exec(ws("stomp subscribe queue").sendText(StompFrames.subscribe("sub-1", "/user/queue/msg")))
+                .exec(authorized(http("send message").put("/api/v1/conversation/msg")
+                        .queryParam("groupId", "#{groupId}")
+                        .body(StringBody("{\"message\":\"#{chatMessage}\"}")))
+                        .check(status().is(200)))
+                .pause(Duration.ofMillis(500))
+                .exec(ws.processUnmatchedMessages((messages, session) -> session.set("broadcastReceived", messages.stream()
+                        .anyMatch(message -> message instanceof WsInboundMessage.Text text
+                                && text.message().contains("MESSAGE")
+                                && text.message().contains("destination:/topic/group/")))))
+                .doIf(session -> !session.getBoolean("broadcastReceived")).then(exec(session -> session.markAsFailed()))
+                .exec(ws("stomp disconnect").sendText(StompFrames.disconnect()))
+                .exec(ws("stomp close").close());
+    }
+
+    private static HttpRequestActionBuilder authorized(HttpRequestActionBuilder request) {
+        return request.header("Authorization", "Bearer #{token}");
+    }
+}
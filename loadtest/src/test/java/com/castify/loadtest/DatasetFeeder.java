@@ -0,0 +1,59 @@
+package com.castify.loadtest;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Feeder vô hạn sinh user / podcast theo đúng quy ước của DataGenerator (backend, profile perf):
+ * username userN, email userN@castify.test, mật khẩu chung, id tính từ (collection, chỉ số).
+ * Chỉ số được chọn lệch về đầu danh sách (~1/k) giống độ "hot" của bộ dữ liệu.
+ */
+final class DatasetFeeder {
+    // Giống DataGenIds: 4 byte timestamp cố định + 1 byte collection + 7 byte chỉ số
+    private static final int ID_TIMESTAMP = 1_609_459_200;
+    private static final byte PODCAST = 3;
+
+    private DatasetFeeder() {
+    }
+
+    static Iterator<Map<String, Object>> create(LoadTestConfig config) {
+        Random random = new Random(config.seed());
+        return Stream.generate(() -> {
+            int user = skewed(random, config.datasetUsers());
+            int followTarget = skewed(random, config.datasetUsers());
+            if (followTarget == user) {
+                followTarget = (user + 1) % config.datasetUsers();
+            }
+            Map<String, Object> record = new HashMap<>();
+            record.put("email", "user" + user + "@castify.test");
+            record.put("password", config.password());
+            record.put("podcastId", objectId(PODCAST, skewed(random, config.datasetPodcasts())));
+            record.put("followUsername", "user" + followTarget);
+            record.put("chatMessage", "load test " + random.nextInt(1_000_000));
+            record.put("wsServer", String.format("%03d", random.nextInt(1000)));
+            record.put("wsSession", UUID.randomUUID().toString().replace("-", ""));
+            return record;
+        }).iterator();
+    }
+
+    // Phân phối log-uniform: P(k) ~ ln((k+2)/(k+1)) ~ 1/k
+    private static int skewed(Random random, int size) {
+        return (int) Math.min(size - 1, Math.floor(Math.pow(size + 1, random.nextDouble())) - 1);
+    }
+
+    static String objectId(byte collection, long index) {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putInt(ID_TIMESTAMP);
+        buffer.put(collection);
+        buffer.put((byte) (index >>> 48));
+        buffer.putShort((short) (index >>> 32));
+        buffer.putInt((int) index);
+        return HexFormat.of().formatHex(buffer.array());
+    }
+}
@@ -0,0 +1,154 @@
+package com.castify.loadtest;
+
+import io.gatling.charts.stats.GeneralStats;
+import io.gatling.charts.stats.GroupStatsPath;
+import io.gatling.charts.stats.LogFileData;
+import io.gatling.charts.stats.LogFileReader;
+import io.gatling.charts.stats.RequestStatsPath;
+import io.gatling.charts.stats.StatsPath;
+import io.gatling.commons.stats.KO$;
+import io.gatling.commons.stats.Status;
+import io.gatling.core.config.GatlingConfiguration$;
+import io.gatling.shared.model.assertion.AssertionMessage$;
+import io.gatling.shared.model.assertion.AssertionResult;
+import io.gatling.shared.model.assertion.AssertionValidator;
+import scala.Option;
+import scala.jdk.javaapi.CollectionConverters;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Gatling 3.11+ không còn ghi stats.json / assertions.json, nên bước verify đọc lại simulation.log của lần chạy
+ * mới nhất bằng chính parser của Gatling và ghi {@code report.json} (tổng, từng group, từng request và kết quả
+ * assertion) cạnh báo cáo HTML, đồng thời copy ra {@code target/gatling/last-run.json} để CI lưu lại.
+ * Build fail khi có assertion không đạt.
+ */
+public final class JsonReport {
+    private static final double[] PERCENTILES = {50, 75, 95, 99};
+
+    private JsonReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultsFolder = Paths.get(args.length > 0 ? args[0] : "target/gatling");
+        Path runFolder;
+        try (Stream<Path> runs = Files.list(resultsFolder)) {
+            runFolder = runs.filter(run -> Files.exists(run.resolve("simulation.log")))
+                    .max(Comparator.comparing(run -> run.toFile().lastModified()))
+                    .orElseThrow(() -> new IllegalStateException("No Gatling run found in " + resultsFolder.toAbsolutePath()));
+        }
+
+        LogFileData data = new LogFileReader(runFolder.resolve("simulation.log").toFile(), GatlingConfiguration$.MODULE$.load()).read();
+        List<AssertionResult> results = CollectionConverters.asJava(new AssertionValidator(data).validateAssertions(data.assertions()));
+
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"simulation\": ").append(quote(data.runInfo().simulationClassName())).append(",\n");
+        json.append("  \"run\": ").append(quote(runFolder.getFileName().toString())).append(",\n");
+        json.append("  \"start\": ").append(data.runInfo().injectStart()).append(",\n");
+        json.append("  \"end\": ").append(data.runInfo().injectEnd()).append(",\n");
+        json.append("  \"global\": ").append(stats(data.requestGeneralStats(Option.empty(), Option.empty(), Option.empty()),
+                data.requestGeneralStats(Option.empty(), Option.empty(), Option.apply(KO$.MODULE$)))).append(",\n");
+
+        json.append("  \"groups\": [");
+        String separator = "\n";
+        for (StatsPath path : CollectionConverters.asJava(data.statsPaths())) {
+            if (path instanceof GroupStatsPath groupPath) {
+                json.append(separator).append("    {\"name\": ").append(quote(String.join(" / ", CollectionConverters.asJava(groupPath.group().hierarchy()))))
+                        .append(", \"stats\": ").append(stats(data.groupCumulatedResponseTimeGeneralStats(groupPath.group(), Option.empty()),
+                                data.groupCumulatedResponseTimeGeneralStats(groupPath.group(), Option.apply(KO$.MODULE$)))).append('}');
+                separator = ",\n";
+            }
+        }
+        json.append("\n  ],\n");
+
+        json.append("  \"requests\": [");
+        separator = "\n";
+        for (StatsPath path : CollectionConverters.asJava(data.statsPaths())) {
+            if (path instanceof RequestStatsPath requestPath) {
+                Option<String> name = Option.apply(requestPath.request());
+                String group = requestPath.group().isDefined()
+                        ? String.join(" / ", CollectionConverters.asJava(requestPath.group().get().hierarchy())) : "";
+                json.append(separator).append("    {\"group\": ").append(quote(group))
+                        .append(", \"name\": ").append(quote(requestPath.request()))
+                        .append(", \"stats\": ").append(stats(data.requestGeneralStats(name, requestPath.group(), Option.empty()),
+                                data.requestGeneralStats(name, requestPath.group(), Option.apply(KO$.MODULE$)))).append('}');
+                separator = ",\n";
+            }
+        }
+        json.append("\n  ],\n");
+
+        json.append("  \"assertions\": [");
+        separator = "\n";
+        boolean failed = false;
+        for (AssertionResult result : results) {
+            failed |= !result.success();
+            json.append(separator).append("    {\"description\": ").append(quote(AssertionMessage$.MODULE$.message(result.assertion())))
+                    .append(", \"success\": ").append(result.success());
+            if (result instanceof AssertionResult.Resolved resolved) {
+                json.append(", \"actual\": ").append(number(resolved.actualValue()));
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+
+        Files.writeString(runFolder.resolve("report.json"), json, StandardCharsets.UTF_8);
+        Files.writeString(resultsFolder.resolve("last-run.json"), json, StandardCharsets.UTF_8);
+        System.out.println("JSON report: " + runFolder.resolve("report.json").toAbsolutePath());
+
+        if (failed) {
+            throw new IllegalStateException("Load test SLO assertions failed, see " + runFolder.resolve("report.json"));
+        }
+    }
+
+    private static String stats(Option<GeneralStats> all, Option<GeneralStats> failed) {
+        if (all.isEmpty()) {
+            return "null";
+        }
+        GeneralStats stats = all.get();
+        long ko = failed.isDefined() ? failed.get().count() : 0;
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"count\": ").append(stats.count())
+                .append(", \"ko\": ").append(ko)
+                .append(", \"errorPercent\": ").append(number(stats.count() == 0 ? 0 : 100.0 * ko / stats.count()))
+                .append(", \"min\": ").append(stats.min())
+                .append(", \"max\": ").append(stats.max())
+                .append(", \"mean\": ").append(stats.mean())
+                .append(", \"stdDev\": ").append(stats.stdDev());
+        for (double percentile : PERCENTILES) {
+            json.append(", \"p").append((int) percentile).append("\": ").append(stats.percentile().apply(percentile));
+        }
+        return json.append(", \"meanRps\": ").append(number(stats.meanRequestsPerSec())).append('}').toString();
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.castify.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Tham số load test, đọc từ system property (-Dkey=value khi chạy mvn gatling:test).
+ * Số user / podcast phải khớp với bộ dữ liệu đã sinh bằng DataGenerator của backend.
+ */
+public record LoadTestConfig(
+        String baseUrl,
+        String wsBaseUrl,
+        String origin,
+        int datasetUsers,
+        int datasetPodcasts,
+        String password,
+        long seed,
+        double arrivalsPerSecond,
+        Duration ramp,
+        Duration steady,
+        int videoChunkBytes,
+        int p95Millis,
+        int p99Millis,
+        double maxErrorPercent) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        String baseUrl = System.getProperty("castify.baseUrl", "http://localhost:8081");
+        return new LoadTestConfig(
+                baseUrl,
+                System.getProperty("castify.wsBaseUrl", baseUrl.replaceFirst("^http", "ws")),
+                // /video chỉ nhận Referer của frontend, /ws chỉ nhận Origin này
+                System.getProperty("castify.origin", "http://localhost:5000"),
+                Integer.getInteger("castify.users", 10_000),
+                Integer.getInteger("castify.podcasts", 2_000),
+                System.getProperty("castify.password", "Castify@123"),
+                Long.getLong("load.seed", 42),
+                Double.parseDouble(System.getProperty("load.rate", "10")),
+                Duration.ofSeconds(Long.getLong("load.rampSeconds", 60)),
+                Duration.ofSeconds(Long.getLong("load.steadySeconds", 120)),
+                Integer.getInteger("load.videoChunkBytes", 1024 * 1024),
+                Integer.getInteger("slo.p95Millis", 500),
+                Integer.getInteger("slo.p99Millis", 1_500),
+                Double.parseDouble(System.getProperty("slo.maxErrorPercent", "1.0")));
+    }
+}
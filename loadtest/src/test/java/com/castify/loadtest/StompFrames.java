@@ -0,0 +1,41 @@
+package com.castify.loadtest;
+
+/**
+ * Frame STOMP bọc trong frame SockJS (endpoint /ws của backend dùng withSockJS()).
+ * Client gửi mảng JSON chứa frame, server trả "o" khi mở, "h" heartbeat và a["..."] cho dữ liệu.
+ */
+final class StompFrames {
+    private StompFrames() {
+    }
+
+    static String connect(String token) {
+        return sockJs("CONNECT\naccept-version:1.2\nheart-beat:0,0\nAuthorization:Bearer " + token + "\n\n\u0000");
+    }
+
+    static String subscribe(String id, String destination) {
+        return sockJs("SUBSCRIBE\nid:" + id + "\ndestination:" + destination + "\n\n\u0000");
+    }
+
+    static String disconnect() {
+        return sockJs("DISCONNECT\n\n\u0000");
+    }
+
+    private static String sockJs(String frame) {
+        StringBuilder json = new StringBuilder("[\"");
+        for (char c : frame.toCharArray()) {
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append("\"]").toString();
+    }
+}
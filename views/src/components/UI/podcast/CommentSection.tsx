@@ -14,11 +14,31 @@ import { AppDispatch, RootState } from "../../../redux/store";
 import { FaAngleDown, FaAngleUp, FaFlag } from "react-icons/fa";
 import { useToast } from "../../../context/ToastProvider";
 import { useNavigate } from "react-router-dom";
-import { addNewComment, deleteCommentAction, fetchCommentReplies, fetchComments, likeCommentAction, resetComments } from "../../../redux/slice/commentSlice";
+import { addNewComment, applyCommentStream, deleteCommentAction, fetchCommentReplies, fetchComments, likeCommentAction, resetComments } from "../../../redux/slice/commentSlice";
 import { AiOutlineLoading3Quarters } from "react-icons/ai";
 import ReportModal from "../../modals/report/ReportModal";
 import { ReportType } from "../../../models/Report";
 import ConfirmDeleteModal from "../../modals/utils/ConfirmDelete";
+import useStomp from "../../../hooks/useStomp";
+import { CommentStreamFrame } from "../../../models/CommentModel";
+
+// Comment mới và likeCount của podcast qua WebSocket, server gom thành một frame mỗi vài trăm ms.
+// Tách riêng để chỉ mở kết nối khi đã đăng nhập (server yêu cầu token lúc CONNECT)
+const CommentStreamListener: React.FC<{ podcastId: string }> = ({ podcastId }) => {
+  const dispatch = useDispatch<AppDispatch>();
+  const frame: CommentStreamFrame | null = useStomp({
+    subscribeUrl: `/topic/podcast/${podcastId}/comments`,
+    trigger: [podcastId],
+  });
+
+  useEffect(() => {
+    if (frame) {
+      dispatch(applyCommentStream(frame));
+    }
+  }, [frame, dispatch]);
+
+  return null;
+};
 
 interface CommentSectionProps {
   podcastId: string;
@@ -50,7 +70,7 @@ const CommentSection: React.FC<CommentSectionProps> = ({ podcastId, totalComment
   const [mentionedUser, setMentionedUser] = useState<{ [key: string]: string | null }>({});
 
   const dispatch = useDispatch<AppDispatch>();
-  const { comments, loading, hasMore, page } = useSelector((state: RootState) => state.comments);
+  const { comments, loading, hasMore, page, nextCursor } = useSelector((state: RootState) => state.comments);
   const isAuthenticated = useSelector((state: RootState) => state.auth.isAuthenticated);
   const userRedux = useSelector((state: RootState) => state.auth.user);
 
@@ -261,12 +281,12 @@ const CommentSection: React.FC<CommentSectionProps> = ({ podcastId, totalComment
     toast.info("Edit comment feature is coming soon");
   };
 
-  const handleLike = (commentId: string) => {
+  const handleLike = (commentId: string, liked: boolean) => {
     if (!isAuthenticated) {
       toast.warning("Please login to do this action");
       return;
     }
-    dispatch(likeCommentAction({ commentId }));
+    dispatch(likeCommentAction({ commentId, liked }));
   };
 
   useEffect(() => {
@@ -298,7 +318,7 @@ const CommentSection: React.FC<CommentSectionProps> = ({ podcastId, totalComment
     setLoadMoreLoading(true);
     if (!loading && hasMore) {
       setTimeout(() => {
-        dispatch(fetchComments({ podcastId, page: page + 1, sortBy: filter, isAuthenticated }));
+        dispatch(fetchComments({ podcastId, page: page + 1, sortBy: filter, isAuthenticated, cursor: nextCursor }));
         setLoadMoreLoading(false);
       }, 500)
     }
@@ -338,6 +358,7 @@ const CommentSection: React.FC<CommentSectionProps> = ({ podcastId, totalComment
 
   return (
     <div className="mt-4 min-h-screen">
+      {isAuthenticated && <CommentStreamListener podcastId={podcastId} />}
       <div className="flex items-center gap-4 my-2">
         <h2 className="text-xl text-black dark:text-white font-semibold mb-2">{totalComments} comments</h2>
         <div className="relative">
@@ -501,7 +522,7 @@ const CommentSection: React.FC<CommentSectionProps> = ({ podcastId, totalComment
                 variant="ghost"
                 rounded="full"
                 size="xs"
-                onClick={() => handleLike(comment.id)}
+                onClick={() => handleLike(comment.id, comment.liked)}
               />
             </Tooltip>
             <span className="text-black dark:text-white font-medium">{comment.totalLikes}</span>
@@ -588,7 +609,7 @@ const CommentSection: React.FC<CommentSectionProps> = ({ podcastId, totalComment
                     variant="ghost"
                     rounded="full"
                     size="xs"
-                    onClick={() => handleLike(reply.id)}
+                    onClick={() => handleLike(reply.id, reply.liked)}
                   />
                 </Tooltip>
                 <span className="text-black dark:text-white font-medium">{reply.totalLikes}</span>
@@ -663,6 +684,18 @@ const CommentSection: React.FC<CommentSectionProps> = ({ podcastId, totalComment
             </div>
           ))}
 
+          {/* Tải thêm reply theo cursor */}
+          {expandedReplies[comment.id] && comment.repliesCursor && (
+            <CustomButton
+              text={`Show ${comment.totalReplies - (comment.replies?.length ?? 0)} more replies`}
+              icon={<FaAngleDown size={20} />}
+              rounded="full"
+              variant="ghost"
+              onClick={() => dispatch(fetchCommentReplies({ commentId: comment.id, isAuthenticated, cursor: comment.repliesCursor }))}
+              className="ml-8 mt-2 dark:hover:bg-gray-900 text-blue-700 dark:text-blue-500"
+            />
+          )}
+
           {/* Reply a comment Input Div */}
           {(replyingTo === comment.id && isAuthenticated) && (
             <div className="flex mt-4 ml-4 gap-2" ref={(el) => (replyDivRef.current[comment.id] = el)}>
@@ -153,11 +153,9 @@ const PodcastViewport: React.FC = () => {
       return;
     }
     try {
-      await likePodcast(podcastId);
-      const updatedPodcast = await getPodcastById(podcastId);
-      setTotalLikes(updatedPodcast.totalLikes);
-      setLiked(updatedPodcast.liked);
-      setViews(updatedPodcast.views);
+      const result = await likePodcast(podcastId, liked);
+      setTotalLikes(result.totalLikes);
+      setLiked(result.liked);
     } catch (error) {
       console.error("Error liking podcast:", error);
     }
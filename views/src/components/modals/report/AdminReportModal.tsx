@@ -42,7 +42,7 @@ const AdminReportModal: React.FC<ReportModalProps> = ({ isOpen, onClose, report
                 .then((res) => {
                     setPodcast({
                         ...res.data,
-                        videoUrl: `http://localhost:8081/api/v1/podcast/video?path=${encodeURIComponent(res.data.videoUrl)}`
+                        videoUrl: `http://localhost:8081${res.data.videoUrl}`
                     });
                 })
                 .catch((err) => console.log(err));
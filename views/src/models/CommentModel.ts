@@ -11,4 +11,19 @@ export interface Comment {
   user: UserSimple;
   liked: boolean;
   replies?: Comment[];
-}
\ No newline at end of file
+  repliesCursor?: string | null;
+}
+
+// Response của PUT/DELETE /api/v1/.../{id}/reaction
+export interface ReactionResult {
+  liked: boolean;
+  totalLikes: number;
+}
+
+// Frame từ /topic/podcast/{id}/comments
+export interface CommentStreamFrame {
+  podcastId: string;
+  comments: Comment[];
+  likeCounts: { [commentId: string]: number };
+  omittedComments: number;
+}
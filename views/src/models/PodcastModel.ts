@@ -6,6 +6,8 @@ export interface Podcast {
   content: string;
   thumbnailUrl: string | null;
   videoUrl: string;
+  thumbnailsVttUrl?: string | null;
+  previewUrl?: string | null;
   genres?: Genre[];
   views: number;
   duration: number;
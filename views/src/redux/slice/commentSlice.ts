@@ -1,5 +1,5 @@
 import { createSlice, PayloadAction, createAsyncThunk } from '@reduxjs/toolkit';
-import { Comment } from '../../models/CommentModel';
+import { Comment, CommentStreamFrame } from '../../models/CommentModel';
 import { addComment, deleteComment, getCommentReplies, getPodcastComments, likeComment } from '../../services/CommentService';
 
 interface CommentsState {
@@ -7,6 +7,7 @@ interface CommentsState {
   loading: boolean;
   hasMore: boolean;
   page: number;
+  nextCursor: string | null;
 }
 
 const initialState: CommentsState = {
@@ -14,21 +15,22 @@ const initialState: CommentsState = {
   loading: false,
   hasMore: true,
   page: 0,
+  nextCursor: null,
 };
 
 export const fetchComments = createAsyncThunk(
   'comments/fetchComments',
-  async ({ podcastId, page, sortBy, isAuthenticated }: { podcastId: string; page: number; sortBy: string; isAuthenticated: boolean }) => {
-    const response = await getPodcastComments(podcastId, page, 10, sortBy, isAuthenticated);
+  async ({ podcastId, page, sortBy, isAuthenticated, cursor }: { podcastId: string; page: number; sortBy: string; isAuthenticated: boolean; cursor?: string | null }) => {
+    const response = await getPodcastComments(podcastId, page, 10, sortBy, isAuthenticated, cursor);
     return response;
   }
 );
 
 export const fetchCommentReplies = createAsyncThunk(
   'comments/fetchCommentReplies',
-  async ({ commentId, isAuthenticated } : {commentId: string, isAuthenticated: boolean}) => {
-    const response = await getCommentReplies(commentId, isAuthenticated);
-    return { commentId, replies: response };
+  async ({ commentId, isAuthenticated, cursor } : {commentId: string, isAuthenticated: boolean, cursor?: string | null}) => {
+    const response = await getCommentReplies(commentId, isAuthenticated, cursor);
+    return { commentId, replies: response.content, nextCursor: response.nextCursor, append: !!cursor };
   }
 );
 
@@ -42,9 +44,9 @@ export const addNewComment = createAsyncThunk(
 
 export const likeCommentAction = createAsyncThunk(
   'comments/likeComment',
-  async ({ commentId }: { commentId: string }) => {
-    const response = await likeComment(commentId);
-    return { commentId, liked: response };
+  async ({ commentId, liked }: { commentId: string, liked: boolean }) => {
+    const response = await likeComment(commentId, liked);
+    return { commentId, ...response };
   }
 );
 
@@ -64,6 +66,36 @@ const commentsSlice = createSlice({
       state.comments = [];
       state.page = 0;
       state.hasMore = true;
+      state.nextCursor = null;
+    },
+    applyCommentStream: (state, action: PayloadAction<CommentStreamFrame>) => {
+      const { comments, likeCounts } = action.payload;
+      comments.forEach(incoming => {
+        if (incoming.parentId) {
+          const parent = state.comments.find(comment => comment.id === incoming.parentId);
+          if (!parent || parent.replies?.some(reply => reply.id === incoming.id)) {
+            return;
+          }
+          parent.totalReplies += 1;
+          // Chỉ nối vào thread đã tải hết, thread còn cursor sẽ tự tải khi bấm "more"
+          if (parent.replies && !parent.repliesCursor) {
+            parent.replies = [...parent.replies, incoming];
+          }
+        } else if (!state.comments.some(comment => comment.id === incoming.id)) {
+          state.comments = [incoming, ...state.comments];
+        }
+      });
+      // likeCount là giá trị tuyệt đối nên ghi đè được cả số đã cộng tạm khi chính mình bấm like
+      state.comments.forEach(comment => {
+        if (likeCounts[comment.id] !== undefined) {
+          comment.totalLikes = likeCounts[comment.id];
+        }
+        comment.replies?.forEach(reply => {
+          if (likeCounts[reply.id] !== undefined) {
+            reply.totalLikes = likeCounts[reply.id];
+          }
+        });
+      });
     },
   },
   extraReducers: (builder) => {
@@ -72,23 +104,27 @@ const commentsSlice = createSlice({
         state.loading = true;
       })
       .addCase(fetchComments.fulfilled, (state, action: PayloadAction<any>) => {
-        const { content, currentPage, totalPages } = action.payload;
+        const { content, currentPage, nextCursor } = action.payload;
         const newComments = content.filter(
           (newComment: Comment) => !state.comments.some((comment) => comment.id === newComment.id)
         );
         state.comments = [...state.comments, ...newComments];
-        state.hasMore = currentPage < totalPages - 1;
+        state.hasMore = !!nextCursor;
+        state.nextCursor = nextCursor ?? null;
         state.page = currentPage;
         state.loading = false;
       })
       .addCase(fetchComments.rejected, (state) => {
         state.loading = false;
       })
-      .addCase(fetchCommentReplies.fulfilled, (state, action: PayloadAction<{ commentId: string, replies: Comment[] }>) => {
-        const { commentId, replies } = action.payload;
+      .addCase(fetchCommentReplies.fulfilled, (state, action: PayloadAction<{ commentId: string, replies: Comment[], nextCursor: string | null, append: boolean }>) => {
+        const { commentId, replies, nextCursor, append } = action.payload;
         const comment = state.comments.find(comment => comment.id === commentId);
         if (comment) {
-          comment.replies = replies;
+          // Trang sau nối vào cuối, bỏ reply đã có (ví dụ reply vừa gửi)
+          const existing = append ? comment.replies ?? [] : [];
+          comment.replies = [...existing, ...replies.filter(reply => !existing.some(r => r.id === reply.id))];
+          comment.repliesCursor = nextCursor ?? null;
         }
       })
       .addCase(addNewComment.fulfilled, (state, action: PayloadAction<Comment>) => {
@@ -98,26 +134,29 @@ const commentsSlice = createSlice({
             if (!parentComment.replies) {
               parentComment.replies = [];
             }
-            parentComment.replies = [...parentComment.replies, action.payload];
+            if (!parentComment.replies.some(reply => reply.id === action.payload.id)) {
+              parentComment.replies = [...parentComment.replies, action.payload];
+            }
             // console.log("Updated parent comment:", parentComment); // Log to check updates
           }
-        } else {
+        } else if (!state.comments.some(comment => comment.id === action.payload.id)) {
+          // Frame WebSocket có thể tới trước response
           state.comments = [action.payload, ...state.comments];
         }
         // console.log("Updated state:", state); // Log to check the entire state
       })
-      .addCase(likeCommentAction.fulfilled, (state, action: PayloadAction<{ commentId: string, liked: boolean }>) => {
-        const { commentId, liked } = action.payload;
+      .addCase(likeCommentAction.fulfilled, (state, action: PayloadAction<{ commentId: string, liked: boolean, totalLikes: number }>) => {
+        const { commentId, liked, totalLikes } = action.payload;
         const comment = state.comments.find(comment => comment.id === commentId);
         if (comment) {
           comment.liked = liked;
-          comment.totalLikes += liked ? 1 : -1;
+          comment.totalLikes = totalLikes;
         } else {
           state.comments.forEach(comment => {
             const reply = comment.replies?.find(reply => reply.id === commentId);
             if (reply) {
               reply.liked = liked;
-              reply.totalLikes += liked ? 1 : -1;
+              reply.totalLikes = totalLikes;
             }
           });
         }
@@ -134,5 +173,5 @@ const commentsSlice = createSlice({
   },
 });
 
-export const { resetComments } = commentsSlice.actions;
+export const { resetComments, applyCommentStream } = commentsSlice.actions;
 export default commentsSlice.reducer;
\ No newline at end of file
@@ -1,4 +1,5 @@
 import { axiosInstance, axiosInstanceAuth } from "../utils/axiosInstance";
+import { ReactionResult } from "../models/CommentModel";
 
 interface AddCommentPayload {
   podcastId: string;
@@ -16,7 +17,7 @@ export const addComment = async (payload: AddCommentPayload) => {
   }
 };
 
-export const getPodcastComments = async (podcastId: string, page = 0, size = 10, sortBy = "latest", isAuthenticated = false) => {
+export const getPodcastComments = async (podcastId: string, page = 0, size = 10, sortBy = "latest", isAuthenticated = false, cursor?: string | null) => {
   try {
     const axiosInstanceToUse = isAuthenticated ? axiosInstanceAuth : axiosInstance;
     const response = await axiosInstanceToUse.get(`/api/v1/comment/list/${podcastId}`, {
@@ -24,6 +25,8 @@ export const getPodcastComments = async (podcastId: string, page = 0, size = 10,
         page,
         size,
         sortBy,
+        // Có cursor thì server đọc tiếp theo index, page chỉ còn để hiển thị
+        ...(cursor ? { cursor } : {}),
       },
     });
     return response.data;
@@ -32,19 +35,28 @@ export const getPodcastComments = async (podcastId: string, page = 0, size = 10,
   }
 };
 
-export const getCommentReplies = async (commentId: string, isAuthenticated = false) => {
+export const getCommentReplies = async (commentId: string, isAuthenticated = false, cursor?: string | null, size = 10) => {
   try {
     const axiosInstanceToUse = isAuthenticated ? axiosInstanceAuth : axiosInstance;
-    const response = await axiosInstanceToUse.get(`/api/v1/comment/list/replies/${commentId}`);
+    const response = await axiosInstanceToUse.get(`/api/v1/comment/list/replies/${commentId}`, {
+      params: {
+        size,
+        ...(cursor ? { cursor } : {}),
+      },
+    });
     return response.data;
   } catch (error) {
     throw error;
   }
 };
 
-export const likeComment = async (commentId: string) => {
+// PUT/DELETE idempotent: bấm nhiều lần không tạo like trùng
+export const likeComment = async (commentId: string, liked: boolean) => {
   try {
-    const response = await axiosInstanceAuth.post("/api/v1/comment/reaction", { commentId });
+    const url = `/api/v1/comment/${commentId}/reaction`;
+    const response = liked
+      ? await axiosInstanceAuth.delete<ReactionResult>(url)
+      : await axiosInstanceAuth.put<ReactionResult>(url);
     return response.data;
   } catch (error) {
     throw error;
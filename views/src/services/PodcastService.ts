@@ -1,6 +1,25 @@
 import { Podcast, PodcastResponse } from "../models/PodcastModel";
+import { ReactionResult } from "../models/CommentModel";
 import { axiosInstance, axiosInstanceAuth, axiosInstanceFile, BaseApi } from "../utils/axiosInstance";
 
+// Backend trả đường dẫn tương đối (video ký HMAC, sprite/preview tĩnh), ghép host API trước khi dùng
+const withMediaUrls = (podcast: Podcast) => {
+  podcast.videoUrl = `${BaseApi}${podcast.videoUrl}`;
+  if (podcast.thumbnailsVttUrl) {
+    podcast.thumbnailsVttUrl = `${BaseApi}${podcast.thumbnailsVttUrl}`;
+  }
+  if (podcast.previewUrl) {
+    podcast.previewUrl = `${BaseApi}${podcast.previewUrl}`;
+  }
+  return podcast;
+};
+
+// Waveform dùng chung chữ ký với URL video: /video/{id}/{rendition}/waveform?path=&exp=&sig=
+export const waveformUrlOf = (podcast: Podcast) => {
+  const [path, query] = podcast.videoUrl.split("?");
+  return `${path}/waveform?${query}`;
+};
+
 interface CreatePodcastPayload {
   title: string;
   content: string;
@@ -78,7 +97,7 @@ export const getSelfPodcastsInCreator = async (
     });
 
     response.data.content.forEach(podcast => {
-      podcast.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(podcast.videoUrl)}`;
+      withMediaUrls(podcast);
     });
 
     return response.data;
@@ -90,7 +109,7 @@ export const getSelfPodcastsInCreator = async (
 export const getPodcastById = async (id: string) => {
   try {
     const response = await axiosInstanceAuth.get<Podcast>(`/api/v1/podcast/${id}`);
-    response.data.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(response.data.videoUrl)}`;
+    withMediaUrls(response.data);
     return response.data;
   } catch (error) {
     throw error;
@@ -100,7 +119,7 @@ export const getPodcastById = async (id: string) => {
 export const getPodcastBySelf = async (id: string) => {
   try {
     const response = await axiosInstanceAuth.get<Podcast>(`/api/v1/podcast/detail/${id}`);
-    response.data.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(response.data.videoUrl)}`;
+    withMediaUrls(response.data);
     return response.data;
   } catch (error) {
     throw error;
@@ -110,16 +129,19 @@ export const getPodcastBySelf = async (id: string) => {
 export const getPodcastByAnonymous = async (id: string) => {
   try {
     const response = await axiosInstance.get<Podcast>(`/api/v1/podcast/anonymous/${id}`);
-    response.data.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(response.data.videoUrl)}`;
+    withMediaUrls(response.data);
     return response.data;
   } catch (error) {
     throw error;
   }
 };
 
-export const likePodcast = async (podcastId: string) => {
+export const likePodcast = async (podcastId: string, liked: boolean) => {
   try {
-    const response = await axiosInstanceAuth.post(`/api/v1/podcast/reaction`, { podcastId });
+    const url = `/api/v1/podcast/${podcastId}/reaction`;
+    const response = liked
+      ? await axiosInstanceAuth.delete<ReactionResult>(url)
+      : await axiosInstanceAuth.put<ReactionResult>(url);
     return response.data;
   } catch (error) {
     throw error;
@@ -135,7 +157,7 @@ export const getPodcastRecent = async (page: number, size: number) => {
       }
     });
     response.data.content.forEach(podcast => {
-      podcast.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(podcast.videoUrl)}`;
+      withMediaUrls(podcast);
     });
     return response.data;
   } catch (error) {
@@ -152,7 +174,7 @@ export const getPodcastPopular = async (page: number, size: number) => {
       }
     });
     response.data.content.forEach(podcast => {
-      podcast.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(podcast.videoUrl)}`;
+      withMediaUrls(podcast);
     });
     return response.data;
   } catch (error) {
@@ -169,7 +191,7 @@ export const getFollowingPodcast = async (page: number, size: number) => {
       }
     });
     response.data.content.forEach(podcast => {
-      podcast.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(podcast.videoUrl)}`;
+      withMediaUrls(podcast);
     });
     return response.data;
   } catch (error) {
@@ -187,7 +209,7 @@ export const getPodcastsByGenre = async (genreId: string, page: number, size: nu
       }
     });
     response.data.content.forEach(podcast => {
-      podcast.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(podcast.videoUrl)}`;
+      withMediaUrls(podcast);
     });
     return response.data;
   } catch (error) {
@@ -212,7 +234,7 @@ export const getSuggestedPodcastsByGenres = async (
     });
 
     response.data.content.forEach(podcast => {
-      podcast.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(podcast.videoUrl)}`;
+      withMediaUrls(podcast);
     });
 
     return response.data;
@@ -247,7 +269,7 @@ export const getUserPodcasts = async (
     });
 
     response.data.content.forEach(podcast => {
-      podcast.videoUrl = `${BaseApi}/api/v1/podcast/video?path=${encodeURIComponent(podcast.videoUrl)}`;
+      withMediaUrls(podcast);
     });
 
     return response.data;